@@ -4,6 +4,8 @@ import com.org.insurance.ui.InsuranceMenu;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Path;
+
 public class Main {
 
     private static final Logger log = LogManager.getLogger(Main.class);
@@ -12,7 +14,9 @@ public class Main {
         log.info("=== Старт програми MavenCW ===");
 
         try {
-            new InsuranceMenu().run();
+            // -Dinsurance.workspace=<каталог> — відновлення і журналювання змін між запусками
+            String workspace = System.getProperty("insurance.workspace");
+            new InsuranceMenu(workspace == null || workspace.isBlank() ? null : Path.of(workspace)).run();
             log.info("Нормальне завершення роботи меню");
         } catch (Exception e) {
             log.error("Несподівана критична помилка в main()", e);
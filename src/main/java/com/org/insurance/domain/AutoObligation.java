@@ -1,13 +1,15 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class AutoObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = -6191102193870908146L;
 
     private String vehicleType;
     private String driverClass;
@@ -22,12 +24,31 @@ public class AutoObligation extends Obligation {
     public AutoObligation(String name, double insuredAmount, double factor,
                           int period, double interestRate, double probability, double maxCost,
                           String vehicleType, String driverClass, double bonusMalus) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                vehicleType, driverClass, bonusMalus);
+    }
+
+    public AutoObligation(UUID id, String name, double insuredAmount, double factor,
+                          int period, double interestRate, double probability, double maxCost,
+                          String vehicleType, String driverClass, double bonusMalus) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.vehicleType = vehicleType;
         this.driverClass = driverClass;
         this.bonusMalus = bonusMalus;
     }
 
+    public void setVehicleType(String vehicleType) {
+        change(() -> this.vehicleType = vehicleType);
+    }
+
+    public void setDriverClass(String driverClass) {
+        change(() -> this.driverClass = driverClass);
+    }
+
+    public void setBonusMalus(double bonusMalus) {
+        change(() -> this.bonusMalus = bonusMalus);
+    }
+
     @Override
     public String toString() {
         return "AutoObligation{" +
@@ -0,0 +1,24 @@
+package com.org.insurance.domain;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Оцінка всієї книги деривативів: результати по кожній деривативі (у порядку книги) та загальні суми.
+ */
+@Getter
+public final class BookValuation {
+
+    private final List<Valuation> derivatives;
+    private final double totalValue;
+    private final double totalRisk;
+    private final long totalCount;
+
+    public BookValuation(List<Valuation> derivatives, double totalValue, double totalRisk, long totalCount) {
+        this.derivatives = List.copyOf(derivatives);
+        this.totalValue = totalValue;
+        this.totalRisk = totalRisk;
+        this.totalCount = totalCount;
+    }
+}
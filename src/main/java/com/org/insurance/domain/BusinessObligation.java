@@ -1,13 +1,15 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class BusinessObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = -7910649728237345088L;
 
     private String registrationNumber;
     private String industry;
@@ -18,6 +20,14 @@ public class BusinessObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setRegistrationNumber(String registrationNumber) {
+        change(() -> this.registrationNumber = registrationNumber);
+    }
+
+    public void setIndustry(String industry) {
+        change(() -> this.industry = industry);
+    }
+
     @Override
     public String toString() {
         return "BusinessObligation{" +
@@ -37,7 +47,14 @@ public class BusinessObligation extends Obligation {
     public BusinessObligation(String name, double insuredAmount, double factor,
                               int period, double interestRate, double probability, double maxCost,
                               String registrationNumber, String industry) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                registrationNumber, industry);
+    }
+
+    public BusinessObligation(UUID id, String name, double insuredAmount, double factor,
+                              int period, double interestRate, double probability, double maxCost,
+                              String registrationNumber, String industry) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.registrationNumber = registrationNumber;
         this.industry = industry;
     }
@@ -0,0 +1,98 @@
+package com.org.insurance.domain;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Зміни зобов'язань деривативи з останнього збереження — основа дельта-знімків.
+ * <ul>
+ *   <li>{@link #getDirty()} — додані в кінець списку або змінені сеттерами {@link Obligation};</li>
+ *   <li>{@link #getRemoved()} — видалені (повторно додане зобов'язання є в обох множинах
+ *       і переїжджає в кінець);</li>
+ *   <li>{@link #isFull()} — зміну не можна описати дельтою (новий список, вставка не в кінець,
+ *       перестановка, null-рядки), потрібне повне збереження.</li>
+ * </ul>
+ * Знімок змін, отриманий з {@link Derivative#pendingChanges(Object)}, не змінюється. Методи
+ * синхронізовані: фонове збереження позначає зміни записаними з потоку-записувача.
+ */
+public final class ChangeSet {
+
+    private boolean full;
+    /**
+     * Лічильник змін. Кожна множина пам'ятає номер останньої зміни елемента, а {@link #fullStamp} —
+     * номер останньої зміни, поки зміни повні: {@link #subtract} прибирає лише те, що з часу
+     * знімка не змінювалося.
+     */
+    private long stamp;
+    private long fullStamp;
+    private final Map<UUID, Long> dirty = new HashMap<>();
+    private final Map<UUID, Long> removed = new HashMap<>();
+
+    ChangeSet(boolean full) {
+        this.full = full;
+    }
+
+    synchronized ChangeSet copy(boolean forceFull) {
+        ChangeSet copy = new ChangeSet(full || forceFull);
+        copy.stamp = stamp;
+        copy.fullStamp = fullStamp;
+        copy.dirty.putAll(dirty);
+        copy.removed.putAll(removed);
+        return copy;
+    }
+
+    public synchronized boolean isFull() {
+        return full;
+    }
+
+    /** Немає жодної зміни — дельта не потрібна. */
+    public synchronized boolean isEmpty() {
+        return !full && dirty.isEmpty() && removed.isEmpty();
+    }
+
+    public synchronized Set<UUID> getDirty() {
+        return Collections.unmodifiableSet(dirty.keySet());
+    }
+
+    public synchronized Set<UUID> getRemoved() {
+        return Collections.unmodifiableSet(removed.keySet());
+    }
+
+    // ===== Змінюється лише деривативою =====
+
+    synchronized void markFull() {
+        full = true;
+        fullStamp = ++stamp;
+        dirty.clear();
+        removed.clear();
+    }
+
+    synchronized void dirty(UUID id) {
+        if (full) {
+            fullStamp = ++stamp;
+        } else {
+            dirty.put(id, ++stamp);
+        }
+    }
+
+    synchronized void removed(UUID id) {
+        if (full) {
+            fullStamp = ++stamp;
+            return;
+        }
+        dirty.remove(id);
+        removed.put(id, ++stamp);
+    }
+
+    /** Прибрати записані зміни; зроблені після знімка {@code saved} лишаються. */
+    synchronized void subtract(ChangeSet saved) {
+        if (saved.full && full && saved.fullStamp == fullStamp) {
+            full = false;
+        }
+        saved.dirty.forEach(dirty::remove);
+        saved.removed.forEach(removed::remove);
+    }
+}
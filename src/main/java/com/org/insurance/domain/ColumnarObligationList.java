@@ -0,0 +1,191 @@
+package com.org.insurance.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Представлення {@link ObligationColumns} як {@code List<Obligation>} для існуючого коду
+ * (команди меню, ConsolePrinter, FileManager). Усі зміни списку записуються безпосередньо в колонки.
+ * <p>
+ * {@link #get(int)} матеріалізує рядок об'єктом, пов'язаним з колонками: його сеттери
+ * записують рядок назад (і сповіщають деривативу). Так само пов'язується об'єкт, переданий
+ * в {@code add}/{@code set}. Рядок має одне представлення: доки на нього є посилання, повторні
+ * {@code get} повертають той самий об'єкт, і він переміщується разом із рядком. Після видалення
+ * рядка зі списку чи заміни його іншим об'єктом представлення від'єднане і змінюється лише саме.
+ * <p>
+ * Рядки порівнюються за id: {@code indexOf}, {@code contains} і {@code remove(Object)} знаходять
+ * рядок за id переданого зобов'язання.
+ */
+public final class ColumnarObligationList extends AbstractList<Obligation> implements RandomAccess, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final ObligationColumns columns;
+    /** Кому передавати зміни рядків через сеттери (трекер деривативи). */
+    private transient ObligationListener rowListener;
+
+    public ColumnarObligationList() {
+        this(new ObligationColumns());
+    }
+
+    public ColumnarObligationList(ObligationColumns columns) {
+        this.columns = columns;
+    }
+
+    public ObligationColumns columns() {
+        return columns;
+    }
+
+    /** Передавати зміни рядків через сеттери слухачу деривативи ({@code null} — нікому). */
+    void track(ObligationListener listener) {
+        this.rowListener = listener;
+    }
+
+    @Override
+    public Obligation get(int index) {
+        Obligation view = columns.view(index);
+        if (view != null) {
+            return view;
+        }
+        // Сторонній рядок — сам збережений об'єкт, його пов'язано ще під час add/set
+        return bind(columns.get(index), index);
+    }
+
+    @Override
+    public int size() {
+        return columns.size();
+    }
+
+    @Override
+    public Obligation set(int index, Obligation element) {
+        Obligation previous = current(index);
+        columns.set(index, element);
+        bind(element, index);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Obligation element) {
+        columns.insert(index, element);
+        modCount++;
+        bind(element, index);
+    }
+
+    @Override
+    public Obligation remove(int index) {
+        Obligation previous = current(index);
+        columns.remove(index);
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o == null) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.isNull(i)) return i;
+            }
+            return -1;
+        }
+        return o instanceof Obligation obligation ? columns.find(obligation.getId()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            if (o == null ? columns.isNull(i)
+                    : o instanceof Obligation obligation && obligation.getId().equals(columns.id(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        columns.clear();
+        modCount++;
+    }
+
+    /** Представлення рядка, якщо воно є, інакше незв'язана копія — без створення зв'язку. */
+    private Obligation current(int index) {
+        Obligation view = columns.view(index);
+        return view != null ? view : columns.get(index);
+    }
+
+    private Obligation bind(Obligation o, int index) {
+        if (o != null) {
+            RowBinding binding = new RowBinding(index);
+            if (!o.hasListener(binding)) {
+                o.addListener(binding);
+            }
+        }
+        columns.setView(index, o);
+        return o;
+    }
+
+    /** Зв'язок об'єкта з його рядком: сеттер записує рядок у колонки. */
+    private final class RowBinding implements ObligationListener {
+        /** Остання відома позиція рядка; -1 — рядок видалено зі списку. */
+        private int row;
+
+        RowBinding(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public void beforeChange(Obligation o) {
+            row = locate(o);
+            if (row >= 0 && rowListener != null) rowListener.beforeChange(o);
+        }
+
+        @Override
+        public void afterChange(Obligation o) {
+            if (row < 0) {
+                return;
+            }
+            columns.set(row, o);
+            if (rowListener != null) rowListener.afterChange(o);
+        }
+
+        /** Одне зобов'язання пов'язується з одним списком не більше одного разу. */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RowBinding binding && binding.owner() == owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(owner());
+        }
+
+        private ColumnarObligationList owner() {
+            return ColumnarObligationList.this;
+        }
+
+        /** Рядок, представленням якого досі є {@code o}, або -1 — об'єкт від'єднано. */
+        private int locate(Obligation o) {
+            if (row >= 0 && row < columns.size() && columns.view(row) == o) {
+                return row;
+            }
+            return columns.rowOfView(o);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.org.insurance.domain;
+
+/**
+ * Накопичувач суми за алгоритмом Ноймаєра (покращений Кехен).
+ * Похибка не росте з кількістю доданків, а результат залежить лише від їхнього порядку.
+ */
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    public void add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+
+    public void subtract(double value) {
+        add(-value);
+    }
+
+    public void reset() {
+        sum = 0.0;
+        compensation = 0.0;
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+}
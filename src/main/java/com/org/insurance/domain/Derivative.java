@@ -1,25 +1,491 @@
 package com.org.insurance.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Getter
 public class Derivative implements Serializable {
+    /** Як у попередніх версіях класу — старі файли Java-серіалізації залишаються сумісними. */
+    @Serial
+    private static final long serialVersionUID = 4663492031293970984L;
 
-    private final UUID id = UUID.randomUUID();
-    @Setter
+    private final UUID id;
     private String name;
-    @Setter
+    @Getter(AccessLevel.NONE)
     private List<Obligation> obligations;
 
-    public Derivative() {}
+    /** Список, через який команди змінюють зобов'язання; стежить за змінами для агрегатів. */
+    @Getter(AccessLevel.NONE)
+    private transient TrackedObligationList view;
+    @Getter(AccessLevel.NONE)
+    private transient Tracker tracker;
+    @Getter(AccessLevel.NONE)
+    private transient PortfolioAggregates aggregates;
+    /** Індекси пошуку; оновлюються подіями {@link Tracker}. */
+    @Getter(AccessLevel.NONE)
+    private transient ObligationIndexes indexes;
+    /** Зміни з останнього збереження в {@link #savedTo}; див. {@link #pendingChanges(Object)}. */
+    @Getter(AccessLevel.NONE)
+    private transient ChangeSet changes;
+    @Getter(AccessLevel.NONE)
+    private transient Object savedTo;
+    /** Кому повідомляти про перейменування — наприклад, реєстрам з індексом назв. */
+    @Getter(AccessLevel.NONE)
+    private transient volatile List<Runnable> renameListeners;
+    /** Джерело ще не завантажених зобов'язань лінивої деривативи; {@code null} — завантажено. */
+    @Getter(AccessLevel.NONE)
+    private transient volatile ObligationSource source;
+
+    public Derivative() {
+        this(UUID.randomUUID(), null);
+    }
 
     public Derivative(String name) {
+        this(UUID.randomUUID(), name);
+    }
+
+    /** Відновлення деривативи з файлу зі збереженим id. */
+    public Derivative(UUID id, String name) {
+        this.id = Objects.requireNonNull(id, "id");
         this.name = name;
+        initTracking();
+    }
+
+    /**
+     * Лінива дериватива: відомі лише id, назва та (необов'язково) збережені агрегати, а зобов'язання
+     * читаються з {@code source} під час першого звернення до них — через {@link #getObligations()}
+     * чи будь-яку операцію над складом. Якщо {@code aggregates} немає, {@link #getAggregates()}
+     * теж завантажує зобов'язання.
+     */
+    public static Derivative lazy(UUID id, String name, PortfolioAggregates aggregates, ObligationSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("source is null");
+        }
+        Derivative d = new Derivative(id, name);
+        d.aggregates = aggregates;
+        d.source = source;
+        return d;
+    }
+
+    /** Зобов'язання вже в пам'яті (звичайна дериватива або лінива після першого звернення). */
+    public boolean isLoaded() {
+        return source == null;
+    }
+
+    /** Джерело ще не завантажених зобов'язань або {@code null} — наприклад, щоб скопіювати їх без декодування. */
+    public ObligationSource getPendingSource() {
+        return source;
+    }
+
+    /**
+     * Агрегати зобов'язань лише для читання; див. {@link #lazy} щодо лінивої деривативи.
+     * Застарілі агрегати ({@link PortfolioAggregates#isStale()}) перераховуються повним проходом.
+     */
+    public PortfolioAggregates getAggregates() {
+        if (aggregates == null) {
+            ensureLoaded();
+        }
+        if (aggregates.isStale()) {
+            recount();
+        }
+        return aggregates;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        List<Runnable> listeners = renameListeners;
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    synchronized void addRenameListener(Runnable listener) {
+        if (renameListeners == null) {
+            renameListeners = new CopyOnWriteArrayList<>();
+        }
+        renameListeners.add(listener);
+    }
+
+    synchronized void removeRenameListener(Runnable listener) {
+        if (renameListeners != null) {
+            renameListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Список зобов'язань. Зміни через нього (а також через сеттери зобов'язань)
+     * підтримують {@link #getAggregates()} в актуальному стані; список, переданий у
+     * {@link #setObligations(List)}, після цього слід змінювати лише через цей метод.
+     */
+    public List<Obligation> getObligations() {
+        ensureLoaded();
+        return view;
+    }
+
+    public void setObligations(List<Obligation> obligations) {
+        if (source != null) {
+            // Новий список замінює незавантажений — читати його немає потреби
+            source = null;
+            if (aggregates == null) aggregates = new PortfolioAggregates();
+        }
+        detachAll();
+        this.obligations = obligations;
+        attachAll();
+    }
+
+    /**
+     * Перевести деривативу в колонкове сховище ({@link ObligationColumns}).
+     * Список зобов'язань і далі доступний через {@link #getObligations()}, а об'єкти поточного
+     * списку лишаються пов'язаними зі своїми рядками (див. {@link ColumnarObligationList}).
+     */
+    public void useColumnarStorage() {
+        ensureLoaded();
+        if (obligations instanceof ColumnarObligationList) {
+            return;
+        }
+        List<Obligation> current = obligations == null ? List.of() : obligations;
+        ColumnarObligationList columnar = new ColumnarObligationList(new ObligationColumns(current.size()));
+        columnar.addAll(current);
+        setObligations(columnar);
+    }
+
+    /**
+     * Позиція першого зобов'язання з цим UUID або -1. Пошук за хеш-індексом, який будується
+     * один раз, доповнюється при додаванні в кінець і оновлюється на місці при видаленні чи
+     * заміні рядків ({@link IdIndex}), тож серія пошуків коштує O(1) кожен.
+     */
+    public int indexOf(UUID id) {
+        ensureLoaded();
+        if (id == null || obligations == null) {
+            return -1;
+        }
+        return indexes().ids(this).find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Видалити зобов'язання на позначених позиціях одним проходом ущільнення списку
+     * (замість зсуву хвоста на кожне видалення). Біти поза списком ігноруються.
+     *
+     * @return видалені зобов'язання в порядку позицій
+     */
+    public List<Obligation> removeRows(BitSet rows) {
+        if (rows == null) {
+            throw new IllegalArgumentException("rows is null");
+        }
+        ensureLoaded();
+        if (obligations == null) {
+            return List.of();
+        }
+        int size = obligations.size();
+        ObligationColumns columns = getColumns();
+        List<Obligation> removed = new ArrayList<>();
+        for (int r = rows.nextSetBit(0); r >= 0 && r < size; r = rows.nextSetBit(r + 1)) {
+            Obligation o = columns != null ? columns.get(r) : obligations.get(r);
+            removed.add(o);
+            tracker.removed(o);
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+
+        if (columns != null) {
+            columns.removeRows(rows);
+        } else if (obligations instanceof RandomAccess) {
+            int w = rows.nextSetBit(0);
+            for (int r = w + 1; r < size; r++) {
+                if (!rows.get(r)) {
+                    obligations.set(w++, obligations.get(r));
+                }
+            }
+            obligations.subList(w, size).clear();
+        } else {
+            Iterator<Obligation> it = obligations.iterator();
+            for (int r = 0; it.hasNext(); r++) {
+                it.next();
+                if (rows.get(r)) it.remove();
+            }
+        }
+        if (indexes != null) {
+            indexes.removed(rows, size);
+        }
+        return removed;
+    }
+
+    /**
+     * Знімок для фонового збереження: дериватива з тим самим id і назвою та копіями зобов'язань,
+     * на яку подальші зміни оригіналу не впливають. Знімок завжди колонковий: колонкове сховище
+     * копіюється масивами, а звичайний список розкладається в колонки одним проходом — поля
+     * читаються в примітивні масиви без створення об'єкта на кожне зобов'язання. Зобов'язання
+     * сторонніх класів колонки тримають за посиланням, тому вони копіюються через серіалізацію.
+     */
+    public Derivative snapshot() {
+        ensureLoaded();
+        Derivative copy = new Derivative(id, name);
+        if (obligations instanceof ColumnarObligationList c) {
+            // Колонки копіюються масивами, без матеріалізації рядків
+            copy.setObligations(new ColumnarObligationList(c.columns().copy()));
+        } else if (obligations != null) {
+            ObligationColumns columns = new ObligationColumns(obligations.size());
+            for (Obligation o : obligations) {
+                columns.add(o == null || ObligationType.of(o) != null ? o : copyOf(o));
+            }
+            copy.setObligations(new ColumnarObligationList(columns));
+        }
+        return copy;
+    }
+
+    /** Копія зобов'язання стороннього класу через серіалізацію. */
+    private static Obligation copyOf(Obligation o) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(o);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (Obligation) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Не вдалося скопіювати зобов'язання " + o.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Зміни зобов'язань з останнього збереження в {@code target} (наприклад, шлях файлу) —
+     * для дельта-знімків. Якщо дериватива ще не зберігалася саме туди, знімок повний.
+     */
+    public synchronized ChangeSet pendingChanges(Object target) {
+        return changes.copy(!Objects.equals(target, savedTo));
+    }
+
+    /**
+     * Позначити зміни {@code saved} (з {@link #pendingChanges(Object)}) записаними в {@code target}.
+     * Зміни, зроблені після отримання знімка, лишаються в наступній дельті.
+     */
+    public synchronized void markSaved(ChangeSet saved, Object target) {
+        if (saved == null) {
+            throw new IllegalArgumentException("saved is null");
+        }
+        if (!Objects.equals(target, savedTo) && !saved.isFull()) {
+            throw new IllegalArgumentException("Дельта записана не туди, де збережено базу");
+        }
+        changes.subtract(saved);
+        savedTo = target;
     }
 
+    /** Колонки зобов'язань або {@code null}, якщо дериватива зберігає звичайний список. */
+    public ObligationColumns getColumns() {
+        ensureLoaded();
+        return obligations instanceof ColumnarObligationList c ? c.columns() : null;
+    }
+
+    /** Вихідний список без стеження — для перестановок, які не змінюють агрегатів. */
+    List<Obligation> backingObligations() {
+        ensureLoaded();
+        return obligations;
+    }
+
+    /** Позначити зміну, що пройшла повз список-представлення (наприклад, перестановку рядків). */
+    void markChanged() {
+        if (indexes != null) {
+            indexes.invalidate();
+        }
+        changes.markFull();
+    }
+
+    /** Індекси пошуку; будуються ліниво, див. {@link ObligationSearch}. */
+    ObligationIndexes indexes() {
+        if (indexes == null) {
+            indexes = new ObligationIndexes();
+        }
+        return indexes;
+    }
+
+    /**
+     * Перерахувати агрегати повним проходом — якщо вихідний список змінювали в обхід
+     * {@link #getObligations()}.
+     */
+    public void recalculateAggregates() {
+        ensureLoaded();
+        detachAll();
+        attachAll();
+    }
+
+    /** Перерахувати лише агрегати, не чіпаючи індексів і змін для дельт. */
+    private void recount() {
+        aggregates.reset();
+        if (obligations instanceof ColumnarObligationList c) {
+            ObligationColumns columns = c.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                aggregates.added(columns.get(i));
+            }
+        } else if (obligations != null) {
+            for (Obligation o : obligations) {
+                aggregates.added(o);
+            }
+        }
+    }
+
+    // ===== Ліниве завантаження =====
+
+    private void ensureLoaded() {
+        if (source != null) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        ObligationSource s = source;
+        if (s == null) {
+            return;
+        }
+        List<Obligation> loaded = s.load();
+        if (aggregates == null) {
+            aggregates = new PortfolioAggregates();
+        }
+        obligations = loaded;
+        // Збережені агрегати перераховуються з прочитаних рядків; об'єкт агрегатів той самий
+        attachAll();
+        source = null;
+    }
+
+    // ===== Стеження за змінами =====
+
+    private void initTracking() {
+        tracker = new Tracker();
+        aggregates = new PortfolioAggregates();
+        changes = new ChangeSet(true);
+    }
+
+    private void attachAll() {
+        if (indexes != null) {
+            indexes.invalidate();
+        }
+        aggregates.reset();
+        changes.markFull();
+        if (obligations == null) {
+            view = null;
+            return;
+        }
+        view = new TrackedObligationList(obligations, tracker, tracker);
+        if (obligations instanceof ColumnarObligationList c) {
+            c.track(tracker);
+            ObligationColumns columns = c.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                tracker.added(columns.get(i));
+            }
+            return;
+        }
+        for (Obligation o : obligations) {
+            tracker.added(o);
+        }
+    }
+
+    private void detachAll() {
+        if (obligations instanceof ColumnarObligationList c) {
+            c.track(null);
+        } else if (obligations != null) {
+            for (Obligation o : obligations) {
+                if (o != null) o.removeListener(tracker);
+            }
+        }
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ensureLoaded();
+        out.defaultWriteObject();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTracking();
+        attachAll();
+    }
+
+    /**
+     * Отримує події від списку та сеттерів зобов'язань і передає їх агрегатам, змінам для дельт
+     * та індексам пошуку. У колонковому режимі на рядки підписується сам список
+     * ({@link ColumnarObligationList}) і передає їхні зміни сюди, тож на об'єкти напряму не підписуємося.
+     */
+    private final class Tracker implements ObligationListener, TrackedObligationList.RowListener {
+
+        @Override
+        public void added(Obligation o) {
+            if (o == null) {
+                changes.markFull();
+                return;
+            }
+            changes.dirty(o.getId());
+            if (!(obligations instanceof ColumnarObligationList)) o.addListener(this);
+            aggregates.added(o);
+        }
+
+        @Override
+        public void removed(Obligation o) {
+            if (o == null) {
+                changes.markFull();
+                return;
+            }
+            changes.removed(o.getId());
+            if (!(obligations instanceof ColumnarObligationList)) o.removeListener(this);
+            aggregates.removed(o);
+        }
+
+        @Override
+        public void beforeChange(Obligation o) {
+            aggregates.beforeChange(o);
+            if (indexes != null) indexes.beforeChange(Derivative.this, o);
+        }
+
+        @Override
+        public void afterChange(Obligation o) {
+            aggregates.afterChange(o);
+            changes.dirty(o.getId());
+            if (indexes != null) indexes.afterChange(o);
+        }
+
+        @Override
+        public void reordered() {
+            changes.markFull();
+        }
+
+        @Override
+        public void appended(int from, int to) {
+            if (indexes != null) indexes.appended(Derivative.this, from, to);
+        }
+
+        @Override
+        public void removedAt(int row, Obligation o) {
+            if (indexes != null) indexes.removed(row, o);
+        }
+
+        @Override
+        public void replacedAt(int row, Obligation previous, Obligation current) {
+            if (indexes != null) indexes.replaced(row, previous, current);
+        }
+
+        @Override
+        public void renumbered() {
+            if (indexes != null) indexes.invalidate();
+        }
+    }
 }
@@ -0,0 +1,243 @@
+package com.org.insurance.domain;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реєстр завантажених деривативів. Це {@code List<Derivative>} у порядку додавання (команди меню
+ * працюють з ним як і раніше), доповнений індексами:
+ * <ul>
+ *     <li>пошук за UUID за O(1);</li>
+ *     <li>стабільні дескриптори — номери, які видаються при додаванні і не змінюються
+ *     при видаленні інших деривативів (на відміну від позиції у списку);</li>
+ *     <li>пошук за початком назви (без урахування регістру) у {@link Snapshot}.</li>
+ * </ul>
+ * Зміни реєстру синхронізовані. Паралельні читачі працюють з {@link #snapshot()} — незмінним
+ * знімком, який перебудовується ліниво після змін складу або перейменування деривативів —
+ * про перейменування реєстр дізнається, підписуючись на кожен свій дериватив.
+ */
+public final class DerivativeRegistry extends AbstractList<Derivative> implements RandomAccess {
+
+    private final List<Derivative> items = new ArrayList<>();
+    /** Перший зареєстрований дериватив з цим UUID (повторне завантаження файлу дає дублікати id). */
+    private final Map<UUID, Derivative> byId = new HashMap<>();
+    /** Скільки зареєстрованих деривативів має цей UUID. */
+    private final Map<UUID, Integer> idCounts = new HashMap<>();
+    /** Індекс — дескриптор; {@code null} для видалених. */
+    private final List<Derivative> byHandle = new ArrayList<>();
+    /** Дескриптор і кількість входжень об'єкта у списку. */
+    private final Map<Derivative, int[]> handles = new IdentityHashMap<>();
+
+    /** Кількість перейменувань деривативів реєстру — за нею знімок визначає застарілість індексу назв. */
+    private final AtomicLong renames = new AtomicLong();
+    private final Runnable renamed = renames::incrementAndGet;
+
+    private volatile Snapshot snapshot;
+
+    // ===== List =====
+
+    @Override
+    public synchronized Derivative get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public synchronized int size() {
+        return items.size();
+    }
+
+    @Override
+    public synchronized void add(int index, Derivative derivative) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        items.add(index, derivative);
+        register(derivative);
+        changed();
+    }
+
+    @Override
+    public synchronized Derivative set(int index, Derivative derivative) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        Derivative previous = items.set(index, derivative);
+        unregister(previous);
+        register(derivative);
+        snapshot = null;
+        return previous;
+    }
+
+    @Override
+    public synchronized Derivative remove(int index) {
+        Derivative previous = items.remove(index);
+        unregister(previous);
+        changed();
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Derivative d : handles.keySet()) {
+            d.removeRenameListener(renamed);
+        }
+        items.clear();
+        byId.clear();
+        idCounts.clear();
+        handles.clear();
+        byHandle.replaceAll(d -> null);
+        changed();
+    }
+
+    // ===== Індекси =====
+
+    /** Дериватив з цим UUID або {@code null}. */
+    public synchronized Derivative findById(UUID id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /** Деривативи, назва яких починається з {@code prefix} (без урахування регістру), у порядку назв. */
+    public List<Derivative> findByNamePrefix(String prefix) {
+        return snapshot().findByNamePrefix(prefix);
+    }
+
+    /** Стабільний дескриптор деривативу або -1, якщо його немає в реєстрі. */
+    public synchronized int handleOf(Derivative derivative) {
+        int[] entry = handles.get(derivative);
+        return entry == null ? -1 : entry[0];
+    }
+
+    /** Дериватив за дескриптором або {@code null}, якщо його видалено. */
+    public synchronized Derivative byHandle(int handle) {
+        return handle >= 0 && handle < byHandle.size() ? byHandle.get(handle) : null;
+    }
+
+    /** Незмінний знімок для читачів з інших потоків. */
+    public Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s != null && s.renames == renames.get()) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s == null || s.renames != renames.get()) {
+                s = new Snapshot(items, byId, renames.get());
+                snapshot = s;
+            }
+            return s;
+        }
+    }
+
+    private void register(Derivative derivative) {
+        byId.putIfAbsent(derivative.getId(), derivative);
+        idCounts.merge(derivative.getId(), 1, Integer::sum);
+        int[] entry = handles.get(derivative);
+        if (entry == null) {
+            handles.put(derivative, new int[]{byHandle.size(), 1});
+            byHandle.add(derivative);
+            derivative.addRenameListener(renamed);
+        } else {
+            entry[1]++;
+        }
+    }
+
+    private void unregister(Derivative derivative) {
+        UUID id = derivative.getId();
+        int sameId = idCounts.merge(id, -1, Integer::sum);
+        if (sameId == 0) {
+            idCounts.remove(id);
+            byId.remove(id);
+        } else if (byId.get(id) == derivative) {
+            // Рідкісний випадок дублікатів UUID: індекс переходить до іншого деривативу з цим id
+            for (Derivative d : items) {
+                if (d.getId().equals(id)) {
+                    byId.put(id, d);
+                    break;
+                }
+            }
+        }
+
+        int[] entry = handles.get(derivative);
+        if (--entry[1] == 0) {
+            handles.remove(derivative);
+            byHandle.set(entry[0], null);
+            derivative.removeRenameListener(renamed);
+        }
+    }
+
+    private void changed() {
+        modCount++;
+        snapshot = null;
+    }
+
+    /**
+     * Незмінний знімок реєстру: список, індекс за UUID і відсортовані назви в нижньому регістрі.
+     */
+    public static final class Snapshot {
+        private final List<Derivative> derivatives;
+        private final Map<UUID, Derivative> byId;
+        private final String[] sortedNames;
+        private final Derivative[] sortedByName;
+        private final long renames;
+
+        private Snapshot(List<Derivative> items, Map<UUID, Derivative> byId, long renames) {
+            this.derivatives = List.copyOf(items);
+            this.byId = Map.copyOf(byId);
+            this.renames = renames;
+
+            List<Derivative> named = new ArrayList<>(items.size());
+            for (Derivative d : items) {
+                if (d.getName() != null) named.add(d);
+            }
+            String[] lower = new String[named.size()];
+            for (int i = 0; i < lower.length; i++) {
+                lower[i] = named.get(i).getName().toLowerCase();
+            }
+            Integer[] order = new Integer[lower.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> lower[a].compareTo(lower[b]));
+
+            this.sortedNames = new String[lower.length];
+            this.sortedByName = new Derivative[lower.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedNames[i] = lower[order[i]];
+                sortedByName[i] = named.get(order[i]);
+            }
+        }
+
+        public List<Derivative> derivatives() {
+            return derivatives;
+        }
+
+        public Derivative findById(UUID id) {
+            return id == null ? null : byId.get(id);
+        }
+
+        public List<Derivative> findByNamePrefix(String prefix) {
+            if (prefix == null) {
+                return List.of();
+            }
+            String p = prefix.toLowerCase();
+            int lo = 0;
+            int hi = sortedNames.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedNames[mid].compareTo(p) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            List<Derivative> result = new ArrayList<>();
+            for (int i = lo; i < sortedNames.length && sortedNames[i].startsWith(p); i++) {
+                result.add(sortedByName[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.org.insurance.domain;
+
+/**
+ * Відтворювана редукція: межі блоків залежать лише від індексу елемента,
+ * а суми блоків складаються попарно у фіксованому порядку дерева.
+ * Тому будь-яке розбиття роботи між потоками по цілих блоках дає побітово той самий результат.
+ */
+public final class DeterministicSum {
+
+    /** Кількість елементів у блоці. */
+    public static final int BLOCK = 1024;
+
+    private DeterministicSum() {
+    }
+
+    public static int blockCount(int size) {
+        return (size + BLOCK - 1) / BLOCK;
+    }
+
+    /**
+     * Відтворювана сума елементів {@code [from, to)}; блоки відлічуються від {@code from}.
+     */
+    public static double sum(double[] values, int from, int to) {
+        int blocks = blockCount(to - from);
+        if (blocks == 0) {
+            return 0.0;
+        }
+        double[] partials = new double[blocks];
+        CompensatedSum acc = new CompensatedSum();
+        for (int b = 0; b < blocks; b++) {
+            int start = from + b * BLOCK;
+            int end = Math.min(start + BLOCK, to);
+            acc.reset();
+            for (int i = start; i < end; i++) {
+                acc.add(values[i]);
+            }
+            partials[b] = acc.value();
+        }
+        return pairwise(partials, 0, blocks);
+    }
+
+    /**
+     * Попарна сума часткових сум {@code [from, to)} у фіксованому дереві (поділ навпіл).
+     */
+    public static double pairwise(double[] partials, int from, int to) {
+        int n = to - from;
+        if (n <= 0) {
+            return 0.0;
+        }
+        if (n == 1) {
+            return partials[from];
+        }
+        int mid = (from + to) >>> 1;
+        return pairwise(partials, from, mid) + pairwise(partials, mid, to);
+    }
+}
@@ -1,13 +1,15 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class HealthObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = 5962560991656077785L;
 
     private String coverageType;
     private boolean hasPreExistingConditions;
@@ -19,6 +21,18 @@ public class HealthObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setCoverageType(String coverageType) {
+        change(() -> this.coverageType = coverageType);
+    }
+
+    public void setHasPreExistingConditions(boolean hasPreExistingConditions) {
+        change(() -> this.hasPreExistingConditions = hasPreExistingConditions);
+    }
+
+    public void setAnnualLimit(double annualLimit) {
+        change(() -> this.annualLimit = annualLimit);
+    }
+
     @Override
     public String toString() {
         return "HealthObligation{" +
@@ -40,7 +54,14 @@ public class HealthObligation extends Obligation {
     public HealthObligation(String name, double insuredAmount, double factor, int period,
                             double interestRate, double probability, double maxCost,
                             String coverageType, boolean hasPreExistingConditions, double annualLimit) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                coverageType, hasPreExistingConditions, annualLimit);
+    }
+
+    public HealthObligation(UUID id, String name, double insuredAmount, double factor, int period,
+                            double interestRate, double probability, double maxCost,
+                            String coverageType, boolean hasPreExistingConditions, double annualLimit) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.coverageType = coverageType;
         this.hasPreExistingConditions = hasPreExistingConditions;
         this.annualLimit = annualLimit;
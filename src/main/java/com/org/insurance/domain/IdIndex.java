@@ -0,0 +1,203 @@
+package com.org.insurance.domain;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Хеш-індекс {@code UUID -> рядок} з відкритою адресацією на примітивних масивах:
+ * UUID зберігається як два {@code long}, тож ні побудова з колонок, ні пошук не створюють об'єктів.
+ * Якщо UUID трапляється кілька разів, зберігається перший рядок — як у лінійному пошуку.
+ * <p>
+ * Індекс оновлюється на місці: рядки, додані в кінець списку, дописуються ({@link #add}), а
+ * видалення і заміна рядка прибирають його запис (комірка стає «видаленою» до наступного
+ * розширення таблиці) і зсувають номери наступних рядків одним проходом по таблиці.
+ * Лише коли видаляється перше входження UUID, що повторюється, наступного входження не знайти —
+ * тоді метод повертає {@code false}, а індекс (можливо, вже частково змінений) слід перебудувати.
+ */
+final class IdIndex {
+
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+
+    private long[] highs;
+    private long[] lows;
+    /** Номер рядка, {@link #EMPTY} або {@link #DELETED}. */
+    private int[] rows;
+    /** UUID комірки трапляється ще в інших рядках. */
+    private boolean[] repeated;
+    private int count;
+    /** Зайняті комірки разом з видаленими — від них залежить довжина пошуку. */
+    private int used;
+    /** Чи траплявся якийсь UUID більше одного разу. */
+    private boolean duplicates;
+
+    private IdIndex(int size) {
+        allocate(Integer.highestOneBit(Math.max(4, size) * 2 - 1) << 1);
+    }
+
+    static IdIndex build(long[] idHighs, long[] idLows, boolean[] present, int size) {
+        IdIndex index = new IdIndex(size);
+        for (int row = 0; row < size; row++) {
+            if (present == null || present[row]) {
+                index.insert(idHighs[row], idLows[row], row);
+            }
+        }
+        return index;
+    }
+
+    /** Додати рядок у кінці списку. */
+    void add(long high, long low, int row) {
+        ensureRoom();
+        insert(high, low, row);
+    }
+
+    /**
+     * Рядок {@code row} з UUID {@code id} ({@code null} — порожній рядок) видалено;
+     * наступні зсунулися на одну позицію.
+     *
+     * @return {@code false}, якщо індекс слід перебудувати
+     */
+    boolean removeRow(UUID id, int row) {
+        if (!delete(id, row)) {
+            return false;
+        }
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] > row) rows[i]--;
+        }
+        return true;
+    }
+
+    /**
+     * Перенумерувати рядки після пакетного видалення одним проходом: {@code renumber[row]} —
+     * новий номер або -1 для видаленого рядка.
+     *
+     * @return {@code false}, якщо індекс слід перебудувати
+     */
+    boolean renumber(int[] renumber) {
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] < 0) continue;
+            int row = renumber[rows[i]];
+            if (row < 0) {
+                if (repeated[i]) return false;
+                rows[i] = DELETED;
+                count--;
+            } else {
+                rows[i] = row;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * У рядку {@code row} зобов'язання з UUID {@code previous} замінено зобов'язанням з UUID
+     * {@code current} ({@code null} — порожній рядок).
+     *
+     * @return {@code false}, якщо індекс слід перебудувати
+     */
+    boolean replace(int row, UUID previous, UUID current) {
+        if (!delete(previous, row)) {
+            return false;
+        }
+        if (current != null) {
+            add(current.getMostSignificantBits(), current.getLeastSignificantBits(), row);
+        }
+        return true;
+    }
+
+    /** Чи є UUID, що трапляються в кількох рядках, — тоді {@link #find} знаходить лише перший. */
+    boolean hasDuplicates() {
+        return duplicates;
+    }
+
+    /** Рядок з цим UUID або -1. */
+    int find(long high, long low) {
+        int slot = slotOf(high, low);
+        return slot < 0 ? -1 : rows[slot];
+    }
+
+    /** Прибрати запис рядка {@code row}, якщо саме цей рядок — перше входження UUID. */
+    private boolean delete(UUID id, int row) {
+        if (id == null) {
+            return true;
+        }
+        int slot = slotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0 || rows[slot] != row) {
+            // Рядок не був першим входженням свого UUID — запису в індексі не має
+            return true;
+        }
+        if (repeated[slot]) {
+            return false;
+        }
+        rows[slot] = DELETED;
+        count--;
+        return true;
+    }
+
+    private int slotOf(long high, long low) {
+        int mask = rows.length - 1;
+        int slot = hash(high, low) & mask;
+        while (rows[slot] != EMPTY) {
+            if (rows[slot] >= 0 && highs[slot] == high && lows[slot] == low) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Вставити запис; для UUID, що вже є, лишається менший номер рядка. Повертає комірку. */
+    private int insert(long high, long low, int row) {
+        int mask = rows.length - 1;
+        int slot = hash(high, low) & mask;
+        int free = -1;
+        while (rows[slot] != EMPTY) {
+            if (rows[slot] == DELETED) {
+                if (free < 0) free = slot;
+            } else if (highs[slot] == high && lows[slot] == low) {
+                duplicates = true;
+                repeated[slot] = true;
+                if (row < rows[slot]) rows[slot] = row;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (free < 0) {
+            free = slot;
+            used++;
+        }
+        highs[free] = high;
+        lows[free] = low;
+        rows[free] = row;
+        repeated[free] = false;
+        count++;
+        return free;
+    }
+
+    /** Розширити або очистити від видалених комірок таблицю, якщо вона заповнена наполовину. */
+    private void ensureRoom() {
+        if ((used + 1) * 2 <= rows.length) {
+            return;
+        }
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        int[] oldRows = rows;
+        boolean[] oldRepeated = repeated;
+        allocate((count + 1) * 4 > oldRows.length ? oldRows.length * 2 : oldRows.length);
+        count = 0;
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] >= 0) repeated[insert(oldHighs[i], oldLows[i], oldRows[i])] = oldRepeated[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        rows = new int[capacity];
+        repeated = new boolean[capacity];
+        Arrays.fill(rows, EMPTY);
+        used = 0;
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,14 +1,60 @@
 package com.org.insurance.domain;
 
+import lombok.Getter;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 
+/**
+ * Розрахунки вартості та ризику портфеля.
+ * Режим складання сум задає {@link SummationMode}: за замовчуванням — послідовний,
+ * {@link SummationMode#DETERMINISTIC} дає відтворюваний результат, який збігається
+ * з паралельною оцінкою {@link ParallelValuator} за будь-якої кількості потоків.
+ */
 public final class InsuranceCalculator {
 
+    /** Кількість рядків колонкового сховища, що обчислюються за один виклик ядра. */
+    private static final int KERNEL_BLOCK = 4096;
+
+    private static final PremiumKernel DEFAULT_KERNEL = PremiumKernel.best();
+
+    private final PremiumKernel kernel;
+    @Getter
+    private final SummationMode summationMode;
+
+    public InsuranceCalculator() {
+        this(DEFAULT_KERNEL, SummationMode.SEQUENTIAL);
+    }
+
+    public InsuranceCalculator(PremiumKernel kernel) {
+        this(kernel, SummationMode.SEQUENTIAL);
+    }
+
+    public InsuranceCalculator(SummationMode summationMode) {
+        this(DEFAULT_KERNEL, summationMode);
+    }
+
+    public InsuranceCalculator(PremiumKernel kernel, SummationMode summationMode) {
+        this.kernel = Objects.requireNonNull(kernel, "kernel");
+        this.summationMode = Objects.requireNonNull(summationMode, "summationMode");
+    }
+
     public double calculatePortfolioValue(Derivative derivative) {
         if (derivative == null) {
             return 0.0;
         }
 
+        if (summationMode == SummationMode.DETERMINISTIC) {
+            return deterministicTotal(derivative, true);
+        }
+
+        ObligationColumns columns = derivative.getColumns();
+        if (columns != null) {
+            return portfolioValue(columns);
+        }
+
         List<Obligation> obligations = derivative.getObligations();
         if (obligations == null || obligations.isEmpty()) {
             return 0.0;
@@ -31,6 +77,15 @@ public final class InsuranceCalculator {
             return 0.0;
         }
 
+        if (summationMode == SummationMode.DETERMINISTIC) {
+            return deterministicTotal(derivative, false);
+        }
+
+        ObligationColumns columns = derivative.getColumns();
+        if (columns != null) {
+            return totalRisk(columns);
+        }
+
         List<Obligation> obligations = derivative.getObligations();
         if (obligations == null || obligations.isEmpty()) {
             return 0.0;
@@ -60,29 +115,29 @@ public final class InsuranceCalculator {
             return 0.0;
         }
 
-        double insuredAmount = obligation.getInsuredAmount();
-        double factor = obligation.getFactor();
-        double periodMonths = obligation.getPeriod();
-        double interestRate = obligation.getInterestRate();
-        double probability = obligation.getProbability();
-        double maxCost = obligation.getMaxCost();
+        return priceOf(obligation.getInsuredAmount(), obligation.getFactor(), obligation.getPeriod(),
+                obligation.getInterestRate(), obligation.getProbability(), obligation.getMaxCost());
+    }
 
+    /**
+     * Премія за примітивними полями зобов'язання — та сама формула,
+     * що й {@link #calculatePriceOfService(Obligation)}, для колонкового сховища.
+     */
+    public static double priceOf(double insuredAmount, double factor, int period,
+                                 double interestRate, double probability, double maxCost) {
         // Якщо базові параметри некоректні або нульові — премія = 0
         if (insuredAmount <= 0.0 || probability <= 0.0 || factor <= 0.0) {
             return 0.0;
         }
 
         // 1. Очікуваний збиток
-        double expectedLoss = insuredAmount * probability * factor;
+        double expectedLoss = expectedLoss(insuredAmount, probability, factor);
 
         // 2. Період у роках
-        double years = periodMonths / 12.0;
-        if (years < 0.0) {
-            years = 0.0;
-        }
+        double years = years(period);
 
         // 3. Коефіцієнт з урахуванням ставки та строку
-        double timeCoeff = 1.0 + interestRate * years;
+        double timeCoeff = timeCoeff(interestRate, years);
 
         // 4. Брутто-премія
         double grossPremium = expectedLoss * timeCoeff;
@@ -99,4 +154,128 @@ public final class InsuranceCalculator {
 
         return grossPremium;
     }
+
+    /** Очікуваний збиток: {@code insuredAmount * probability * factor}. */
+    public static double expectedLoss(double insuredAmount, double probability, double factor) {
+        return insuredAmount * probability * factor;
+    }
+
+    /** Строк у роках з періоду в місяцях; від'ємний період — 0. */
+    public static double years(int period) {
+        double years = period / 12.0;
+        return years < 0.0 ? 0.0 : years;
+    }
+
+    /** Коефіцієнт часу: {@code 1 + interestRate * years}. */
+    public static double timeCoeff(double interestRate, double years) {
+        return 1.0 + interestRate * years;
+    }
+
+    // ===== Колонкове сховище =====
+
+    private double portfolioValue(ObligationColumns c) {
+        int n = c.size();
+        double[] premiums = new double[Math.min(KERNEL_BLOCK, n)];
+
+        // Премії рахує ядро (SIMD або скалярне), а складаємо їх у тому ж порядку,
+        // що й для звичайного списку, — сума збігається побітово.
+        double total = 0.0;
+        for (int from = 0; from < n; from += KERNEL_BLOCK) {
+            int to = Math.min(from + KERNEL_BLOCK, n);
+            kernel.premiums(c, from, to, premiums);
+            for (int k = 0; k < to - from; k++) {
+                total += premiums[k];
+            }
+        }
+        return total;
+    }
+
+    private static double totalRisk(ObligationColumns c) {
+        double[] insuredAmount = c.insuredAmounts();
+        double[] factor = c.factors();
+        double[] probability = c.probabilities();
+
+        double totalRisk = 0.0;
+        for (int i = 0, n = c.size(); i < n; i++) {
+            totalRisk += insuredAmount[i] * factor[i] * probability[i];
+        }
+        return totalRisk;
+    }
+
+    // ===== Відтворювана редукція по блоках =====
+
+    private double deterministicTotal(Derivative derivative, boolean premium) {
+        ObligationColumns columns = derivative.getColumns();
+        List<Obligation> obligations = columns == null ? randomAccess(derivative.getObligations()) : null;
+        int size = columns != null ? columns.size() : obligations.size();
+
+        int blocks = DeterministicSum.blockCount(size);
+        double[] partials = new double[blocks];
+        blockSums(columns, obligations, size, 0, blocks, premium ? partials : null, premium ? null : partials);
+        return DeterministicSum.pairwise(partials, 0, blocks);
+    }
+
+    /**
+     * Суми Ноймаєра премій та ризику для блоків {@code [fromBlock, toBlock)} по
+     * {@link DeterministicSum#BLOCK} елементів. Джерело — колонки або список (інше — null);
+     * будь-який з вихідних масивів може бути null, тоді ця сума не рахується.
+     */
+    void blockSums(ObligationColumns columns, List<Obligation> obligations, int size,
+                   int fromBlock, int toBlock, double[] premiumOut, double[] riskOut) {
+        double[] premiums = columns != null && premiumOut != null ? new double[DeterministicSum.BLOCK] : null;
+        CompensatedSum premium = new CompensatedSum();
+        CompensatedSum risk = new CompensatedSum();
+
+        for (int b = fromBlock; b < toBlock; b++) {
+            int start = b * DeterministicSum.BLOCK;
+            int end = Math.min(start + DeterministicSum.BLOCK, size);
+            premium.reset();
+            risk.reset();
+
+            if (columns != null) {
+                if (premiums != null) {
+                    kernel.premiums(columns, start, end, premiums);
+                    for (int k = 0; k < end - start; k++) {
+                        premium.add(premiums[k]);
+                    }
+                }
+                if (riskOut != null) {
+                    double[] insuredAmount = columns.insuredAmounts();
+                    double[] factor = columns.factors();
+                    double[] probability = columns.probabilities();
+                    for (int i = start; i < end; i++) {
+                        risk.add(insuredAmount[i] * factor[i] * probability[i]);
+                    }
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    Obligation o = obligations.get(i);
+                    if (o == null) {
+                        continue;
+                    }
+                    if (premiumOut != null) {
+                        premium.add(calculatePriceOfService(o));
+                    }
+                    if (riskOut != null) {
+                        risk.add(o.getInsuredAmount() * o.getFactor() * o.getProbability());
+                    }
+                }
+            }
+
+            if (premiumOut != null) {
+                premiumOut[b] = premium.value();
+            }
+            if (riskOut != null) {
+                riskOut[b] = risk.value();
+            }
+        }
+    }
+
+    /** Список з O(1) доступом за індексом (порожній замість null). */
+    static List<Obligation> randomAccess(List<Obligation> obligations) {
+        if (obligations == null) {
+            return List.of();
+        }
+        return obligations instanceof RandomAccess ? obligations : new ArrayList<>(obligations);
+    }
 }
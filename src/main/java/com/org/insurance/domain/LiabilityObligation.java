@@ -1,13 +1,15 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class LiabilityObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = 1757649190972082263L;
 
     private String coverageType;
     private String jurisdiction;
@@ -18,6 +20,14 @@ public class LiabilityObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setCoverageType(String coverageType) {
+        change(() -> this.coverageType = coverageType);
+    }
+
+    public void setJurisdiction(String jurisdiction) {
+        change(() -> this.jurisdiction = jurisdiction);
+    }
+
     @Override
     public String toString() {
         return "LiabilityObligation{" +
@@ -37,7 +47,14 @@ public class LiabilityObligation extends Obligation {
     public LiabilityObligation(String name, double insuredAmount, double factor,
                                int period, double interestRate, double probability, double maxCost,
                                String coverageType, String jurisdiction) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                coverageType, jurisdiction);
+    }
+
+    public LiabilityObligation(UUID id, String name, double insuredAmount, double factor,
+                               int period, double interestRate, double probability, double maxCost,
+                               String coverageType, String jurisdiction) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.coverageType = coverageType;
         this.jurisdiction = jurisdiction;
     }
@@ -1,14 +1,13 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
 import java.io.Serial;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class LifeObligation extends Obligation {
     @Serial
@@ -24,6 +23,18 @@ public class LifeObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setInsuredPersonId(String insuredPersonId) {
+        change(() -> this.insuredPersonId = insuredPersonId);
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        change(() -> this.dateOfBirth = dateOfBirth);
+    }
+
+    public void setBeneficiaryName(String beneficiaryName) {
+        change(() -> this.beneficiaryName = beneficiaryName);
+    }
+
     @Override
     public String toString() {
         return "LifeObligation{" +
@@ -44,7 +55,14 @@ public class LifeObligation extends Obligation {
     public LifeObligation(String name, double insuredAmount, double factor,
                           int period, double interestRate, double probability, double maxCost,
                           String insuredPersonId, LocalDate dateOfBirth, String beneficiaryName) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                insuredPersonId, dateOfBirth, beneficiaryName);
+    }
+
+    public LifeObligation(UUID id, String name, double insuredAmount, double factor,
+                          int period, double interestRate, double probability, double maxCost,
+                          String insuredPersonId, LocalDate dateOfBirth, String beneficiaryName) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.insuredPersonId = insuredPersonId;
         this.dateOfBirth = dateOfBirth;
         this.beneficiaryName = beneficiaryName;
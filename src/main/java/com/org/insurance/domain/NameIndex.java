@@ -0,0 +1,293 @@
+package com.org.insurance.domain;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Триграмний інвертований індекс назв зобов'язань.
+ * <p>
+ * Назви один раз переводяться в нижній регістр і зберігаються тут же, тож перевірка кандидата —
+ * це {@link String#contains} без жодних алокацій. Кожна триграма (три символи, упаковані в {@code long})
+ * має власний відсортований список рядків. Підрядок довжиною від трьох символів може бути лише
+ * в рядках, що містять усі його триграми, — перетин їхніх списків і є кандидатами.
+ * <p>
+ * Індекс оновлюється на місці: новий рядок у кінці дописується в кінець списків своїх триграм,
+ * перейменування переносить рядок лише між списками старих і нових триграм, а видалення
+ * прибирає його і зменшує номери в хвостах списків.
+ */
+final class NameIndex {
+
+    static final int GRAM = 3;
+
+    private String[] lowerNames;
+    private int size;
+    private final TrigramTable table;
+    private int[][] lists;
+    private int[] lengths;
+
+    private NameIndex(String[] lowerNames, TrigramTable table, int[][] lists, int[] lengths) {
+        this.lowerNames = lowerNames;
+        this.size = lowerNames.length;
+        this.table = table;
+        this.lists = lists;
+        this.lengths = lengths;
+    }
+
+    static NameIndex build(String[] names) {
+        int n = names.length;
+        String[] lower = new String[n];
+        for (int i = 0; i < n; i++) {
+            lower[i] = lower(names[i]);
+        }
+
+        // Перший прохід: ідентифікатори триграм і кількість рядків для кожної
+        TrigramTable table = new TrigramTable();
+        int[] counts = new int[64];
+        int[] lastRow = new int[64];
+        for (int row = 0; row < n; row++) {
+            String s = lower[row];
+            if (s == null) continue;
+            for (int i = 0; i + GRAM <= s.length(); i++) {
+                int id = table.idOf(key(s, i), true);
+                if (id >= counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                    lastRow = Arrays.copyOf(lastRow, lastRow.length * 2);
+                }
+                if (counts[id] == 0 || lastRow[id] != row) {
+                    lastRow[id] = row;
+                    counts[id]++;
+                }
+            }
+        }
+
+        int[][] lists = new int[counts.length][];
+        for (int id = 0; id < table.size(); id++) {
+            lists[id] = new int[counts[id]];
+        }
+
+        // Другий прохід: рядки потрапляють у списки за зростанням, тож списки вже відсортовані
+        int[] fill = new int[counts.length];
+        Arrays.fill(lastRow, -1);
+        for (int row = 0; row < n; row++) {
+            String s = lower[row];
+            if (s == null) continue;
+            for (int i = 0; i + GRAM <= s.length(); i++) {
+                int id = table.idOf(key(s, i), false);
+                if (lastRow[id] != row) {
+                    lastRow[id] = row;
+                    lists[id][fill[id]++] = row;
+                }
+            }
+        }
+        return new NameIndex(lower, table, lists, fill);
+    }
+
+    /** Назва рядка в нижньому регістрі або {@code null}. */
+    String lowerName(int row) {
+        return lowerNames[row];
+    }
+
+    /** Додати рядок у кінці списку. */
+    void append(String name) {
+        if (size == lowerNames.length) {
+            lowerNames = Arrays.copyOf(lowerNames, Math.max(16, size + (size >> 1)));
+        }
+        int row = size++;
+        lowerNames[row] = lower(name);
+        addGrams(row, lowerNames[row]);
+    }
+
+    /** Назву рядка змінено. */
+    void rename(int row, String name) {
+        String lower = lower(name);
+        if (Objects.equals(lower, lowerNames[row])) {
+            return;
+        }
+        removeGrams(row, lowerNames[row]);
+        lowerNames[row] = lower;
+        addGrams(row, lower);
+    }
+
+    /** Рядок видалено зі списку: наступні рядки зсуваються на один. */
+    void remove(int row) {
+        removeGrams(row, lowerNames[row]);
+        System.arraycopy(lowerNames, row + 1, lowerNames, row, size - row - 1);
+        lowerNames[--size] = null;
+        for (int id = 0; id < table.size(); id++) {
+            int[] list = lists[id];
+            for (int p = upperBound(list, lengths[id], row); p < lengths[id]; p++) {
+                list[p]--;
+            }
+        }
+    }
+
+    /**
+     * Перенумерувати рядки після пакетного видалення: {@code renumber[row]} — новий номер
+     * або -1 для видаленого. Нумерація монотонна, тож списки лишаються відсортованими.
+     */
+    void renumber(int[] renumber) {
+        for (int id = 0; id < table.size(); id++) {
+            int[] list = lists[id];
+            int w = 0;
+            for (int p = 0; p < lengths[id]; p++) {
+                int row = renumber[list[p]];
+                if (row >= 0) list[w++] = row;
+            }
+            lengths[id] = w;
+        }
+        int w = 0;
+        for (int row = 0; row < size; row++) {
+            if (renumber[row] >= 0) lowerNames[w++] = lowerNames[row];
+        }
+        Arrays.fill(lowerNames, w, size, null);
+        size = w;
+    }
+
+    /**
+     * Відсортовані рядки, що містять усі триграми {@code lowerPart}, — надмножина збігів.
+     * {@code null}, якщо підрядок коротший за триграму і індекс нічим не допоможе.
+     */
+    int[] candidates(String lowerPart) {
+        int grams = lowerPart.length() - GRAM + 1;
+        if (grams <= 0) {
+            return null;
+        }
+        int[] ids = new int[grams];
+        for (int i = 0; i < grams; i++) {
+            int id = table.idOf(key(lowerPart, i), false);
+            if (id < 0) {
+                return new int[0];
+            }
+            ids[i] = id;
+        }
+        // Починаємо з найкоротшого списку — перетин не більший за нього
+        int shortest = 0;
+        for (int i = 1; i < grams; i++) {
+            if (lengths[ids[i]] < lengths[ids[shortest]]) shortest = i;
+        }
+        int[] result = Arrays.copyOf(lists[ids[shortest]], lengths[ids[shortest]]);
+        int size = result.length;
+        for (int i = 0; i < grams && size > 0; i++) {
+            if (i != shortest) size = intersect(result, size, ids[i]);
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /** Залишити в {@code rows[0..size)} лише рядки зі списку триграми {@code id}. */
+    private int intersect(int[] rows, int size, int id) {
+        int[] list = lists[id];
+        int p = 0;
+        int end = lengths[id];
+        int kept = 0;
+        for (int i = 0; i < size && p < end; i++) {
+            int row = rows[i];
+            while (p < end && list[p] < row) p++;
+            if (p < end && list[p] == row) rows[kept++] = row;
+        }
+        return kept;
+    }
+
+    /** Вставити рядок у списки триграм назви; повторна триграма вже містить рядок. */
+    private void addGrams(int row, String lower) {
+        if (lower == null) return;
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            int id = table.idOf(key(lower, i), true);
+            if (id >= lists.length) {
+                lists = Arrays.copyOf(lists, lists.length * 2);
+                lengths = Arrays.copyOf(lengths, lengths.length * 2);
+            }
+            if (lists[id] == null) {
+                lists[id] = new int[4];
+            }
+            int length = lengths[id];
+            int p = Arrays.binarySearch(lists[id], 0, length, row);
+            if (p >= 0) continue;
+            p = -p - 1;
+            if (length == lists[id].length) {
+                lists[id] = Arrays.copyOf(lists[id], length * 2);
+            }
+            System.arraycopy(lists[id], p, lists[id], p + 1, length - p);
+            lists[id][p] = row;
+            lengths[id]++;
+        }
+    }
+
+    private void removeGrams(int row, String lower) {
+        if (lower == null) return;
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            int id = table.idOf(key(lower, i), false);
+            int length = lengths[id];
+            int p = Arrays.binarySearch(lists[id], 0, length, row);
+            if (p < 0) continue;
+            System.arraycopy(lists[id], p + 1, lists[id], p, length - p - 1);
+            lengths[id]--;
+        }
+    }
+
+    /** Перша позиція в {@code list[0..length)} зі значенням більшим за {@code row}. */
+    private static int upperBound(int[] list, int length, int row) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list[mid] <= row) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String lower(String name) {
+        return name == null ? null : name.toLowerCase();
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Відкрита адресація {@code long -> int} без обгорток. Ключ зберігається як {@code key + 1}, 0 — порожня комірка. */
+    private static final class TrigramTable {
+        private long[] keys = new long[256];
+        private int[] ids = new int[256];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        /** Ідентифікатор триграми; якщо її немає — новий (при {@code insert}) або -1. */
+        int idOf(long key, boolean insert) {
+            long stored = key + 1;
+            int mask = keys.length - 1;
+            int slot = hash(stored) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == stored) return ids[slot];
+                slot = (slot + 1) & mask;
+            }
+            if (!insert) return -1;
+            keys[slot] = stored;
+            ids[slot] = size;
+            if (++size * 2 > keys.length) grow();
+            return size - 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldIds.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) continue;
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.org.insurance.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Scanner;
 import java.util.UUID;
 
@@ -21,6 +24,10 @@ public abstract class Obligation implements Serializable {
     protected double probability;
     protected double maxCost;
 
+    /** Хто стежить за змінами полів (зазвичай одна дериватива); не серіалізується. */
+    @Getter(AccessLevel.NONE)
+    private transient ObligationListener[] listeners;
+
     public Obligation(String name,
                       double insuredAmount,
                       double factor,
@@ -28,7 +35,22 @@ public abstract class Obligation implements Serializable {
                       double interestRate,
                       double probability,
                       double maxCost) {
-        this.id = UUID.randomUUID();
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost);
+    }
+
+    /**
+     * Відновлення зобов'язання з відомим ідентифікатором
+     * (колонкове сховище, читання з файлу тощо).
+     */
+    protected Obligation(UUID id,
+                         String name,
+                         double insuredAmount,
+                         double factor,
+                         int period,
+                         double interestRate,
+                         double probability,
+                         double maxCost) {
+        this.id = Objects.requireNonNull(id, "id");
         this.name = name;
         this.insuredAmount = insuredAmount;
         this.factor = factor;
@@ -52,13 +74,94 @@ public abstract class Obligation implements Serializable {
 
     public abstract void setSpecificFields(Scanner in);
 
-    public void setName(String name) { this.name = name; }
-    public void setInsuredAmount(double insuredAmount) { this.insuredAmount = insuredAmount; }
-    public void setFactor(double factor) { this.factor = factor; }
-    public void setPeriod(int period) { this.period = period; }
-    public void setInterestRate(double interestRate) { this.interestRate = interestRate; }
-    public void setProbability(double probability) { this.probability = probability; }
-    public void setMaxCost(double maxCost) { this.maxCost = maxCost; }
+    public void setName(String name) {
+        change(() -> this.name = name);
+    }
+
+    public void setInsuredAmount(double insuredAmount) {
+        change(() -> this.insuredAmount = insuredAmount);
+    }
+
+    public void setFactor(double factor) {
+        change(() -> this.factor = factor);
+    }
+
+    public void setPeriod(int period) {
+        change(() -> this.period = period);
+    }
+
+    public void setInterestRate(double interestRate) {
+        change(() -> this.interestRate = interestRate);
+    }
+
+    public void setProbability(double probability) {
+        change(() -> this.probability = probability);
+    }
+
+    public void setMaxCost(double maxCost) {
+        change(() -> this.maxCost = maxCost);
+    }
+
+    // ===== Слухачі змін (деривативи, що містять це зобов'язання) =====
+
+    void addListener(ObligationListener listener) {
+        if (listeners == null) {
+            listeners = new ObligationListener[] { listener };
+            return;
+        }
+        ObligationListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    /** Чи вже підписано слухача, рівного {@code listener} за {@code equals}. */
+    boolean hasListener(ObligationListener listener) {
+        ObligationListener[] ls = listeners;
+        if (ls == null) return false;
+        for (ObligationListener l : ls) {
+            if (l.equals(listener)) return true;
+        }
+        return false;
+    }
+
+    void removeListener(ObligationListener listener) {
+        if (listeners == null) return;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    listeners = null;
+                    return;
+                }
+                ObligationListener[] copy = new ObligationListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Змінити поле: слухачі отримують {@code beforeChange} до {@code update} і {@code afterChange}
+     * після нього. Сеттери підкласів теж змінюють поля лише через цей метод.
+     */
+    protected final void change(Runnable update) {
+        beforeChange();
+        update.run();
+        afterChange();
+    }
+
+    private void beforeChange() {
+        ObligationListener[] ls = listeners;
+        if (ls == null) return;
+        for (ObligationListener l : ls) l.beforeChange(this);
+    }
+
+    private void afterChange() {
+        ObligationListener[] ls = listeners;
+        if (ls == null) return;
+        for (ObligationListener l : ls) l.afterChange(this);
+    }
 
     private static double askDouble(Scanner in, String prompt) {
         while (true) {
@@ -0,0 +1,568 @@
+package com.org.insurance.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Колонкове (struct-of-arrays) сховище зобов'язань.
+ * Числові поля лежать у примітивних масивах, тож оцінка портфеля — це лінійний прохід по пам'яті
+ * без переходу за посиланням на кожен об'єкт.
+ * <p>
+ * Рядок може бути трьох видів:
+ * <ul>
+ *     <li>відомий тип ({@link ObligationType}) — специфічні поля лежать у типізованих колонках:
+ *         два рядкові, числова, логічна і дві дати (epoch day); кожен тип займає свої з них
+ *         (див. {@link #write(int, Obligation)});</li>
+ *     <li>сторонній підклас {@link Obligation} — колонка сторонніх містить сам об'єкт;</li>
+ *     <li>{@code null} — усі числові поля дорівнюють 0.</li>
+ * </ul>
+ * Масиви, які повертають {@code insuredAmounts()} тощо, не копіюються і призначені лише для читання;
+ * дійсні значення знаходяться в діапазоні {@code [0, size())}.
+ * <p>
+ * Кожен рядок може мати пов'язане представлення ({@link ColumnarObligationList#get(int)}).
+ * Воно переміщується разом із рядком під час вставок, видалень і перестановок, а запис у рядок
+ * іншого об'єкта від'єднує його. Представлення тримаються слабкими посиланнями: рядок, на
+ * представлення якого ніхто не посилається, знову займає лише колонки.
+ */
+public final class ObligationColumns implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Дата {@code null} у колонках дат. */
+    public static final long NULL_DAY = Long.MIN_VALUE;
+
+    private int size;
+
+    private long[] idHigh;
+    private long[] idLow;
+    private String[] names;
+    private double[] insuredAmount;
+    private double[] factor;
+    private int[] period;
+    private double[] interestRate;
+    private double[] probability;
+    private double[] maxCost;
+
+    private ObligationType[] types;
+
+    // Специфічні поля відомих типів
+    private String[] text0;
+    private String[] text1;
+    private double[] number;
+    private boolean[] flag;
+    private long[] day0;
+    private long[] day1;
+    /** Рядки сторонніх класів; для відомих типів — {@code null}. */
+    private Obligation[] foreign;
+    /** Пов'язані представлення рядків; {@code null}, доки жодного не створено. */
+    private transient WeakReference<?>[] views;
+
+    public ObligationColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ObligationColumns(int capacity) {
+        int c = Math.max(capacity, 1);
+        idHigh = new long[c];
+        idLow = new long[c];
+        names = new String[c];
+        insuredAmount = new double[c];
+        factor = new double[c];
+        period = new int[c];
+        interestRate = new double[c];
+        probability = new double[c];
+        maxCost = new double[c];
+        types = new ObligationType[c];
+        text0 = new String[c];
+        text1 = new String[c];
+        number = new double[c];
+        flag = new boolean[c];
+        day0 = new long[c];
+        day1 = new long[c];
+        foreign = new Obligation[c];
+    }
+
+    public static ObligationColumns of(Collection<? extends Obligation> obligations) {
+        ObligationColumns columns = new ObligationColumns(obligations.size());
+        for (Obligation o : obligations) {
+            columns.add(o);
+        }
+        return columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Незалежна копія: масиви копіюються цілком, рядки не матеріалізуються. */
+    public ObligationColumns copy() {
+        ObligationColumns copy = new ObligationColumns(size);
+        copy.append(this);
+        return copy;
+    }
+
+    /** Дописати в кінець усі рядки {@code other} копіюванням масивів. */
+    public void append(ObligationColumns other) {
+        int n = other.size;
+        ensureCapacity(size + n);
+        System.arraycopy(other.idHigh, 0, idHigh, size, n);
+        System.arraycopy(other.idLow, 0, idLow, size, n);
+        System.arraycopy(other.names, 0, names, size, n);
+        System.arraycopy(other.insuredAmount, 0, insuredAmount, size, n);
+        System.arraycopy(other.factor, 0, factor, size, n);
+        System.arraycopy(other.period, 0, period, size, n);
+        System.arraycopy(other.interestRate, 0, interestRate, size, n);
+        System.arraycopy(other.probability, 0, probability, size, n);
+        System.arraycopy(other.maxCost, 0, maxCost, size, n);
+        System.arraycopy(other.types, 0, types, size, n);
+        System.arraycopy(other.text0, 0, text0, size, n);
+        System.arraycopy(other.text1, 0, text1, size, n);
+        System.arraycopy(other.number, 0, number, size, n);
+        System.arraycopy(other.flag, 0, flag, size, n);
+        System.arraycopy(other.day0, 0, day0, size, n);
+        System.arraycopy(other.day1, 0, day1, size, n);
+        System.arraycopy(other.foreign, 0, foreign, size, n);
+        if (views != null) Arrays.fill(views, size, size + n, null);
+        size += n;
+    }
+
+    public void add(Obligation o) {
+        ensureCapacity(size + 1);
+        write(size, o);
+        size++;
+    }
+
+    public void insert(int index, Obligation o) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        write(index, o);
+        size++;
+    }
+
+    public void set(int index, Obligation o) {
+        checkIndex(index);
+        write(index, o);
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        shift(index + 1, index, size - index - 1);
+        size--;
+        write(size, null);
+    }
+
+    /**
+     * Видалити позначені рядки одним проходом: решта зсувається до початку зі збереженням порядку.
+     * Біти за межами {@code size()} ігноруються.
+     */
+    public void removeRows(BitSet rows) {
+        int next = rows.nextSetBit(0);
+        if (next < 0 || next >= size) return;
+        int w = next;
+        for (int r = next + 1; r < size; r++) {
+            if (!rows.get(r)) {
+                copyRow(r, w++);
+            }
+        }
+        for (int i = w; i < size; i++) {
+            write(i, null);
+        }
+        size = w;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            write(i, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * Переставити рядки на місці: новий рядок {@code p} — це колишній рядок {@code order[p]}.
+     * Обходить цикли перестановки, тимчасово використовуючи один рядок за межами {@code size()}.
+     * Масив {@code order} після виклику має той самий вміст.
+     */
+    public void permute(int[] order) {
+        if (order.length != size) {
+            throw new IllegalArgumentException("order.length=" + order.length + ", size=" + size);
+        }
+        ensureCapacity(size + 1);
+        int scratch = size;
+        for (int start = 0; start < size; start++) {
+            if (order[start] < 0) continue;
+            if (order[start] == start) {
+                order[start] = ~start;
+                continue;
+            }
+            copyRow(start, scratch);
+            int p = start;
+            while (true) {
+                int q = order[p];
+                order[p] = ~q;
+                if (q == start) {
+                    copyRow(scratch, p);
+                    break;
+                }
+                copyRow(q, p);
+                p = q;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = ~order[i];
+        }
+        write(scratch, null);
+    }
+
+    /**
+     * Матеріалізує рядок як {@link Obligation}.
+     * Для відомих типів створюється новий об'єкт з тим самим id, не пов'язаний з колонками —
+     * зміни через його сеттери сюди не потрапляють. {@link ColumnarObligationList#get(int)}
+     * повертає пов'язане представлення.
+     */
+    public Obligation get(int index) {
+        checkIndex(index);
+        ObligationType type = types[index];
+        if (type == null) {
+            return foreign[index];
+        }
+        UUID id = new UUID(idHigh[index], idLow[index]);
+        String n = names[index];
+        double ia = insuredAmount[index];
+        double f = factor[index];
+        int p = period[index];
+        double ir = interestRate[index];
+        double pr = probability[index];
+        double mc = maxCost[index];
+        return switch (type) {
+            case AUTO -> new AutoObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], text1[index], number[index]);
+            case BUSINESS -> new BusinessObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], text1[index]);
+            case HEALTH -> new HealthObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], flag[index], number[index]);
+            case LIABILITY -> new LiabilityObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], text1[index]);
+            case LIFE -> new LifeObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], date(day0[index]), text1[index]);
+            case PROPERTY -> new PropertyObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], text1[index]);
+            case TRAVEL -> new TravelObligation(id, n, ia, f, p, ir, pr, mc,
+                    text0[index], date(day0[index]), date(day1[index]));
+        };
+    }
+
+    /** Пов'язане представлення рядка або {@code null}, якщо його немає чи воно вже не використовується. */
+    Obligation view(int index) {
+        checkIndex(index);
+        WeakReference<?> ref = views == null ? null : views[index];
+        return ref == null ? null : (Obligation) ref.get();
+    }
+
+    /** Запам'ятати {@code o} як представлення рядка (воно має збігатися з рядком). */
+    void setView(int index, Obligation o) {
+        checkIndex(index);
+        if (views == null) {
+            if (o == null) return;
+            views = new WeakReference<?>[insuredAmount.length];
+        }
+        views[index] = o == null ? null : new WeakReference<>(o);
+    }
+
+    /** Рядок, представленням якого є саме {@code o}, або -1. */
+    int rowOfView(Obligation o) {
+        if (o == null || views == null) return -1;
+        int guess = find(o.getId());
+        if (guess >= 0 && view(guess) == o) return guess;
+        for (int i = 0; i < size; i++) {
+            if (views[i] != null && views[i].get() == o) return i;
+        }
+        return -1;
+    }
+
+    /** Позиція першого рядка з цим id або -1 (лінійний прохід по колонках id). */
+    public int find(UUID id) {
+        if (id == null) return -1;
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        for (int i = 0; i < size; i++) {
+            if (idLow[i] == low && idHigh[i] == high && !isNull(i)) return i;
+        }
+        return -1;
+    }
+
+    /** Рядок {@code index} має той самий id і ті самі значення полів, що й {@code o}. */
+    public boolean matches(int index, Obligation o) {
+        checkIndex(index);
+        if (o == null) {
+            return isNull(index);
+        }
+        if (types[index] == null) {
+            return foreign[index] == o;
+        }
+        UUID id = o.getId();
+        if (types[index] != ObligationType.of(o)
+                || idHigh[index] != id.getMostSignificantBits() || idLow[index] != id.getLeastSignificantBits()
+                || !Objects.equals(names[index], o.getName())
+                || Double.compare(insuredAmount[index], o.getInsuredAmount()) != 0
+                || Double.compare(factor[index], o.getFactor()) != 0
+                || period[index] != o.getPeriod()
+                || Double.compare(interestRate[index], o.getInterestRate()) != 0
+                || Double.compare(probability[index], o.getProbability()) != 0
+                || Double.compare(maxCost[index], o.getMaxCost()) != 0) {
+            return false;
+        }
+        ObligationType type = types[index];
+        return Arrays.equals(type.specificValues(get(index)), type.specificValues(o));
+    }
+
+    public UUID id(int index) {
+        checkIndex(index);
+        if (isNull(index)) {
+            return null;
+        }
+        return new UUID(idHigh[index], idLow[index]);
+    }
+
+    public String name(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    /** Тип рядка або {@code null} для стороннього підкласу чи порожнього рядка. */
+    public ObligationType type(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return types[index] == null && foreign[index] == null;
+    }
+
+    // Специфічні поля відомих типів; розкладка за типами — див. write(int, Obligation)
+
+    public String text0(int index) {
+        checkIndex(index);
+        return text0[index];
+    }
+
+    public String text1(int index) {
+        checkIndex(index);
+        return text1[index];
+    }
+
+    public double number(int index) {
+        checkIndex(index);
+        return number[index];
+    }
+
+    public boolean flag(int index) {
+        checkIndex(index);
+        return flag[index];
+    }
+
+    /** Дата як epoch day; {@link #NULL_DAY} — {@code null}. */
+    public long day0(int index) {
+        checkIndex(index);
+        return day0[index];
+    }
+
+    /** Дата як epoch day; {@link #NULL_DAY} — {@code null}. */
+    public long day1(int index) {
+        checkIndex(index);
+        return day1[index];
+    }
+
+    public long[] idHighs() { return idHigh; }
+    public long[] idLows() { return idLow; }
+    public double[] insuredAmounts() { return insuredAmount; }
+    public double[] factors() { return factor; }
+    public int[] periods() { return period; }
+    public double[] interestRates() { return interestRate; }
+    public double[] probabilities() { return probability; }
+    public double[] maxCosts() { return maxCost; }
+
+    // ===== Допоміжні методи =====
+
+    /**
+     * Записати рядок. Специфічні поля відомих типів розкладаються по типізованих колонках:
+     * AUTO — text0, text1, number; BUSINESS, LIABILITY, PROPERTY — text0, text1;
+     * HEALTH — text0, flag, number; LIFE — text0, day0, text1; TRAVEL — text0, day0, day1.
+     */
+    private void write(int i, Obligation o) {
+        if (views != null && views[i] != null && views[i].get() != o) {
+            views[i] = null;
+        }
+        text0[i] = null;
+        text1[i] = null;
+        number[i] = 0.0;
+        flag[i] = false;
+        day0[i] = NULL_DAY;
+        day1[i] = NULL_DAY;
+        foreign[i] = null;
+        if (o == null) {
+            idHigh[i] = 0L;
+            idLow[i] = 0L;
+            names[i] = null;
+            insuredAmount[i] = 0.0;
+            factor[i] = 0.0;
+            period[i] = 0;
+            interestRate[i] = 0.0;
+            probability[i] = 0.0;
+            maxCost[i] = 0.0;
+            types[i] = null;
+            return;
+        }
+
+        UUID id = o.getId();
+        idHigh[i] = id.getMostSignificantBits();
+        idLow[i] = id.getLeastSignificantBits();
+        names[i] = o.getName();
+        insuredAmount[i] = o.getInsuredAmount();
+        factor[i] = o.getFactor();
+        period[i] = o.getPeriod();
+        interestRate[i] = o.getInterestRate();
+        probability[i] = o.getProbability();
+        maxCost[i] = o.getMaxCost();
+
+        ObligationType type = ObligationType.of(o);
+        types[i] = type;
+        if (type == null) {
+            foreign[i] = o;
+            return;
+        }
+        switch (type) {
+            case AUTO -> {
+                AutoObligation a = (AutoObligation) o;
+                text0[i] = a.getVehicleType();
+                text1[i] = a.getDriverClass();
+                number[i] = a.getBonusMalus();
+            }
+            case BUSINESS -> {
+                BusinessObligation b = (BusinessObligation) o;
+                text0[i] = b.getRegistrationNumber();
+                text1[i] = b.getIndustry();
+            }
+            case HEALTH -> {
+                HealthObligation h = (HealthObligation) o;
+                text0[i] = h.getCoverageType();
+                flag[i] = h.isHasPreExistingConditions();
+                number[i] = h.getAnnualLimit();
+            }
+            case LIABILITY -> {
+                LiabilityObligation l = (LiabilityObligation) o;
+                text0[i] = l.getCoverageType();
+                text1[i] = l.getJurisdiction();
+            }
+            case LIFE -> {
+                LifeObligation l = (LifeObligation) o;
+                text0[i] = l.getInsuredPersonId();
+                day0[i] = day(l.getDateOfBirth());
+                text1[i] = l.getBeneficiaryName();
+            }
+            case PROPERTY -> {
+                PropertyObligation p = (PropertyObligation) o;
+                text0[i] = p.getPropertyAddress();
+                text1[i] = p.getPropertyType();
+            }
+            case TRAVEL -> {
+                TravelObligation t = (TravelObligation) o;
+                text0[i] = t.getDestinationCountry();
+                day0[i] = day(t.getTripStartDate());
+                day1[i] = day(t.getTripEndDate());
+            }
+        }
+    }
+
+    private static long day(LocalDate date) {
+        return date == null ? NULL_DAY : date.toEpochDay();
+    }
+
+    private static LocalDate date(long day) {
+        return day == NULL_DAY ? null : LocalDate.ofEpochDay(day);
+    }
+
+    private void copyRow(int from, int to) {
+        idHigh[to] = idHigh[from];
+        idLow[to] = idLow[from];
+        names[to] = names[from];
+        insuredAmount[to] = insuredAmount[from];
+        factor[to] = factor[from];
+        period[to] = period[from];
+        interestRate[to] = interestRate[from];
+        probability[to] = probability[from];
+        maxCost[to] = maxCost[from];
+        types[to] = types[from];
+        text0[to] = text0[from];
+        text1[to] = text1[from];
+        number[to] = number[from];
+        flag[to] = flag[from];
+        day0[to] = day0[from];
+        day1[to] = day1[from];
+        foreign[to] = foreign[from];
+        if (views != null) views[to] = views[from];
+    }
+
+    private void shift(int from, int to, int length) {
+        if (length <= 0) return;
+        System.arraycopy(idHigh, from, idHigh, to, length);
+        System.arraycopy(idLow, from, idLow, to, length);
+        System.arraycopy(names, from, names, to, length);
+        System.arraycopy(insuredAmount, from, insuredAmount, to, length);
+        System.arraycopy(factor, from, factor, to, length);
+        System.arraycopy(period, from, period, to, length);
+        System.arraycopy(interestRate, from, interestRate, to, length);
+        System.arraycopy(probability, from, probability, to, length);
+        System.arraycopy(maxCost, from, maxCost, to, length);
+        System.arraycopy(types, from, types, to, length);
+        System.arraycopy(text0, from, text0, to, length);
+        System.arraycopy(text1, from, text1, to, length);
+        System.arraycopy(number, from, number, to, length);
+        System.arraycopy(flag, from, flag, to, length);
+        System.arraycopy(day0, from, day0, to, length);
+        System.arraycopy(day1, from, day1, to, length);
+        System.arraycopy(foreign, from, foreign, to, length);
+        if (views != null) System.arraycopy(views, from, views, to, length);
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = insuredAmount.length;
+        if (required <= capacity) return;
+        int c = Math.max(required, capacity + (capacity >> 1));
+        idHigh = Arrays.copyOf(idHigh, c);
+        idLow = Arrays.copyOf(idLow, c);
+        names = Arrays.copyOf(names, c);
+        insuredAmount = Arrays.copyOf(insuredAmount, c);
+        factor = Arrays.copyOf(factor, c);
+        period = Arrays.copyOf(period, c);
+        interestRate = Arrays.copyOf(interestRate, c);
+        probability = Arrays.copyOf(probability, c);
+        maxCost = Arrays.copyOf(maxCost, c);
+        types = Arrays.copyOf(types, c);
+        text0 = Arrays.copyOf(text0, c);
+        text1 = Arrays.copyOf(text1, c);
+        number = Arrays.copyOf(number, c);
+        flag = Arrays.copyOf(flag, c);
+        day0 = Arrays.copyOf(day0, c);
+        day1 = Arrays.copyOf(day1, c);
+        foreign = Arrays.copyOf(foreign, c);
+        if (views != null) views = Arrays.copyOf(views, c);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.org.insurance.domain;
+
+import lombok.Getter;
+
+/**
+ * Числові поля зобов'язання, за якими можна шукати діапазоном і будувати індекси.
+ * {@code period} подається як {@code double} — це точне значення для будь-якого {@code int}.
+ */
+@Getter
+public enum ObligationField {
+    INSURED_AMOUNT("сума страхування") {
+        public double valueOf(Obligation o) { return o.getInsuredAmount(); }
+        public double valueAt(ObligationColumns c, int row) { return c.insuredAmounts()[row]; }
+    },
+    FACTOR("фактор") {
+        public double valueOf(Obligation o) { return o.getFactor(); }
+        public double valueAt(ObligationColumns c, int row) { return c.factors()[row]; }
+    },
+    PERIOD("період (міс.)") {
+        public double valueOf(Obligation o) { return o.getPeriod(); }
+        public double valueAt(ObligationColumns c, int row) { return c.periods()[row]; }
+    },
+    INTEREST_RATE("відсоткова ставка") {
+        public double valueOf(Obligation o) { return o.getInterestRate(); }
+        public double valueAt(ObligationColumns c, int row) { return c.interestRates()[row]; }
+    },
+    PROBABILITY("ймовірність") {
+        public double valueOf(Obligation o) { return o.getProbability(); }
+        public double valueAt(ObligationColumns c, int row) { return c.probabilities()[row]; }
+    },
+    MAX_COST("гранична вартість") {
+        public double valueOf(Obligation o) { return o.getMaxCost(); }
+        public double valueAt(ObligationColumns c, int row) { return c.maxCosts()[row]; }
+    };
+
+    private final String displayName;
+
+    ObligationField(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public abstract double valueOf(Obligation o);
+
+    /** Значення з колонок без матеріалізації рядка; для порожнього рядка — 0. */
+    public abstract double valueAt(ObligationColumns columns, int row);
+}
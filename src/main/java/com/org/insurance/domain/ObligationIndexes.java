@@ -0,0 +1,274 @@
+package com.org.insurance.domain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Індекси деривативи: {@link RangeIndex} за полями, {@link NameIndex} за назвами
+ * та {@link IdIndex} за UUID.
+ * <p>
+ * Кожен індекс будується при першому запиті, якому він потрібен, а далі оновлюється подіями
+ * деривативи: додавання в кінець, видалення рядків і зміна полів зачіпають лише пари та
+ * триграмні списки змінених рядків. Після подій, що довільно змінюють номери рядків (сортування,
+ * вставка всередину, заміна списку), індекси скидаються і перебудовуються при наступному запиті.
+ */
+final class ObligationIndexes {
+
+    private static final ObligationField[] FIELDS = ObligationField.values();
+
+    private final RangeIndex[] byField = new RangeIndex[FIELDS.length];
+    private NameIndex names;
+    private IdIndex ids;
+
+    /** Рядок, поле якого змінюється між {@link #beforeChange} і {@link #afterChange}, або -1. */
+    private int changing = -1;
+    /** Значення полів цього рядка до зміни. */
+    private final double[] before = new double[FIELDS.length];
+
+    RangeIndex get(ObligationField field, Derivative derivative) {
+        RangeIndex index = byField[field.ordinal()];
+        if (index == null) {
+            index = RangeIndex.build(values(field, derivative));
+            byField[field.ordinal()] = index;
+        }
+        return index;
+    }
+
+    NameIndex names(Derivative derivative) {
+        if (names == null) {
+            names = NameIndex.build(names(derivative.getColumns(), derivative.getObligations()));
+        }
+        return names;
+    }
+
+    IdIndex ids(Derivative derivative) {
+        if (ids == null) {
+            ids = buildIds(derivative.getColumns(), derivative.getObligations());
+        }
+        return ids;
+    }
+
+    // ===== Події деривативи =====
+
+    /** Номери рядків змінилися довільно — усі індекси буде перебудовано. */
+    void invalidate() {
+        Arrays.fill(byField, null);
+        names = null;
+        ids = null;
+        changing = -1;
+    }
+
+    /** Рядки {@code [from, to)} додано в кінець списку. */
+    void appended(Derivative derivative, int from, int to) {
+        changing = -1;
+        ObligationColumns columns = derivative.getColumns();
+        List<Obligation> list = columns == null ? InsuranceCalculator.randomAccess(derivative.backingObligations()) : null;
+        for (ObligationField field : FIELDS) {
+            RangeIndex index = byField[field.ordinal()];
+            if (index == null) continue;
+            for (int row = from; row < to; row++) {
+                index.insert(columns != null ? field.valueAt(columns, row) : value(field, list.get(row)), row);
+            }
+        }
+        if (names != null) {
+            for (int row = from; row < to; row++) {
+                names.append(columns != null ? columns.name(row) : name(list.get(row)));
+            }
+        }
+        if (ids != null) {
+            for (int row = from; row < to; row++) {
+                if (columns != null) {
+                    if (!columns.isNull(row)) ids.add(columns.idHighs()[row], columns.idLows()[row], row);
+                } else {
+                    Obligation o = list.get(row);
+                    if (o != null && o.getId() != null) {
+                        ids.add(o.getId().getMostSignificantBits(), o.getId().getLeastSignificantBits(), row);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Рядок {@code row} із зобов'язанням {@code o} видалено; наступні зсунулися на одну позицію. */
+    void removed(int row, Obligation o) {
+        changing = -1;
+        for (ObligationField field : FIELDS) {
+            RangeIndex index = byField[field.ordinal()];
+            if (index != null && !index.removeRow(value(field, o), row)) {
+                invalidate();
+                return;
+            }
+        }
+        if (names != null) names.remove(row);
+        if (ids != null && !ids.removeRow(id(o), row)) ids = null;
+    }
+
+    /** Видалено позначені рядки з {@code size}; решта ущільнилася зі збереженням порядку. */
+    void removed(BitSet rows, int size) {
+        changing = -1;
+        if (!hasRowIndexes() && ids == null) {
+            return;
+        }
+        int[] renumber = new int[size];
+        for (int row = 0, next = 0; row < size; row++) {
+            renumber[row] = rows.get(row) ? -1 : next++;
+        }
+        for (RangeIndex index : byField) {
+            if (index != null) index.renumber(renumber);
+        }
+        if (names != null) names.renumber(renumber);
+        if (ids != null && !ids.renumber(renumber)) ids = null;
+    }
+
+    /** Рядок {@code row} замінено: {@code previous} — попереднє зобов'язання, {@code current} — нове. */
+    void replaced(int row, Obligation previous, Obligation current) {
+        changing = -1;
+        for (ObligationField field : FIELDS) {
+            RangeIndex index = byField[field.ordinal()];
+            if (index == null) continue;
+            if (!index.delete(value(field, previous), row)) {
+                invalidate();
+                return;
+            }
+            index.insert(value(field, current), row);
+        }
+        if (names != null) names.rename(row, name(current));
+        if (ids != null && !ids.replace(row, id(previous), id(current))) ids = null;
+    }
+
+    /** Сеттер зобов'язання {@code o} от-от змінить поле: запам'ятати рядок і старі значення. */
+    void beforeChange(Derivative derivative, Obligation o) {
+        changing = -1;
+        if (!hasRowIndexes()) {
+            return;
+        }
+        int row = locate(derivative, o);
+        if (row < 0) {
+            invalidate();
+            return;
+        }
+        for (ObligationField field : FIELDS) {
+            before[field.ordinal()] = field.valueOf(o);
+        }
+        changing = row;
+    }
+
+    /** Поле змінено: перенести пари рядка, значення яких змінилися. */
+    void afterChange(Obligation o) {
+        int row = changing;
+        changing = -1;
+        if (row < 0) {
+            return;
+        }
+        for (ObligationField field : FIELDS) {
+            RangeIndex index = byField[field.ordinal()];
+            double value = field.valueOf(o);
+            double old = before[field.ordinal()];
+            if (index == null || Double.compare(value, old) == 0) continue;
+            if (!index.delete(old, row)) {
+                invalidate();
+                return;
+            }
+            index.insert(value, row);
+        }
+        if (names != null) names.rename(row, o.getName());
+    }
+
+    private boolean hasRowIndexes() {
+        if (names != null) return true;
+        for (RangeIndex index : byField) {
+            if (index != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Рядок зобов'язання за {@link IdIndex} або -1, якщо його не визначити однозначно
+     * (UUID повторюються, або в звичайному списку за цим UUID інший об'єкт).
+     */
+    private int locate(Derivative derivative, Obligation o) {
+        if (o.getId() == null) {
+            return -1;
+        }
+        IdIndex index = ids(derivative);
+        if (index.hasDuplicates()) {
+            return -1;
+        }
+        int row = index.find(o.getId().getMostSignificantBits(), o.getId().getLeastSignificantBits());
+        if (row >= 0 && derivative.getColumns() == null && derivative.backingObligations().get(row) != o) {
+            return -1;
+        }
+        return row;
+    }
+
+    private static double value(ObligationField field, Obligation o) {
+        return o == null ? 0.0 : field.valueOf(o);
+    }
+
+    private static String name(Obligation o) {
+        return o == null ? null : o.getName();
+    }
+
+    private static UUID id(Obligation o) {
+        return o == null ? null : o.getId();
+    }
+
+    private static IdIndex buildIds(ObligationColumns columns, List<Obligation> obligations) {
+        if (columns != null) {
+            int n = columns.size();
+            boolean[] present = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                present[i] = !columns.isNull(i);
+            }
+            return IdIndex.build(columns.idHighs(), columns.idLows(), present, n);
+        }
+        List<Obligation> list = InsuranceCalculator.randomAccess(obligations);
+        int n = list.size();
+        long[] highs = new long[n];
+        long[] lows = new long[n];
+        boolean[] present = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Obligation o = list.get(i);
+            if (o == null || o.getId() == null) continue;
+            highs[i] = o.getId().getMostSignificantBits();
+            lows[i] = o.getId().getLeastSignificantBits();
+            present[i] = true;
+        }
+        return IdIndex.build(highs, lows, present, n);
+    }
+
+    private static String[] names(ObligationColumns columns, List<Obligation> obligations) {
+        if (columns != null) {
+            String[] names = new String[columns.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = columns.name(i);
+            }
+            return names;
+        }
+        List<Obligation> list = InsuranceCalculator.randomAccess(obligations);
+        String[] names = new String[list.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = name(list.get(i));
+        }
+        return names;
+    }
+
+    private static double[] values(ObligationField field, Derivative derivative) {
+        ObligationColumns columns = derivative.getColumns();
+        if (columns != null) {
+            double[] values = new double[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.valueAt(columns, i);
+            }
+            return values;
+        }
+        List<Obligation> list = InsuranceCalculator.randomAccess(derivative.getObligations());
+        double[] values = new double[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(field, list.get(i));
+        }
+        return values;
+    }
+}
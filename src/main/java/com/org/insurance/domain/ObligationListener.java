@@ -0,0 +1,25 @@
+package com.org.insurance.domain;
+
+/**
+ * Сповіщення про зміни зобов'язань деривативи.
+ * {@code added}/{@code removed} надсилає список деривативи, а {@code beforeChange}/{@code afterChange}
+ * — сеттери {@link Obligation} навколо зміни поля. {@code reordered} — склад змінено не лише
+ * в кінці списку (вставка всередину, заміна на позиції).
+ */
+public interface ObligationListener {
+
+    default void added(Obligation o) {
+    }
+
+    default void removed(Obligation o) {
+    }
+
+    default void beforeChange(Obligation o) {
+    }
+
+    default void afterChange(Obligation o) {
+    }
+
+    default void reordered() {
+    }
+}
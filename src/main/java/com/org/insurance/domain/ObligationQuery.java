@@ -0,0 +1,81 @@
+package com.org.insurance.domain;
+
+import java.util.Arrays;
+
+/**
+ * Умови пошуку зобов'язань: підрядок у назві (без урахування регістру) та діапазони
+ * числових полів. Межі включні, {@code null} — без межі. Значення NaN, як і раніше
+ * в лінійному пошуку, не відсікається жодною межею.
+ */
+public final class ObligationQuery {
+
+    private static final ObligationField[] FIELDS = ObligationField.values();
+
+    private String namePart;
+    private final Double[] min = new Double[FIELDS.length];
+    private final Double[] max = new Double[FIELDS.length];
+
+    public ObligationQuery nameContains(String part) {
+        this.namePart = (part == null || part.isEmpty()) ? null : part.toLowerCase();
+        return this;
+    }
+
+    public ObligationQuery range(ObligationField field, Double min, Double max) {
+        if (field == null) {
+            throw new IllegalArgumentException("field is null");
+        }
+        this.min[field.ordinal()] = min;
+        this.max[field.ordinal()] = max;
+        return this;
+    }
+
+    public ObligationQuery range(ObligationField field, Integer min, Integer max) {
+        return range(field, min == null ? null : min.doubleValue(), max == null ? null : max.doubleValue());
+    }
+
+    public String getNamePart() {
+        return namePart;
+    }
+
+    public Double getMin(ObligationField field) {
+        return min[field.ordinal()];
+    }
+
+    public Double getMax(ObligationField field) {
+        return max[field.ordinal()];
+    }
+
+    /** Чи обмежене поле хоча б з одного боку. */
+    public boolean isBounded(ObligationField field) {
+        return min[field.ordinal()] != null || max[field.ordinal()] != null;
+    }
+
+    public boolean matches(Obligation o) {
+        if (o == null) return false;
+        if (namePart != null && (o.getName() == null || !o.getName().toLowerCase().contains(namePart))) {
+            return false;
+        }
+        return matchesFields(o);
+    }
+
+    /** Перевірка лише числових діапазонів — назву перевіряє викликач. */
+    boolean matchesFields(Obligation o) {
+        for (ObligationField field : FIELDS) {
+            if (!inRange(field, field.valueOf(o))) return false;
+        }
+        return true;
+    }
+
+    boolean inRange(ObligationField field, double v) {
+        Double lo = min[field.ordinal()];
+        Double hi = max[field.ordinal()];
+        if (lo != null && v < lo) return false;
+        if (hi != null && v > hi) return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ObligationQuery{name='" + namePart + "', min=" + Arrays.toString(min) + ", max=" + Arrays.toString(max) + '}';
+    }
+}
@@ -0,0 +1,193 @@
+package com.org.insurance.domain;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Пошук зобов'язань деривативи за {@link ObligationQuery}.
+ * <p>
+ * Для великих деривативів планувальник оцінює кожне джерело кандидатів: для обмеженого поля —
+ * точну кількість рядків у діапазоні за його {@link RangeIndex} (два двійкові пошуки), для назви —
+ * перетин триграмних списків {@link NameIndex}. Найселективніше джерело дає початкову множину,
+ * з якою перетинаються бітмапи інших, поки вони не набагато ширші за поточних кандидатів.
+ * Решта умов перевіряється лише для кандидатів, назва — за кешованими назвами в нижньому регістрі,
+ * без алокацій. Якщо навіть найкраще джерело відбирає значну частку рядків, виконується
+ * звичайний прохід. Результат завжди в порядку зобов'язань у деривативі — як у лінійному пошуку.
+ */
+public final class ObligationSearch {
+
+    /** Менші деривативи проглядаються повністю, без індексів. */
+    static final int MIN_INDEXED_SIZE = 2048;
+
+    /** Прохід замість індексу, якщо найкраще джерело містить більше ніж 1/SCAN_FRACTION рядків. */
+    private static final int SCAN_FRACTION = 4;
+
+    /** Джерело перетинається бітмапою, якщо воно не ширше за стільки кандидатів. */
+    private static final int INTERSECT_FACTOR = 8;
+
+    private static final ObligationField[] FIELDS = ObligationField.values();
+
+    private ObligationSearch() {
+    }
+
+    public static List<Obligation> find(Derivative derivative, ObligationQuery query) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (query == null) {
+            throw new IllegalArgumentException("query is null");
+        }
+        Rows rows = new Rows(derivative);
+        Plan plan = plan(derivative, query, rows.size());
+
+        List<Obligation> found = new ArrayList<>();
+        if (plan.candidates == null) {
+            for (int row = 0; row < rows.size(); row++) {
+                if (rows.matches(row, query, plan.names)) found.add(rows.get(row));
+            }
+        } else {
+            BitSet candidates = plan.candidates;
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                if (rows.matches(row, query, plan.names)) found.add(rows.get(row));
+            }
+        }
+        return found;
+    }
+
+    /** Опис плану запиту, наприклад {@code "index PERIOD(12) ∩ name(40)"} або {@code "scan"}. */
+    public static String explain(Derivative derivative, ObligationQuery query) {
+        if (derivative == null || query == null) {
+            return "scan";
+        }
+        Plan plan = plan(derivative, query, new Rows(derivative).size());
+        return plan.candidates == null ? "scan" : plan.description.toString();
+    }
+
+    private static Plan plan(Derivative derivative, ObligationQuery query, int size) {
+        Plan plan = new Plan();
+        if (size < MIN_INDEXED_SIZE) {
+            return plan;
+        }
+        ObligationIndexes indexes = derivative.indexes();
+
+        int[] nameRows = null;
+        if (query.getNamePart() != null) {
+            plan.names = indexes.names(derivative);
+            nameRows = plan.names.candidates(query.getNamePart());
+        }
+
+        // Обмежені поля за зростанням кількості рядків у діапазоні
+        ObligationField[] bounded = new ObligationField[FIELDS.length];
+        int[] counts = new int[FIELDS.length];
+        int m = 0;
+        for (ObligationField field : FIELDS) {
+            if (!query.isBounded(field)) continue;
+            int count = indexes.get(field, derivative).count(query.getMin(field), query.getMax(field));
+            int i = m++;
+            while (i > 0 && counts[i - 1] > count) {
+                bounded[i] = bounded[i - 1];
+                counts[i] = counts[i - 1];
+                i--;
+            }
+            bounded[i] = field;
+            counts[i] = count;
+        }
+
+        boolean nameFirst = nameRows != null && (m == 0 || nameRows.length <= counts[0]);
+        int first = nameFirst ? nameRows.length : (m > 0 ? counts[0] : -1);
+        if (first < 0 || (long) first * SCAN_FRACTION > size) {
+            return plan;
+        }
+
+        BitSet candidates = new BitSet(size);
+        int cardinality = first;
+        int k = 0;
+        if (nameFirst) {
+            for (int row : nameRows) candidates.set(row);
+            plan.description.append("name(").append(nameRows.length).append(')');
+        } else {
+            indexes.get(bounded[0], derivative).mark(query.getMin(bounded[0]), query.getMax(bounded[0]), candidates);
+            plan.description.append("index ").append(bounded[0]).append('(').append(counts[0]).append(')');
+            k = 1;
+        }
+
+        for (; k < m && cardinality > 0; k++) {
+            if ((long) counts[k] > (long) cardinality * INTERSECT_FACTOR) break;
+            BitSet other = new BitSet(size);
+            indexes.get(bounded[k], derivative).mark(query.getMin(bounded[k]), query.getMax(bounded[k]), other);
+            candidates.and(other);
+            cardinality = candidates.cardinality();
+            plan.description.append(" ∩ ").append(bounded[k]).append('(').append(counts[k]).append(')');
+        }
+        if (!nameFirst && nameRows != null && cardinality > 0
+                && (long) nameRows.length <= (long) cardinality * INTERSECT_FACTOR) {
+            BitSet other = new BitSet(size);
+            for (int row : nameRows) other.set(row);
+            candidates.and(other);
+            plan.description.append(" ∩ name(").append(nameRows.length).append(')');
+        }
+        plan.candidates = candidates;
+        return plan;
+    }
+
+    private static final class Plan {
+        /** Кандидати або {@code null} — переглянути всі рядки. */
+        private BitSet candidates;
+        /** Індекс назв, якщо умова на назву є і дериватива достатньо велика. */
+        private NameIndex names;
+        private final StringBuilder description = new StringBuilder();
+    }
+
+    /** Доступ до рядків деривативи незалежно від сховища. */
+    private static final class Rows {
+        private final ObligationColumns columns;
+        private final List<Obligation> list;
+
+        Rows(Derivative derivative) {
+            this.columns = derivative.getColumns();
+            this.list = columns == null ? InsuranceCalculator.randomAccess(derivative.getObligations()) : null;
+        }
+
+        int size() {
+            return columns != null ? columns.size() : list.size();
+        }
+
+        Obligation get(int row) {
+            return columns != null ? columns.get(row) : list.get(row);
+        }
+
+        /**
+         * Повна перевірка рядка. З індексом назв назва береться з нього, інакше — з рядка;
+         * у колонковому режимі поля читаються з колонок, без матеріалізації.
+         */
+        boolean matches(int row, ObligationQuery query, NameIndex names) {
+            String part = query.getNamePart();
+            if (columns == null) {
+                Obligation o = list.get(row);
+                if (names == null || o == null) {
+                    return query.matches(o);
+                }
+                if (part != null) {
+                    String name = names.lowerName(row);
+                    if (name == null || !name.contains(part)) return false;
+                }
+                return query.matchesFields(o);
+            }
+
+            if (columns.isNull(row)) return false;
+            if (part != null) {
+                String name = names != null ? names.lowerName(row) : lower(columns.name(row));
+                if (name == null || !name.contains(part)) return false;
+            }
+            for (ObligationField field : FIELDS) {
+                if (!query.inRange(field, field.valueAt(columns, row))) return false;
+            }
+            return true;
+        }
+
+        private static String lower(String s) {
+            return s == null ? null : s.toLowerCase();
+        }
+    }
+}
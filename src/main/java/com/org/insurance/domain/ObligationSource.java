@@ -0,0 +1,15 @@
+package com.org.insurance.domain;
+
+import java.util.List;
+
+/**
+ * Відкладене джерело зобов'язань лінивої деривативи ({@link Derivative#lazy}): читає їх з диска
+ * під час першого звернення. Помилку читання повідомляє неперевірюваним винятком
+ * (наприклад, {@link java.io.UncheckedIOException}) — дериватива тоді лишається незавантаженою.
+ */
+@FunctionalInterface
+public interface ObligationSource {
+
+    /** Зобов'язання деривативи або {@code null}, якщо списку немає. */
+    List<Obligation> load();
+}
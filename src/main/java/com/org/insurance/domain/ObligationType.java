@@ -2,40 +2,145 @@ package com.org.insurance.domain;
 
 import lombok.Getter;
 
+import java.time.LocalDate;
+import java.util.UUID;
+
 @Getter
 public enum ObligationType {
-    AUTO("auto", true) {
+    AUTO("auto", true, AutoObligation.class) {
         public Obligation create() { return new AutoObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            AutoObligation a = (AutoObligation) o;
+            return new Object[] { a.getVehicleType(), a.getDriverClass(), a.getBonusMalus() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new AutoObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (String) v[1], (Double) v[2]);
+        }
     },
-    BUSINESS("business", true) {
+    BUSINESS("business", true, BusinessObligation.class) {
         public Obligation create() { return new BusinessObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            BusinessObligation b = (BusinessObligation) o;
+            return new Object[] { b.getRegistrationNumber(), b.getIndustry() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new BusinessObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (String) v[1]);
+        }
     },
-    HEALTH("health", true) {
+    HEALTH("health", true, HealthObligation.class) {
         public Obligation create() { return new HealthObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            HealthObligation h = (HealthObligation) o;
+            return new Object[] { h.getCoverageType(), h.isHasPreExistingConditions(), h.getAnnualLimit() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new HealthObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (Boolean) v[1], (Double) v[2]);
+        }
     },
-    LIABILITY("liability", true) {
+    LIABILITY("liability", true, LiabilityObligation.class) {
         public Obligation create() { return new LiabilityObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            LiabilityObligation l = (LiabilityObligation) o;
+            return new Object[] { l.getCoverageType(), l.getJurisdiction() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new LiabilityObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (String) v[1]);
+        }
     },
-    LIFE("life", true) {
+    LIFE("life", true, LifeObligation.class) {
         public Obligation create() { return new LifeObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            LifeObligation l = (LifeObligation) o;
+            return new Object[] { l.getInsuredPersonId(), l.getDateOfBirth(), l.getBeneficiaryName() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new LifeObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (LocalDate) v[1], (String) v[2]);
+        }
     },
-    PROPERTY("property", true) {
+    PROPERTY("property", true, PropertyObligation.class) {
         public Obligation create() { return new PropertyObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            PropertyObligation p = (PropertyObligation) o;
+            return new Object[] { p.getPropertyAddress(), p.getPropertyType() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new PropertyObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (String) v[1]);
+        }
     },
-    TRAVEL("travel", true) {
+    TRAVEL("travel", true, TravelObligation.class) {
         public Obligation create() { return new TravelObligation(); }
+
+        public Object[] specificValues(Obligation o) {
+            TravelObligation t = (TravelObligation) o;
+            return new Object[] { t.getDestinationCountry(), t.getTripStartDate(), t.getTripEndDate() };
+        }
+
+        public Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                  double interestRate, double probability, double maxCost, Object[] v) {
+            return new TravelObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    (String) v[0], (LocalDate) v[1], (LocalDate) v[2]);
+        }
     };
 
     private final String displayName;
     private final boolean visible;
+    private final Class<? extends Obligation> obligationClass;
 
-    ObligationType(String displayName, boolean visible) {
+    ObligationType(String displayName, boolean visible, Class<? extends Obligation> obligationClass) {
         this.displayName = displayName;
         this.visible = visible;
+        this.obligationClass = obligationClass;
     }
 
     public abstract Obligation create();
 
+    /**
+     * Специфічні для типу поля у фіксованому порядку (бічна таблиця колонкового сховища).
+     */
+    public abstract Object[] specificValues(Obligation o);
+
+    /**
+     * Відновити зобов'язання з базових полів та значень {@link #specificValues(Obligation)}.
+     */
+    public abstract Obligation restore(UUID id, String name, double insuredAmount, double factor, int period,
+                                       double interestRate, double probability, double maxCost, Object[] specific);
+
+    /** Тип для точного класу зобов'язання або {@code null}, якщо клас не належить до жодного з типів. */
+    public static ObligationType of(Obligation o) {
+        if (o == null) return null;
+        Class<?> cls = o.getClass();
+        for (ObligationType t : VALUES) {
+            if (t.obligationClass == cls) return t;
+        }
+        return null;
+    }
+
+    private static final ObligationType[] VALUES = values();
+
     public static ObligationType[] visibleValues() {
         ObligationType[] all = values();
         java.util.List<ObligationType> list = new java.util.ArrayList<>();
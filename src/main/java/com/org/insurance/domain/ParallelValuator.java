@@ -0,0 +1,176 @@
+package com.org.insurance.domain;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Паралельна оцінка деривативів на {@link ForkJoinPool}.
+ * <p>
+ * Велика дериватива ділиться на діапазони зобов'язань, розмір яких залежить від кількості
+ * зобов'язань і паралелізму пулу; вся книга оцінюється одночасно — по задачі на деривативу,
+ * кожна з яких за потреби ділиться далі.
+ * <p>
+ * Діапазони завжди складаються з цілих блоків {@link DeterministicSum}, а суми блоків
+ * складаються у фіксованому дереві, тому результат не залежить від кількості потоків і
+ * побітово збігається з {@link InsuranceCalculator} у режимі {@link SummationMode#DETERMINISTIC}.
+ * Під час оцінки деривативи не повинні змінюватися.
+ */
+public final class ParallelValuator {
+
+    /** Мінімальний розмір діапазону (у блоках {@link DeterministicSum#BLOCK}), який не має сенсу ділити далі. */
+    private static final int MIN_CHUNK_BLOCKS = 8;
+
+    /** Скільки діапазонів на потік створювати для балансування навантаження. */
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final InsuranceCalculator calculator;
+
+    public ParallelValuator() {
+        this(ForkJoinPool.commonPool(), new InsuranceCalculator());
+    }
+
+    public ParallelValuator(ForkJoinPool pool, InsuranceCalculator calculator) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.calculator = Objects.requireNonNull(calculator, "calculator");
+    }
+
+    /**
+     * Оцінити одну деривативу, розбиваючи список зобов'язань між потоками.
+     */
+    public Valuation valueDerivative(Derivative derivative) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        return pool.invoke(new DerivativeTask(derivative));
+    }
+
+    /**
+     * Оцінити всі деривативи книги. null-елементи пропускаються.
+     */
+    public BookValuation valueBook(List<Derivative> book) {
+        if (book == null || book.isEmpty()) {
+            return new BookValuation(List.of(), 0.0, 0.0, 0L);
+        }
+        return pool.invoke(new BookTask(book));
+    }
+
+    private int threshold(int blocks) {
+        int chunks = Math.max(1, pool.getParallelism() * CHUNKS_PER_THREAD);
+        return Math.max(MIN_CHUNK_BLOCKS, blocks / chunks);
+    }
+
+    // ===== Задачі =====
+    // ForkJoinTask серіалізовний, але задачі не серіалізуються: списки позначено transient
+
+    private final class BookTask extends RecursiveTask<BookValuation> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Derivative> book;
+
+        BookTask(List<Derivative> book) {
+            this.book = book;
+        }
+
+        @Override
+        protected BookValuation compute() {
+            List<DerivativeTask> tasks = new ArrayList<>(book.size());
+            for (Derivative d : book) {
+                if (d != null) {
+                    tasks.add(new DerivativeTask(d));
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+
+            // Загальні суми — у порядку книги, незалежно від того, яка задача завершилася першою
+            List<Valuation> results = new ArrayList<>(tasks.size());
+            CompensatedSum totalValue = new CompensatedSum();
+            CompensatedSum totalRisk = new CompensatedSum();
+            long totalCount = 0L;
+            for (DerivativeTask task : tasks) {
+                Valuation v = task.join();
+                results.add(v);
+                totalValue.add(v.getValue());
+                totalRisk.add(v.getRisk());
+                totalCount += v.getCount();
+            }
+            return new BookValuation(results, totalValue.value(), totalRisk.value(), totalCount);
+        }
+    }
+
+    private final class DerivativeTask extends RecursiveTask<Valuation> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Derivative derivative;
+
+        DerivativeTask(Derivative derivative) {
+            this.derivative = derivative;
+        }
+
+        @Override
+        protected Valuation compute() {
+            ObligationColumns columns = derivative.getColumns();
+            List<Obligation> obligations = columns == null
+                    ? InsuranceCalculator.randomAccess(derivative.getObligations())
+                    : null;
+            int size = columns != null ? columns.size() : obligations.size();
+
+            int blocks = DeterministicSum.blockCount(size);
+            double[] premiums = new double[blocks];
+            double[] risks = new double[blocks];
+            new BlockTask(columns, obligations, size, 0, blocks, threshold(blocks), premiums, risks).compute();
+
+            return new Valuation(derivative.getId(), derivative.getName(),
+                    DeterministicSum.pairwise(premiums, 0, blocks),
+                    DeterministicSum.pairwise(risks, 0, blocks),
+                    size);
+        }
+    }
+
+    /** Заповнює суми премій і ризику для блоків {@code [fromBlock, toBlock)}. */
+    private final class BlockTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final ObligationColumns columns;
+        private final transient List<Obligation> obligations;
+        private final int size;
+        private final int fromBlock;
+        private final int toBlock;
+        private final int threshold;
+        private final double[] premiums;
+        private final double[] risks;
+
+        BlockTask(ObligationColumns columns, List<Obligation> obligations, int size,
+                  int fromBlock, int toBlock, int threshold, double[] premiums, double[] risks) {
+            this.columns = columns;
+            this.obligations = obligations;
+            this.size = size;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.threshold = threshold;
+            this.premiums = premiums;
+            this.risks = risks;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock <= threshold) {
+                calculator.blockSums(columns, obligations, size, fromBlock, toBlock, premiums, risks);
+                return;
+            }
+
+            int mid = (fromBlock + toBlock) >>> 1;
+            invokeAll(new BlockTask(columns, obligations, size, fromBlock, mid, threshold, premiums, risks),
+                    new BlockTask(columns, obligations, size, mid, toBlock, threshold, premiums, risks));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.org.insurance.domain;
+
+import java.util.Iterator;
+
+/**
+ * Поточні агрегати деривативи, що оновлюються за O(1) на кожне додавання, видалення
+ * або зміну зобов'язання: кількість, сума премій ({@link InsuranceCalculator#priceOf}),
+ * сума ризику ({@link RiskComparator#riskScore}) та розбивка за {@link ObligationType}.
+ * <p>
+ * Суми ведуться компенсовано ({@link CompensatedSum}), тому віднімання при видаленні
+ * не накопичує помітної похибки. Нескінченні та NaN доданки до суми не додаються, а лише
+ * рахуються: доки вони є, сума дорівнює тому, що дав би повний прохід (±∞ або NaN), а після
+ * їх видалення — знову скінченній частині. Якщо ж переповнилася сама скінченна частина і з неї
+ * потім віднімали, агрегати позначаються застарілими ({@link #isStale()}) — їх перераховує
+ * {@link Derivative#getAggregates()}. Зобов'язання сторонніх класів потрапляють у кошик {@code null}-типу.
+ * <p>
+ * Ззовні пакета агрегати лише читаються: змінюють їх події деривативи.
+ * <p>
+ * Агрегати можна зберегти поруч із деривативою (кошики за {@link #slots()}) і відновити
+ * через {@link #restore} — так лінива дериватива показує їх, не читаючи зобов'язань.
+ */
+public final class PortfolioAggregates {
+
+    private static final ObligationType[] TYPES = ObligationType.values();
+    private static final int OTHER = TYPES.length;
+
+    private long count;
+    private final Total premium = new Total();
+    private final Total risk = new Total();
+
+    private final long[] countByType = new long[TYPES.length + 1];
+    private final Total[] premiumByType = new Total[TYPES.length + 1];
+    private final Total[] riskByType = new Total[TYPES.length + 1];
+
+    /** Зі скінченної частини, що вже переповнилася, віднімали — сумам більше не можна вірити. */
+    private boolean stale;
+
+    public PortfolioAggregates() {
+        for (int i = 0; i <= OTHER; i++) {
+            premiumByType[i] = new Total();
+            riskByType[i] = new Total();
+        }
+    }
+
+    /** Агрегати зобов'язань ітератора одним проходом — наприклад, потокового читання файлу. */
+    public static PortfolioAggregates of(Iterator<? extends Obligation> obligations) {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        PortfolioAggregates a = new PortfolioAggregates();
+        obligations.forEachRemaining(a::added);
+        return a;
+    }
+
+    /**
+     * Відновити збережені агрегати: масиви кошиків довжини {@link #slots()} і загальні суми
+     * (загальна кількість — сума кошиків).
+     */
+    public static PortfolioAggregates restore(long[] counts, double[] premiums, double[] risks,
+                                              double totalPremium, double totalRisk) {
+        if (counts == null || premiums == null || risks == null) {
+            throw new IllegalArgumentException("slots are null");
+        }
+        if (counts.length != slots() || premiums.length != slots() || risks.length != slots()) {
+            throw new IllegalArgumentException("slots.length != " + slots());
+        }
+        PortfolioAggregates a = new PortfolioAggregates();
+        for (int i = 0; i <= OTHER; i++) {
+            a.count += counts[i];
+            a.countByType[i] = counts[i];
+            a.premiumByType[i].add(premiums[i], 1);
+            a.riskByType[i].add(risks[i], 1);
+        }
+        a.premium.add(totalPremium, 1);
+        a.risk.add(totalRisk, 1);
+        return a;
+    }
+
+    /** Кількість кошиків розбивки: типи {@link ObligationType} за порядком, останній — сторонні класи. */
+    public static int slots() {
+        return OTHER + 1;
+    }
+
+    /** Кількість не-null зобов'язань. */
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalPremium() {
+        return premium.value();
+    }
+
+    public double getTotalRisk() {
+        return risk.value();
+    }
+
+    /** Кількість зобов'язань типу; {@code null} — сторонні класи. */
+    public long getCount(ObligationType type) {
+        return countByType[slot(type)];
+    }
+
+    public double getPremium(ObligationType type) {
+        return premiumByType[slot(type)].value();
+    }
+
+    public double getRisk(ObligationType type) {
+        return riskByType[slot(type)].value();
+    }
+
+    /** Кількість у кошику {@code slot} (0..{@link #slots()}-1) — для збереження агрегатів. */
+    public long getCountAt(int slot) {
+        return countByType[slot];
+    }
+
+    public double getPremiumAt(int slot) {
+        return premiumByType[slot].value();
+    }
+
+    public double getRiskAt(int slot) {
+        return riskByType[slot].value();
+    }
+
+    /** Суми потребують повного перерахунку — див. опис класу. */
+    public boolean isStale() {
+        return stale;
+    }
+
+    void added(Obligation o) {
+        apply(o, 1);
+    }
+
+    void removed(Obligation o) {
+        apply(o, -1);
+    }
+
+    void beforeChange(Obligation o) {
+        apply(o, -1);
+    }
+
+    void afterChange(Obligation o) {
+        apply(o, 1);
+    }
+
+    void reset() {
+        count = 0;
+        stale = false;
+        premium.reset();
+        risk.reset();
+        for (int i = 0; i <= OTHER; i++) {
+            countByType[i] = 0;
+            premiumByType[i].reset();
+            riskByType[i].reset();
+        }
+    }
+
+    private void apply(Obligation o, int sign) {
+        if (o == null) return;
+
+        double p = InsuranceCalculator.priceOf(o.getInsuredAmount(), o.getFactor(), o.getPeriod(),
+                o.getInterestRate(), o.getProbability(), o.getMaxCost());
+        double r = RiskComparator.riskScore(o);
+        int slot = slot(ObligationType.of(o));
+
+        count += sign;
+        countByType[slot] += sign;
+        boolean overflow = premium.add(p, sign);
+        overflow |= risk.add(r, sign);
+        overflow |= premiumByType[slot].add(p, sign);
+        overflow |= riskByType[slot].add(r, sign);
+        if (overflow && sign < 0) {
+            stale = true;
+        }
+    }
+
+    private static int slot(ObligationType type) {
+        return type == null ? OTHER : type.ordinal();
+    }
+
+    /** Сума з окремим обліком нескінченних і NaN доданків. */
+    private static final class Total {
+        private final CompensatedSum finite = new CompensatedSum();
+        private long positive;
+        private long negative;
+        private long nan;
+
+        /**
+         * Додати ({@code sign} = 1) або відняти (-1) доданок {@code value}.
+         *
+         * @return скінченна частина після цього не скінченна (переповнилася)
+         */
+        boolean add(double value, int sign) {
+            if (Double.isNaN(value)) {
+                nan += sign;
+            } else if (value == Double.POSITIVE_INFINITY) {
+                positive += sign;
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                negative += sign;
+            } else {
+                finite.add(sign * value);
+            }
+            return !Double.isFinite(finite.value());
+        }
+
+        double value() {
+            if (nan > 0 || positive > 0 && negative > 0) return Double.NaN;
+            if (positive > 0) return Double.POSITIVE_INFINITY;
+            if (negative > 0) return Double.NEGATIVE_INFINITY;
+            return finite.value();
+        }
+
+        void reset() {
+            finite.reset();
+            positive = 0;
+            negative = 0;
+            nan = 0;
+        }
+    }
+}
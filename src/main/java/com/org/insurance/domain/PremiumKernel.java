@@ -0,0 +1,33 @@
+package com.org.insurance.domain;
+
+/**
+ * Обчислення премій {@link InsuranceCalculator#priceOf} для діапазону рядків колонкового сховища.
+ * <p>
+ * Усі реалізації повертають побітово ті самі значення, що й скалярна формула:
+ * порядок операцій однаковий, FMA не використовується, обмеження maxCost та нульові
+ * захисти застосовуються масками у тій самій послідовності.
+ */
+public interface PremiumKernel {
+
+    /**
+     * Записати премії рядків {@code [from, to)} у {@code out[0 .. to - from)}.
+     */
+    void premiums(ObligationColumns columns, int from, int to, double[] out);
+
+    /**
+     * Векторна реалізація (jdk.incubator.vector), якщо модуль підключено
+     * ({@code --add-modules jdk.incubator.vector}), інакше — скалярний цикл.
+     */
+    static PremiumKernel best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (PremiumKernel) Class.forName("com.org.insurance.domain.VectorPremiumKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                // модуль є, але клас не вдалося завантажити — лишаємося на скалярному циклі
+            }
+        }
+        return new ScalarPremiumKernel();
+    }
+}
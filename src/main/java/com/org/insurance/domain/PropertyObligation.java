@@ -1,13 +1,16 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class PropertyObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = -6042007149248375514L;
+
     private String propertyAddress;
     private String propertyType;
 
@@ -17,6 +20,14 @@ public class PropertyObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setPropertyAddress(String propertyAddress) {
+        change(() -> this.propertyAddress = propertyAddress);
+    }
+
+    public void setPropertyType(String propertyType) {
+        change(() -> this.propertyType = propertyType);
+    }
+
     @Override
     public String toString() {
         return "PropertyObligation{" +
@@ -36,7 +47,14 @@ public class PropertyObligation extends Obligation {
     public PropertyObligation(String name, double insuredAmount, double factor,
                               int period, double interestRate, double probability, double maxCost,
                               String propertyAddress, String propertyType) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                propertyAddress, propertyType);
+    }
+
+    public PropertyObligation(UUID id, String name, double insuredAmount, double factor,
+                              int period, double interestRate, double probability, double maxCost,
+                              String propertyAddress, String propertyType) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.propertyAddress = propertyAddress;
         this.propertyType = propertyType;
     }
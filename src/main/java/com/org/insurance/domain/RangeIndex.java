@@ -0,0 +1,169 @@
+package com.org.insurance.domain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Відсортований індекс одного числового поля: пари (значення, рядок) у порядку зростання
+ * ({@link Double#compare}, за рівних значень — за рядком).
+ * NaN лежать у кінці й потрапляють у будь-який діапазон — так само, як у {@link ObligationQuery#matches}.
+ * <p>
+ * Індекс оновлюється на місці: вставка і видалення пари — двійковий пошук і зсув хвоста масивів,
+ * видалення рядків ще й зменшує номери наступних рядків — один прохід без сортування.
+ */
+final class RangeIndex {
+
+    private double[] values;
+    private int[] rows;
+    private int size;
+    /** Перша позиція з NaN. */
+    private int nanStart;
+
+    private RangeIndex(double[] values, int[] rows, int nanStart) {
+        this.values = values;
+        this.rows = rows;
+        this.size = rows.length;
+        this.nanStart = nanStart;
+    }
+
+    /** Побудувати індекс за значеннями поля, де індекс масиву — номер рядка. */
+    static RangeIndex build(double[] raw) {
+        int[] rows = RiskRanking.order(raw, false);
+        double[] values = new double[raw.length];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = raw[rows[i]];
+        }
+        int nanStart = values.length;
+        while (nanStart > 0 && Double.isNaN(values[nanStart - 1])) {
+            nanStart--;
+        }
+        return new RangeIndex(values, rows, nanStart);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Точна кількість рядків у діапазоні — два двійкові пошуки. */
+    int count(Double min, Double max) {
+        return Math.max(0, upper(max) - lower(min)) + (size - nanStart);
+    }
+
+    /** Позначити в {@code target} рядки з діапазону. */
+    void mark(Double min, Double max, BitSet target) {
+        for (int i = lower(min), end = upper(max); i < end; i++) {
+            target.set(rows[i]);
+        }
+        for (int i = nanStart; i < size; i++) {
+            target.set(rows[i]);
+        }
+    }
+
+    /** Додати пару (значення, рядок). Номери інших рядків не змінюються. */
+    void insert(double value, int row) {
+        int p = -search(value, row) - 1;
+        if (p < 0) {
+            return;
+        }
+        if (size == rows.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            values = Arrays.copyOf(values, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        System.arraycopy(values, p, values, p + 1, size - p);
+        System.arraycopy(rows, p, rows, p + 1, size - p);
+        values[p] = value;
+        rows[p] = row;
+        size++;
+        if (!Double.isNaN(value)) nanStart++;
+    }
+
+    /**
+     * Прибрати пару (значення, рядок).
+     *
+     * @return {@code false}, якщо такої пари в індексі немає
+     */
+    boolean delete(double value, int row) {
+        int p = search(value, row);
+        if (p < 0) {
+            return false;
+        }
+        System.arraycopy(values, p + 1, values, p, size - p - 1);
+        System.arraycopy(rows, p + 1, rows, p, size - p - 1);
+        size--;
+        if (!Double.isNaN(value)) nanStart--;
+        return true;
+    }
+
+    /** Рядок {@code row} зі значенням {@code value} видалено зі списку: наступні рядки зсуваються на один. */
+    boolean removeRow(double value, int row) {
+        if (!delete(value, row)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (rows[i] > row) rows[i]--;
+        }
+        return true;
+    }
+
+    /**
+     * Перенумерувати рядки після пакетного видалення: {@code renumber[row]} — новий номер
+     * або -1 для видаленого. Порядок решти пар не змінюється, бо нумерація монотонна.
+     */
+    void renumber(int[] renumber) {
+        int w = 0;
+        int nans = 0;
+        for (int i = 0; i < size; i++) {
+            int row = renumber[rows[i]];
+            if (row < 0) continue;
+            if (i >= nanStart) nans++;
+            values[w] = values[i];
+            rows[w++] = row;
+        }
+        size = w;
+        nanStart = w - nans;
+    }
+
+    /** Позиція пари або {@code -(позиція вставки) - 1}. */
+    private int search(double value, int row) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Double.compare(values[mid], value);
+            if (c == 0) c = Integer.compare(rows[mid], row);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    /** Перша позиція, де {@code !(value < min)}. */
+    private int lower(Double min) {
+        if (min == null) return 0;
+        double m = min;
+        int lo = 0;
+        int hi = nanStart;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < m) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Перша позиція, де {@code value > max}. */
+    private int upper(Double max) {
+        if (max == null) return nanStart;
+        double m = max;
+        int lo = 0;
+        int hi = nanStart;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] > m) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,431 @@
+package com.org.insurance.domain;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Упорядкування зобов'язань за ризиком ({@link RiskComparator#riskScore(Obligation)}).
+ * <p>
+ * Ризик кожного зобов'язання рахується один раз і перетворюється на {@code long}-ключ,
+ * порядок якого збігається з {@link Double#compare(double, double)}. Потім сортуються пари
+ * (ключ, індекс) стабільним злиттям — для великих списків паралельно, — а сам список
+ * переставляється на місці. Порядок збігається з {@code list.sort(new RiskComparator())}
+ * (або {@code .reversed()}), включно з порядком рівних елементів.
+ * <p>
+ * Для перших сторінок рейтингу ({@link #top(Derivative, int)}, {@link #bottom(Derivative, int)})
+ * повне сортування не потрібне: обмежена купа з {@code k} елементів дає O(n log k) і не змінює
+ * порядку зобов'язань у деривативі.
+ */
+public final class RiskRanking {
+
+    /** Діапазони, коротші за цей, сортуються вставками. */
+    private static final int INSERTION_THRESHOLD = 32;
+
+    /** Діапазони, коротші за цей, не діляться між потоками. */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private RiskRanking() {
+    }
+
+    /**
+     * Відсортувати зобов'язання деривативи за ризиком. Агрегати деривативи не змінюються,
+     * у колонковому режимі переставляються самі колонки.
+     */
+    public static void sortByRisk(Derivative derivative, boolean descending) {
+        permute(derivative, riskOrder(derivative, descending));
+    }
+
+    /**
+     * Порядок сортування деривативи за ризиком без перестановки (елемент {@code p} — номер
+     * рядка, що стане {@code p}-м): його можна записати в журнал до зміни і застосувати
+     * через {@link #permute(Derivative, int[])}.
+     */
+    public static int[] riskOrder(Derivative derivative, boolean descending) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        ObligationColumns columns = derivative.getColumns();
+        if (columns != null) {
+            return order(keys(columns), descending);
+        }
+        List<Obligation> obligations = derivative.backingObligations();
+        return obligations == null ? new int[0] : order(keys(obligations), descending);
+    }
+
+    /**
+     * Переставити рядки деривативи: новий рядок {@code p} — колишній рядок {@code order[p]}.
+     * Масив {@code order} використовується як робочий і після виклику не визначений.
+     */
+    public static void permute(Derivative derivative, int[] order) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (order == null) {
+            throw new IllegalArgumentException("order is null");
+        }
+        ObligationColumns columns = derivative.getColumns();
+        List<Obligation> obligations = columns == null ? derivative.backingObligations() : null;
+        int size = columns != null ? columns.size() : obligations != null ? obligations.size() : 0;
+        if (order.length != size) {
+            throw new IllegalArgumentException("order.length=" + order.length + ", size=" + size);
+        }
+        if (columns != null) {
+            columns.permute(order);
+        } else if (obligations != null) {
+            permute(obligations, order);
+        }
+        derivative.markChanged();
+    }
+
+    /** Відсортувати довільний список зобов'язань за ризиком на місці. */
+    public static void sortByRisk(List<Obligation> obligations, boolean descending) {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        if (obligations.size() < 2) {
+            return;
+        }
+        permute(obligations, order(keys(obligations), descending));
+    }
+
+    /**
+     * Стабільний порядок індексів за значеннями {@code values}:
+     * елемент {@code p} результату — індекс {@code p}-го за порядком значення.
+     */
+    public static int[] order(double[] values, boolean descending) {
+        int n = values.length;
+        long[] keys = new long[n];
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            long key = sortableBits(values[i]);
+            keys[i] = descending ? ~key : key;
+            index[i] = i;
+        }
+        long[] keyBuffer = new long[(n + 1) / 2];
+        int[] indexBuffer = new int[(n + 1) / 2];
+        if (n >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new SortTask(keys, index, keyBuffer, indexBuffer, 0, n));
+        } else {
+            mergeSort(keys, index, keyBuffer, indexBuffer, 0, n);
+        }
+        return index;
+    }
+
+    /** {@code k} найризиковіших зобов'язань деривативи, від найбільшого ризику; null пропускаються. */
+    public static List<Obligation> top(Derivative derivative, int k) {
+        return select(derivative, k, true);
+    }
+
+    /** {@code k} найменш ризикових зобов'язань деривативи, від найменшого ризику; null пропускаються. */
+    public static List<Obligation> bottom(Derivative derivative, int k) {
+        return select(derivative, k, false);
+    }
+
+    /** {@code k} найризиковіших зобов'язань списку; сам список не змінюється. */
+    public static List<Obligation> top(List<Obligation> obligations, int k) {
+        return select(obligations, k, true);
+    }
+
+    /** {@code k} найменш ризикових зобов'язань списку; сам список не змінюється. */
+    public static List<Obligation> bottom(List<Obligation> obligations, int k) {
+        return select(obligations, k, false);
+    }
+
+    /**
+     * Індекси {@code k} перших за порядком значень — те саме, що перші {@code k} елементів
+     * {@link #order(double[], boolean)}, але без сортування всього масиву.
+     */
+    public static int[] select(double[] values, int k, boolean descending) {
+        BoundedHeap heap = new BoundedHeap(Math.min(Math.max(k, 0), values.length), descending);
+        for (int i = 0; i < values.length; i++) {
+            heap.offer(values[i], i);
+        }
+        return heap.sortedRows();
+    }
+
+    private static List<Obligation> select(Derivative derivative, int k, boolean descending) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        ObligationColumns columns = derivative.getColumns();
+        if (columns == null) {
+            return derivative.getObligations() == null ? List.of() : select(derivative.getObligations(), k, descending);
+        }
+
+        int n = columns.size();
+        double[] probability = columns.probabilities();
+        double[] factor = columns.factors();
+        double[] insuredAmount = columns.insuredAmounts();
+        BoundedHeap heap = new BoundedHeap(Math.min(Math.max(k, 0), n), descending);
+        for (int i = 0; i < n; i++) {
+            if (!columns.isNull(i)) {
+                heap.offer(probability[i] * factor[i] * insuredAmount[i], i);
+            }
+        }
+        int[] rows = heap.sortedRows();
+        List<Obligation> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(columns.get(row));
+        }
+        return result;
+    }
+
+    private static List<Obligation> select(List<Obligation> obligations, int k, boolean descending) {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        List<Obligation> list = InsuranceCalculator.randomAccess(obligations);
+        int n = list.size();
+        BoundedHeap heap = new BoundedHeap(Math.min(Math.max(k, 0), n), descending);
+        for (int i = 0; i < n; i++) {
+            Obligation o = list.get(i);
+            if (o != null) {
+                heap.offer(RiskComparator.riskScore(o), i);
+            }
+        }
+        int[] rows = heap.sortedRows();
+        List<Obligation> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(list.get(row));
+        }
+        return result;
+    }
+
+    static double[] keys(List<Obligation> obligations) {
+        double[] keys = new double[obligations.size()];
+        int i = 0;
+        for (Obligation o : obligations) {
+            keys[i++] = RiskComparator.riskScore(o);
+        }
+        return keys;
+    }
+
+    static double[] keys(ObligationColumns columns) {
+        int n = columns.size();
+        double[] probability = columns.probabilities();
+        double[] factor = columns.factors();
+        double[] insuredAmount = columns.insuredAmounts();
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = probability[i] * factor[i] * insuredAmount[i];
+        }
+        return keys;
+    }
+
+    /**
+     * Біти {@code double}, перетворені так, що порівняння {@code long} дає той самий
+     * порядок, що й {@link Double#compare(double, double)} (−0.0 &lt; 0.0, NaN — найбільше).
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /** Новий елемент {@code p} — колишній елемент {@code order[p]}. */
+    private static void permute(List<Obligation> list, int[] order) {
+        int n = order.length;
+        if (!(list instanceof RandomAccess)) {
+            Object[] snapshot = list.toArray();
+            ListIterator<Obligation> it = list.listIterator();
+            for (int p = 0; p < n; p++) {
+                it.next();
+                it.set((Obligation) snapshot[order[p]]);
+            }
+            return;
+        }
+        // Обхід циклів перестановки; пройдені позиції позначаються як ~index
+        for (int start = 0; start < n; start++) {
+            if (order[start] < 0) continue;
+            Obligation first = list.get(start);
+            int p = start;
+            while (true) {
+                int q = order[p];
+                order[p] = ~q;
+                if (q == start) {
+                    list.set(p, first);
+                    break;
+                }
+                list.set(p, list.get(q));
+                p = q;
+            }
+        }
+    }
+
+    // ===== Сортування злиттям пар (ключ, індекс) =====
+
+    private static void mergeSort(long[] keys, int[] index, long[] keyBuffer, int[] indexBuffer, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(keys, index, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(keys, index, keyBuffer, indexBuffer, from, mid);
+        mergeSort(keys, index, keyBuffer, indexBuffer, mid, to);
+        merge(keys, index, keyBuffer, indexBuffer, from, mid, to);
+    }
+
+    private static void insertionSort(long[] keys, int[] index, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int idx = index[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                index[j + 1] = index[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            index[j + 1] = idx;
+        }
+    }
+
+    /**
+     * Зливає відсортовані {@code [from, mid)} і {@code [mid, to)}. Ліва половина копіюється
+     * в буфер за зміщенням {@code from / 2}, тож паралельні злиття не перетинаються в буфері.
+     * При рівних ключах перевага лівій половині — сортування стабільне.
+     */
+    private static void merge(long[] keys, int[] index, long[] keyBuffer, int[] indexBuffer,
+                              int from, int mid, int to) {
+        if (keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        int leftLength = mid - from;
+        int base = from >>> 1;
+        System.arraycopy(keys, from, keyBuffer, base, leftLength);
+        System.arraycopy(index, from, indexBuffer, base, leftLength);
+
+        int i = base;
+        int leftEnd = base + leftLength;
+        int j = mid;
+        int d = from;
+        while (i < leftEnd && j < to) {
+            if (keys[j] < keyBuffer[i]) {
+                keys[d] = keys[j];
+                index[d++] = index[j++];
+            } else {
+                keys[d] = keyBuffer[i];
+                index[d++] = indexBuffer[i++];
+            }
+        }
+        while (i < leftEnd) {
+            keys[d] = keyBuffer[i];
+            index[d++] = indexBuffer[i++];
+        }
+    }
+
+    /**
+     * Купа з не більше ніж {@code capacity} кращих рядків; у корені — найгірший із збережених.
+     * Рядки надходять за зростанням індексу, тому рівний за ключем кандидат завжди гірший
+     * за збережений — так зберігається стабільний порядок рівних.
+     */
+    private static final class BoundedHeap {
+        private final long[] keys;
+        private final int[] rows;
+        private final boolean descending;
+        private int size;
+
+        BoundedHeap(int capacity, boolean descending) {
+            this.keys = new long[capacity];
+            this.rows = new int[capacity];
+            this.descending = descending;
+        }
+
+        void offer(double value, int row) {
+            if (keys.length == 0) return;
+            long key = sortableBits(value);
+            if (descending) key = ~key;
+
+            if (size < keys.length) {
+                int i = size++;
+                keys[i] = key;
+                rows[i] = row;
+                siftUp(i);
+            } else if (key < keys[0]) {
+                keys[0] = key;
+                rows[0] = row;
+                siftDown(0, size);
+            }
+        }
+
+        /** Рядки від найкращого до найгіршого; купа після цього не використовується. */
+        int[] sortedRows() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(rows, size);
+        }
+
+        private boolean worse(int a, int b) {
+            return keys[a] > keys[b] || (keys[a] == keys[b] && rows[a] > rows[b]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, parent)) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= end) return;
+                if (child + 1 < end && worse(child + 1, child)) child++;
+                if (!worse(child, i)) return;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int[] index;
+        private final long[] keyBuffer;
+        private final int[] indexBuffer;
+        private final int from;
+        private final int to;
+
+        SortTask(long[] keys, int[] index, long[] keyBuffer, int[] indexBuffer, int from, int to) {
+            this.keys = keys;
+            this.index = index;
+            this.keyBuffer = keyBuffer;
+            this.indexBuffer = indexBuffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD) {
+                mergeSort(keys, index, keyBuffer, indexBuffer, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(keys, index, keyBuffer, indexBuffer, from, mid),
+                    new SortTask(keys, index, keyBuffer, indexBuffer, mid, to));
+            merge(keys, index, keyBuffer, indexBuffer, from, mid, to);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.org.insurance.domain;
+
+/**
+ * Скалярний цикл по колонках — запасний варіант, коли Vector API недоступний.
+ */
+final class ScalarPremiumKernel implements PremiumKernel {
+
+    @Override
+    public void premiums(ObligationColumns columns, int from, int to, double[] out) {
+        double[] insuredAmount = columns.insuredAmounts();
+        double[] factor = columns.factors();
+        int[] period = columns.periods();
+        double[] interestRate = columns.interestRates();
+        double[] probability = columns.probabilities();
+        double[] maxCost = columns.maxCosts();
+
+        for (int i = from; i < to; i++) {
+            out[i - from] = InsuranceCalculator.priceOf(insuredAmount[i], factor[i], period[i],
+                    interestRate[i], probability[i], maxCost[i]);
+        }
+    }
+}
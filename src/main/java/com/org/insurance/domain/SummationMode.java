@@ -0,0 +1,17 @@
+package com.org.insurance.domain;
+
+/**
+ * Режим складання сум у {@link InsuranceCalculator}.
+ */
+public enum SummationMode {
+
+    /** Просте {@code total +=} у порядку списку (поведінка за замовчуванням). */
+    SEQUENTIAL,
+
+    /**
+     * Відтворюваний режим: сума Ноймаєра всередині блоків фіксованого розміру
+     * ({@link DeterministicSum#BLOCK}) і попарне складання блоків у фіксованому дереві.
+     * Результат не залежить від кількості потоків, тож збігається з {@link ParallelValuator}.
+     */
+    DETERMINISTIC
+}
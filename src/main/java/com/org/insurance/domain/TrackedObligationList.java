@@ -0,0 +1,149 @@
+package com.org.insurance.domain;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Представлення списку зобов'язань деривативи, що повідомляє її про кожне додавання та видалення.
+ * Усі зміни записуються у вихідний список; пошук елементів ({@code indexOf}, {@code remove(Object)})
+ * теж виконує він — колонковий список порівнює рядки за id. Позиції змін окремо отримує
+ * {@link RowListener} — для індексів пошуку, які зберігають номери рядків.
+ */
+final class TrackedObligationList extends AbstractList<Obligation> implements RandomAccess {
+
+    private final List<Obligation> backing;
+    private final ObligationListener listener;
+    private final RowListener rows;
+
+    TrackedObligationList(List<Obligation> backing, ObligationListener listener, RowListener rows) {
+        this.backing = backing;
+        this.listener = listener;
+        this.rows = rows;
+    }
+
+    /** Позиції змін списку; викликається після відповідних подій {@link ObligationListener}. */
+    interface RowListener {
+        /** Рядки {@code [from, to)} додано в кінець. */
+        void appended(int from, int to);
+
+        /** Рядок {@code row} зі зобов'язанням {@code o} видалено; наступні зсунулися на одну позицію. */
+        void removedAt(int row, Obligation o);
+
+        /** Рядок {@code row} замінено: було {@code previous}, стало {@code current}. */
+        void replacedAt(int row, Obligation previous, Obligation current);
+
+        /** Номери рядків змінилися довільно (вставка всередину, очищення). */
+        void renumbered();
+    }
+
+    List<Obligation> backing() {
+        return backing;
+    }
+
+    @Override
+    public Obligation get(int index) {
+        return backing.get(index);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public Obligation set(int index, Obligation element) {
+        Obligation previous = backing.set(index, element);
+        listener.removed(previous);
+        listener.added(element);
+        listener.reordered();
+        rows.replacedAt(index, previous, element);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Obligation element) {
+        boolean append = index == backing.size();
+        backing.add(index, element);
+        modCount++;
+        listener.added(element);
+        if (append) {
+            rows.appended(index, index + 1);
+        } else {
+            listener.reordered();
+            rows.renumbered();
+        }
+    }
+
+    /** Пакетне додавання: одна вставка у вихідний список замість поелементних {@code add}. */
+    @Override
+    public boolean addAll(Collection<? extends Obligation> c) {
+        return addAll(backing.size(), c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Obligation> c) {
+        int size = backing.size();
+        boolean append = index == size;
+        boolean changed = backing.addAll(index, c);
+        modCount++;
+        for (Obligation o : c) {
+            listener.added(o);
+        }
+        if (!changed) {
+            return false;
+        }
+        if (append) {
+            rows.appended(size, backing.size());
+        } else {
+            listener.reordered();
+            rows.renumbered();
+        }
+        return true;
+    }
+
+    @Override
+    public Obligation remove(int index) {
+        Obligation previous = backing.remove(index);
+        modCount++;
+        listener.removed(previous);
+        rows.removedAt(index, previous);
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = backing.indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return backing.indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return backing.lastIndexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return backing.contains(o);
+    }
+
+    @Override
+    public void clear() {
+        for (Obligation o : backing) {
+            listener.removed(o);
+        }
+        backing.clear();
+        modCount++;
+        rows.renumbered();
+    }
+}
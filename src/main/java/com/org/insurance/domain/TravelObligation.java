@@ -1,15 +1,17 @@
 package com.org.insurance.domain;
 
 import lombok.Getter;
-import lombok.Setter;
 
+import java.io.Serial;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import java.util.UUID;
 
-@Setter
 @Getter
 public class TravelObligation extends Obligation {
+    @Serial
+    private static final long serialVersionUID = 1436640400981770344L;
 
     private String destinationCountry;
     private LocalDate tripStartDate;
@@ -21,6 +23,18 @@ public class TravelObligation extends Obligation {
         this.setSpecificFields(in);
     }
 
+    public void setDestinationCountry(String destinationCountry) {
+        change(() -> this.destinationCountry = destinationCountry);
+    }
+
+    public void setTripStartDate(LocalDate tripStartDate) {
+        change(() -> this.tripStartDate = tripStartDate);
+    }
+
+    public void setTripEndDate(LocalDate tripEndDate) {
+        change(() -> this.tripEndDate = tripEndDate);
+    }
+
     @Override
     public String toString() {
         return "TravelObligation{" +
@@ -41,7 +55,14 @@ public class TravelObligation extends Obligation {
     public TravelObligation(String name, double insuredAmount, double factor,
                             int period, double interestRate, double probability, double maxCost,
                             String destinationCountry, LocalDate tripStartDate, LocalDate tripEndDate) {
-        super(name, insuredAmount, factor, period, interestRate, probability, maxCost);
+        this(UUID.randomUUID(), name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                destinationCountry, tripStartDate, tripEndDate);
+    }
+
+    public TravelObligation(UUID id, String name, double insuredAmount, double factor,
+                            int period, double interestRate, double probability, double maxCost,
+                            String destinationCountry, LocalDate tripStartDate, LocalDate tripEndDate) {
+        super(id, name, insuredAmount, factor, period, interestRate, probability, maxCost);
         this.destinationCountry = destinationCountry;
         this.tripStartDate = tripStartDate;
         this.tripEndDate = tripEndDate;
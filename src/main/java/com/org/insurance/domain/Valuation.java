@@ -0,0 +1,36 @@
+package com.org.insurance.domain;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Результат оцінки однієї деривативи: сума премій, сумарний ризик і кількість зобов'язань.
+ */
+@Getter
+public final class Valuation {
+
+    private final UUID derivativeId;
+    private final String derivativeName;
+    private final double value;
+    private final double risk;
+    private final int count;
+
+    public Valuation(UUID derivativeId, String derivativeName, double value, double risk, int count) {
+        this.derivativeId = derivativeId;
+        this.derivativeName = derivativeName;
+        this.value = value;
+        this.risk = risk;
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "Valuation{" +
+                "derivative=" + (derivativeName != null ? derivativeName : derivativeId) +
+                ", value=" + value +
+                ", risk=" + risk +
+                ", count=" + count +
+                '}';
+    }
+}
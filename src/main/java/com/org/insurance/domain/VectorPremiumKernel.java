@@ -0,0 +1,80 @@
+package com.org.insurance.domain;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.GT;
+import static jdk.incubator.vector.VectorOperators.LE;
+import static jdk.incubator.vector.VectorOperators.LT;
+
+/**
+ * SIMD-обчислення премій через jdk.incubator.vector.
+ * Завантажується лише рефлексивно з {@link PremiumKernel#best()}, тому без модуля
+ * програма не падає, а переходить на {@link ScalarPremiumKernel}.
+ * <p>
+ * Результат побітово збігається зі скалярною формулою (допуск 0 ULP): ті самі множення
+ * у тому самому порядку, {@code 1.0 + r * y} == {@code r * y + 1.0}, гілки замінені масками.
+ */
+final class VectorPremiumKernel implements PremiumKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Розмір блоку для перетворення int-періодів у роки (скретч-буфер). */
+    private static final int BLOCK = 1024;
+
+    @Override
+    public void premiums(ObligationColumns columns, int from, int to, double[] out) {
+        double[] insuredAmount = columns.insuredAmounts();
+        double[] factor = columns.factors();
+        int[] period = columns.periods();
+        double[] interestRate = columns.interestRates();
+        double[] probability = columns.probabilities();
+        double[] maxCost = columns.maxCosts();
+
+        double[] years = new double[Math.min(BLOCK, Math.max(to - from, 0))];
+
+        for (int base = from; base < to; base += BLOCK) {
+            int len = Math.min(BLOCK, to - base);
+            for (int k = 0; k < len; k++) {
+                double periodMonths = period[base + k];
+                years[k] = periodMonths / 12.0;
+            }
+
+            int k = 0;
+            for (int bound = SPECIES.loopBound(len); k < bound; k += SPECIES.length()) {
+                int i = base + k;
+                DoubleVector ia = DoubleVector.fromArray(SPECIES, insuredAmount, i);
+                DoubleVector f = DoubleVector.fromArray(SPECIES, factor, i);
+                DoubleVector ir = DoubleVector.fromArray(SPECIES, interestRate, i);
+                DoubleVector p = DoubleVector.fromArray(SPECIES, probability, i);
+                DoubleVector mc = DoubleVector.fromArray(SPECIES, maxCost, i);
+                DoubleVector y = DoubleVector.fromArray(SPECIES, years, k);
+
+                // Некоректні або нульові базові параметри — премія 0
+                VectorMask<Double> invalid = ia.compare(LE, 0.0)
+                        .or(p.compare(LE, 0.0))
+                        .or(f.compare(LE, 0.0));
+
+                DoubleVector expectedLoss = ia.mul(p).mul(f);
+                y = y.blend(0.0, y.compare(LT, 0.0));
+                DoubleVector timeCoeff = ir.mul(y).add(1.0);
+                DoubleVector gross = expectedLoss.mul(timeCoeff);
+
+                // Обмеження зверху maxCost (якщо заданий > 0)
+                gross = gross.blend(mc, mc.compare(GT, 0.0).and(gross.compare(GT, mc)));
+                // Захист від від'ємних значень
+                gross = gross.blend(0.0, gross.compare(LT, 0.0));
+                gross = gross.blend(0.0, invalid);
+
+                gross.intoArray(out, i - from);
+            }
+
+            for (; k < len; k++) {
+                int i = base + k;
+                out[i - from] = InsuranceCalculator.priceOf(insuredAmount[i], factor[i], period[i],
+                        interestRate[i], probability[i], maxCost[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.ChangeSet;
+import com.org.insurance.domain.Derivative;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Фонове збереження деривативів окремим потоком-записувачем (запускається з першим збереженням),
+ * щоб меню не чекало на диск.
+ * <p>
+ * {@link #save} знімає {@link Derivative#snapshot()} у потоці виклику — подальші зміни деривативи
+ * не потрапляють у файл — і ставить запис у чергу. Якщо в черзі вже чекає збереження тієї самої
+ * деривативи в той самий файл, новий знімок замінює старий, а обидва виклики отримують один
+ * {@link CompletableFuture}. Запис, що вже виконується, не переривається. Результат — через
+ * future: завершення або виняток {@link FileManager#saveDerivative} (зокрема {@link Error}
+ * під час кодування — потік-записувач після нього обслуговує чергу далі).
+ * <p>
+ * Разом зі знімком запам'ятовуються зміни деривативи ({@link Derivative#pendingChanges}); після
+ * запису вони позначаються збереженими на самій деривативі, тож наступне
+ * {@link FileManager#saveDelta} у той самий файл знову пише лише дельту.
+ * <p>
+ * {@link #close()} дописує чергу й зупиняє потік; після нього {@link #save} кидає виняток.
+ */
+public final class AsyncSaveService implements Closeable {
+
+    private static final Logger log = LogManager.getLogger(AsyncSaveService.class);
+
+    private final FileManager fileManager;
+    private final Thread writer;
+
+    /** Черга збережень за ключем "id деривативи + файл" у порядку постановки. */
+    private final Map<String, Pending> queue = new LinkedHashMap<>();
+    private boolean started;
+    private boolean closed;
+
+    public AsyncSaveService() {
+        this(new FileManager());
+    }
+
+    public AsyncSaveService(FileManager fileManager) {
+        if (fileManager == null) {
+            throw new IllegalArgumentException("fileManager is null");
+        }
+        this.fileManager = fileManager;
+        this.writer = new Thread(this::run, "derivative-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Поставити збереження в чергу. Знімок деривативи знімається одразу.
+     *
+     * @return future, що завершується після запису файлу (або з винятком запису)
+     */
+    public CompletableFuture<Void> save(Derivative derivative, String fileName) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+        Path target = Paths.get(fileName).toAbsolutePath().normalize();
+        String key = derivative.getId() + "\n" + target;
+        ChangeSet changes = derivative.pendingChanges(target);
+        Derivative snapshot = derivative.snapshot();
+
+        synchronized (queue) {
+            if (closed) {
+                throw new IllegalStateException("Сервіс збереження закрито");
+            }
+            Pending pending = queue.get(key);
+            if (pending != null) {
+                log.info("Збереження деривативи '{}' у '{}' замінює попереднє в черзі",
+                        derivative.getName(), fileName);
+                pending.original = derivative;
+                pending.snapshot = snapshot;
+                pending.changes = changes;
+                return pending.future;
+            }
+            pending = new Pending(derivative, snapshot, changes, fileName, target);
+            queue.put(key, pending);
+            if (!started) {
+                writer.start();
+                started = true;
+            }
+            queue.notifyAll();
+            log.info("Збереження деривативи '{}' у '{}' поставлено в чергу", derivative.getName(), fileName);
+            return pending.future;
+        }
+    }
+
+    /** Кількість збережень, що чекають у черзі (без того, що виконується). */
+    public int pending() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Pending next;
+            synchronized (queue) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                Iterator<Pending> it = queue.values().iterator();
+                next = it.next();
+                it.remove();
+            }
+            try {
+                fileManager.saveDerivative(next.snapshot, next.fileName);
+                markSaved(next);
+                next.future.complete(null);
+            } catch (Throwable e) {
+                // Звітує той, хто чекає на future; потік-записувач обслуговує чергу далі
+                next.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** Позначити зміни, взяті разом зі знімком, записаними на самій деривативі. */
+    private static void markSaved(Pending saved) {
+        try {
+            saved.original.markSaved(saved.changes, saved.target);
+        } catch (IllegalArgumentException e) {
+            // Поки знімок писався, деривативу зберегли в інший файл — наступне збереження буде повним
+            log.info("Дериватива '{}' тим часом збережена деінде: {}", saved.original.getName(), e.getMessage());
+        }
+    }
+
+    /** Дописати всі збереження з черги і зупинити потік-записувач. */
+    @Override
+    public void close() {
+        synchronized (queue) {
+            closed = true;
+            queue.notifyAll();
+            if (!started) {
+                return;
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Очікування фонових збережень перервано");
+        }
+    }
+
+    private static final class Pending {
+        private Derivative original;
+        private Derivative snapshot;
+        private ChangeSet changes;
+        private final String fileName;
+        /** Ключ збереження, як у {@link FileManager}: абсолютний нормалізований шлях. */
+        private final Path target;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Pending(Derivative original, Derivative snapshot, ChangeSet changes, String fileName, Path target) {
+            this.original = original;
+            this.snapshot = snapshot;
+            this.changes = changes;
+            this.fileName = fileName;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.org.insurance.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Атомарна заміна файлу: новий вміст пишеться у {@code <файл>.tmp} поруч із цільовим,
+ * скидається на диск (fsync) і перейменовується на його місце. Збій на будь-якому кроці
+ * залишає або старий файл, або новий повністю — але не обрізаний.
+ */
+final class AtomicFiles {
+
+    private static final Logger log = LogManager.getLogger(AtomicFiles.class);
+
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFiles() {
+    }
+
+    /** Тимчасовий файл для атомарного запису {@code target}. */
+    static Path tempOf(Path target) {
+        return target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    }
+
+    /** Атомарно замінити {@code target} вмістом, який пише {@code writer}. */
+    static void write(Path target, Writer writer) throws IOException {
+        Path temp = tempOf(target);
+        writeSynced(temp, writer);
+        move(temp, target);
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /** Записати файл і скинути його на диск; якщо запис не вдався, файл видаляється. */
+    static void writeSynced(Path file, Writer writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writer.write(channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /** Перейменувати з заміною — атомарно, якщо файлова система це підтримує. */
+    static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** fsync каталогу, щоб перейменування пережило збій живлення. */
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Не всі платформи дозволяють fsync каталогу; перейменування вже виконано
+            log.debug("fsync каталогу '{}' недоступний", directory, e);
+        }
+    }
+
+    /** Вміст файлу; канал не закривається. */
+    interface Writer {
+        void write(FileChannel channel) throws IOException;
+    }
+}
@@ -0,0 +1,298 @@
+package com.org.insurance.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Запис тексту в потік через один байтовий буфер, що перевикористовується: числа, UUID і дати
+ * кодуються прямо в буфер, рядки — у UTF-8 посимвольно, без проміжних {@code String}/{@code byte[]}.
+ * Не потокобезпечний; {@link #flush()} обов'язковий наприкінці.
+ */
+final class ByteSink {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /** Цілі double до 2^53 пишуться як цілі числа — точно і без {@link Double#toString}. */
+    private static final double MAX_EXACT_INTEGER = 9007199254740992.0;
+
+    private static final int MAX_SCALE = 6;
+    private static final double[] SCALES = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6};
+
+    /** Межа швидкого шляху {@link #fixed}: дробова частина ще обчислюється точно. */
+    private static final double FAST_FIXED_LIMIT = 1e15;
+
+    private final OutputStream out;
+    private final byte[] buf;
+    private int pos;
+
+    ByteSink(OutputStream out, int capacity) {
+        if (out == null) {
+            throw new IllegalArgumentException("out is null");
+        }
+        if (capacity < 64) {
+            throw new IllegalArgumentException("capacity < 64");
+        }
+        this.out = out;
+        this.buf = new byte[capacity];
+    }
+
+    /** Готові байти (наприклад, заздалегідь закодовані підписи); великі масиви пишуться в потік напряму. */
+    ByteSink bytes(byte[] b) throws IOException {
+        if (b.length > buf.length - pos) {
+            drain();
+            if (b.length > buf.length) {
+                out.write(b);
+                return this;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+        return this;
+    }
+
+    ByteSink ascii(char c) throws IOException {
+        ensure(1);
+        buf[pos++] = (byte) c;
+        return this;
+    }
+
+    /** Рядок лише з ASCII-символів (назви колонок, ключі). */
+    ByteSink ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            ensure(1);
+            buf[pos++] = (byte) s.charAt(i);
+        }
+        return this;
+    }
+
+    ByteSink utf8(CharSequence s) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            ensure(4);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[pos++] = '?';
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    ByteSink integer(long v) throws IOException {
+        ensure(20);
+        if (v == Long.MIN_VALUE) {
+            return ascii("-9223372036854775808");
+        }
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + (int) (v % 10));
+            v /= 10;
+        } while (v != 0);
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+        return this;
+    }
+
+    /**
+     * Число, яке {@link Double#parseDouble} прочитає назад точно: ціле — цифрами,
+     * інше — як {@link Double#toString}.
+     */
+    ByteSink decimal(double v) throws IOException {
+        if (v == Math.rint(v) && Math.abs(v) < MAX_EXACT_INTEGER && (v != 0.0 || 1 / v > 0)) {
+            return integer((long) v);
+        }
+        return ascii(Double.toString(v));
+    }
+
+    /**
+     * Число з {@code scale} (0..6) знаками після крапки — як {@code %.<scale>f} з {@code Locale.ROOT}:
+     * найкоротший десятковий запис округлюється half-up. Швидкий шлях — ціла арифметика над
+     * масштабованим значенням; значення біля межі округлення і дуже великі йдуть через {@link BigDecimal}.
+     */
+    ByteSink fixed(double v, int scale) throws IOException {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale: " + scale);
+        }
+        if (Double.isNaN(v)) {
+            return ascii("NaN");
+        }
+        if (Double.isInfinite(v)) {
+            return ascii(v > 0 ? "Infinity" : "-Infinity");
+        }
+        boolean negative = Double.doubleToRawLongBits(v) < 0;
+        double scaled = Math.abs(v) * SCALES[scale];
+        if (scaled < FAST_FIXED_LIMIT) {
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            // Похибка масштабування та найкоротшого запису — кілька ulp; ближче до .5 вирішує BigDecimal
+            if (Math.abs(fraction - 0.5) > 16 * Math.ulp(scaled)) {
+                long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+                long unit = (long) SCALES[scale];
+                if (negative) {
+                    ascii('-');
+                }
+                integer(units / unit);
+                if (scale > 0) {
+                    ensure(scale + 1);
+                    buf[pos++] = '.';
+                    pad((int) (units % unit), scale);
+                }
+                return this;
+            }
+        }
+        if (negative) {
+            ascii('-');
+        }
+        return ascii(new BigDecimal(Double.toString(Math.abs(v))).setScale(scale, RoundingMode.HALF_UP)
+                .toPlainString());
+    }
+
+    ByteSink uuid(UUID id) throws IOException {
+        ensure(36);
+        hex(id.getMostSignificantBits() >>> 32, 8);
+        buf[pos++] = '-';
+        hex(id.getMostSignificantBits() >>> 16, 4);
+        buf[pos++] = '-';
+        hex(id.getMostSignificantBits(), 4);
+        buf[pos++] = '-';
+        hex(id.getLeastSignificantBits() >>> 48, 4);
+        buf[pos++] = '-';
+        hex(id.getLeastSignificantBits(), 12);
+        return this;
+    }
+
+    private void hex(long v, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[pos + i] = HEX[(int) (v & 0xF)];
+            v >>>= 4;
+        }
+        pos += digits;
+    }
+
+    /** ISO yyyy-MM-dd для років 0..9999, інакше {@link LocalDate#toString}. */
+    ByteSink date(LocalDate d) throws IOException {
+        int year = d.getYear();
+        if (year < 0 || year > 9999) {
+            return ascii(d.toString());
+        }
+        ensure(10);
+        pad(year, 4);
+        buf[pos++] = '-';
+        pad(d.getMonthValue(), 2);
+        buf[pos++] = '-';
+        pad(d.getDayOfMonth(), 2);
+        return this;
+    }
+
+    private void pad(int v, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[pos + i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        pos += digits;
+    }
+
+    /** Поле CSV: {@code null} — порожньо, інакше в лапках, якщо містить кому, лапки чи перенос або порожнє. */
+    ByteSink csvField(String s) throws IOException {
+        if (s == null) {
+            return this;
+        }
+        boolean quote = s.isEmpty();
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return utf8(s);
+        }
+        ascii('"');
+        int from = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '"') {
+                utf8(s.subSequence(from, i + 1));
+                ascii('"');
+                from = i + 1;
+            }
+        }
+        utf8(s.subSequence(from, s.length()));
+        return ascii('"');
+    }
+
+    /** Рядок JSON у лапках з екрануванням або {@code null}. */
+    ByteSink jsonString(String s) throws IOException {
+        if (s == null) {
+            return ascii("null");
+        }
+        ascii('"');
+        int from = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            utf8(s.subSequence(from, i));
+            ensure(6);
+            buf[pos++] = '\\';
+            switch (c) {
+                case '"' -> buf[pos++] = '"';
+                case '\\' -> buf[pos++] = '\\';
+                case '\n' -> buf[pos++] = 'n';
+                case '\r' -> buf[pos++] = 'r';
+                case '\t' -> buf[pos++] = 't';
+                default -> {
+                    buf[pos++] = 'u';
+                    hex(c, 4);
+                }
+            }
+            from = i + 1;
+        }
+        utf8(s.subSequence(from, s.length()));
+        return ascii('"');
+    }
+
+    /** Число JSON; NaN і нескінченності в JSON не представлені — {@code null}. */
+    ByteSink jsonNumber(double v) throws IOException {
+        return Double.isFinite(v) ? decimal(v) : ascii("null");
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos < n) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+}
@@ -0,0 +1,568 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationType;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Масовий імпорт зобов'язань з CSV (розмітка — {@link ObligationCsv}).
+ * <p>
+ * Файл відображається в пам'ять і ділиться на шматки по межах рядків; шматки розбираються
+ * паралельно прямо з байтів — числа, UUID і дати без проміжних рядків. Результат додається до
+ * деривативи одним викликом в порядку файлу і лише після успішного розбору всього файлу: помилка
+ * в будь-якому рядку нічого не змінює. Поля в лапках можуть містити коми та {@code ""},
+ * але не переноси рядків. Порожні рядки пропускаються, перший рядок із {@code type} — заголовок;
+ * файл експорту ({@link ObligationExporter}) імпортується без змін.
+ */
+public final class CsvImporter {
+
+    /** Розмір шматка, який розбирає одна задача. */
+    static final int CHUNK_BYTES = 1 << 22;
+
+    private static final int SCAN_WINDOW = 1 << 16;
+
+    private final int chunkBytes;
+
+    public CsvImporter() {
+        this(CHUNK_BYTES);
+    }
+
+    /** Розмір шматка задається лише в тестах, щоб перевірити межі шматків на малих файлах. */
+    CsvImporter(int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes <= 0");
+        }
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Додати зобов'язання з CSV-файлу в кінець деривативи.
+     *
+     * @return кількість доданих зобов'язань
+     * @throws IOException якщо файл не читається або рядок некоректний (номер рядка — у повідомленні)
+     */
+    public int importInto(Path file, Derivative target) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("target is null");
+        }
+
+        List<Obligation> rows = read(file);
+        List<Obligation> obligations = target.getObligations();
+        if (obligations == null) {
+            target.setObligations(rows);
+        } else {
+            obligations.addAll(rows);
+        }
+        return rows.size();
+    }
+
+    /**
+     * Зобов'язання CSV-файлу в порядку файлу, нічого не змінюючи — наприклад, щоб записати їх
+     * у журнал до додавання.
+     *
+     * @throws IOException якщо файл не читається або рядок некоректний (номер рядка — у повідомленні)
+     */
+    public List<Obligation> read(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        List<List<Obligation>> batches = new ArrayList<>();
+        int total = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = skipBom(channel);
+            long pos = dataStart;
+            long linesBefore = 0;
+            int group = DerivativeCodec.groupSize();
+
+            while (pos < size) {
+                long[] starts = new long[group];
+                long[] ends = new long[group];
+                int n = 0;
+                while (n < group && pos < size) {
+                    long end = lineEnd(channel, Math.min(size, pos + chunkBytes), size);
+                    if (end - pos > Integer.MAX_VALUE) {
+                        throw new IOException("Рядок " + (linesBefore + 1) + ": задовгий рядок");
+                    }
+                    starts[n] = pos;
+                    ends[n] = end;
+                    n++;
+                    pos = end;
+                }
+
+                Chunk[] chunks = new Chunk[n];
+                DerivativeCodec.parallel(n, k -> {
+                    ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, starts[k], ends[k] - starts[k]);
+                    chunks[k] = new ChunkParser(buf, starts[k] == dataStart).parse();
+                });
+
+                for (Chunk c : chunks) {
+                    if (c.error != null) {
+                        throw new IOException("Рядок " + (linesBefore + c.errorLine) + ": " + c.error);
+                    }
+                    linesBefore += c.lines;
+                    batches.add(c.obligations);
+                    total += c.obligations.size();
+                }
+            }
+        }
+
+        List<Obligation> rows = new ArrayList<>(total);
+        for (List<Obligation> batch : batches) {
+            rows.addAll(batch);
+        }
+        return rows;
+    }
+
+    private static long skipBom(FileChannel channel) throws IOException {
+        if (channel.size() < 3) {
+            return 0;
+        }
+        ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        return head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    /** Позиція одразу після першого {@code '\n'} з {@code from} або кінець файлу. */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            int len = (int) Math.min(SCAN_WINDOW, size - pos);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            for (int i = 0; i < len; i++) {
+                if (window.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += len;
+        }
+        return size;
+    }
+
+    private static final class Chunk {
+        final List<Obligation> obligations;
+        final int lines;
+        final String error;
+        final int errorLine;
+
+        Chunk(List<Obligation> obligations, int lines, String error, int errorLine) {
+            this.obligations = obligations;
+            this.lines = lines;
+            this.error = error;
+            this.errorLine = errorLine;
+        }
+    }
+
+    /** Помилка рядка без стеку — створюється в гарячому циклі розбору. */
+    private static final class RowException extends Exception {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /** Розбір одного шматка; межі полів поточного рядка зберігаються в масивах, що перевикористовуються. */
+    private static final class ChunkParser {
+        private static final int MAX_COLUMNS = ObligationCsv.COLUMNS.length + ObligationCsv.COMPUTED.length;
+
+        private final ByteBuffer buf;
+        private final boolean first;
+        private final int[] from = new int[MAX_COLUMNS];
+        private final int[] to = new int[MAX_COLUMNS];
+        private final boolean[] quoted = new boolean[MAX_COLUMNS];
+        private final boolean[] escaped = new boolean[MAX_COLUMNS];
+        private final Object[][] specific = new Object[ObligationCsv.types().length][];
+        private int columns;
+
+        ChunkParser(ByteBuffer buf, boolean first) {
+            this.buf = buf;
+            this.first = first;
+        }
+
+        Chunk parse() {
+            List<Obligation> obligations = new ArrayList<>();
+            int limit = buf.limit();
+            int pos = 0;
+            int line = 0;
+            boolean headerChecked = !first;
+            while (pos < limit) {
+                line++;
+                int end = pos;
+                while (end < limit && buf.get(end) != '\n') end++;
+                int next = end < limit ? end + 1 : end;
+                if (end > pos && buf.get(end - 1) == '\r') end--;
+
+                if (end > pos) {
+                    try {
+                        split(pos, end);
+                        if (!headerChecked && isHeader()) {
+                            headerChecked = true;
+                        } else {
+                            headerChecked = true;
+                            obligations.add(toObligation());
+                        }
+                    } catch (RowException e) {
+                        return new Chunk(obligations, line, e.getMessage(), line);
+                    }
+                }
+                pos = next;
+            }
+            return new Chunk(obligations, line, null, 0);
+        }
+
+        private void split(int pos, int end) throws RowException {
+            columns = 0;
+            while (true) {
+                if (columns == MAX_COLUMNS) {
+                    throw new RowException("забагато колонок (максимум " + MAX_COLUMNS + ")");
+                }
+                int c = columns++;
+                quoted[c] = false;
+                escaped[c] = false;
+                if (pos < end && buf.get(pos) == '"') {
+                    quoted[c] = true;
+                    int p = pos + 1;
+                    from[c] = p;
+                    while (true) {
+                        if (p >= end) {
+                            throw new RowException("незакриті лапки в колонці " + (c + 1));
+                        }
+                        if (buf.get(p) == '"') {
+                            if (p + 1 < end && buf.get(p + 1) == '"') {
+                                escaped[c] = true;
+                                p += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        p++;
+                    }
+                    to[c] = p;
+                    pos = p + 1;
+                    if (pos < end && buf.get(pos) != ',') {
+                        throw new RowException("зайві символи після лапок у колонці " + (c + 1));
+                    }
+                } else {
+                    from[c] = pos;
+                    while (pos < end && buf.get(pos) != ',') pos++;
+                    to[c] = pos;
+                }
+                if (pos >= end) {
+                    return;
+                }
+                pos++;
+                if (pos == end) {
+                    // Кома в кінці рядка — ще одна порожня колонка
+                    if (columns == MAX_COLUMNS) {
+                        throw new RowException("забагато колонок (максимум " + MAX_COLUMNS + ")");
+                    }
+                    from[columns] = end;
+                    to[columns] = end;
+                    quoted[columns] = false;
+                    escaped[columns] = false;
+                    columns++;
+                    return;
+                }
+            }
+        }
+
+        private boolean isHeader() {
+            return equalsIgnoreCase(0, ObligationCsv.COLUMNS[0].getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private Obligation toObligation() throws RowException {
+            ObligationType type = type();
+            ObligationCsv.Kind[] kinds = ObligationCsv.specificKinds(type);
+            int expected = ObligationCsv.BASE_COLUMNS + kinds.length;
+            if (columns < expected) {
+                throw new RowException("для типу " + ObligationCsv.key(type) + " потрібно " + expected
+                        + " колонок, отримано " + columns);
+            }
+            // Обчислені колонки (premium, risk) після специфічних полів ігноруються
+            for (int c = expected; c < Math.min(columns, ObligationCsv.COLUMNS.length); c++) {
+                if (to[c] > from[c]) {
+                    throw new RowException("зайве значення в колонці " + (c + 1));
+                }
+            }
+
+            UUID id = isEmpty(1) ? UUID.randomUUID() : uuid(1);
+            String name = string(2);
+            double insuredAmount = number(3);
+            double factor = number(4);
+            int period = integer(5);
+            double interestRate = number(6);
+            double probability = number(7);
+            double maxCost = number(8);
+
+            Object[] values = specific[type.ordinal()];
+            if (values == null) {
+                values = specific[type.ordinal()] = new Object[kinds.length];
+            }
+            for (int k = 0; k < kinds.length; k++) {
+                int c = ObligationCsv.BASE_COLUMNS + k;
+                values[k] = switch (kinds[k]) {
+                    case STRING -> string(c);
+                    case DOUBLE -> number(c);
+                    case BOOLEAN -> bool(c);
+                    case DATE -> date(c);
+                };
+            }
+            return type.restore(id, name, insuredAmount, factor, period, interestRate, probability, maxCost, values);
+        }
+
+        // ===== Поля =====
+
+        private boolean isEmpty(int c) {
+            return to[c] == from[c] && !quoted[c];
+        }
+
+        private ObligationType type() throws RowException {
+            for (ObligationType t : ObligationCsv.types()) {
+                if (equalsIgnoreCase(0, ObligationCsv.keyBytes(t))) {
+                    return t;
+                }
+            }
+            throw new RowException("невідомий тип '" + text(0) + "'");
+        }
+
+        private boolean equalsIgnoreCase(int c, byte[] ascii) {
+            if (to[c] - from[c] != ascii.length) return false;
+            for (int i = 0; i < ascii.length; i++) {
+                int b = buf.get(from[c] + i);
+                if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                if (b != ascii[i]) return false;
+            }
+            return true;
+        }
+
+        private String string(int c) {
+            return isEmpty(c) ? null : text(c);
+        }
+
+        private String text(int c) {
+            int len = to[c] - from[c];
+            byte[] bytes = new byte[len];
+            buf.get(from[c], bytes);
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            return escaped[c] ? s.replace("\"\"", "\"") : s;
+        }
+
+        private double number(int c) throws RowException {
+            if (to[c] == from[c]) {
+                throw new RowException("порожнє число в колонці " + column(c));
+            }
+            try {
+                return parseDouble(buf, from[c], to[c]);
+            } catch (NumberFormatException e) {
+                throw new RowException("некоректне число '" + text(c) + "' в колонці " + column(c));
+            }
+        }
+
+        private int integer(int c) throws RowException {
+            long value = 0;
+            int p = from[c];
+            boolean negative = p < to[c] && buf.get(p) == '-';
+            if (negative || (p < to[c] && buf.get(p) == '+')) p++;
+            if (p == to[c]) {
+                throw new RowException("некоректне ціле '" + text(c) + "' в колонці " + column(c));
+            }
+            for (; p < to[c]; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9 || (value = value * 10 + d) > Integer.MAX_VALUE + 1L) {
+                    throw new RowException("некоректне ціле '" + text(c) + "' в колонці " + column(c));
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new RowException("некоректне ціле '" + text(c) + "' в колонці " + column(c));
+            }
+            return (int) value;
+        }
+
+        private boolean bool(int c) throws RowException {
+            if (to[c] - from[c] == 1) {
+                byte b = buf.get(from[c]);
+                if (b == '1') return true;
+                if (b == '0') return false;
+            }
+            if (equalsIgnoreCase(c, TRUE)) return true;
+            if (equalsIgnoreCase(c, FALSE)) return false;
+            throw new RowException("некоректне логічне значення '" + text(c) + "' в колонці " + column(c));
+        }
+
+        private LocalDate date(int c) throws RowException {
+            if (isEmpty(c)) {
+                return null;
+            }
+            int p = from[c];
+            if (to[c] - p != 10 || buf.get(p + 4) != '-' || buf.get(p + 7) != '-') {
+                throw new RowException("некоректна дата '" + text(c) + "' в колонці " + column(c) + " (yyyy-MM-dd)");
+            }
+            int year = digits(p, 4);
+            int month = digits(p + 5, 2);
+            int day = digits(p + 8, 2);
+            try {
+                if (year < 0 || month < 0 || day < 0) throw new DateTimeException("digits");
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e) {
+                throw new RowException("некоректна дата '" + text(c) + "' в колонці " + column(c) + " (yyyy-MM-dd)");
+            }
+        }
+
+        private int digits(int p, int n) {
+            int value = 0;
+            for (int i = 0; i < n; i++) {
+                int d = buf.get(p + i) - '0';
+                if (d < 0 || d > 9) return -1;
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        private UUID uuid(int c) throws RowException {
+            int p = from[c];
+            if (to[c] - p != 36) {
+                throw new RowException("некоректний UUID '" + text(c) + "'");
+            }
+            long high = 0;
+            long low = 0;
+            for (int i = 0; i < 36; i++) {
+                int b = buf.get(p + i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (b != '-') throw new RowException("некоректний UUID '" + text(c) + "'");
+                    continue;
+                }
+                int h = Character.digit(b, 16);
+                if (h < 0) throw new RowException("некоректний UUID '" + text(c) + "'");
+                if (i < 19) high = (high << 4) | h;
+                else low = (low << 4) | h;
+            }
+            return new UUID(high, low);
+        }
+
+        private static String column(int c) {
+            return ObligationCsv.COLUMNS[c];
+        }
+
+        private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ===== Числа =====
+
+    /** 10^0..10^22 — точно представлені в double. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        double p = 1.0;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = p;
+            p *= 10.0;
+        }
+    }
+
+    /**
+     * Розбір десяткового числа з байтів без створення рядка. Якщо значущих цифр не більше 15,
+     * а десятковий порядок у межах ±22, мантиса і степінь десяти точні в double, тож одна операція
+     * дає правильно округлений результат — той самий, що {@link Double#parseDouble}. Інакше
+     * (а також для NaN/Infinity) — {@link Double#parseDouble}.
+     *
+     * @throws NumberFormatException якщо це не число
+     */
+    static double parseDouble(ByteBuffer buf, int from, int to) {
+        int p = from;
+        boolean negative = false;
+        if (p < to && (buf.get(p) == '-' || buf.get(p) == '+')) {
+            negative = buf.get(p) == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        for (; p < to; p++) {
+            int d = buf.get(p) - '0';
+            if (d < 0 || d > 9) break;
+            anyDigit = true;
+            if (mantissa != 0 || d != 0) {
+                if (++significant > 15) return slowParse(buf, from, to);
+                mantissa = mantissa * 10 + d;
+            }
+        }
+        if (p < to && buf.get(p) == '.') {
+            for (p++; p < to; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) break;
+                anyDigit = true;
+                if (mantissa != 0 || d != 0) {
+                    if (++significant > 15) return slowParse(buf, from, to);
+                    mantissa = mantissa * 10 + d;
+                }
+                exponent--;
+            }
+        }
+        if (!anyDigit) {
+            return slowParse(buf, from, to);
+        }
+        if (p < to && (buf.get(p) == 'e' || buf.get(p) == 'E')) {
+            p++;
+            boolean negativeExp = false;
+            if (p < to && (buf.get(p) == '-' || buf.get(p) == '+')) {
+                negativeExp = buf.get(p) == '-';
+                p++;
+            }
+            int e = 0;
+            int start = p;
+            for (; p < to; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9 || e > 10_000) return slowParse(buf, from, to);
+                e = e * 10 + d;
+            }
+            if (p == start) return slowParse(buf, from, to);
+            exponent += negativeExp ? -e : e;
+        }
+        if (p != to) {
+            return slowParse(buf, from, to);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return slowParse(buf, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        String s = new String(bytes, StandardCharsets.US_ASCII).trim();
+        if (s.isEmpty() || s.endsWith("d") || s.endsWith("D") || s.endsWith("f") || s.endsWith("F")) {
+            throw new NumberFormatException(s);
+        }
+        return Double.parseDouble(s);
+    }
+}
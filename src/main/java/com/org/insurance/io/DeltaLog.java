@@ -0,0 +1,363 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.ChangeSet;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал дельт деривативи поруч з базовим файлом ({@code <файл>.delta}): кожне
+ * {@link FileManager#saveDelta} дописує лише зобов'язання, додані, змінені чи видалені
+ * з попереднього збереження ({@link ChangeSet}), тож розмір запису пропорційний змінам,
+ * а не портфелю.
+ * <pre>
+ * int    MAGIC ("ICDL")
+ * short  VERSION
+ * long×2 id деривативи
+ * запис: int довжина вмісту, int CRC32C вмісту, вміст:
+ *        varint кількість видалених, UUID видалених,
+ *        дериватива у форматі {@link DerivativeCodec} — назва і додані/змінені зобов'язання
+ *        в порядку списку
+ * </pre>
+ * Накладання запису: видалені зобов'язання прибираються; змінені замінюються на своїй позиції;
+ * нові й повторно додані — в кінець, у порядку дельт. Обірваний збоєм запис відкидається.
+ * <p>
+ * Ущільнення і повне збереження поверх дельт ({@link #replaceBase}) пишуть нову базу у
+ * {@code <файл>.compact}, видаляють журнал дельт (точка фіксації) і перейменовують її на місце
+ * бази. Якщо збій перервав цю послідовність, {@link #recover} завершує її або відкочує.
+ */
+final class DeltaLog {
+
+    private static final Logger log = LogManager.getLogger(DeltaLog.class);
+
+    static final int MAGIC = 0x4943444C; // "ICDL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + 2 * Long.BYTES;
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private DeltaLog() {
+    }
+
+    static Path logOf(Path base) {
+        return base.resolveSibling(base.getFileName() + ".delta");
+    }
+
+    static Path stagingOf(Path base) {
+        return base.resolveSibling(base.getFileName() + ".compact");
+    }
+
+    /** Монітор файлу бази: збереження, дельти й ущільнення одного файлу виконуються по черзі. */
+    static Object lockOf(Path base) {
+        return LOCKS.computeIfAbsent(base.toAbsolutePath().normalize(), k -> new Object());
+    }
+
+    /** Завершити або відкотити заміну бази, перервану збоєм; недописаний {@link AtomicFiles#tempOf} видаляється. */
+    static void recover(Path base) throws IOException {
+        if (Files.deleteIfExists(AtomicFiles.tempOf(base))) {
+            log.warn("Незавершене збереження '{}' відкинуто", base);
+        }
+        Path staging = stagingOf(base);
+        if (!Files.exists(staging)) {
+            return;
+        }
+        if (Files.exists(logOf(base))) {
+            log.warn("Незавершене ущільнення '{}' відкочено", base);
+            Files.delete(staging);
+        } else {
+            log.warn("Незавершене ущільнення '{}' доведено до кінця", base);
+            AtomicFiles.move(staging, base);
+        }
+    }
+
+    /**
+     * Записати нову базу замість старої разом з її дельтами: {@code <файл>.compact}, fsync,
+     * видалення журналу дельт, перейменування.
+     */
+    static void replaceBase(Path base, BaseWriter writer) throws IOException {
+        Path staging = stagingOf(base);
+        AtomicFiles.writeSynced(staging, channel -> writer.write(Channels.newOutputStream(channel)));
+        Files.deleteIfExists(logOf(base));
+        AtomicFiles.forceDirectory(base.toAbsolutePath().getParent());
+        AtomicFiles.move(staging, base);
+    }
+
+    /** Запис нової бази; потік не закривається. */
+    interface BaseWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // ===== Запис =====
+
+    /**
+     * Дописати дельту {@code changes} деривативи (не повну) в кінець журналу.
+     *
+     * @return розмір журналу дельт після запису
+     */
+    static long append(Path base, Derivative derivative, ChangeSet changes) throws IOException {
+        if (changes.isFull()) {
+            throw new IllegalArgumentException("Повні зміни не записуються дельтою");
+        }
+        byte[] payload = encode(derivative, changes);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        try (FileChannel channel = FileChannel.open(logOf(base), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size() == 0 ? writeHeader(channel, derivative.getId()) : validEnd(channel, derivative.getId());
+            ByteBuffer frame = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+            frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame, end + frame.position());
+            }
+            channel.force(false);
+            return channel.size();
+        }
+    }
+
+    private static byte[] encode(Derivative derivative, ChangeSet changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ObligationEncoder encoder = new ObligationEncoder(out);
+        Set<UUID> removed = changes.getRemoved();
+        encoder.writeVarInt(removed.size());
+        for (UUID id : removed) {
+            encoder.writeUuid(id);
+        }
+
+        Set<UUID> dirty = changes.getDirty();
+        List<Obligation> rows = new ArrayList<>(dirty.size());
+        List<Obligation> all = derivative.getObligations();
+        if (all != null && !dirty.isEmpty()) {
+            for (Obligation o : all) {
+                if (o != null && dirty.contains(o.getId())) {
+                    rows.add(o);
+                }
+            }
+        }
+        Derivative delta = new Derivative(derivative.getId(), derivative.getName());
+        delta.setObligations(rows);
+        try {
+            DerivativeCodec.write(delta, out);
+        } finally {
+            // Відписати тимчасову деривативу від живих зобов'язань
+            delta.setObligations(null);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static long writeHeader(FileChannel channel, UUID id) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION)
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        return HEADER_BYTES;
+    }
+
+    /**
+     * Кінець останнього цілого запису — того самого, на якому зупиниться {@link #apply}; хвіст
+     * від першого обірваного запису чи запису з невірним CRC відрізається, щоб нова дельта
+     * не опинилася за ним.
+     */
+    private static long validEnd(FileChannel channel, UUID id) throws IOException {
+        checkHeader(channel, id);
+        RecordReader reader = new RecordReader(channel);
+        while (reader.next() != null) {
+            // лише пропускаємо цілі записи
+        }
+        long end = reader.end;
+        if (end < reader.size) {
+            log.warn("Журнал дельт: відкинуто обірваний хвіст {} байт", reader.size - end);
+            channel.truncate(end);
+        }
+        return end;
+    }
+
+    private static void checkHeader(FileChannel channel, UUID id) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new StreamCorruptedException("Не журнал дельт");
+        }
+        int version = Short.toUnsignedInt(header.getShort(Integer.BYTES));
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Непідтримувана версія журналу дельт: " + version);
+        }
+        UUID owner = new UUID(header.getLong(Integer.BYTES + Short.BYTES),
+                header.getLong(Integer.BYTES + Short.BYTES + Long.BYTES));
+        if (!owner.equals(id)) {
+            throw new StreamCorruptedException("Журнал дельт належить іншій деривативі: " + owner);
+        }
+    }
+
+    // ===== Накладання =====
+
+    /**
+     * Накласти дельти на деривативу, прочитану з бази.
+     *
+     * @return кількість накладених дельт
+     */
+    static int apply(Path base, Derivative derivative) throws IOException {
+        Path file = logOf(base);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        Map<UUID, Touch> touched = new HashMap<>();
+        String name = derivative.getName();
+        int records = 0;
+        long sequence = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(channel, derivative.getId());
+            RecordReader reader = new RecordReader(channel);
+            byte[] payload;
+            while ((payload = reader.next()) != null) {
+                records++;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                ObligationDecoder decoder = new ObligationDecoder(record);
+                int removed = decoder.readVarInt();
+                for (int i = 0; i < removed; i++) {
+                    Touch t = touched.computeIfAbsent(decoder.readUuid(), k -> new Touch());
+                    t.value = null;
+                    t.moved = true;
+                }
+                Derivative delta = DerivativeCodec.read(record);
+                name = delta.getName();
+                for (Obligation o : delta.getObligations()) {
+                    Touch t = touched.get(o.getId());
+                    if (t == null) {
+                        t = new Touch();
+                        t.sequence = sequence++;
+                        touched.put(o.getId(), t);
+                    } else if (t.value == null) {
+                        t.sequence = sequence++;
+                    }
+                    t.value = o;
+                }
+            }
+            if (reader.end < reader.size) {
+                log.warn("Журнал дельт '{}': відкинуто обірваний хвіст {} байт", file, reader.size - reader.end);
+            }
+        } catch (EOFException e) {
+            throw new StreamCorruptedException("Неповний запис журналу дельт: " + file);
+        }
+        if (records == 0) {
+            return 0;
+        }
+
+        List<Obligation> source = derivative.getObligations();
+        List<Obligation> merged = new ArrayList<>(source == null ? touched.size() : source.size() + touched.size());
+        if (source != null) {
+            for (Obligation o : source) {
+                Touch t = o == null ? null : touched.get(o.getId());
+                if (t == null) {
+                    merged.add(o);
+                } else if (!t.moved) {
+                    merged.add(t.value);
+                    t.inPlace = true;
+                }
+            }
+        }
+        List<Touch> appended = new ArrayList<>();
+        for (Touch t : touched.values()) {
+            if (t.value != null && !t.inPlace) {
+                appended.add(t);
+            }
+        }
+        appended.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        for (Touch t : appended) {
+            merged.add(t.value);
+        }
+        derivative.setObligations(merged);
+        derivative.setName(name);
+        return records;
+    }
+
+    /** Підсумок дельт для одного UUID. */
+    private static final class Touch {
+        /** Останнє значення; {@code null} — видалено. */
+        private Obligation value;
+        /** Позицію в базі втрачено (видалено, можливо, додано знову в кінець). */
+        private boolean moved;
+        /** Замінено на позиції бази. */
+        private boolean inPlace;
+        /** Порядок додавання в кінець. */
+        private long sequence;
+    }
+
+    /** Послідовне читання записів від заголовка; зупиняється на обірваному або з невірним CRC32C. */
+    private static final class RecordReader {
+        private final DataInputStream in;
+        private final long size;
+        private final CRC32C crc = new CRC32C();
+        /** Кінець останнього прочитаного цілого запису. */
+        private long end = HEADER_BYTES;
+
+        private RecordReader(FileChannel channel) throws IOException {
+            this.size = channel.size();
+            this.in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel.position(end)), 1 << 16));
+        }
+
+        /** Вміст наступного цілого запису або {@code null}. */
+        private byte[] next() throws IOException {
+            if (size - end < RECORD_HEADER_BYTES) {
+                return null;
+            }
+            int length = in.readInt();
+            int expected = in.readInt();
+            if (length <= 0 || length > size - end - RECORD_HEADER_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) {
+                return null;
+            }
+            end += RECORD_HEADER_BYTES + length;
+            return payload;
+        }
+    }
+
+    // ===== Файли =====
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,906 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.ColumnarObligationList;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationColumns;
+import com.org.insurance.domain.ObligationField;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Версійований бінарний формат деривативи — заміна Java-серіалізації.
+ * <pre>
+ * int    MAGIC ("ICSD")
+ * short  VERSION
+ * long×2 id деривативи
+ * рядок  назва
+ * int    кількість зобов'язань (-1 — список null)
+ * int    рядків у блоці
+ * byte   зберігання блоків: 0 — як є, 1 — Deflate
+ * ...    блоки зобов'язань, див. {@link ObligationEncoder}
+ * ...    футер: зони блоків та індекс UUID
+ * int    CRC32C заголовка і футера
+ * long   зсув футера
+ * int    MAGIC
+ * </pre>
+ * Кожен блок має власний словник рядків, тож його можна декодувати (і стискати) окремо,
+ * перейшовши до зсуву з футера. Стиснений блок — {@code int} довжина до стиснення,
+ * {@code int} довжина стиснених даних, дані Deflate. Футер:
+ * <pre>
+ * int    кількість блоків
+ * блок:  long зсув, int рядків, int CRC32C збережених байтів блоку,
+ *        для кожного {@link ObligationField} — double min, double max
+ * int    кількість записів індексу
+ * запис: long×2 UUID, int номер рядка — відсортовано за UUID, дублікати — за номером рядка
+ * </pre>
+ * Кожен блок і решта файлу (заголовок разом із футером) мають контрольні суми CRC32C. {@link #readMapped} перевіряє блок у тому ж паралельному завданні, що його декодує,
+ * а {@link #verify} — лише суми, без декодування. Потокове читання суми не перевіряє.
+ * Зона блоку охоплює значення не-null зобов'язань; NaN розширює її до (-∞, +∞), бо NaN
+ * не відсікається жодною межею пошуку. Див. {@link DerivativeFile}.
+ * <p>
+ * Формат не містить імен класів і дескрипторів полів, тому файл у кілька разів менший
+ * за серіалізований, а читання не потребує рефлексії.
+ */
+public final class DerivativeCodec {
+
+    public static final int MAGIC = 0x49435344;
+    public static final int VERSION = 1;
+
+    /** Рівень стиснення «без стиснення»; 1..9 — рівні {@link Deflater}. */
+    public static final int NO_COMPRESSION = 0;
+
+    /** Спосіб зберігання блоків у заголовку файлу. */
+    static final int STORED = 0;
+    static final int DEFLATED = 1;
+
+    /** Рядків у блоці за замовчуванням. */
+    public static final int BLOCK_ROWS = 1024;
+
+    /**
+     * З якої кількості зобов'язань {@link #readMapped} читає деривативу в колонкове сховище
+     * ({@link ColumnarObligationList}) — воно займає в кілька разів менше пам'яті.
+     */
+    public static final int COLUMNAR_ROWS = 1 << 16;
+
+    static final ObligationField[] FIELDS = ObligationField.values();
+
+    /** Розмір хвоста файлу: CRC32C заголовка і футера, зсув футера і MAGIC. */
+    static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /** Скільки байтів суміжних блоків {@link #verify} перевіряє одним завданням. */
+    private static final int VERIFY_CHUNK = 1 << 23;
+
+    private static final int BUFFER = 1 << 16;
+
+    /** Скільки блоків на потік обробляти за один паралельний крок запису чи читання. */
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    private DerivativeCodec() {
+    }
+
+    /** Записати деривативу без стиснення; потік не закривається. */
+    public static void write(Derivative derivative, OutputStream out) throws IOException {
+        write(derivative, out, NO_COMPRESSION);
+    }
+
+    /**
+     * Записати деривативу, стискаючи кожен блок {@link Deflater} з рівнем {@code compressionLevel}:
+     * {@link #NO_COMPRESSION} або 1..9 (1 — найшвидше, 9 — найменший файл). Блоки кодуються
+     * і стискаються паралельно групами, тож пам'ять обмежена кількома блоками на потік.
+     * Потік не закривається.
+     */
+    public static void write(Derivative derivative, OutputStream out, int compressionLevel) throws IOException {
+        write(derivative, out, BLOCK_ROWS, compressionLevel);
+    }
+
+    static void write(Derivative derivative, OutputStream out, int blockRows, int compressionLevel) throws IOException {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("out is null");
+        }
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("blockRows <= 0");
+        }
+        checkCompressionLevel(compressionLevel);
+        CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(out, BUFFER));
+        DataOutputStream data = new DataOutputStream(counting);
+        CRC32C meta = new CRC32C();
+        counting.checksum = meta;
+        ObligationEncoder header = new ObligationEncoder(data);
+
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        header.writeUuid(derivative.getId());
+        header.writeString(derivative.getName());
+
+        // Колонкове сховище кодується прямо з колонок, без матеріалізації рядків
+        ObligationColumns columns = derivative.getColumns();
+        List<Obligation> obligations = columns == null ? derivative.getObligations() : null;
+        int count = columns != null ? columns.size() : obligations == null ? -1 : obligations.size();
+        data.writeInt(count);
+        data.writeInt(blockRows);
+        data.writeByte(compressionLevel == NO_COMPRESSION ? STORED : DEFLATED);
+
+        int blockCount = count <= 0 ? 0 : (count - 1) / blockRows + 1;
+        long[] offsets = new long[blockCount];
+        int[] checksums = new int[blockCount];
+        double[][] zones = new double[blockCount][];
+        IdTable ids = new IdTable(Math.max(count, 0));
+
+        // Блоки мають власні суми у футері
+        counting.checksum = null;
+        if (count > 0) {
+            Iterator<Obligation> it = obligations == null ? null : obligations.iterator();
+            int group = groupSize();
+            for (int first = 0; first < blockCount; first += group) {
+                int n = Math.min(group, blockCount - first);
+                Obligation[][] rows = new Obligation[n][];
+                for (int k = 0; it != null && k < n; k++) {
+                    int b = first + k;
+                    rows[k] = new Obligation[Math.min(blockRows, count - b * blockRows)];
+                    for (int r = 0; r < rows[k].length; r++) {
+                        rows[k][r] = it.next();
+                    }
+                }
+
+                int firstBlock = first;
+                EncodedBlock[] encoded = new EncodedBlock[n];
+                parallel(n, k -> {
+                    int from = (firstBlock + k) * blockRows;
+                    encoded[k] = columns != null
+                            ? encodeBlock(columns, from, Math.min(from + blockRows, count), compressionLevel)
+                            : encodeBlock(rows[k], from, compressionLevel);
+                });
+
+                for (int k = 0; k < n; k++) {
+                    offsets[first + k] = counting.count();
+                    data.write(encoded[k].bytes);
+                    checksums[first + k] = encoded[k].checksum;
+                    zones[first + k] = encoded[k].zone;
+                    ids.addAll(encoded[k].ids);
+                    encoded[k] = null;
+                }
+            }
+        }
+
+        long footer = counting.count();
+        counting.checksum = meta;
+        data.writeInt(blockCount);
+        for (int b = 0; b < blockCount; b++) {
+            data.writeLong(offsets[b]);
+            data.writeInt(Math.min(blockRows, count - b * blockRows));
+            data.writeInt(checksums[b]);
+            for (double v : zones[b]) {
+                data.writeDouble(v);
+            }
+        }
+        ids.sort();
+        data.writeInt(ids.size);
+        for (int i = 0; i < ids.size; i++) {
+            data.writeLong(ids.highs[i]);
+            data.writeLong(ids.lows[i]);
+            data.writeInt(ids.rows[i]);
+        }
+        counting.checksum = null;
+        data.writeInt((int) meta.getValue());
+        data.writeLong(footer);
+        data.writeInt(MAGIC);
+        data.flush();
+    }
+
+    /** Прочитати деривативу; потік не закривається. */
+    public static Derivative read(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("in is null");
+        }
+        return readFrom(new DataInputStream(new BufferedInputStream(in, BUFFER)));
+    }
+
+    /** Прочитати деривативу з будь-якого {@link DataInput}, зокрема з {@link MappedFileInput}. */
+    static Derivative readFrom(DataInput data) throws IOException {
+        return readRest(new Cursor(data));
+    }
+
+    private static Derivative readRest(Cursor cursor) throws IOException {
+        Derivative derivative = new Derivative(cursor.id, cursor.name);
+        List<Obligation> obligations = readList(cursor);
+        if (obligations != null) {
+            derivative.setObligations(obligations);
+        }
+        return derivative;
+    }
+
+    private static List<Obligation> readList(Cursor cursor) throws IOException {
+        if (cursor.count < 0) {
+            return null;
+        }
+        List<Obligation> obligations = new ArrayList<>(Math.min(cursor.count, BUFFER));
+        while (cursor.hasNext()) {
+            obligations.add(cursor.next());
+        }
+        return obligations;
+    }
+
+    /** Перевірити MAGIC і версію формату. */
+    static void readHeader(DataInput data) throws IOException {
+        if (data.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Не файл деривативи");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Непідтримувана версія формату: " + version);
+        }
+    }
+
+    // ===== Зони блоків =====
+
+    /** min/max для кожного поля; порожня зона (min > max) не перетинається з жодним діапазоном. */
+    static double[] emptyZone() {
+        double[] zone = new double[FIELDS.length * 2];
+        for (int f = 0; f < FIELDS.length; f++) {
+            zone[2 * f] = Double.POSITIVE_INFINITY;
+            zone[2 * f + 1] = Double.NEGATIVE_INFINITY;
+        }
+        return zone;
+    }
+
+    private static void extendZone(double[] zone, Obligation o) {
+        for (int f = 0; f < FIELDS.length; f++) {
+            extendZone(zone, f, FIELDS[f].valueOf(o));
+        }
+    }
+
+    private static void extendZone(double[] zone, int f, double v) {
+        if (Double.isNaN(v)) {
+            zone[2 * f] = Double.NEGATIVE_INFINITY;
+            zone[2 * f + 1] = Double.POSITIVE_INFINITY;
+        } else {
+            zone[2 * f] = Math.min(zone[2 * f], v);
+            zone[2 * f + 1] = Math.max(zone[2 * f + 1], v);
+        }
+    }
+
+    // ===== Блоки =====
+
+    static void checkCompressionLevel(int level) {
+        if (level < NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compressionLevel must be 0..9: " + level);
+        }
+    }
+
+    private static EncodedBlock encodeBlock(Obligation[] rows, int firstRow, int compressionLevel) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(rows.length * 64 + 16);
+        ObligationEncoder encoder = new ObligationEncoder(new DataOutputStream(raw));
+        double[] zone = emptyZone();
+        IdTable ids = new IdTable(rows.length);
+        for (int r = 0; r < rows.length; r++) {
+            Obligation o = rows[r];
+            encoder.writeObligation(o);
+            if (o != null) {
+                extendZone(zone, o);
+                UUID id = o.getId();
+                if (id != null) {
+                    ids.add(id.getMostSignificantBits(), id.getLeastSignificantBits(), firstRow + r);
+                }
+            }
+        }
+        return finishBlock(raw, zone, ids, compressionLevel);
+    }
+
+    /** Те саме для рядків {@code [from, to)} колонок: поля й зона читаються з масивів. */
+    private static EncodedBlock encodeBlock(ObligationColumns columns, int from, int to, int compressionLevel)
+            throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream((to - from) * 64 + 16);
+        ObligationEncoder encoder = new ObligationEncoder(new DataOutputStream(raw));
+        double[] zone = emptyZone();
+        IdTable ids = new IdTable(to - from);
+        for (int row = from; row < to; row++) {
+            encoder.writeRow(columns, row);
+            if (!columns.isNull(row)) {
+                for (int f = 0; f < FIELDS.length; f++) {
+                    extendZone(zone, f, FIELDS[f].valueAt(columns, row));
+                }
+                ids.add(columns.idHighs()[row], columns.idLows()[row], row);
+            }
+        }
+        return finishBlock(raw, zone, ids, compressionLevel);
+    }
+
+    private static EncodedBlock finishBlock(ByteArrayOutputStream raw, double[] zone, IdTable ids,
+                                            int compressionLevel) throws IOException {
+        byte[] bytes = compressionLevel == NO_COMPRESSION ? raw.toByteArray() : deflate(raw.toByteArray(), compressionLevel);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return new EncodedBlock(bytes, (int) crc.getValue(), zone, ids);
+    }
+
+    private static byte[] deflate(byte[] raw, int level) throws IOException {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(raw.length);
+            data.writeInt(0);
+            byte[] chunk = new byte[BUFFER];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            byte[] bytes = out.toByteArray();
+            int stored = bytes.length - 2 * Integer.BYTES;
+            bytes[4] = (byte) (stored >>> 24);
+            bytes[5] = (byte) (stored >>> 16);
+            bytes[6] = (byte) (stored >>> 8);
+            bytes[7] = (byte) stored;
+            return bytes;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Вхід для декодування блоку, що починається з поточної позиції {@code in}. */
+    static DataInput blockInput(DataInput in, int storage) throws IOException {
+        if (storage == STORED) {
+            return in;
+        }
+        int rawLength = in.readInt();
+        int storedLength = in.readInt();
+        if (rawLength < 0 || storedLength < 0) {
+            throw new StreamCorruptedException("Некоректна довжина стисненого блоку");
+        }
+        byte[] stored = new byte[storedLength];
+        in.readFully(stored);
+        return inflate(ByteBuffer.wrap(stored), rawLength);
+    }
+
+    /**
+     * Вхід для блоку зі зрізу {@code block} (наприклад, відображених сторінок) — можна декодувати
+     * в окремому потоці. Блок як є декодується прямо зі зрізу, стиснений — розпаковується з нього.
+     */
+    static DataInput blockInput(ByteBuffer block, int storage) throws IOException {
+        if (storage == STORED) {
+            return MappedFileInput.of(block);
+        }
+        if (block.remaining() < 2 * Integer.BYTES) {
+            throw new StreamCorruptedException("Стиснений блок обрізано");
+        }
+        int rawLength = block.getInt(block.position());
+        int storedLength = block.getInt(block.position() + Integer.BYTES);
+        if (rawLength < 0 || storedLength < 0 || storedLength > block.remaining() - 2 * Integer.BYTES) {
+            throw new StreamCorruptedException("Некоректна довжина стисненого блоку");
+        }
+        return inflate(block.slice(block.position() + 2 * Integer.BYTES, storedLength), rawLength);
+    }
+
+    private static DataInput inflate(ByteBuffer stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int k = inflater.inflate(raw, n, rawLength - n);
+                if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += k;
+            }
+            if (n != rawLength) {
+                throw new StreamCorruptedException("Пошкоджений стиснений блок");
+            }
+            return new DataInputStream(new ByteArrayInputStream(raw));
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException("Пошкоджений стиснений блок: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static int groupSize() {
+        return Math.max(1, ForkJoinPool.getCommonPoolParallelism() * BLOCKS_PER_THREAD);
+    }
+
+    /** Дія над k-м блоком групи. */
+    interface BlockAction {
+        void run(int k) throws IOException;
+    }
+
+    /** Виконати дію для блоків 0..n-1 у {@link ForkJoinPool#commonPool()} і дочекатися всіх. */
+    static void parallel(int n, BlockAction action) throws IOException {
+        if (n == 1) {
+            action.run(0);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            int block = k;
+            tasks.add(() -> {
+                try {
+                    action.run(block);
+                } catch (IOException e) {
+                    // Пул може обгорнути перевірюваний виняток у RuntimeException — передаємо його явно
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> f : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Перервано під час обробки блоків");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException io) throw io.getCause();
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof RuntimeException re) throw re;
+                if (cause instanceof Error err) throw err;
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    /**
+     * Паралельне читання файлу: кожне завдання перевіряє CRC32C свого блоку прямо на зрізі входу
+     * і декодує його звідти ж (стиснений — розпаковує зі зрізу), без копіювання блоку.
+     * Від {@link #COLUMNAR_ROWS} зобов'язань дериватива читається в колонкове сховище.
+     */
+    static Derivative readMapped(MappedFileInput in) throws IOException {
+        Cursor cursor = new Cursor(in);
+        Derivative derivative = new Derivative(cursor.id, cursor.name);
+        List<Obligation> obligations = readObligations(in, cursor);
+        if (obligations != null) {
+            derivative.setObligations(obligations);
+        }
+        return derivative;
+    }
+
+    /**
+     * Зобов'язання відображеного файлу після прочитаного заголовка {@code cursor} — як у
+     * {@link #readMapped}; {@code null}, якщо списку немає.
+     */
+    static List<Obligation> readObligations(MappedFileInput in, Cursor cursor) throws IOException {
+        if (cursor.count <= 0) {
+            return readList(cursor);
+        }
+        Footer footer = new Footer(in, cursor);
+        if (cursor.count >= COLUMNAR_ROWS) {
+            return new ColumnarObligationList(readColumns(in, cursor, footer));
+        }
+
+        Obligation[] all = new Obligation[cursor.count];
+        int blockCount = footer.offsets.length;
+        int group = groupSize();
+        for (int first = 0; first < blockCount; first += group) {
+            int n = Math.min(group, blockCount - first);
+            ByteBuffer[] blocks = new ByteBuffer[n];
+            for (int k = 0; k < n; k++) {
+                int b = first + k;
+                blocks[k] = in.slice(footer.offsets[b], footer.length(b));
+            }
+
+            int firstBlock = first;
+            parallel(n, k -> {
+                int b = firstBlock + k;
+                ByteBuffer block = blocks[k];
+                blocks[k] = null;
+                footer.check(b, block.duplicate());
+                ObligationDecoder decoder = new ObligationDecoder(blockInput(block, cursor.storage));
+                int row = b * cursor.blockRows;
+                for (int r = 0; r < footer.rows[b]; r++) {
+                    all[row + r] = decoder.readObligation();
+                }
+            });
+        }
+
+        return new ArrayList<>(Arrays.asList(all));
+    }
+
+    /**
+     * Те саме, що {@link #readObligations}, але в колонки: кожне завдання декодує свій блок
+     * в окремі {@link ObligationColumns}, які потім дописуються по порядку копіюванням масивів.
+     * Об'єкти зобов'язань живуть лише під час декодування блоку.
+     */
+    private static ObligationColumns readColumns(MappedFileInput in, Cursor cursor, Footer footer) throws IOException {
+        ObligationColumns columns = new ObligationColumns(cursor.count);
+        int blockCount = footer.offsets.length;
+        int group = groupSize();
+        for (int first = 0; first < blockCount; first += group) {
+            int n = Math.min(group, blockCount - first);
+            ByteBuffer[] blocks = new ByteBuffer[n];
+            for (int k = 0; k < n; k++) {
+                int b = first + k;
+                blocks[k] = in.slice(footer.offsets[b], footer.length(b));
+            }
+
+            int firstBlock = first;
+            ObligationColumns[] parts = new ObligationColumns[n];
+            parallel(n, k -> {
+                int b = firstBlock + k;
+                ByteBuffer block = blocks[k];
+                blocks[k] = null;
+                footer.check(b, block.duplicate());
+                ObligationDecoder decoder = new ObligationDecoder(blockInput(block, cursor.storage));
+                ObligationColumns part = new ObligationColumns(footer.rows[b]);
+                for (int r = 0; r < footer.rows[b]; r++) {
+                    part.add(decoder.readObligation());
+                }
+                parts[k] = part;
+            });
+            for (ObligationColumns part : parts) {
+                columns.append(part);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Перевірити контрольні суми відображеного файлу без декодування: заголовок і футер, потім
+     * блоки — паралельно, суміжними ділянками до {@link #VERIFY_CHUNK} байтів на завдання.
+     * CRC32C рахується прямо по зрізах входу (відображених сторінках або їх копіях у купі),
+     * тож швидкість обмежує пропускна здатність пам'яті (або диска, якщо файлу немає в кеші ОС).
+     *
+     * @throws StreamCorruptedException якщо сума не збігається або структура файлу пошкоджена
+     */
+    static void verify(MappedFileInput in) throws IOException {
+        Cursor cursor = new Cursor(in);
+        Footer footer = new Footer(in, cursor);
+
+        // Ділянки суміжних блоків: [starts[i], starts[i + 1])
+        int blockCount = footer.offsets.length;
+        List<Integer> starts = new ArrayList<>();
+        long chunk = 0;
+        for (int b = 0; b < blockCount; b++) {
+            long length = footer.length(b);
+            if (starts.isEmpty() || chunk + length > VERIFY_CHUNK) {
+                starts.add(b);
+                chunk = 0;
+            }
+            chunk += length;
+        }
+        starts.add(blockCount);
+
+        int group = groupSize();
+        int chunks = starts.size() - 1;
+        for (int first = 0; first < chunks; first += group) {
+            int n = Math.min(group, chunks - first);
+            ByteBuffer[] regions = new ByteBuffer[n];
+            for (int k = 0; k < n; k++) {
+                int from = starts.get(first + k);
+                int to = starts.get(first + k + 1);
+                long start = footer.offsets[from];
+                regions[k] = in.slice(start, (int) (footer.end(to - 1) - start));
+            }
+
+            int firstChunk = first;
+            parallel(n, k -> {
+                int from = starts.get(firstChunk + k);
+                int to = starts.get(firstChunk + k + 1);
+                long start = footer.offsets[from];
+                for (int b = from; b < to; b++) {
+                    footer.check(b, regions[k].slice((int) (footer.offsets[b] - start), footer.length(b)));
+                }
+            });
+        }
+    }
+
+    /**
+     * Послідовне читання файлу: заголовок одразу, зобов'язання — по одному, з новим
+     * словником рядків на межі кожного блоку. Футер не читається.
+     */
+    static final class Cursor {
+        final UUID id;
+        final String name;
+        final int count;
+        final int blockRows;
+        final int storage;
+
+        private final DataInput in;
+        private ObligationDecoder decoder;
+        private int row;
+
+        Cursor(DataInput in) throws IOException {
+            this.in = in;
+            readHeader(in);
+            ObligationDecoder header = new ObligationDecoder(in);
+            this.id = header.readUuid();
+            this.name = header.readString();
+            this.count = in.readInt();
+            if (count < -1) {
+                throw new StreamCorruptedException("Некоректна кількість зобов'язань: " + count);
+            }
+            this.blockRows = in.readInt();
+            if (blockRows <= 0) {
+                throw new StreamCorruptedException("Некоректний розмір блоку: " + blockRows);
+            }
+            this.storage = in.readUnsignedByte();
+            if (storage != STORED && storage != DEFLATED) {
+                throw new StreamCorruptedException("Невідомий спосіб зберігання блоків: " + storage);
+            }
+        }
+
+        boolean hasNext() {
+            return row < count;
+        }
+
+        Obligation next() throws IOException {
+            if (row % blockRows == 0) {
+                decoder = new ObligationDecoder(blockInput(in, storage));
+            }
+            row++;
+            return decoder.readObligation();
+        }
+    }
+
+    /**
+     * Футер файлу: зсуви, кількість рядків, контрольні суми і зони блоків, положення
+     * індексу UUID. Під час читання перевіряється CRC32C заголовка і футера.
+     */
+    static final class Footer {
+        static final int ID_ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+        final long offset;
+        final long[] offsets;
+        final int[] rows;
+        /** CRC32C збережених байтів блоків. */
+        final int[] checksums;
+        final double[][] zones;
+        final long idIndex;
+        final int idCount;
+
+        Footer(MappedFileInput in, Cursor header) throws IOException {
+            long trailer = in.size() - TRAILER_BYTES;
+            if (trailer < in.position()) {
+                throw new StreamCorruptedException("Файл обрізано: немає футера");
+            }
+            in.seek(trailer);
+            int metaChecksum = in.readInt();
+            this.offset = in.readLong();
+            if (in.readInt() != MAGIC || offset < 0 || offset > trailer) {
+                throw new StreamCorruptedException("Пошкоджений футер файлу");
+            }
+            in.seek(offset);
+            int blockCount = in.readInt();
+            int count = header.count;
+            if (blockCount < 0 || blockCount != (count <= 0 ? 0 : (count - 1) / header.blockRows + 1)) {
+                throw new StreamCorruptedException("Некоректна кількість блоків: " + blockCount);
+            }
+            this.offsets = new long[blockCount];
+            this.rows = new int[blockCount];
+            this.checksums = new int[blockCount];
+            this.zones = new double[blockCount][];
+            for (int b = 0; b < blockCount; b++) {
+                offsets[b] = in.readLong();
+                rows[b] = in.readInt();
+                if (rows[b] != Math.min(header.blockRows, count - b * header.blockRows)) {
+                    throw new StreamCorruptedException("Некоректна кількість рядків у блоці " + b);
+                }
+                checksums[b] = in.readInt();
+                double[] zone = new double[FIELDS.length * 2];
+                for (int k = 0; k < zone.length; k++) {
+                    zone[k] = in.readDouble();
+                }
+                zones[b] = zone;
+            }
+            this.idCount = in.readInt();
+            this.idIndex = in.position();
+            if (idCount < 0 || idIndex + (long) idCount * ID_ENTRY_BYTES != trailer) {
+                throw new StreamCorruptedException("Пошкоджений індекс UUID");
+            }
+            for (int b = 0; b < blockCount; b++) {
+                if (offsets[b] < (b == 0 ? 0 : offsets[b - 1]) || end(b) < offsets[b]) {
+                    throw new StreamCorruptedException("Некоректний зсув блоку " + b);
+                }
+            }
+            // Заголовок закінчується там, де починається перший блок
+            CRC32C crc = new CRC32C();
+            in.update(crc, 0, blockCount > 0 ? offsets[0] : offset);
+            in.update(crc, offset, trailer - offset);
+            if ((int) crc.getValue() != metaChecksum) {
+                throw new StreamCorruptedException("Контрольна сума заголовка або футера не збігається");
+            }
+        }
+
+        /** Зсув кінця блоку {@code b}: початок наступного або футера. */
+        long end(int b) {
+            return b + 1 < offsets.length ? offsets[b + 1] : offset;
+        }
+
+        int length(int b) throws StreamCorruptedException {
+            long length = end(b) - offsets[b];
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Некоректний розмір блоку " + b);
+            }
+            return (int) length;
+        }
+
+        /** Звірити CRC32C збережених байтів блоку {@code b}. */
+        void check(int b, ByteBuffer block) throws StreamCorruptedException {
+            CRC32C crc = new CRC32C();
+            crc.update(block);
+            if ((int) crc.getValue() != checksums[b]) {
+                throw new StreamCorruptedException("Контрольна сума блоку " + b + " не збігається");
+            }
+        }
+    }
+
+    private static final class EncodedBlock {
+        final byte[] bytes;
+        final int checksum;
+        final double[] zone;
+        final IdTable ids;
+
+        EncodedBlock(byte[] bytes, int checksum, double[] zone, IdTable ids) {
+            this.bytes = bytes;
+            this.checksum = checksum;
+            this.zone = zone;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Записи індексу UUID у паралельних масивах — без об'єкта на кожен рядок. Записи додаються
+     * в порядку рядків, а {@link #sort()} стабільний, тож дублікати UUID лишаються впорядкованими
+     * за номером рядка.
+     */
+    static final class IdTable {
+        /** Відрізки, коротші за цей, сортуються вставками. */
+        private static final int RUN = 32;
+
+        long[] highs;
+        long[] lows;
+        int[] rows;
+        int size;
+
+        IdTable(int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            rows = new int[capacity];
+        }
+
+        void add(long high, long low, int row) {
+            if (size == rows.length) {
+                int capacity = Math.max(16, size * 2);
+                highs = Arrays.copyOf(highs, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            highs[size] = high;
+            lows[size] = low;
+            rows[size++] = row;
+        }
+
+        void addAll(IdTable other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.highs[i], other.lows[i], other.rows[i]);
+            }
+        }
+
+        /** Упорядкувати за UUID (знакове порівняння старшої, потім молодшої половини), як шукає {@link DerivativeFile}. */
+        void sort() {
+            for (int from = 0; from < size; from += RUN) {
+                insertionSort(from, Math.min(size, from + RUN));
+            }
+            if (size <= RUN) {
+                return;
+            }
+            // Злиття знизу вгору з буфером; після кожного проходу масиви міняються ролями
+            long[] h = highs, l = lows;
+            int[] r = rows;
+            long[] bh = new long[size], bl = new long[size];
+            int[] br = new int[size];
+            for (int width = RUN; width < size; width *= 2) {
+                for (int from = 0; from < size; from += 2 * width) {
+                    int mid = Math.min(size, from + width);
+                    int to = Math.min(size, from + 2 * width);
+                    int i = from, j = mid, k = from;
+                    while (i < mid && j < to) {
+                        int p = compare(h[j], l[j], h[i], l[i]) < 0 ? j++ : i++;
+                        bh[k] = h[p];
+                        bl[k] = l[p];
+                        br[k++] = r[p];
+                    }
+                    int rest = i < mid ? i : j;
+                    int length = to - k;
+                    System.arraycopy(h, rest, bh, k, length);
+                    System.arraycopy(l, rest, bl, k, length);
+                    System.arraycopy(r, rest, br, k, length);
+                }
+                long[] th = h; h = bh; bh = th;
+                long[] tl = l; l = bl; bl = tl;
+                int[] tr = r; r = br; br = tr;
+            }
+            highs = h;
+            lows = l;
+            rows = r;
+        }
+
+        private void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                long h = highs[i];
+                long l = lows[i];
+                int r = rows[i];
+                int j = i - 1;
+                while (j >= from && compare(highs[j], lows[j], h, l) > 0) {
+                    highs[j + 1] = highs[j];
+                    lows[j + 1] = lows[j];
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                highs[j + 1] = h;
+                lows[j + 1] = l;
+                rows[j + 1] = r;
+            }
+        }
+
+        private static int compare(long h1, long l1, long h2, long l2) {
+            int c = Long.compare(h1, h2);
+            return c != 0 ? c : Long.compare(l1, l2);
+        }
+    }
+
+    /**
+     * Рахує записані байти — для зсувів блоків, зокрема за межею 2 ГБ — і додає їх
+     * до {@link #checksum}, якщо її задано.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+        Checksum checksum;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+            if (checksum != null) checksum.update(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            if (checksum != null) checksum.update(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationQuery;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.org.insurance.io.DerivativeCodec.FIELDS;
+
+/**
+ * Вибіркове читання збереженого файлу без завантаження деривативи: пошук зобов'язання за UUID
+ * і фільтр {@link ObligationQuery}, які декодують лише потрібні блоки.
+ * <p>
+ * Під час відкриття читається тільки заголовок і зони блоків з футера (див. {@link DerivativeCodec});
+ * стиснені блоки розпаковуються лише під час читання, перед декодуванням звіряється їх CRC32C;
+ * індекс UUID лишається у відображеному файлі, пошук по ньому — бінарний. Фільтр пропускає блоки,
+ * зони яких не перетинаються з жодним діапазоном запиту. Файли Java-серіалізації (старий формат)
+ * обробляються повним потоковим проходом.
+ * <p>
+ * Об'єкт не потокобезпечний.
+ */
+public final class DerivativeFile implements Closeable {
+
+    private static final int ID_ENTRY_BYTES = DerivativeCodec.Footer.ID_ENTRY_BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedFileInput in;
+
+    private final UUID id;
+    private final String name;
+    private final int count;
+
+    private final int blockRows;
+    private final int storage;
+    private final DerivativeCodec.Footer footer;
+
+    private int blocksRead;
+
+    /** Файл з блоками та футером. */
+    private DerivativeFile(Path path, FileChannel channel, MappedFileInput in, DerivativeCodec.Cursor header)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.in = in;
+        this.id = header.id;
+        this.name = header.name;
+        this.count = header.count;
+        this.blockRows = header.blockRows;
+        this.storage = header.storage;
+        this.footer = new DerivativeCodec.Footer(in, header);
+    }
+
+    /** Файл Java-серіалізації: запити виконуються потоковим проходом через {@link ObligationReader}. */
+    private DerivativeFile(Path path, ObligationReader reader) {
+        this.path = path;
+        this.channel = null;
+        this.in = null;
+        this.id = reader.getDerivativeId();
+        this.name = reader.getDerivativeName();
+        this.count = reader.getCount();
+        this.blockRows = 0;
+        this.storage = DerivativeCodec.STORED;
+        this.footer = null;
+    }
+
+    public static DerivativeFile open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedFileInput in = new MappedFileInput(channel);
+            if (in.peekUnsignedShort() != FileManager.JAVA_SERIALIZATION_MAGIC) {
+                return new DerivativeFile(file, channel, in, new DerivativeCodec.Cursor(in));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        try (ObligationReader reader = ObligationReader.open(file)) {
+            return new DerivativeFile(file, reader);
+        }
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Кількість зобов'язань; -1, якщо дериватива зберігалася без списку. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Чи має файл блоки та футер — інакше (Java-серіалізація) запити читають файл повністю. */
+    public boolean isIndexed() {
+        return channel != null;
+    }
+
+    /**
+     * Перше зобов'язання з цим UUID або {@code null}. Бінарний пошук в індексі футера
+     * і декодування одного блоку до потрібного рядка.
+     */
+    public Obligation get(UUID obligationId) throws IOException {
+        if (obligationId == null) {
+            throw new IllegalArgumentException("id is null");
+        }
+        if (!isIndexed()) {
+            try (ObligationReader reader = ObligationReader.open(path)) {
+                while (reader.hasNext()) {
+                    Obligation o = reader.next();
+                    if (o != null && obligationId.equals(o.getId())) {
+                        return o;
+                    }
+                }
+            }
+            return null;
+        }
+
+        long high = obligationId.getMostSignificantBits();
+        long low = obligationId.getLeastSignificantBits();
+        long idIndex = footer.idIndex;
+        int idCount = footer.idCount;
+        int lo = 0;
+        int hi = idCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            in.seek(idIndex + (long) mid * ID_ENTRY_BYTES);
+            int cmp = Long.compare(in.readLong(), high);
+            if (cmp == 0) {
+                cmp = Long.compare(in.readLong(), low);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == idCount) {
+            return null;
+        }
+        in.seek(idIndex + (long) lo * ID_ENTRY_BYTES);
+        if (in.readLong() != high || in.readLong() != low) {
+            return null;
+        }
+        int row = in.readInt();
+        if (row < 0 || row >= count) {
+            throw new StreamCorruptedException("Рядок поза файлом: " + row);
+        }
+
+        int block = row / blockRows;
+        footer.check(block, in.slice(footer.offsets[block], footer.length(block)));
+        in.seek(footer.offsets[block]);
+        ObligationDecoder decoder = new ObligationDecoder(DerivativeCodec.blockInput(in, storage));
+        blocksRead++;
+        Obligation o = null;
+        for (int r = block * blockRows; r <= row; r++) {
+            o = decoder.readObligation();
+        }
+        return o;
+    }
+
+    /** Зобов'язання, що задовольняють запит, у порядку файлу. Блоки поза зонами не читаються. */
+    public List<Obligation> find(ObligationQuery query) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("query is null");
+        }
+        List<Obligation> result = new ArrayList<>();
+        if (!isIndexed()) {
+            try (ObligationReader reader = ObligationReader.open(path)) {
+                while (reader.hasNext()) {
+                    Obligation o = reader.next();
+                    if (query.matches(o)) result.add(o);
+                }
+            }
+            return result;
+        }
+
+        for (int b = 0; b < footer.offsets.length; b++) {
+            if (!qualifies(footer.zones[b], query)) {
+                continue;
+            }
+            footer.check(b, in.slice(footer.offsets[b], footer.length(b)));
+            in.seek(footer.offsets[b]);
+            ObligationDecoder decoder = new ObligationDecoder(DerivativeCodec.blockInput(in, storage));
+            blocksRead++;
+            for (int r = 0; r < footer.rows[b]; r++) {
+                Obligation o = decoder.readObligation();
+                if (query.matches(o)) result.add(o);
+            }
+        }
+        return result;
+    }
+
+    private static boolean qualifies(double[] zone, ObligationQuery query) {
+        for (int f = 0; f < FIELDS.length; f++) {
+            Double min = query.getMin(FIELDS[f]);
+            Double max = query.getMax(FIELDS[f]);
+            if (min != null && zone[2 * f + 1] < min) return false;
+            if (max != null && zone[2 * f] > max) return false;
+        }
+        // Порожня зона (лише null-зобов'язання) нічого не містить
+        return zone.length == 0 || zone[0] <= zone[1];
+    }
+
+    /** Скільки блоків декодовано запитами — для перевірки відсікання в тестах. */
+    int blocksRead() {
+        return blocksRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
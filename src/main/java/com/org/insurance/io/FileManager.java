@@ -1,24 +1,67 @@
 package com.org.insurance.io;
 
+import com.org.insurance.domain.ChangeSet;
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationQuery;
+import com.org.insurance.domain.ObligationSearch;
+import com.org.insurance.domain.PortfolioAggregates;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class FileManager {
 
     private static final Logger log = LogManager.getLogger(FileManager.class);
 
+    /** Перші байти файлу Java-серіалізації (STREAM_MAGIC). */
+    static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+    /** Журнал дельт, більший за цю частку бази, ущільнюється у фоні після {@link #saveDelta}. */
+    static final double COMPACT_RATIO = 0.5;
+
+    /** Фонове ущільнення дельт — один потік на процес, по одному завданню на файл. */
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "delta-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Map<Path, CompletableFuture<Void>> COMPACTIONS = new ConcurrentHashMap<>();
+
+    /** Рівень стиснення блоків під час збереження: 0 — без стиснення, 1..9 — Deflate. */
+    private final int compressionLevel;
+
+    public FileManager() {
+        this(DerivativeCodec.NO_COMPRESSION);
+    }
+
+    public FileManager(int compressionLevel) {
+        DerivativeCodec.checkCompressionLevel(compressionLevel);
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
     /**
-     * Зберегти деривативу у бінарний файл (серіалізація Java).
+     * Зберегти деривативу у бінарний файл ({@link DerivativeCodec}) з рівнем стиснення
+     * цього менеджера. Завантаження визначає стиснення з файлу.
      */
     public void saveDerivative(Derivative derivative, String fileName) {
         if (derivative == null) {
@@ -41,20 +84,193 @@ public class FileManager {
         log.info("Спроба зберегти дериватив '{}' у файл '{}'",
                 derivative.getName(), fileName);
 
-        try (ObjectOutputStream oos =
-                     new ObjectOutputStream(Files.newOutputStream(path))) {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (DeltaLog.lockOf(path)) {
+            try {
+                DeltaLog.recover(path);
+                ChangeSet saved = derivative.pendingChanges(key);
+                if (Files.exists(DeltaLog.logOf(path))) {
+                    // Нова база замінює і стару, і її дельти
+                    DeltaLog.replaceBase(path, out -> DerivativeCodec.write(derivative, out, compressionLevel));
+                } else {
+                    // Тимчасовий файл, fsync, атомарне перейменування: збій не лишає обрізаного файлу
+                    AtomicFiles.write(path, channel ->
+                            DerivativeCodec.write(derivative, Channels.newOutputStream(channel), compressionLevel));
+                }
+                derivative.markSaved(saved, key);
+                log.info("Дериватив успішно збережено у '{}'", fileName);
+
+            } catch (IOException e) {
+                log.error("Помилка під час збереження деривативу в файл '{}'", fileName, e);
+                throw new RuntimeException("Не вдалося зберегти файл: " + fileName, e);
+            }
+        }
+    }
 
-            oos.writeObject(derivative);
-            log.info("Дериватив успішно збережено у '{}'", fileName);
+    /**
+     * Зберегти всі деривативи в один файл-контейнер ({@link SnapshotFile}) атомарно: тимчасовий
+     * файл, fsync, перейменування. Рівень стиснення — цього менеджера.
+     */
+    public void saveWorkspace(List<Derivative> derivatives, String fileName) {
+        if (derivatives == null) {
+            throw new IllegalArgumentException("derivatives is null");
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
 
+        Path path = Paths.get(fileName);
+        try {
+            Path parent = path.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            log.info("Збереження {} деривативів у знімок '{}'", derivatives.size(), fileName);
+            AtomicFiles.write(path, channel -> SnapshotFile.write(channel, path, 0, derivatives, compressionLevel));
+            log.info("Знімок деривативів успішно збережено у '{}'", fileName);
         } catch (IOException e) {
-            log.error("Помилка під час збереження деривативу в файл '{}'", fileName, e);
+            log.error("Помилка під час збереження знімка деривативів у '{}'", fileName, e);
             throw new RuntimeException("Не вдалося зберегти файл: " + fileName, e);
         }
     }
 
+    /** Завантажити всі деривативи з файлу-контейнера; кожна декодується окремим паралельним завданням. */
+    public List<Derivative> loadWorkspace(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+
+        Path path = Paths.get(fileName);
+        log.info("Спроба завантажити знімок деривативів із файлу '{}'", fileName);
+        if (!Files.exists(path)) {
+            log.warn("Файл знімка деривативів не знайдено: '{}'", fileName);
+            throw new RuntimeException("Файл не знайдено: " + fileName);
+        }
+
+        try {
+            List<Derivative> derivatives = SnapshotFile.read(path).getDerivatives();
+            log.info("Зі знімка '{}' завантажено {} деривативів", fileName, derivatives.size());
+            return derivatives;
+        } catch (IOException e) {
+            log.error("Не вдалося завантажити знімок деривативів '{}'", fileName, e);
+            throw new RuntimeException("Не вдалося завантажити файл: " + fileName, e);
+        }
+    }
+
     /**
-     * Завантажити деривативу з бінарного файлу.
+     * Дельта-знімок: дописати до журналу дельт файлу ({@link DeltaLog}) лише зобов'язання,
+     * додані, змінені або видалені з попереднього збереження чи завантаження цього файлу.
+     * Якщо дельту не побудувати (файлу ще немає, список замінено чи переставлено), виконується
+     * повне {@link #saveDerivative}. Коли журнал дельт перевищує {@link #COMPACT_RATIO} бази,
+     * у фоні запускається {@link #compact}.
+     *
+     * @return {@code true}, якщо записано дельту (або змін немає), {@code false} — повне збереження
+     */
+    public boolean saveDelta(Derivative derivative, String fileName) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+
+        Path path = Paths.get(fileName);
+        Path key = path.toAbsolutePath().normalize();
+        long logSize;
+        synchronized (DeltaLog.lockOf(path)) {
+            try {
+                DeltaLog.recover(path);
+                ChangeSet changes = derivative.pendingChanges(key);
+                if (changes.isFull() || !Files.exists(path)) {
+                    log.info("Дельту деривативи '{}' не побудувати — повне збереження у '{}'",
+                            derivative.getName(), fileName);
+                    saveDerivative(derivative, fileName);
+                    return false;
+                }
+                if (changes.isEmpty()) {
+                    log.info("Дериватив '{}' не змінювався з останнього збереження у '{}'",
+                            derivative.getName(), fileName);
+                    return true;
+                }
+                logSize = DeltaLog.append(path, derivative, changes);
+                derivative.markSaved(changes, key);
+                log.info("Дельту деривативи '{}' записано у '{}': змінено {}, видалено {}",
+                        derivative.getName(), fileName, changes.getDirty().size(), changes.getRemoved().size());
+
+                if (logSize > Files.size(path) * COMPACT_RATIO) {
+                    compactInBackground(fileName);
+                }
+                return true;
+
+            } catch (IOException e) {
+                log.error("Помилка під час збереження дельти у файл '{}'", fileName, e);
+                throw new RuntimeException("Не вдалося зберегти файл: " + fileName, e);
+            }
+        }
+    }
+
+    /**
+     * Злити базовий файл з його дельтами в нову базу. Читання файлу під час ущільнення
+     * чекає на його завершення.
+     *
+     * @return {@code true}, якщо дельти були й їх злито
+     */
+    public boolean compact(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+
+        Path path = Paths.get(fileName);
+        synchronized (DeltaLog.lockOf(path)) {
+            try {
+                DeltaLog.recover(path);
+                if (!Files.exists(DeltaLog.logOf(path))) {
+                    return false;
+                }
+                Derivative merged = readBase(path);
+                int deltas = DeltaLog.apply(path, merged);
+                DeltaLog.replaceBase(path, out -> DerivativeCodec.write(merged, out, compressionLevel));
+                log.info("Ущільнено '{}': злито {} дельт(и)", fileName, deltas);
+                return true;
+
+            } catch (IOException | ClassNotFoundException e) {
+                log.error("Не вдалося ущільнити файл деривативу '{}'", fileName, e);
+                throw new RuntimeException("Не вдалося ущільнити файл: " + fileName, e);
+            }
+        }
+    }
+
+    /**
+     * Поставити {@link #compact} у чергу фонового потоку. Повторний виклик, поки ущільнення
+     * файлу ще чекає, повертає той самий future.
+     */
+    public CompletableFuture<Void> compactInBackground(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+        Path key = Paths.get(fileName).toAbsolutePath().normalize();
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> queued = COMPACTIONS.putIfAbsent(key, created);
+        if (queued != null) {
+            return queued;
+        }
+        COMPACTOR.execute(() -> {
+            // Зміни, що надійдуть під час ущільнення, запланують наступне
+            COMPACTIONS.remove(key, created);
+            try {
+                compact(fileName);
+                created.complete(null);
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Завантажити деривативу з бінарного файлу. Формат визначається за першими байтами:
+     * {@link DerivativeCodec} (блоки декодуються паралельно) або старий файл
+     * Java-серіалізації.
      * Якщо файл не існує або зламаний — кидаємо RuntimeException.
      * Цей ERROR тригерить відправку листа.
      */
@@ -71,10 +287,20 @@ public class FileManager {
             throw new RuntimeException("Файл не знайдено: " + fileName);
         }
 
-        try (ObjectInputStream ois =
-                     new ObjectInputStream(Files.newInputStream(path))) {
-
-            Derivative derivative = (Derivative) ois.readObject();
+        try {
+            Derivative derivative;
+            synchronized (DeltaLog.lockOf(path)) {
+                DeltaLog.recover(path);
+                derivative = readBase(path);
+                if (derivative != null) {
+                    int deltas = DeltaLog.apply(path, derivative);
+                    if (deltas > 0) {
+                        log.info("На '{}' накладено {} дельт(и)", fileName, deltas);
+                    }
+                    Path key = path.toAbsolutePath().normalize();
+                    derivative.markSaved(derivative.pendingChanges(key), key);
+                }
+            }
             if (derivative != null) {
                 log.info("Дериватив '{}' успішно завантажено з файлу '{}'",
                         derivative.getName(), fileName);
@@ -91,7 +317,160 @@ public class FileManager {
     }
 
     /**
-     * Експорт деривативи у "гарно структурований" текстовий звіт.
+     * Перевірити цілісність збереженого файлу: контрольні суми CRC32C заголовка, футера і всіх
+     * блоків ({@link DerivativeCodec#verify}, паралельно і без декодування). Файли Java-серіалізації
+     * сум не мають і перевіряються повним читанням. Журнал дельт має власні суми записів і тут не читається.
+     *
+     * @return {@code true}, якщо файл цілий, {@code false} — якщо пошкоджений
+     */
+    public boolean verify(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) {
+            log.warn("Файл деривативу для перевірки не знайдено: '{}'", fileName);
+            throw new RuntimeException("Файл не знайдено: " + fileName);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedFileInput in = MappedFileInput.replaceable(channel);
+            if (in.peekUnsignedShort() == JAVA_SERIALIZATION_MAGIC) {
+                readBase(path);
+            } else {
+                DerivativeCodec.verify(in);
+            }
+            log.info("Файл '{}' цілий", fileName);
+            return true;
+        } catch (ObjectStreamException | EOFException | ClassNotFoundException e) {
+            log.warn("Файл '{}' пошкоджено: {}", fileName, e.getMessage());
+            return false;
+        } catch (IOException e) {
+            log.error("Не вдалося перевірити файл деривативу '{}'", fileName, e);
+            throw new RuntimeException("Не вдалося перевірити файл: " + fileName, e);
+        }
+    }
+
+    /**
+     * Додати зобов'язання з CSV-файлу в кінець деривативи ({@link CsvImporter}).
+     * Якщо хоча б один рядок некоректний, дериватива не змінюється.
+     *
+     * @return кількість доданих зобов'язань
+     */
+    public int importCsv(Derivative derivative, String fileName) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        List<Obligation> rows = readCsv(fileName);
+        List<Obligation> obligations = derivative.getObligations();
+        if (obligations == null) {
+            derivative.setObligations(rows);
+        } else {
+            obligations.addAll(rows);
+        }
+        log.info("Імпортовано {} зобов'язань з '{}' у дериватив '{}'", rows.size(), fileName, derivative.getName());
+        return rows.size();
+    }
+
+    /**
+     * Зобов'язання CSV-файлу в порядку файлу ({@link CsvImporter#read}) без зміни деривативів —
+     * команда імпорту спершу записує їх у журнал, а потім додає.
+     */
+    public List<Obligation> readCsv(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) {
+            log.warn("CSV-файл не знайдено: '{}'", fileName);
+            throw new RuntimeException("Файл не знайдено: " + fileName);
+        }
+
+        log.info("Читання CSV '{}'", fileName);
+        try {
+            return new CsvImporter().read(path);
+
+        } catch (IOException e) {
+            log.warn("Помилка під час імпорту CSV '{}': {}", fileName, e.getMessage());
+            throw new RuntimeException("Не вдалося імпортувати CSV: " + fileName + " — " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Кількість, премія та ризик зобов'язань файлу одним потоковим проходом
+     * ({@link ObligationReader}) — без завантаження деривативи в пам'ять.
+     */
+    public PortfolioAggregates summarize(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) {
+            log.warn("Файл деривативу не знайдено: '{}'", fileName);
+            throw new RuntimeException("Файл не знайдено: " + fileName);
+        }
+
+        if (hasDeltas(path)) {
+            return PortfolioAggregates.of(safeList(loadDerivative(fileName).getObligations()).iterator());
+        }
+
+        try (ObligationReader reader = ObligationReader.open(path)) {
+            PortfolioAggregates aggregates = PortfolioAggregates.of(reader);
+            log.info("Підсумки файлу '{}': {} зобов'язань", fileName, aggregates.getCount());
+            return aggregates;
+
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Не вдалося прочитати файл деривативу '{}'", fileName, e);
+            throw new RuntimeException("Не вдалося завантажити файл: " + fileName, e);
+        }
+    }
+
+    /**
+     * Знайти зобов'язання за UUID у збереженому файлі, декодуючи лише його блок
+     * ({@link DerivativeFile}). {@code null}, якщо такого немає.
+     */
+    public Obligation findObligation(String fileName, UUID obligationId) {
+        if (obligationId == null) {
+            throw new IllegalArgumentException("obligationId is null");
+        }
+        if (fileName != null && hasDeltas(Paths.get(fileName))) {
+            Derivative derivative = loadDerivative(fileName);
+            int index = derivative.indexOf(obligationId);
+            return index < 0 ? null : derivative.getObligations().get(index);
+        }
+        try (DerivativeFile file = openDerivativeFile(fileName)) {
+            return file.get(obligationId);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Не вдалося прочитати файл деривативу '{}'", fileName, e);
+            throw new RuntimeException("Не вдалося завантажити файл: " + fileName, e);
+        }
+    }
+
+    /**
+     * Зобов'язання файлу, що задовольняють запит (як у пошуку по деривативі), — читаються
+     * лише блоки, зони значень яких перетинаються з діапазонами запиту.
+     */
+    public List<Obligation> findObligations(String fileName, ObligationQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query is null");
+        }
+        if (fileName != null && hasDeltas(Paths.get(fileName))) {
+            return ObligationSearch.find(loadDerivative(fileName), query);
+        }
+        try (DerivativeFile file = openDerivativeFile(fileName)) {
+            List<Obligation> found = file.find(query);
+            log.info("У файлі '{}' знайдено {} зобов'язань за запитом", fileName, found.size());
+            return found;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Не вдалося прочитати файл деривативу '{}'", fileName, e);
+            throw new RuntimeException("Не вдалося завантажити файл: " + fileName, e);
+        }
+    }
+
+    /**
+     * Експорт деривативи у "гарно структурований" текстовий звіт ({@link TextReportRenderer}).
      */
     public void exportToText(Derivative derivative, String fileName) {
         if (derivative == null) {
@@ -114,124 +493,10 @@ public class FileManager {
         log.info("Експорт деривативи '{}' у текстовий файл '{}'",
                 derivative.getName(), fileName);
 
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-
-            // ===== Заголовок звіту =====
-            String name = safe(derivative.getName(), "без назви");
-            UUID id = derivative.getId();
-
-            List<Obligation> obligations = safeList(derivative.getObligations());
-            int count = obligations.size();
-
-            writer.write("=== ЗВІТ ПО ДЕРИВАТИВУ ===");
-            writer.newLine();
-            writer.write("Назва: " + name);
-            writer.newLine();
-            writer.write("ID:    " + (id != null ? id.toString() : "—"));
-            writer.newLine();
-            writer.write("Кількість зобов'язань: " + count);
-            writer.newLine();
-            writer.newLine();
-
-            if (obligations.isEmpty()) {
-                writer.write("Зобов'язань немає.");
-                writer.newLine();
-                log.info("Експорт звіту завершено: дериватива без зобов'язань");
-                return;
-            }
-
-            // ===== Кожна облігація – окремий блок =====
-            for (int i = 0; i < obligations.size(); i++) {
-                Obligation o = obligations.get(i);
-                if (o == null) {
-                    continue;
-                }
-
-                writer.write(String.format("--- Облігація #%d ---", i + 1));
-                writer.newLine();
-
-                String oName = safe(o.getName(), o.getClass().getSimpleName());
-                String type = o.getClass().getSimpleName();
-                UUID oid = o.getId();
-
-                double insuredAmount = o.getInsuredAmount();
-                double probability   = o.getProbability();
-                double factor        = o.getFactor();
-                int    periodMonths  = o.getPeriod();
-                double interestRate  = o.getInterestRate();
-                double maxCost       = o.getMaxCost();
-
-                double expectedLoss  = insuredAmount * probability * factor;
-                double years         = periodMonths / 12.0;
-                if (years < 0.0) {
-                    years = 0.0;
-                }
-                double timeCoeff     = 1.0 + interestRate * years;
-                double risk          = insuredAmount * probability * factor; // базова оцінка ризику
-
-                // Основні дані
-                writer.write("Тип:   " + type);
-                writer.newLine();
-                writer.write("Назва: " + oName);
-                writer.newLine();
-                writer.write("ID:    " + (oid != null ? oid.toString() : "—"));
-                writer.newLine();
-                writer.newLine();
-
-                // Базові числові поля
-                writer.write(String.format("Сума страхування (insuredAmount) = %.2f", insuredAmount));
-                writer.newLine();
-                writer.write(String.format("Ймовірність (probability)       = %.6f", probability));
-                writer.newLine();
-                writer.write(String.format("Фактор (factor)                  = %.6f", factor));
-                writer.newLine();
-                writer.write(String.format("Період (periodMonths)            = %d", periodMonths));
-                writer.newLine();
-                writer.write(String.format("Ставка (interestRate)            = %.6f", interestRate));
-                writer.newLine();
-                writer.write(String.format("Макс. вартість (maxCost)         = %.2f", maxCost));
-                writer.newLine();
-                writer.newLine();
-
-                // Формула очікуваних збитків
-                writer.write("expectedLoss = insuredAmount * probability * factor");
-                writer.newLine();
-                writer.write(String.format("             = %.2f * %.6f * %.6f = %.2f",
-                        insuredAmount, probability, factor, expectedLoss));
-                writer.newLine();
-                writer.newLine();
-
-                // Формула коефіцієнта часу
-                writer.write("years = periodMonths / 12.0");
-                writer.newLine();
-                writer.write(String.format("      = %d / 12.0 = %.6f",
-                        periodMonths, years));
-                writer.newLine();
-                writer.newLine();
-
-                writer.write("timeCoeff = 1.0 + interestRate * years");
-                writer.newLine();
-                writer.write(String.format("          = 1.0 + %.6f * %.6f = %.6f",
-                        interestRate, years, timeCoeff));
-                writer.newLine();
-                writer.newLine();
-
-                // Оцінка ризику портфеля (спрощена, як у printTotalRiskCalculation)
-                writer.write("risk = insuredAmount * factor * probability");
-                writer.newLine();
-                writer.write(String.format("     = %.2f * %.6f * %.6f = %.2f",
-                        insuredAmount, factor, probability, risk));
-                writer.newLine();
-                writer.newLine();
-
-                writer.write("----------------------------------------");
-                writer.newLine();
-                writer.newLine();
-            }
-
+        try (OutputStream out = Files.newOutputStream(path)) {
+            new TextReportRenderer().render(derivative, out);
             log.info("Експорт деривативи в текстовий файл '{}' успішно завершено",
                     fileName);
-
         } catch (IOException e) {
             log.error("Помилка під час експорту деривативи в текстовий файл '{}'",
                     fileName, e);
@@ -239,13 +504,86 @@ public class FileManager {
         }
     }
 
+    /** Машинний експорт у CSV ({@link ObligationExporter}); файл можна імпортувати назад. */
+    public void exportToCsv(Derivative derivative, String fileName) {
+        exportObligations(derivative, fileName, false);
+    }
+
+    /** Машинний експорт у JSON Lines ({@link ObligationExporter}): один об'єкт на зобов'язання. */
+    public void exportToJsonLines(Derivative derivative, String fileName) {
+        exportObligations(derivative, fileName, true);
+    }
+
+    private void exportObligations(Derivative derivative, String fileName, boolean json) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+        String format = json ? "JSON Lines" : "CSV";
+
+        Path path = Paths.get(fileName);
+        try {
+            Path parent = path.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            log.info("Експорт деривативи '{}' у {} '{}'", derivative.getName(), format, fileName);
+            try (OutputStream out = Files.newOutputStream(path)) {
+                List<Obligation> obligations = safeList(derivative.getObligations());
+                long rows = json
+                        ? ObligationExporter.writeJsonLines(obligations.iterator(), out)
+                        : ObligationExporter.writeCsv(obligations.iterator(), out);
+                log.info("Експортовано {} зобов'язань у '{}'", rows, fileName);
+            }
+        } catch (IOException e) {
+            log.warn("Помилка під час експорту деривативи у {} '{}'", format, fileName, e);
+            throw new RuntimeException("Не вдалося експортувати у " + format + ": " + fileName, e);
+        }
+    }
+
     // ===== Допоміжні методи =====
 
-    private static List<Obligation> safeList(List<Obligation> list) {
-        return list == null ? Collections.emptyList() : list;
+    /**
+     * Базовий файл: формат {@link DerivativeCodec} (блоки розпаковуються й декодуються паралельно)
+     * або старий файл Java-серіалізації. Файл потім замінюють на тому ж місці збереження
+     * й ущільнення, тому він відкривається через {@link MappedFileInput#replaceable}: на Windows
+     * відображений файл перейменуванням не замінити, і там він читається копіюванням.
+     */
+    private static Derivative readBase(Path path) throws IOException, ClassNotFoundException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedFileInput in = MappedFileInput.replaceable(channel);
+            return in.peekUnsignedShort() == JAVA_SERIALIZATION_MAGIC
+                    ? readSerialized(path)
+                    : DerivativeCodec.readMapped(in);
+        }
     }
 
-    private static String safe(String s, String fallback) {
-        return (s == null || s.isBlank()) ? fallback : s;
+    /** Файл має дельти (або незавершене ущільнення) — швидкі читання бази їх не бачать. */
+    private static boolean hasDeltas(Path path) {
+        return Files.exists(DeltaLog.logOf(path)) || Files.exists(DeltaLog.stagingOf(path));
+    }
+
+    private DerivativeFile openDerivativeFile(String fileName) throws IOException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is null/blank");
+        }
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) {
+            log.warn("Файл деривативу не знайдено: '{}'", fileName);
+            throw new RuntimeException("Файл не знайдено: " + fileName);
+        }
+        return DerivativeFile.open(path);
+    }
+
+    static Derivative readSerialized(Path path) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return (Derivative) ois.readObject();
+        }
+    }
+
+    private static List<Obligation> safeList(List<Obligation> list) {
+        return list == null ? Collections.emptyList() : list;
     }
 }
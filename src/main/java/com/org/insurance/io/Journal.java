@@ -0,0 +1,613 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.RiskRanking;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал змін (write-ahead log) команд меню: створення, видалення і завантаження деривативів,
+ * додавання, імпорт, видалення і сортування зобов'язань. Кожна зміна — компактний бінарний запис
+ * у кінці файлу, тож її вартість пропорційна самій зміні, а не розміру портфеля. Відновлення —
+ * знімок ({@link Workspace}) плюс записи журналу.
+ * <pre>
+ * int    MAGIC ("ICSJ")
+ * short  VERSION
+ * long   покоління — номер знімка, на який накладається журнал
+ * запис: int довжина вмісту, int CRC32C вмісту, вміст:
+ *        byte операція, UUID деривативи, [varint позиція деривативи у списку], далі поля операції
+ * </pre>
+ * Операції: {@code CREATE} — назва; {@code DELETE}; {@code ADD} — зобов'язання у форматі
+ * {@link ObligationEncoder}; {@code REMOVE} — varint кількість і varint різниці зростаючих позицій;
+ * {@code APPEND} — varint кількість і зобов'язання, що додаються в кінець; {@code REORDER} —
+ * varint кількість і перестановка рядків (новий рядок {@code p} — колишній {@code order[p]});
+ * {@code LOAD} і {@code REPLACE} — дериватива цілком: назва, varint кількість і зобов'язання;
+ * {@code LOAD} додає її в кінець списку, {@code REPLACE} замінює на місці першу з тим самим id
+ * (або теж додає в кінець). {@code DELETE}, {@code ADD}, {@code REMOVE}, {@code APPEND} і
+ * {@code REORDER} адресують деривативу позицією у списку на момент зміни, а UUID лише перевіряється:
+ * повторне завантаження того самого файлу дає в списку кілька деривативів з одним id. Записи
+ * накладаються в тому ж порядку, що й зміни в меню, тож позиції після сортування, імпорту чи
+ * видалення вказують на ті самі деривативи й рядки. Запис, обірваний збоєм, відкидається за довжиною та CRC під час відновлення.
+ * <p>
+ * Команда пише запис до зміни в пам'яті; помилки запису — {@link UncheckedIOException}, і тоді
+ * зміна не виконується. Методи потокобезпечні.
+ */
+public final class Journal implements Closeable {
+
+    private static final Logger log = LogManager.getLogger(Journal.class);
+
+    /** Коли записи журналу потрапляють на диск. */
+    public enum SyncPolicy {
+        /** Кожен запис пишеться і fsync-иться до повернення з методу. */
+        ALWAYS,
+        /**
+         * Груповий коміт: записи накопичуються і пишуться одним write + fsync — коли група
+         * досягає {@link #GROUP_BYTES}, раз на інтервал і в {@link #commit()}/{@link #close()}.
+         */
+        GROUP,
+        /** Запис одразу передається ОС без fsync: переживає падіння процесу, але не вимкнення живлення. */
+        NONE
+    }
+
+    static final int MAGIC = 0x4943534A; // "ICSJ"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES;
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    static final int OP_CREATE = 1;
+    static final int OP_DELETE = 2;
+    static final int OP_ADD = 3;
+    static final int OP_REMOVE = 4;
+    static final int OP_APPEND = 5;
+    static final int OP_REORDER = 6;
+    static final int OP_LOAD = 7;
+    static final int OP_REPLACE = 8;
+
+    static final int GROUP_BYTES = 1 << 16;
+    static final long GROUP_MILLIS = 50;
+
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final ScheduledExecutorService flusher;
+
+    private long generation;
+    private long records;
+
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+    private final CRC32C crc = new CRC32C();
+    private byte[] pending = new byte[1024];
+    private int pendingBytes;
+    /** Помилка фонового коміту — повертається наступному виклику. */
+    private IOException failure;
+
+    private Journal(FileChannel channel, long generation, SyncPolicy policy, long groupMillis) {
+        this.channel = channel;
+        this.generation = generation;
+        this.policy = policy;
+        if (policy == SyncPolicy.GROUP) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-commit");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::backgroundCommit, groupMillis, groupMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Відкрити журнал для дописування, спершу наклавши його записи на {@code derivatives} —
+     * стан знімка покоління {@code generation}. Відсутній файл або журнал старшого покоління
+     * (знімок уже містить його зміни) починається заново; обірваний хвіст відрізається.
+     *
+     * @throws StreamCorruptedException якщо файл не є журналом, новіший за знімок
+     *                                  або його записи не накладаються на знімок
+     */
+    public static Journal open(Path file, long generation, List<Derivative> derivatives, SyncPolicy policy)
+            throws IOException {
+        return open(file, generation, derivatives, policy, GROUP_MILLIS);
+    }
+
+    static Journal open(Path file, long generation, List<Derivative> derivatives, SyncPolicy policy,
+                        long groupMillis) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        if (derivatives == null) {
+            throw new IllegalArgumentException("derivatives is null");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy is null");
+        }
+        if (groupMillis <= 0) {
+            throw new IllegalArgumentException("groupMillis <= 0");
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            long fileGeneration = -1;
+            if (size >= HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != MAGIC) {
+                    throw new StreamCorruptedException("Не файл журналу: " + file);
+                }
+                int version = Short.toUnsignedInt(header.getShort(Integer.BYTES));
+                if (version != VERSION) {
+                    throw new StreamCorruptedException("Непідтримувана версія журналу: " + version);
+                }
+                fileGeneration = header.getLong(Integer.BYTES + Short.BYTES);
+                if (fileGeneration > generation) {
+                    throw new StreamCorruptedException("Журнал покоління " + fileGeneration
+                            + " новіший за знімок покоління " + generation);
+                }
+            }
+
+            long records = 0;
+            if (fileGeneration == generation) {
+                long end = HEADER_BYTES;
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Channels.newInputStream(channel.position(end)), 1 << 16));
+                byte[] body = new byte[256];
+                CRC32C check = new CRC32C();
+                while (size - end >= RECORD_HEADER_BYTES) {
+                    int length = in.readInt();
+                    int expected = in.readInt();
+                    if (length <= 0 || length > size - end - RECORD_HEADER_BYTES) {
+                        break;
+                    }
+                    if (body.length < length) {
+                        body = new byte[Math.max(length, body.length * 2)];
+                    }
+                    in.readFully(body, 0, length);
+                    check.reset();
+                    check.update(body, 0, length);
+                    if ((int) check.getValue() != expected) {
+                        break;
+                    }
+                    apply(new DataInputStream(new ByteArrayInputStream(body, 0, length)), derivatives);
+                    end += RECORD_HEADER_BYTES + length;
+                    records++;
+                }
+                if (end < size) {
+                    log.warn("Журнал '{}': відкинуто обірваний хвіст {} байт", file, size - end);
+                    channel.truncate(end);
+                    channel.force(false);
+                }
+                channel.position(end);
+            } else {
+                writeHeader(channel, generation);
+            }
+            Journal journal = new Journal(channel, generation, policy, groupMillis);
+            journal.records = records;
+            log.info("Журнал '{}' відкрито: покоління {}, накладено {} записів", file, generation, records);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ===== Записи =====
+
+    public synchronized void logCreate(Derivative derivative) {
+        ObligationEncoder encoder = begin(OP_CREATE, derivative);
+        try {
+            encoder.writeString(derivative.getName());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    /** Видалення деривативи з позиції {@code index} списку. */
+    public synchronized void logDelete(Derivative derivative, int index) {
+        begin(OP_DELETE, derivative, index);
+        end();
+    }
+
+    /** Додавання зобов'язання до деривативи на позиції {@code index} списку. */
+    public synchronized void logAdd(Derivative derivative, int index, Obligation obligation) {
+        ObligationEncoder encoder = begin(OP_ADD, derivative, index);
+        try {
+            encoder.writeObligation(obligation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    /** Видалення позицій як у {@link Derivative#removeRows(BitSet)}. */
+    public synchronized void logRemove(Derivative derivative, int index, BitSet rows) {
+        if (rows == null) {
+            throw new IllegalArgumentException("rows is null");
+        }
+        ObligationEncoder encoder = begin(OP_REMOVE, derivative, index);
+        try {
+            encoder.writeVarInt(rows.cardinality());
+            int previous = 0;
+            for (int r = rows.nextSetBit(0); r >= 0; r = rows.nextSetBit(r + 1)) {
+                encoder.writeVarInt(r - previous);
+                previous = r;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    /** Додавання зобов'язань у кінець одним записом (імпорт). */
+    public synchronized void logAppend(Derivative derivative, int index, List<Obligation> obligations) {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        ObligationEncoder encoder = begin(OP_APPEND, derivative, index);
+        try {
+            writeObligations(encoder, obligations);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    /** Перестановка рядків як у {@link RiskRanking#permute(Derivative, int[])}. */
+    public synchronized void logReorder(Derivative derivative, int index, int[] order) {
+        if (order == null) {
+            throw new IllegalArgumentException("order is null");
+        }
+        ObligationEncoder encoder = begin(OP_REORDER, derivative, index);
+        try {
+            encoder.writeVarInt(order.length);
+            for (int row : order) {
+                encoder.writeVarInt(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    /** Завантажена дериватива додається в кінець списку. */
+    public synchronized void logLoad(Derivative derivative) {
+        logDerivative(OP_LOAD, derivative);
+    }
+
+    /** Завантажена дериватива замінює першу з тим самим id або додається в кінець. */
+    public synchronized void logReplace(Derivative derivative) {
+        logDerivative(OP_REPLACE, derivative);
+    }
+
+    private void logDerivative(int op, Derivative derivative) {
+        ObligationEncoder encoder = begin(op, derivative);
+        try {
+            encoder.writeString(derivative.getName());
+            List<Obligation> obligations = derivative.getObligations();
+            writeObligations(encoder, obligations != null ? obligations : List.of());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end();
+    }
+
+    private static void writeObligations(ObligationEncoder encoder, List<Obligation> obligations) throws IOException {
+        encoder.writeVarInt(obligations.size());
+        for (Obligation o : obligations) {
+            encoder.writeObligation(o);
+        }
+    }
+
+    /** Почати запис, що адресує деривативу на позиції {@code index} списку. */
+    private ObligationEncoder begin(int op, Derivative derivative, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index < 0");
+        }
+        ObligationEncoder encoder = begin(op, derivative);
+        try {
+            encoder.writeVarInt(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encoder;
+    }
+
+    private ObligationEncoder begin(int op, Derivative derivative) {
+        if (derivative == null) {
+            throw new IllegalArgumentException("derivative is null");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Журнал недоступний після помилки запису", failure);
+        }
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("Журнал закрито");
+        }
+        payload.reset();
+        ObligationEncoder encoder = new ObligationEncoder(payloadOut);
+        try {
+            payloadOut.writeByte(op);
+            encoder.writeUuid(derivative.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encoder;
+    }
+
+    /** Додати підготовлений запис до групи і, залежно від політики, записати на диск. */
+    private void end() {
+        int length = payload.size();
+        byte[] body = payload.toByteArray();
+        crc.reset();
+        crc.update(body, 0, length);
+        ensurePending(RECORD_HEADER_BYTES + length);
+        ByteBuffer frame = ByteBuffer.wrap(pending, pendingBytes, RECORD_HEADER_BYTES);
+        frame.putInt(length).putInt((int) crc.getValue());
+        System.arraycopy(body, 0, pending, pendingBytes + RECORD_HEADER_BYTES, length);
+        pendingBytes += RECORD_HEADER_BYTES + length;
+        records++;
+        try {
+            switch (policy) {
+                case ALWAYS -> {
+                    writePending();
+                    channel.force(false);
+                }
+                case NONE -> writePending();
+                case GROUP -> {
+                    if (pendingBytes >= GROUP_BYTES) {
+                        writePending();
+                        channel.force(false);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ensurePending(int extra) {
+        if (pending.length - pendingBytes < extra) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingBytes + extra));
+        }
+    }
+
+    private void writePending() throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(pending, 0, pendingBytes);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        pendingBytes = 0;
+    }
+
+    // ===== Коміт і покоління =====
+
+    /** Записати накопичені записи і виконати fsync (для будь-якої політики). */
+    public synchronized void commit() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            writePending();
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private synchronized void backgroundCommit() {
+        if (pendingBytes == 0 || failure != null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            writePending();
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            log.warn("Не вдалося записати групу журналу", e);
+        }
+    }
+
+    /**
+     * Почати журнал заново для знімка нового покоління: усі зміни, зокрема ще не записані,
+     * уже містяться в знімку.
+     */
+    public synchronized void reset(long newGeneration) throws IOException {
+        if (newGeneration <= generation) {
+            throw new IllegalArgumentException("Покоління має зростати: " + newGeneration);
+        }
+        pendingBytes = 0;
+        writeHeader(channel, newGeneration);
+        generation = newGeneration;
+        records = 0;
+        failure = null;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /** Кількість записів у журналі поточного покоління. */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public SyncPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (this) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                if (failure == null && pendingBytes > 0) {
+                    writePending();
+                    channel.force(false);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // ===== Відновлення =====
+
+    private static void apply(DataInputStream in, List<Derivative> derivatives) throws IOException {
+        int op = in.readUnsignedByte();
+        ObligationDecoder decoder = new ObligationDecoder(in);
+        UUID id = decoder.readUuid();
+        try {
+            switch (op) {
+                case OP_CREATE -> {
+                    Derivative d = new Derivative(id, decoder.readString());
+                    d.setObligations(new ArrayList<>());
+                    derivatives.add(d);
+                }
+                case OP_DELETE -> derivatives.remove(find(derivatives, id, decoder.readVarInt()));
+                case OP_ADD -> {
+                    Derivative d = derivatives.get(find(derivatives, id, decoder.readVarInt()));
+                    Obligation o = decoder.readObligation();
+                    if (d.getObligations() == null) {
+                        d.setObligations(new ArrayList<>());
+                    }
+                    d.getObligations().add(o);
+                }
+                case OP_REMOVE -> {
+                    Derivative d = derivatives.get(find(derivatives, id, decoder.readVarInt()));
+                    int n = decoder.readVarInt();
+                    BitSet rows = new BitSet();
+                    int row = 0;
+                    for (int i = 0; i < n; i++) {
+                        row += decoder.readVarInt();
+                        rows.set(row);
+                    }
+                    d.removeRows(rows);
+                }
+                case OP_APPEND -> {
+                    Derivative d = derivatives.get(find(derivatives, id, decoder.readVarInt()));
+                    List<Obligation> obligations = readObligations(decoder);
+                    if (d.getObligations() == null) {
+                        d.setObligations(new ArrayList<>());
+                    }
+                    d.getObligations().addAll(obligations);
+                }
+                case OP_REORDER -> {
+                    Derivative d = derivatives.get(find(derivatives, id, decoder.readVarInt()));
+                    int n = decoder.readVarInt();
+                    List<Obligation> obligations = d.getObligations();
+                    if (n != (obligations == null ? 0 : obligations.size())) {
+                        throw new StreamCorruptedException("Перестановка журналу не відповідає деривативу " + id);
+                    }
+                    int[] order = new int[n];
+                    BitSet seen = new BitSet(n);
+                    for (int p = 0; p < n; p++) {
+                        int row = decoder.readVarInt();
+                        if (row < 0 || row >= n || seen.get(row)) {
+                            throw new StreamCorruptedException("Некоректна перестановка журналу");
+                        }
+                        seen.set(row);
+                        order[p] = row;
+                    }
+                    RiskRanking.permute(d, order);
+                }
+                case OP_LOAD, OP_REPLACE -> {
+                    Derivative d = new Derivative(id, decoder.readString());
+                    d.setObligations(readObligations(decoder));
+                    int index = op == OP_REPLACE ? indexOf(derivatives, id) : -1;
+                    if (index >= 0) {
+                        derivatives.set(index, d);
+                    } else {
+                        derivatives.add(d);
+                    }
+                }
+                default -> throw new StreamCorruptedException("Невідома операція журналу: " + op);
+            }
+        } catch (EOFException e) {
+            throw new StreamCorruptedException("Неповний запис журналу");
+        }
+    }
+
+    private static List<Obligation> readObligations(ObligationDecoder decoder) throws IOException {
+        int n = decoder.readVarInt();
+        if (n < 0) {
+            throw new StreamCorruptedException("Некоректна кількість зобов'язань: " + n);
+        }
+        List<Obligation> obligations = new ArrayList<>(Math.min(n, 1 << 16));
+        for (int i = 0; i < n; i++) {
+            obligations.add(decoder.readObligation());
+        }
+        return obligations;
+    }
+
+    /** Позиція з запису, якщо там дериватива з цим id. */
+    private static int find(List<Derivative> derivatives, UUID id, int index) throws StreamCorruptedException {
+        if (index < 0 || index >= derivatives.size() || !id.equals(derivatives.get(index).getId())) {
+            throw new StreamCorruptedException("Журнал посилається на відсутній дериватив " + id
+                    + " (позиція " + index + ")");
+        }
+        return index;
+    }
+
+    private static int indexOf(List<Derivative> derivatives, UUID id) {
+        for (int i = 0; i < derivatives.size(); i++) {
+            if (id.equals(derivatives.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ===== Файл =====
+
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).putLong(generation).flip();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.position(HEADER_BYTES);
+        channel.force(false);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
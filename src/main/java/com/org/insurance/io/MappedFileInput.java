@@ -0,0 +1,320 @@
+package com.org.insurance.io;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.Checksum;
+
+/**
+ * {@link DataInput} напряму з відображеного в пам'ять файлу — без копіювання через буфери потоків.
+ * <p>
+ * Файл відображається вікнами до {@link #WINDOW} байтів (один {@link MappedByteBuffer} не може
+ * перевищувати 2 ГБ); нове вікно починається з поточної позиції, тож значення, що не вмістилося
+ * в хвіст попереднього вікна, читається з наступного цілком. Сторінки файлу спільні з кешем ОС
+ * і з іншими процесами, що читають той самий файл. Відображення лишається дійсним і після
+ * закриття каналу — аж доки буфер не збере GC, а явно звільнити його Java не дає. На Windows
+ * відображений файл не можна замінити перейменуванням, тому файли, які після читання
+ * перезаписуються на тому ж місці (завантаження, ущільнення), відкриваються через
+ * {@link #replaceable}: на Windows вікна тоді копіюються в купу позиційним читанням каналу
+ * ({@link #copying}) і після закриття каналу від файлу нічого не лишається, а на інших
+ * системах файл відображається як завжди.
+ * <p>
+ * Вхід може охоплювати лише ділянку файлу (деривативу всередині {@link SnapshotFile}): позиції
+ * й розмір тоді відлічуються від її початку. {@link #of(ByteBuffer)} читає готовий буфер —
+ * наприклад, зріз блоку, щоб декодувати його без копіювання.
+ */
+final class MappedFileInput implements DataInput {
+
+    static final int WINDOW = 1 << 30;
+    /** Вікно режиму копіювання: скільки байтів за раз читається в купу. */
+    static final int COPY_WINDOW = 1 << 20;
+
+    /** Відображений файл не можна замінити перейменуванням, доки відображення не зібрав GC. */
+    static final boolean MAPPING_BLOCKS_RENAME = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final FileChannel channel;
+    private final long start;
+    private final long size;
+    private final int windowSize;
+    private final boolean copying;
+
+    private ByteBuffer window;
+    private long windowStart;
+
+    MappedFileInput(FileChannel channel) throws IOException {
+        this(channel, WINDOW);
+    }
+
+    /** Розмір вікна задається лише в тестах, щоб перевірити переходи між вікнами на малих файлах. */
+    MappedFileInput(FileChannel channel, int windowSize) throws IOException {
+        this(channel, 0, channel == null ? 0 : channel.size(), windowSize);
+    }
+
+    /** Ділянка файлу {@code [start, start + size)}. */
+    MappedFileInput(FileChannel channel, long start, long size) throws IOException {
+        this(channel, start, size, WINDOW);
+    }
+
+    MappedFileInput(FileChannel channel, long start, long size, int windowSize) throws IOException {
+        this(channel, start, size, windowSize, false);
+    }
+
+    /** Увесь файл, який згодом замінюватимуть на тому ж місці (див. опис класу). */
+    static MappedFileInput replaceable(FileChannel channel) throws IOException {
+        return MAPPING_BLOCKS_RENAME ? copying(channel) : new MappedFileInput(channel);
+    }
+
+    /** Ділянка файлу {@code [start, start + size)}, який згодом замінюватимуть на тому ж місці. */
+    static MappedFileInput replaceable(FileChannel channel, long start, long size) throws IOException {
+        return MAPPING_BLOCKS_RENAME ? copying(channel, start, size) : new MappedFileInput(channel, start, size);
+    }
+
+    /** Увесь файл без відображення: вікна й зрізи копіюються в купу (див. опис класу). */
+    static MappedFileInput copying(FileChannel channel) throws IOException {
+        return copying(channel, 0, channel == null ? 0 : channel.size());
+    }
+
+    /** Ділянка файлу {@code [start, start + size)} без відображення. */
+    static MappedFileInput copying(FileChannel channel, long start, long size) throws IOException {
+        return new MappedFileInput(channel, start, size, COPY_WINDOW, true);
+    }
+
+    MappedFileInput(FileChannel channel, long start, long size, int windowSize, boolean copying) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null");
+        }
+        if (windowSize < Long.BYTES) {
+            throw new IllegalArgumentException("windowSize < " + Long.BYTES);
+        }
+        if (start < 0 || size < 0 || start > channel.size() - size) {
+            throw new EOFException("Ділянка поза файлом: " + start + "+" + size);
+        }
+        this.channel = channel;
+        this.start = start;
+        this.size = size;
+        this.windowSize = windowSize;
+        this.copying = copying;
+    }
+
+    /** Вхід над байтами {@code buffer} від його позиції до межі; сам буфер не змінюється. */
+    static MappedFileInput of(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
+        }
+        return new MappedFileInput(buffer.slice());
+    }
+
+    private MappedFileInput(ByteBuffer buffer) {
+        this.channel = null;
+        this.start = 0;
+        this.size = buffer.remaining();
+        this.windowSize = Math.max(Long.BYTES, buffer.remaining());
+        this.copying = false;
+        this.window = buffer;
+        this.windowStart = 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long position() {
+        return window == null ? 0 : windowStart + window.position();
+    }
+
+    /** Перейти до абсолютної позиції у файлі. */
+    void seek(long position) throws IOException {
+        if (position < 0 || position > size) {
+            throw new EOFException("Позиція поза файлом: " + position);
+        }
+        if (window != null && position >= windowStart && position - windowStart <= window.limit()) {
+            window.position((int) (position - windowStart));
+        } else {
+            map(position);
+        }
+    }
+
+    /** Перші два байти файлу без зсуву позиції, або -1, якщо файл коротший. */
+    int peekUnsignedShort() throws IOException {
+        if (size < 2) {
+            return -1;
+        }
+        long position = position();
+        seek(0);
+        int value = readUnsignedShort();
+        seek(position);
+        return value;
+    }
+
+    /**
+     * Незалежний буфер байтів {@code [position, position + length)} — без копіювання, якщо файл
+     * відображається. Його можна
+     * читати з інших потоків; позиція читання цього об'єкта після виклику не визначена.
+     */
+    ByteBuffer slice(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position > size - length) {
+            throw new EOFException("Діапазон поза файлом: " + position + "+" + length);
+        }
+        if (window == null || position < windowStart || position + length > windowStart + window.limit()) {
+            if (length > windowSize) {
+                return copying ? read(start + position, length)
+                        : channel.map(FileChannel.MapMode.READ_ONLY, start + position, length);
+            }
+            map(position);
+        }
+        return window.slice((int) (position - windowStart), length);
+    }
+
+    /** Додати до {@code checksum} байти {@code [position, position + length)} частинами до вікна. */
+    void update(Checksum checksum, long position, long length) throws IOException {
+        while (length > 0) {
+            int n = (int) Math.min(length, windowSize);
+            checksum.update(slice(position, n));
+            position += n;
+            length -= n;
+        }
+    }
+
+    /** Гарантує, що у вікні є щонайменше {@code n} байтів від поточної позиції. */
+    private ByteBuffer require(int n) throws IOException {
+        if (window != null && window.remaining() >= n) {
+            return window;
+        }
+        long position = position();
+        if (size - position < n) {
+            throw new EOFException();
+        }
+        map(position);
+        return window;
+    }
+
+    private void map(long position) throws IOException {
+        if (channel == null) {
+            // Вхід над буфером: вікно вже охоплює всі байти
+            throw new EOFException("Позиція поза буфером: " + position);
+        }
+        long length = Math.min(windowSize, size - position);
+        window = copying ? read(start + position, (int) length)
+                : channel.map(FileChannel.MapMode.READ_ONLY, start + position, length);
+        windowStart = position;
+    }
+
+    /** Копія байтів {@code [offset, offset + length)} файлу в купі; позиція каналу не змінюється. */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        if (size - position() < len) {
+            throw new EOFException();
+        }
+        while (len > 0) {
+            ByteBuffer w = require(1);
+            int n = Math.min(len, w.remaining());
+            w.get(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        long position = position();
+        int skipped = (int) Math.max(0, Math.min(n, size - position));
+        seek(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return require(1).get() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return require(1).get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return require(1).get() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return require(Short.BYTES).getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return require(Short.BYTES).getShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return require(Character.BYTES).getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return require(Integer.BYTES).getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return require(Long.BYTES).getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return require(Float.BYTES).getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return require(Double.BYTES).getDouble();
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (position() >= size) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (position() < size) {
+            int c = readUnsignedByte();
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (position() < size && readUnsignedByte() != '\n') {
+                    seek(position() - 1);
+                }
+                break;
+            }
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,93 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.ObligationType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Спільна розмітка CSV зобов'язань для імпорту та експорту.
+ * <pre>
+ * type,id,name,insuredAmount,factor,period,interestRate,probability,maxCost,field1,field2,field3[,premium,risk]
+ * </pre>
+ * {@code type} — ключ {@link ObligationType} ({@code auto}, {@code life}, ...), {@code field1..3} —
+ * специфічні поля типу в порядку {@link ObligationType#specificValues}. Порожнє поле без лапок —
+ * {@code null}, {@code ""} — порожній рядок. Дати — ISO {@code yyyy-MM-dd}. Обчислені колонки
+ * {@code premium} і {@code risk} пише експорт; імпорт їх ігнорує і перераховує.
+ */
+final class ObligationCsv {
+
+    static final String[] COLUMNS = {
+            "type", "id", "name", "insuredAmount", "factor", "period",
+            "interestRate", "probability", "maxCost", "field1", "field2", "field3"
+    };
+
+    /** Обчислені колонки експорту після {@link #COLUMNS}. */
+    static final String[] COMPUTED = {"premium", "risk"};
+
+    /** Колонки до специфічних полів. */
+    static final int BASE_COLUMNS = 9;
+
+    enum Kind { STRING, DOUBLE, BOOLEAN, DATE }
+
+    private static final ObligationType[] TYPES = ObligationType.values();
+    private static final byte[][] KEYS = new byte[TYPES.length][];
+    private static final Kind[][] KINDS = new Kind[TYPES.length][];
+    private static final String[][] NAMES = new String[TYPES.length][];
+
+    static {
+        for (ObligationType t : TYPES) {
+            KEYS[t.ordinal()] = key(t).getBytes(StandardCharsets.US_ASCII);
+            KINDS[t.ordinal()] = kindsOf(t);
+            NAMES[t.ordinal()] = namesOf(t);
+        }
+    }
+
+    private ObligationCsv() {
+    }
+
+    static String key(ObligationType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Ключ типу у вигляді ASCII-байтів — для порівняння без створення рядка. */
+    static byte[] keyBytes(ObligationType type) {
+        return KEYS[type.ordinal()];
+    }
+
+    static ObligationType[] types() {
+        return TYPES;
+    }
+
+    /** Типи специфічних полів у порядку {@link ObligationType#specificValues}; масив не змінювати. */
+    static Kind[] specificKinds(ObligationType type) {
+        return KINDS[type.ordinal()];
+    }
+
+    /** Назви специфічних полів (як у класах зобов'язань) — для JSON; масив не змінювати. */
+    static String[] specificNames(ObligationType type) {
+        return NAMES[type.ordinal()];
+    }
+
+    private static String[] namesOf(ObligationType type) {
+        return switch (type) {
+            case AUTO -> new String[]{"vehicleType", "driverClass", "bonusMalus"};
+            case BUSINESS -> new String[]{"registrationNumber", "industry"};
+            case HEALTH -> new String[]{"coverageType", "hasPreExistingConditions", "annualLimit"};
+            case LIABILITY -> new String[]{"coverageType", "jurisdiction"};
+            case LIFE -> new String[]{"insuredPersonId", "dateOfBirth", "beneficiaryName"};
+            case PROPERTY -> new String[]{"propertyAddress", "propertyType"};
+            case TRAVEL -> new String[]{"destinationCountry", "tripStartDate", "tripEndDate"};
+        };
+    }
+
+    private static Kind[] kindsOf(ObligationType type) {
+        return switch (type) {
+            case AUTO -> new Kind[]{Kind.STRING, Kind.STRING, Kind.DOUBLE};
+            case BUSINESS, LIABILITY, PROPERTY -> new Kind[]{Kind.STRING, Kind.STRING};
+            case HEALTH -> new Kind[]{Kind.STRING, Kind.BOOLEAN, Kind.DOUBLE};
+            case LIFE -> new Kind[]{Kind.STRING, Kind.DATE, Kind.STRING};
+            case TRAVEL -> new Kind[]{Kind.STRING, Kind.DATE, Kind.DATE};
+        };
+    }
+}
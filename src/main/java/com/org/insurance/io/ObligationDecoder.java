@@ -0,0 +1,129 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.BusinessObligation;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.LiabilityObligation;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.TravelObligation;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.org.insurance.io.ObligationEncoder.*;
+
+/**
+ * Потокове читання зобов'язань, записаних {@link ObligationEncoder}.
+ * Словник рядків наповнюється так само, як при записі, тож декодер повинен читати потік
+ * з того самого місця, з якого почав писати енкодер.
+ */
+final class ObligationDecoder {
+
+    private final DataInput in;
+    private final List<String> dictionary = new ArrayList<>();
+
+    ObligationDecoder(DataInput in) {
+        this.in = in;
+    }
+
+    Obligation readObligation() throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == TAG_NULL) {
+            return null;
+        }
+        if (tag == TAG_FOREIGN) {
+            return readForeign();
+        }
+
+        UUID id = readUuid();
+        String name = readString();
+        double insuredAmount = in.readDouble();
+        double factor = in.readDouble();
+        int period = in.readInt();
+        double interestRate = in.readDouble();
+        double probability = in.readDouble();
+        double maxCost = in.readDouble();
+
+        return switch (tag) {
+            case TAG_AUTO -> new AutoObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readString(), in.readDouble());
+            case TAG_BUSINESS -> new BusinessObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readString());
+            case TAG_HEALTH -> new HealthObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), in.readBoolean(), in.readDouble());
+            case TAG_LIABILITY -> new LiabilityObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readString());
+            case TAG_LIFE -> new LifeObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readDate(), readString());
+            case TAG_PROPERTY -> new PropertyObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readString());
+            case TAG_TRAVEL -> new TravelObligation(id, name, insuredAmount, factor, period, interestRate, probability, maxCost,
+                    readString(), readDate(), readDate());
+            default -> throw new StreamCorruptedException("Невідомий тег зобов'язання: " + tag);
+        };
+    }
+
+    UUID readUuid() throws IOException {
+        long high = in.readLong();
+        long low = in.readLong();
+        return new UUID(high, low);
+    }
+
+    String readString() throws IOException {
+        int ref = readVarInt();
+        if (ref == STRING_NULL) {
+            return null;
+        }
+        if (ref >= STRING_REF_BASE) {
+            int index = ref - STRING_REF_BASE;
+            if (index >= dictionary.size()) {
+                throw new StreamCorruptedException("Посилання на відсутній рядок словника: " + index);
+            }
+            return dictionary.get(index);
+        }
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        if (dictionary.size() < MAX_DICTIONARY) {
+            dictionary.add(s);
+        }
+        return s;
+    }
+
+    private LocalDate readDate() throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private Obligation readForeign() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Obligation) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Не вдалося відновити зобов'язання стороннього класу", e);
+        }
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Задовге число змінної довжини");
+    }
+}
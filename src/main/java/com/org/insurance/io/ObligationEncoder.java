@@ -0,0 +1,235 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.BusinessObligation;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.LiabilityObligation;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationColumns;
+import com.org.insurance.domain.ObligationType;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.TravelObligation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Потоковий запис зобов'язань у бінарному форматі {@link DerivativeCodec}.
+ * <p>
+ * Кожне зобов'язання — байт-тег типу, UUID як два {@code long}, назва, шість числових полів
+ * і специфічні поля типу у фіксованому порядку. Рядки кодуються через словник потоку:
+ * повторний рядок займає лише номер у словнику. Дати — {@code long} epoch-day.
+ * Зобов'язання сторонніх класів записуються Java-серіалізацією з тегом {@link #TAG_FOREIGN}.
+ */
+final class ObligationEncoder {
+
+    static final int TAG_NULL = 0;
+    static final int TAG_AUTO = 1;
+    static final int TAG_BUSINESS = 2;
+    static final int TAG_HEALTH = 3;
+    static final int TAG_LIABILITY = 4;
+    static final int TAG_LIFE = 5;
+    static final int TAG_PROPERTY = 6;
+    static final int TAG_TRAVEL = 7;
+    static final int TAG_FOREIGN = 0x7F;
+
+    /** Посилання на рядок: 0 — null, 1 — новий рядок далі в потоці, n ≥ 2 — елемент словника n - 2. */
+    static final int STRING_NULL = 0;
+    static final int STRING_LITERAL = 1;
+    static final int STRING_REF_BASE = 2;
+
+    /** Більше рядків словник не запам'ятовує — решта пишеться як є, щоб пам'ять не росла без меж. */
+    static final int MAX_DICTIONARY = 1 << 16;
+
+    /** Дата {@code null}; збігається з {@link ObligationColumns#NULL_DAY}, тож колонки дат пишуться як є. */
+    static final long NULL_DATE = ObligationColumns.NULL_DAY;
+
+    private final DataOutput out;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    ObligationEncoder(DataOutput out) {
+        this.out = out;
+    }
+
+    void writeObligation(Obligation o) throws IOException {
+        if (o == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        ObligationType type = ObligationType.of(o);
+        if (type == null) {
+            out.writeByte(TAG_FOREIGN);
+            writeForeign(o);
+            return;
+        }
+
+        out.writeByte(tagOf(type));
+        writeUuid(o.getId());
+        writeString(o.getName());
+        out.writeDouble(o.getInsuredAmount());
+        out.writeDouble(o.getFactor());
+        out.writeInt(o.getPeriod());
+        out.writeDouble(o.getInterestRate());
+        out.writeDouble(o.getProbability());
+        out.writeDouble(o.getMaxCost());
+
+        switch (type) {
+            case AUTO -> {
+                AutoObligation a = (AutoObligation) o;
+                writeString(a.getVehicleType());
+                writeString(a.getDriverClass());
+                out.writeDouble(a.getBonusMalus());
+            }
+            case BUSINESS -> {
+                BusinessObligation b = (BusinessObligation) o;
+                writeString(b.getRegistrationNumber());
+                writeString(b.getIndustry());
+            }
+            case HEALTH -> {
+                HealthObligation h = (HealthObligation) o;
+                writeString(h.getCoverageType());
+                out.writeBoolean(h.isHasPreExistingConditions());
+                out.writeDouble(h.getAnnualLimit());
+            }
+            case LIABILITY -> {
+                LiabilityObligation l = (LiabilityObligation) o;
+                writeString(l.getCoverageType());
+                writeString(l.getJurisdiction());
+            }
+            case LIFE -> {
+                LifeObligation l = (LifeObligation) o;
+                writeString(l.getInsuredPersonId());
+                writeDate(l.getDateOfBirth());
+                writeString(l.getBeneficiaryName());
+            }
+            case PROPERTY -> {
+                PropertyObligation p = (PropertyObligation) o;
+                writeString(p.getPropertyAddress());
+                writeString(p.getPropertyType());
+            }
+            case TRAVEL -> {
+                TravelObligation t = (TravelObligation) o;
+                writeString(t.getDestinationCountry());
+                writeDate(t.getTripStartDate());
+                writeDate(t.getTripEndDate());
+            }
+        }
+    }
+
+    /**
+     * Записати рядок колонок — ті самі байти, що й {@link #writeObligation} для матеріалізованого
+     * рядка, але поля читаються прямо з колонок, без створення об'єкта.
+     */
+    void writeRow(ObligationColumns columns, int row) throws IOException {
+        ObligationType type = columns.type(row);
+        if (type == null) {
+            // Порожній рядок або сторонній клас — колонки тримають сам об'єкт
+            writeObligation(columns.get(row));
+            return;
+        }
+
+        out.writeByte(tagOf(type));
+        out.writeLong(columns.idHighs()[row]);
+        out.writeLong(columns.idLows()[row]);
+        writeString(columns.name(row));
+        out.writeDouble(columns.insuredAmounts()[row]);
+        out.writeDouble(columns.factors()[row]);
+        out.writeInt(columns.periods()[row]);
+        out.writeDouble(columns.interestRates()[row]);
+        out.writeDouble(columns.probabilities()[row]);
+        out.writeDouble(columns.maxCosts()[row]);
+
+        switch (type) {
+            case AUTO -> {
+                writeString(columns.text0(row));
+                writeString(columns.text1(row));
+                out.writeDouble(columns.number(row));
+            }
+            case BUSINESS, LIABILITY, PROPERTY -> {
+                writeString(columns.text0(row));
+                writeString(columns.text1(row));
+            }
+            case HEALTH -> {
+                writeString(columns.text0(row));
+                out.writeBoolean(columns.flag(row));
+                out.writeDouble(columns.number(row));
+            }
+            case LIFE -> {
+                writeString(columns.text0(row));
+                out.writeLong(columns.day0(row));
+                writeString(columns.text1(row));
+            }
+            case TRAVEL -> {
+                writeString(columns.text0(row));
+                out.writeLong(columns.day0(row));
+                out.writeLong(columns.day1(row));
+            }
+        }
+    }
+
+    static int tagOf(ObligationType type) {
+        return switch (type) {
+            case AUTO -> TAG_AUTO;
+            case BUSINESS -> TAG_BUSINESS;
+            case HEALTH -> TAG_HEALTH;
+            case LIABILITY -> TAG_LIABILITY;
+            case LIFE -> TAG_LIFE;
+            case PROPERTY -> TAG_PROPERTY;
+            case TRAVEL -> TAG_TRAVEL;
+        };
+    }
+
+    void writeUuid(UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    void writeString(String s) throws IOException {
+        if (s == null) {
+            writeVarInt(STRING_NULL);
+            return;
+        }
+        Integer ref = dictionary.get(s);
+        if (ref != null) {
+            writeVarInt(STRING_REF_BASE + ref);
+            return;
+        }
+        if (dictionary.size() < MAX_DICTIONARY) {
+            dictionary.put(s, dictionary.size());
+        }
+        writeVarInt(STRING_LITERAL);
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeDate(LocalDate date) throws IOException {
+        out.writeLong(date == null ? NULL_DATE : date.toEpochDay());
+    }
+
+    private void writeForeign(Obligation o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(o);
+        }
+        writeVarInt(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    /** Беззнакове ціле змінної довжини: 7 біт на байт, старший біт — «далі ще байт». */
+    void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
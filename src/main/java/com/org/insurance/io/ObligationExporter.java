@@ -0,0 +1,168 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.InsuranceCalculator;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationType;
+import com.org.insurance.domain.RiskComparator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Потоковий машинний експорт зобов'язань у CSV та JSON Lines разом з обчисленими премією і ризиком.
+ * <p>
+ * Рядки кодуються одразу в байтовий буфер ({@link ByteSink}) без {@code String.format} і склеювання
+ * рядків; пам'ять не залежить від кількості зобов'язань. Джерелом може бути будь-який ітератор —
+ * список деривативи або {@link ObligationReader} над збереженим файлом.
+ * <p>
+ * CSV має розмітку {@link ObligationCsv} з колонками {@code premium,risk} і читається назад
+ * {@link CsvImporter}, якщо рядкові значення не містять переносів (у лапках вони пишуться як є).
+ * У JSON специфічні поля мають назви полів класу; NaN і нескінченності — {@code null}.
+ * Зобов'язання сторонніх класів пишуться з назвою класу як типом і без специфічних полів;
+ * {@code null}-елементи пропускаються. Потік не закривається.
+ */
+public final class ObligationExporter {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int SPECIFIC_COLUMNS = ObligationCsv.COLUMNS.length - ObligationCsv.BASE_COLUMNS;
+
+    private ObligationExporter() {
+    }
+
+    /** Записати CSV з рядком заголовка; повертає кількість записаних зобов'язань. */
+    public static long writeCsv(Iterator<? extends Obligation> obligations, OutputStream out) throws IOException {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        ByteSink sink = new ByteSink(out, BUFFER_BYTES);
+        writeHeader(sink, ObligationCsv.COLUMNS, false);
+        writeHeader(sink, ObligationCsv.COMPUTED, true);
+        sink.ascii('\n');
+
+        long rows = 0;
+        while (obligations.hasNext()) {
+            Obligation o = obligations.next();
+            if (o == null) {
+                continue;
+            }
+            ObligationType type = ObligationType.of(o);
+            sink.ascii(type != null ? ObligationCsv.key(type) : o.getClass().getSimpleName()).ascii(',');
+            if (o.getId() != null) {
+                sink.uuid(o.getId());
+            }
+            sink.ascii(',').csvField(o.getName())
+                    .ascii(',').decimal(o.getInsuredAmount())
+                    .ascii(',').decimal(o.getFactor())
+                    .ascii(',').integer(o.getPeriod())
+                    .ascii(',').decimal(o.getInterestRate())
+                    .ascii(',').decimal(o.getProbability())
+                    .ascii(',').decimal(o.getMaxCost());
+
+            Object[] values = type != null ? type.specificValues(o) : new Object[0];
+            for (int i = 0; i < SPECIFIC_COLUMNS; i++) {
+                sink.ascii(',');
+                if (i < values.length) {
+                    csvValue(sink, values[i]);
+                }
+            }
+            sink.ascii(',').decimal(premium(o))
+                    .ascii(',').decimal(RiskComparator.riskScore(o))
+                    .ascii('\n');
+            rows++;
+        }
+        sink.flush();
+        return rows;
+    }
+
+    /** Записати JSON Lines — один об'єкт на рядок; повертає кількість записаних зобов'язань. */
+    public static long writeJsonLines(Iterator<? extends Obligation> obligations, OutputStream out)
+            throws IOException {
+        if (obligations == null) {
+            throw new IllegalArgumentException("obligations is null");
+        }
+        ByteSink sink = new ByteSink(out, BUFFER_BYTES);
+
+        long rows = 0;
+        while (obligations.hasNext()) {
+            Obligation o = obligations.next();
+            if (o == null) {
+                continue;
+            }
+            ObligationType type = ObligationType.of(o);
+            UUID id = o.getId();
+            sink.ascii("{\"type\":")
+                    .jsonString(type != null ? ObligationCsv.key(type) : o.getClass().getSimpleName());
+            sink.ascii(",\"id\":");
+            if (id != null) {
+                sink.ascii('"').uuid(id).ascii('"');
+            } else {
+                sink.ascii("null");
+            }
+            sink.ascii(",\"name\":").jsonString(o.getName())
+                    .ascii(",\"insuredAmount\":").jsonNumber(o.getInsuredAmount())
+                    .ascii(",\"factor\":").jsonNumber(o.getFactor())
+                    .ascii(",\"period\":").integer(o.getPeriod())
+                    .ascii(",\"interestRate\":").jsonNumber(o.getInterestRate())
+                    .ascii(",\"probability\":").jsonNumber(o.getProbability())
+                    .ascii(",\"maxCost\":").jsonNumber(o.getMaxCost());
+
+            if (type != null) {
+                String[] names = ObligationCsv.specificNames(type);
+                Object[] values = type.specificValues(o);
+                for (int i = 0; i < names.length; i++) {
+                    sink.ascii(",\"").ascii(names[i]).ascii("\":");
+                    jsonValue(sink, values[i]);
+                }
+            }
+            sink.ascii(",\"premium\":").jsonNumber(premium(o))
+                    .ascii(",\"risk\":").jsonNumber(RiskComparator.riskScore(o))
+                    .ascii("}\n");
+            rows++;
+        }
+        sink.flush();
+        return rows;
+    }
+
+    private static void writeHeader(ByteSink sink, String[] columns, boolean leadingComma) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0 || leadingComma) {
+                sink.ascii(',');
+            }
+            sink.ascii(columns[i]);
+        }
+    }
+
+    private static double premium(Obligation o) {
+        return InsuranceCalculator.priceOf(o.getInsuredAmount(), o.getFactor(), o.getPeriod(),
+                o.getInterestRate(), o.getProbability(), o.getMaxCost());
+    }
+
+    private static void csvValue(ByteSink sink, Object value) throws IOException {
+        if (value instanceof String s) {
+            sink.csvField(s);
+        } else if (value instanceof Double d) {
+            sink.decimal(d);
+        } else if (value instanceof Boolean b) {
+            sink.ascii(b ? "true" : "false");
+        } else if (value instanceof LocalDate d) {
+            sink.date(d);
+        }
+    }
+
+    private static void jsonValue(ByteSink sink, Object value) throws IOException {
+        if (value instanceof String s) {
+            sink.jsonString(s);
+        } else if (value instanceof Double d) {
+            sink.jsonNumber(d);
+        } else if (value instanceof Boolean b) {
+            sink.ascii(b ? "true" : "false");
+        } else if (value instanceof LocalDate d) {
+            sink.ascii('"').date(d).ascii('"');
+        } else {
+            sink.ascii("null");
+        }
+    }
+}
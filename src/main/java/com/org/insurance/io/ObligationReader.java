@@ -0,0 +1,145 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Потокове читання зобов'язань зі збереженого файлу — по одному або пакетами, без побудови
+ * {@link Derivative} зі списком у пам'яті. Файл кодека читається з відображених сторінок,
+ * тож купа тримає лише поточне зобов'язання та обмежений словник рядків.
+ * <p>
+ * Старі файли Java-серіалізації не мають потокової структури: такий файл завантажується цілком,
+ * а читач ітерує вже готовий список.
+ * <pre>
+ * try (ObligationReader reader = ObligationReader.open(path)) {
+ *     while (reader.hasNext()) { ... reader.next() ... }
+ * }
+ * </pre>
+ * null-елементи списку повертаються як є.
+ */
+public final class ObligationReader implements Iterator<Obligation>, Closeable {
+
+    private final FileChannel channel;
+    private final DerivativeCodec.Cursor cursor;
+    private final Iterator<Obligation> loaded;
+
+    private final UUID derivativeId;
+    private final String derivativeName;
+    private final int count;
+    private int read;
+
+    private ObligationReader(FileChannel channel, DerivativeCodec.Cursor cursor) {
+        this.channel = channel;
+        this.cursor = cursor;
+        this.loaded = null;
+        this.derivativeId = cursor.id;
+        this.derivativeName = cursor.name;
+        this.count = cursor.count;
+    }
+
+    private ObligationReader(Derivative derivative) {
+        List<Obligation> obligations = derivative.getObligations();
+        this.channel = null;
+        this.cursor = null;
+        this.loaded = obligations == null ? null : obligations.iterator();
+        this.derivativeId = derivative.getId();
+        this.derivativeName = derivative.getName();
+        this.count = obligations == null ? -1 : obligations.size();
+    }
+
+    /**
+     * Відкрити файл, збережений {@link FileManager#saveDerivative}. Заголовок деривативи
+     * читається одразу, зобов'язання — у міру виклику {@link #next()}.
+     */
+    public static ObligationReader open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedFileInput in = new MappedFileInput(channel);
+            if (in.peekUnsignedShort() == FileManager.JAVA_SERIALIZATION_MAGIC) {
+                channel.close();
+                return new ObligationReader(FileManager.readSerialized(file));
+            }
+            return new ObligationReader(channel, new DerivativeCodec.Cursor(in));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        } catch (ClassNotFoundException e) {
+            channel.close();
+            throw new IOException("Не вдалося прочитати старий файл деривативи", e);
+        }
+    }
+
+    public UUID getDerivativeId() {
+        return derivativeId;
+    }
+
+    public String getDerivativeName() {
+        return derivativeName;
+    }
+
+    /** Кількість зобов'язань у файлі; -1, якщо дериватива зберігалася без списку. */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return read < count;
+    }
+
+    /**
+     * Наступне зобов'язання.
+     *
+     * @throws UncheckedIOException якщо файл пошкоджений або закритий
+     */
+    @Override
+    public Obligation next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        read++;
+        if (loaded != null) {
+            return loaded.next();
+        }
+        try {
+            return cursor.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** До {@code max} наступних зобов'язань; порожній список — кінець файлу. */
+    public List<Obligation> nextBatch(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max <= 0");
+        }
+        List<Obligation> batch = new ArrayList<>(Math.min(max, Math.max(0, count - read)));
+        while (batch.size() < max && hasNext()) {
+            batch.add(next());
+        }
+        return batch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        read = Math.max(count, 0);
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
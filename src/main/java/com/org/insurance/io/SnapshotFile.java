@@ -0,0 +1,370 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationSource;
+import com.org.insurance.domain.PortfolioAggregates;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Контейнер з кількома деривативами в одному файлі — знімок {@link Workspace} і файл
+ * {@link FileManager#saveWorkspace}. Деривативи лежать підряд у форматі {@link DerivativeCodec},
+ * а зміст у кінці файлу вказує, де кожна з них, тож читання декодує їх паралельно — одне завдання
+ * на деривативу, кожне зі своїм входом ділянки файлу.
+ * <pre>
+ * int    MAGIC ("ICSW")
+ * short  VERSION
+ * long   покоління
+ * int    кількість деривативів
+ * ...    деривативи у форматі {@link DerivativeCodec}
+ * ...    зміст
+ * int    CRC32C змісту
+ * long   зсув змісту
+ * int    MAGIC
+ * </pre>
+ * Запис змісту: {@code long} зсув, {@code long} довжина, UUID і назва деривативи,
+ * {@code int} кількість зобов'язань (-1 — список null) і агрегати: {@code int} кошиків
+ * {@link PortfolioAggregates#slots()}, {@code double} премія і ризик разом, для кожного кошика
+ * {@code long} кількість, {@code double} премія, {@code double} ризик.
+ * <p>
+ * {@link #open} читає лише зміст: деривативи ліниві ({@link Derivative#lazy}) і декодуються
+ * з файлу під час першого звернення до зобов'язань. Файл між зверненнями не тримається відкритим
+ * і відкривається через {@link MappedFileInput#replaceable} (на Windows — копіюванням у купу),
+ * тож знімок можна замінити перейменуванням. Незавантажені деривативи {@link #write} копіює в новий контейнер
+ * байтами, без декодування, і, якщо контейнер замінить той самий файл, запам'ятовує їхні нові
+ * зсуви: за поколінням із заголовка лінива дериватива знаходить свою ділянку і до заміни, і після.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x49435357; // "ICSW"
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES;
+    static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final long generation;
+    private final List<Derivative> derivatives;
+
+    private SnapshotFile(long generation, List<Derivative> derivatives) {
+        this.generation = generation;
+        this.derivatives = derivatives;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /** Деривативи в порядку запису. */
+    public List<Derivative> getDerivatives() {
+        return derivatives;
+    }
+
+    /**
+     * Записати деривативи з поточної позиції каналу (на початку файлу). Блоки кожної деривативи
+     * кодуються паралельно ({@link DerivativeCodec#write(Derivative, OutputStream, int)}).
+     * {@code target} — файл, яким стане записаний контейнер після перейменування.
+     */
+    static void write(FileChannel channel, Path target, long generation, List<Derivative> derivatives,
+                      int compressionLevel) throws IOException {
+        if (target == null) {
+            throw new IllegalArgumentException("target is null");
+        }
+        Derivative[] items;
+        synchronized (derivatives) {
+            items = derivatives.toArray(new Derivative[0]);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).putLong(generation).putInt(items.length).flip();
+        writeFully(channel, header);
+
+        OutputStream out = Channels.newOutputStream(channel);
+        ByteArrayOutputStream toc = new ByteArrayOutputStream(items.length * 256 + 16);
+        DataOutputStream data = new DataOutputStream(toc);
+        ObligationEncoder encoder = new ObligationEncoder(data);
+        for (Derivative d : items) {
+            long offset = channel.position();
+            int size;
+            if (d.getPendingSource() instanceof Region region && region.copyTo(d, channel, target, generation)) {
+                size = region.size;
+            } else {
+                DerivativeCodec.write(d, out, compressionLevel);
+                size = d.getObligations() == null ? -1 : d.getObligations().size();
+            }
+            data.writeLong(offset);
+            data.writeLong(channel.position() - offset);
+            encoder.writeUuid(d.getId());
+            encoder.writeString(d.getName());
+            data.writeInt(size);
+            writeAggregates(data, d.getAggregates());
+        }
+
+        long tocOffset = channel.position();
+        CRC32C crc = new CRC32C();
+        crc.update(toc.toByteArray());
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        trailer.putInt((int) crc.getValue()).putLong(tocOffset).putInt(MAGIC).flip();
+        writeFully(channel, ByteBuffer.wrap(toc.toByteArray()));
+        writeFully(channel, trailer);
+    }
+
+    /** Прочитати контейнер; деривативи декодуються паралельно. */
+    public static SnapshotFile read(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = MappedFileInput.replaceable(channel);
+            Header header = new Header(in, file);
+            Toc toc = readToc(in, header);
+
+            Derivative[] result = new Derivative[header.count];
+            DerivativeCodec.parallel(header.count, k -> {
+                Derivative d = DerivativeCodec.readMapped(MappedFileInput.replaceable(channel, toc.offsets[k], toc.lengths[k]));
+                if (!toc.ids[k].equals(d.getId())) {
+                    throw new StreamCorruptedException("Зміст знімка не відповідає деривативі #" + (k + 1));
+                }
+                result[k] = d;
+            });
+            return new SnapshotFile(header.generation, new ArrayList<>(Arrays.asList(result)));
+        }
+    }
+
+    /**
+     * Відкрити контейнер ліниво: прочитати лише зміст і повернути ліниві деривативи з назвами,
+     * кількостями та агрегатами зі змісту. Файл закривається одразу після читання змісту.
+     */
+    public static SnapshotFile open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = MappedFileInput.replaceable(channel);
+            Header header = new Header(in, file);
+            Toc toc = readToc(in, header);
+            List<Derivative> derivatives = new ArrayList<>(header.count);
+            for (int k = 0; k < header.count; k++) {
+                Region region = new Region(file, header.generation, toc.offsets[k], toc.lengths[k],
+                        toc.ids[k], toc.names[k], toc.sizes[k]);
+                derivatives.add(Derivative.lazy(toc.ids[k], toc.names[k], toc.aggregates[k], region));
+            }
+            return new SnapshotFile(header.generation, derivatives);
+        }
+    }
+
+    /** Заголовок контейнера. */
+    private static final class Header {
+        final long generation;
+        final int count;
+
+        Header(MappedFileInput in, Path file) throws IOException {
+            if (in.size() < HEADER_BYTES || in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Не файл знімка деривативів: " + file);
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Непідтримувана версія знімка: " + version);
+            }
+            this.generation = in.readLong();
+            this.count = in.readInt();
+            if (count < 0) {
+                throw new StreamCorruptedException("Некоректна кількість деривативів: " + count);
+            }
+        }
+    }
+
+    /** Зміст: розміщення і заголовки деривативів. */
+    private static final class Toc {
+        final long[] offsets;
+        final long[] lengths;
+        final UUID[] ids;
+        final String[] names;
+        final int[] sizes;
+        final PortfolioAggregates[] aggregates;
+
+        Toc(int count) {
+            offsets = new long[count];
+            lengths = new long[count];
+            ids = new UUID[count];
+            names = new String[count];
+            sizes = new int[count];
+            aggregates = new PortfolioAggregates[count];
+        }
+    }
+
+    /** Зміст у кінці файлу, перевірений CRC32C. */
+    private static Toc readToc(MappedFileInput in, Header header) throws IOException {
+        long trailer = in.size() - TRAILER_BYTES;
+        if (trailer < HEADER_BYTES) {
+            throw new StreamCorruptedException("Знімок обрізано: немає змісту");
+        }
+        in.seek(trailer);
+        int checksum = in.readInt();
+        long tocOffset = in.readLong();
+        if (in.readInt() != MAGIC || tocOffset < HEADER_BYTES || tocOffset > trailer) {
+            throw new StreamCorruptedException("Пошкоджений хвіст знімка");
+        }
+        CRC32C crc = new CRC32C();
+        in.update(crc, tocOffset, trailer - tocOffset);
+        if ((int) crc.getValue() != checksum) {
+            throw new StreamCorruptedException("Контрольна сума змісту знімка не збігається");
+        }
+
+        Toc toc = new Toc(header.count);
+        in.seek(tocOffset);
+        ObligationDecoder decoder = new ObligationDecoder(in);
+        long previous = HEADER_BYTES;
+        for (int k = 0; k < header.count; k++) {
+            toc.offsets[k] = in.readLong();
+            toc.lengths[k] = in.readLong();
+            toc.ids[k] = decoder.readUuid();
+            toc.names[k] = decoder.readString();
+            toc.sizes[k] = in.readInt();
+            toc.aggregates[k] = readAggregates(in);
+            if (toc.offsets[k] != previous || toc.lengths[k] < 0 || toc.lengths[k] > tocOffset - toc.offsets[k]) {
+                throw new StreamCorruptedException("Некоректне розміщення деривативи #" + (k + 1));
+            }
+            previous = toc.offsets[k] + toc.lengths[k];
+        }
+        if (in.position() != trailer) {
+            throw new StreamCorruptedException("Пошкоджений зміст знімка");
+        }
+        return toc;
+    }
+
+    private static void writeAggregates(DataOutputStream data, PortfolioAggregates a) throws IOException {
+        int slots = PortfolioAggregates.slots();
+        data.writeInt(slots);
+        data.writeDouble(a.getTotalPremium());
+        data.writeDouble(a.getTotalRisk());
+        for (int i = 0; i < slots; i++) {
+            data.writeLong(a.getCountAt(i));
+            data.writeDouble(a.getPremiumAt(i));
+            data.writeDouble(a.getRiskAt(i));
+        }
+    }
+
+    /** Агрегати зі змісту; {@code null}, якщо кошики записано іншою версією програми. */
+    private static PortfolioAggregates readAggregates(MappedFileInput in) throws IOException {
+        int slots = in.readInt();
+        if (slots < 0 || slots > Short.MAX_VALUE) {
+            throw new StreamCorruptedException("Некоректна кількість кошиків агрегатів: " + slots);
+        }
+        double premium = in.readDouble();
+        double risk = in.readDouble();
+        long[] counts = new long[slots];
+        double[] premiums = new double[slots];
+        double[] risks = new double[slots];
+        for (int i = 0; i < slots; i++) {
+            counts[i] = in.readLong();
+            premiums[i] = in.readDouble();
+            risks[i] = in.readDouble();
+        }
+        return slots == PortfolioAggregates.slots()
+                ? PortfolioAggregates.restore(counts, premiums, risks, premium, risk)
+                : null;
+    }
+
+    /**
+     * Ділянка лінивої деривативи. Файл відкривається лише на час завантаження чи копіювання;
+     * зсув ділянки обирається за поколінням із заголовка файлу, який зараз лежить за шляхом.
+     */
+    private static final class Region implements ObligationSource {
+        private final Path file;
+        private final long length;
+        private final UUID id;
+        private final String name;
+        private final int size;
+        /** Зсув ділянки в контейнері кожного покоління, що її містить; доступ — під {@code this}. */
+        private final Map<Long, Long> offsets = new HashMap<>();
+
+        Region(Path file, long generation, long offset, long length, UUID id, String name, int size) {
+            this.file = file.toAbsolutePath().normalize();
+            this.length = length;
+            this.id = id;
+            this.name = name;
+            this.size = size;
+            offsets.put(generation, offset);
+        }
+
+        @Override
+        public List<Obligation> load() {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedFileInput in = MappedFileInput.replaceable(channel, offsetIn(channel), length);
+                DerivativeCodec.Cursor cursor = new DerivativeCodec.Cursor(in);
+                if (!id.equals(cursor.id)) {
+                    throw new StreamCorruptedException("Зміст знімка не відповідає деривативі " + id);
+                }
+                return DerivativeCodec.readObligations(in, cursor);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не вдалося завантажити зобов'язання деривативи " + id, e);
+            }
+        }
+
+        /**
+         * Скопіювати байти деривативи {@code d} без декодування, якщо її назва не змінилася
+         * (назва записана всередині ділянки). Якщо контейнер покоління {@code generation} замінить
+         * цей самий файл, ділянка запам'ятовує свій зсув у ньому.
+         */
+        boolean copyTo(Derivative d, FileChannel target, Path targetFile, long generation) throws IOException {
+            if (!Objects.equals(d.getName(), name)) {
+                return false;
+            }
+            long position = target.position();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long offset = offsetIn(channel);
+                long done = 0;
+                while (done < length) {
+                    long n = channel.transferTo(offset + done, length - done, target);
+                    if (n <= 0) {
+                        throw new EOFException("Знімок обрізано під час копіювання деривативи");
+                    }
+                    done += n;
+                }
+            }
+            if (file.equals(targetFile.toAbsolutePath().normalize())) {
+                synchronized (this) {
+                    offsets.put(generation, position);
+                }
+            }
+            return true;
+        }
+
+        /** Зсув ділянки у файлі, що зараз лежить за шляхом; старші покоління вже не повернуться. */
+        private synchronized long offsetIn(FileChannel channel) throws IOException {
+            long generation = new Header(MappedFileInput.replaceable(channel), file).generation;
+            Long offset = offsets.get(generation);
+            if (offset == null) {
+                throw new StreamCorruptedException("Знімок '" + file + "' замінено: у поколінні "
+                        + generation + " немає деривативи " + id);
+            }
+            offsets.keySet().removeIf(g -> g < generation);
+            return offset;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.InsuranceCalculator;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.RiskComparator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * Текстовий звіт по деривативі для {@link FileManager#exportToText}.
+ * <p>
+ * Підписи закодовані в UTF-8 один раз, числа пишуться {@link ByteSink#fixed} без {@code Formatter},
+ * формули беруться з {@link InsuranceCalculator} і {@link RiskComparator}. Великі списки ріжуться
+ * на шматки, які рендеряться паралельно у власні буфери і дописуються у вихідний потік по порядку;
+ * одночасно в пам'яті лише одна група шматків. Десятковий роздільник — крапка незалежно від локалі.
+ */
+final class TextReportRenderer {
+
+    static final int CHUNK_ROWS = 2048;
+
+    private static final int OUTPUT_BYTES = 1 << 20;
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private static final byte[] NL = utf8(System.lineSeparator());
+    private static final byte[] TITLE = utf8("=== ЗВІТ ПО ДЕРИВАТИВУ ===");
+    private static final byte[] NAME = utf8("Назва: ");
+    private static final byte[] ID = utf8("ID:    ");
+    private static final byte[] COUNT = utf8("Кількість зобов'язань: ");
+    private static final byte[] EMPTY = utf8("Зобов'язань немає.");
+    private static final byte[] NO_ID = utf8("—");
+
+    private static final byte[] ITEM = utf8("--- Облігація #");
+    private static final byte[] ITEM_END = utf8(" ---");
+    private static final byte[] TYPE = utf8("Тип:   ");
+    private static final byte[] INSURED = utf8("Сума страхування (insuredAmount) = ");
+    private static final byte[] PROBABILITY = utf8("Ймовірність (probability)       = ");
+    private static final byte[] FACTOR = utf8("Фактор (factor)                  = ");
+    private static final byte[] PERIOD = utf8("Період (periodMonths)            = ");
+    private static final byte[] RATE = utf8("Ставка (interestRate)            = ");
+    private static final byte[] MAX_COST = utf8("Макс. вартість (maxCost)         = ");
+    private static final byte[] LOSS_FORMULA = utf8("expectedLoss = insuredAmount * probability * factor");
+    private static final byte[] LOSS_VALUES = utf8("             = ");
+    private static final byte[] YEARS_FORMULA = utf8("years = periodMonths / 12.0");
+    private static final byte[] YEARS_VALUES = utf8("      = ");
+    private static final byte[] YEARS_DIVISOR = utf8(" / 12.0 = ");
+    private static final byte[] COEFF_FORMULA = utf8("timeCoeff = 1.0 + interestRate * years");
+    private static final byte[] COEFF_VALUES = utf8("          = 1.0 + ");
+    private static final byte[] RISK_FORMULA = utf8("risk = insuredAmount * factor * probability");
+    private static final byte[] RISK_VALUES = utf8("     = ");
+    private static final byte[] TIMES = utf8(" * ");
+    private static final byte[] EQUALS = utf8(" = ");
+    private static final byte[] SEPARATOR = utf8("----------------------------------------");
+
+    private final int chunkRows;
+
+    TextReportRenderer() {
+        this(CHUNK_ROWS);
+    }
+
+    /** Розмір шматка для паралельного рендерингу; у тестах — малий. */
+    TextReportRenderer(int chunkRows) {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("chunkRows <= 0");
+        }
+        this.chunkRows = chunkRows;
+    }
+
+    /** Записати звіт; потік не закривається. */
+    void render(Derivative derivative, OutputStream out) throws IOException {
+        List<Obligation> obligations = derivative.getObligations() == null
+                ? Collections.emptyList()
+                : derivative.getObligations();
+        if (!(obligations instanceof RandomAccess)) {
+            obligations = new ArrayList<>(obligations);
+        }
+        int count = obligations.size();
+        UUID id = derivative.getId();
+
+        ByteSink sink = new ByteSink(out, OUTPUT_BYTES);
+        sink.bytes(TITLE).bytes(NL);
+        sink.bytes(NAME).utf8(safe(derivative.getName(), "без назви")).bytes(NL);
+        sink.bytes(ID);
+        if (id != null) {
+            sink.uuid(id);
+        } else {
+            sink.bytes(NO_ID);
+        }
+        sink.bytes(NL);
+        sink.bytes(COUNT).integer(count).bytes(NL).bytes(NL);
+
+        if (count == 0) {
+            sink.bytes(EMPTY).bytes(NL);
+        } else if (count <= chunkRows) {
+            renderRows(obligations, 0, count, sink);
+        } else {
+            List<Obligation> rows = obligations;
+            int chunks = (count + chunkRows - 1) / chunkRows;
+            int group = DerivativeCodec.groupSize();
+            for (int first = 0; first < chunks; first += group) {
+                int n = Math.min(group, chunks - first);
+                byte[][] rendered = new byte[n][];
+                int firstChunk = first;
+                DerivativeCodec.parallel(n, k -> {
+                    int from = (firstChunk + k) * chunkRows;
+                    int to = Math.min(from + chunkRows, count);
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK_BYTES);
+                    ByteSink chunk = new ByteSink(bytes, CHUNK_BYTES);
+                    renderRows(rows, from, to, chunk);
+                    chunk.flush();
+                    rendered[k] = bytes.toByteArray();
+                });
+                for (byte[] chunk : rendered) {
+                    sink.bytes(chunk);
+                }
+            }
+        }
+        sink.flush();
+    }
+
+    private static void renderRows(List<Obligation> obligations, int from, int to, ByteSink sink)
+            throws IOException {
+        for (int i = from; i < to; i++) {
+            Obligation o = obligations.get(i);
+            if (o != null) {
+                renderObligation(i + 1, o, sink);
+            }
+        }
+    }
+
+    private static void renderObligation(int number, Obligation o, ByteSink sink) throws IOException {
+        String type = o.getClass().getSimpleName();
+        UUID oid = o.getId();
+
+        double insuredAmount = o.getInsuredAmount();
+        double probability = o.getProbability();
+        double factor = o.getFactor();
+        int periodMonths = o.getPeriod();
+        double interestRate = o.getInterestRate();
+        double maxCost = o.getMaxCost();
+
+        double expectedLoss = InsuranceCalculator.expectedLoss(insuredAmount, probability, factor);
+        double years = InsuranceCalculator.years(periodMonths);
+        double timeCoeff = InsuranceCalculator.timeCoeff(interestRate, years);
+        double risk = RiskComparator.riskScore(o);
+
+        sink.bytes(ITEM).integer(number).bytes(ITEM_END).bytes(NL);
+
+        // Основні дані
+        sink.bytes(TYPE).utf8(type).bytes(NL);
+        sink.bytes(NAME).utf8(safe(o.getName(), type)).bytes(NL);
+        sink.bytes(ID);
+        if (oid != null) {
+            sink.uuid(oid);
+        } else {
+            sink.bytes(NO_ID);
+        }
+        sink.bytes(NL).bytes(NL);
+
+        // Базові числові поля
+        sink.bytes(INSURED).fixed(insuredAmount, 2).bytes(NL);
+        sink.bytes(PROBABILITY).fixed(probability, 6).bytes(NL);
+        sink.bytes(FACTOR).fixed(factor, 6).bytes(NL);
+        sink.bytes(PERIOD).integer(periodMonths).bytes(NL);
+        sink.bytes(RATE).fixed(interestRate, 6).bytes(NL);
+        sink.bytes(MAX_COST).fixed(maxCost, 2).bytes(NL).bytes(NL);
+
+        // Формула очікуваних збитків
+        sink.bytes(LOSS_FORMULA).bytes(NL);
+        sink.bytes(LOSS_VALUES).fixed(insuredAmount, 2).bytes(TIMES).fixed(probability, 6)
+                .bytes(TIMES).fixed(factor, 6).bytes(EQUALS).fixed(expectedLoss, 2).bytes(NL).bytes(NL);
+
+        // Формула коефіцієнта часу
+        sink.bytes(YEARS_FORMULA).bytes(NL);
+        sink.bytes(YEARS_VALUES).integer(periodMonths).bytes(YEARS_DIVISOR).fixed(years, 6).bytes(NL).bytes(NL);
+
+        sink.bytes(COEFF_FORMULA).bytes(NL);
+        sink.bytes(COEFF_VALUES).fixed(interestRate, 6).bytes(TIMES).fixed(years, 6)
+                .bytes(EQUALS).fixed(timeCoeff, 6).bytes(NL).bytes(NL);
+
+        // Оцінка ризику (як у RiskComparator)
+        sink.bytes(RISK_FORMULA).bytes(NL);
+        sink.bytes(RISK_VALUES).fixed(insuredAmount, 2).bytes(TIMES).fixed(factor, 6)
+                .bytes(TIMES).fixed(probability, 6).bytes(EQUALS).fixed(risk, 2).bytes(NL).bytes(NL);
+
+        sink.bytes(SEPARATOR).bytes(NL).bytes(NL);
+    }
+
+    private static String safe(String s, String fallback) {
+        return (s == null || s.isBlank()) ? fallback : s;
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Робочий простір меню в каталозі: знімок усіх деривативів ({@value #SNAPSHOT}) і журнал змін
+ * після нього ({@value #JOURNAL}, {@link Journal}). Відкриття відновлює стан: знімок плюс журнал.
+ * Контрольна точка пише новий знімок (тимчасовий файл, fsync, атомарне перейменування) і починає
+ * журнал заново.
+ * <p>
+ * Знімок і журнал мають номер покоління. Якщо збій стався між перейменуванням знімка і скиданням
+ * журналу, журнал старшого покоління вже міститься в знімку і відкидається. Формат знімка —
+ * {@link SnapshotFile}. Відкриття читає лише його зміст: деривативи ліниві й завантажують
+ * зобов'язання під час першого звернення (журнал торкається лише тих, які змінює).
+ */
+public final class Workspace implements Closeable {
+
+    private static final Logger log = LogManager.getLogger(Workspace.class);
+
+    public static final String SNAPSHOT = "snapshot.bin";
+    public static final String JOURNAL = "journal.wal";
+
+    private final Path directory;
+    private final List<Derivative> derivatives;
+    private final Journal journal;
+
+    private Workspace(Path directory, List<Derivative> derivatives, Journal journal) {
+        this.directory = directory;
+        this.derivatives = derivatives;
+        this.journal = journal;
+    }
+
+    /** Відкрити (або створити) робочий простір і відновити деривативи зі знімка та журналу. */
+    public static Workspace open(Path directory, Journal.SyncPolicy policy) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory is null");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy is null");
+        }
+        Files.createDirectories(directory);
+        Files.deleteIfExists(AtomicFiles.tempOf(directory.resolve(SNAPSHOT)));
+
+        List<Derivative> derivatives = new ArrayList<>();
+        long generation = 0;
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            SnapshotFile contents = SnapshotFile.open(snapshot);
+            generation = contents.getGeneration();
+            derivatives.addAll(contents.getDerivatives());
+        }
+        Journal journal = Journal.open(directory.resolve(JOURNAL), generation, derivatives, policy);
+        log.info("Робочий простір '{}' відкрито: покоління {}, деривативів {}",
+                directory, generation, derivatives.size());
+        return new Workspace(directory, derivatives, journal);
+    }
+
+    /** Деривативи, відновлені під час відкриття; ще не змінені — ліниві ({@link Derivative#isLoaded()}). */
+    public List<Derivative> getDerivatives() {
+        return derivatives;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public long getGeneration() {
+        return journal.getGeneration();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** Записати знімок {@code current} як нове покоління і почати журнал заново. */
+    public void checkpoint(List<Derivative> current) throws IOException {
+        if (current == null) {
+            throw new IllegalArgumentException("derivatives is null");
+        }
+        synchronized (journal) {
+            long next = journal.getGeneration() + 1;
+            Path snapshot = directory.resolve(SNAPSHOT);
+            AtomicFiles.write(snapshot, channel ->
+                    SnapshotFile.write(channel, snapshot, next, current, DerivativeCodec.NO_COMPRESSION));
+            journal.reset(next);
+            log.info("Контрольна точка '{}': покоління {}, деривативів {}", directory, next, current.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
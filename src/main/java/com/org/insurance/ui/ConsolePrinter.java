@@ -55,7 +55,12 @@ public final class ConsolePrinter {
             System.out.println("Дериватив не обрано.");
             return;
         }
-        List<Obligation> list = safeList(d.getObligations());
+        printObligations(d.getObligations());
+    }
+
+    /** Нумерований список зобов'язань (тип, ризик, id) — наприклад, результат вибірки. */
+    public static void printObligations(List<Obligation> obligations) {
+        List<Obligation> list = safeList(obligations);
         if (list.isEmpty()) {
             System.out.println("Зобов'язань немає.");
             return;
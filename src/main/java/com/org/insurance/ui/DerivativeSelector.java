@@ -0,0 +1,90 @@
+package com.org.insurance.ui;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.DerivativeRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Вибір деривативу командами меню: за номером у списку, за UUID або за початком назви.
+ * Якщо список — {@link DerivativeRegistry}, UUID і назва шукаються за його індексами,
+ * інакше — проходом по списку. Довгий список не виводиться повністю.
+ */
+public final class DerivativeSelector {
+
+    /** Скільки деривативів виводити перед запитом вибору. */
+    public static final int MAX_LISTED = 30;
+
+    private DerivativeSelector() {
+    }
+
+    /** Вивести варіанти вибору: увесь список або його початок з підказкою. */
+    public static void printChoices(List<Derivative> derivatives) {
+        if (derivatives == null || derivatives.size() <= MAX_LISTED) {
+            ConsolePrinter.printDerivatives(derivatives);
+            return;
+        }
+        ConsolePrinter.printDerivatives(derivatives.subList(0, MAX_LISTED));
+        System.out.println("... ще " + (derivatives.size() - MAX_LISTED)
+                + ". Можна ввести №, UUID або початок назви.");
+    }
+
+    /** Дериватив за введеним текстом або {@code null}, якщо вибір невірний чи неоднозначний. */
+    public static Derivative resolve(String input, List<Derivative> derivatives) {
+        if (input == null || derivatives == null || derivatives.isEmpty()) return null;
+        String s = input.trim();
+        if (s.isEmpty()) return null;
+
+        try {
+            int idx = Integer.parseInt(s);
+            return (idx >= 1 && idx <= derivatives.size()) ? derivatives.get(idx - 1) : null;
+        } catch (NumberFormatException ignored) {
+        }
+
+        UUID id = parseUuid(s);
+        if (id != null) {
+            return derivatives instanceof DerivativeRegistry registry ? registry.findById(id) : scanById(derivatives, id);
+        }
+
+        List<Derivative> matches = derivatives instanceof DerivativeRegistry registry
+                ? registry.findByNamePrefix(s)
+                : scanByNamePrefix(derivatives, s);
+        if (matches.size() == 1) {
+            return matches.get(0);
+        }
+        for (Derivative d : matches) {
+            if (d.getName().equalsIgnoreCase(s)) return d;
+        }
+        if (matches.size() > 1) {
+            System.out.println("Неоднозначно: з '" + s + "' починаються " + matches.size() + " деривативи(ів).");
+        }
+        return null;
+    }
+
+    private static UUID parseUuid(String s) {
+        if (s.length() != 36) return null;
+        try {
+            return UUID.fromString(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Derivative scanById(List<Derivative> derivatives, UUID id) {
+        for (Derivative d : derivatives) {
+            if (d != null && id.equals(d.getId())) return d;
+        }
+        return null;
+    }
+
+    private static List<Derivative> scanByNamePrefix(List<Derivative> derivatives, String prefix) {
+        String p = prefix.toLowerCase();
+        List<Derivative> result = new ArrayList<>();
+        for (Derivative d : derivatives) {
+            if (d != null && d.getName() != null && d.getName().toLowerCase().startsWith(p)) result.add(d);
+        }
+        return result;
+    }
+}
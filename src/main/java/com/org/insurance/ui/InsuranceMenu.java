@@ -1,8 +1,13 @@
 package com.org.insurance.ui;
 
-import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.DerivativeRegistry;
+import com.org.insurance.io.AsyncSaveService;
+import com.org.insurance.io.Journal;
+import com.org.insurance.io.Workspace;
 import com.org.insurance.ui.command.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 import org.apache.logging.log4j.LogManager;
@@ -12,11 +17,36 @@ public class InsuranceMenu {
 
     private static final Logger log = LogManager.getLogger(InsuranceMenu.class);
 
-    private final List<Derivative> derivatives = new ArrayList<>();
+    private final DerivativeRegistry derivatives = new DerivativeRegistry();
     private final Scanner in = new Scanner(System.in);
     private final Map<String, Command> commands = new HashMap<>();
+    /** Потік фонових збережень; закривається (з дописуванням черги) після виходу з меню. */
+    private final AsyncSaveService saver = new AsyncSaveService();
+    /** Команда save: її повідомлення про фонові збереження друкуються перед кожним показом меню. */
+    private final SaveToFileCommand save = new SaveToFileCommand(saver);
+    /** Робочий простір зі знімком і журналом змін; null — деривативи живуть лише в пам'яті. */
+    private final Workspace workspace;
 
     public InsuranceMenu() {
+        this(null);
+    }
+
+    /**
+     * Меню з робочим простором у каталозі {@code workspaceDir}: деривативи відновлюються зі знімка
+     * та журналу, зміни команд add/remove/create/delete/import/sort/load/load-all пишуться в журнал
+     * груповими комітами, а при виході записується контрольна точка.
+     */
+    public InsuranceMenu(Path workspaceDir) {
+        if (workspaceDir != null) {
+            try {
+                workspace = Workspace.open(workspaceDir, Journal.SyncPolicy.GROUP);
+            } catch (IOException e) {
+                throw new RuntimeException("Не вдалося відкрити робочий простір: " + workspaceDir, e);
+            }
+            derivatives.addAll(workspace.getDerivatives());
+        } else {
+            workspace = null;
+        }
         registerBuiltInCommands();
         log.info("Ініціалізовано InsuranceMenu, зареєстровано {} команд(и)", commands.size());
     }
@@ -26,6 +56,7 @@ public class InsuranceMenu {
         System.out.println("Введіть назву команди (наприклад, 'add'). 'help' — описи, 'exit' — вихід.");
 
         while (true) {
+            save.printNotices();
             showShortMenu();
             System.out.print("> ");
 
@@ -51,6 +82,14 @@ public class InsuranceMenu {
             executeCommand(cmdText);
         }
 
+        if (saver.pending() > 0) {
+            System.out.println("Очікування фонових збережень...");
+        }
+        saver.close();
+        save.printNotices();
+        if (workspace != null) {
+            closeWorkspace();
+        }
         log.info("Завершення роботи меню страхування");
     }
 
@@ -107,17 +146,39 @@ public class InsuranceMenu {
         System.out.println();
     }
 
+    private void closeWorkspace() {
+        try {
+            workspace.checkpoint(derivatives);
+        } catch (IOException e) {
+            // Зміни лишаються в журналі й відновляться при наступному запуску
+            log.error("Не вдалося записати контрольну точку у '{}'", workspace.getDirectory(), e);
+        }
+        try {
+            workspace.close();
+        } catch (IOException e) {
+            log.error("Не вдалося закрити журнал у '{}'", workspace.getDirectory(), e);
+        }
+    }
+
     private void registerBuiltInCommands() {
-        registerCommand("add",    new AddObligationCommand());
+        Journal journal = workspace != null ? workspace.getJournal() : null;
+        registerCommand("add",    new AddObligationCommand(journal));
         registerCommand("calc",   new CalculateCommand());
-        registerCommand("create", new CreateDerivativeCommand());
-        registerCommand("delete", new DeleteDerivativeCommand());
+        registerCommand("create", new CreateDerivativeCommand(journal));
+        registerCommand("delete", new DeleteDerivativeCommand(journal));
         registerCommand("find",   new FindObligationCommand());
-        registerCommand("load",   new LoadFromFileCommand());
-        registerCommand("remove", new RemoveObligationCommand());
-        registerCommand("save",   new SaveToFileCommand());
+        registerCommand("import", new ImportCsvCommand(journal));
+        registerCommand("load",   new LoadFromFileCommand(journal));
+        registerCommand("load-all", new LoadWorkspaceCommand(journal));
+        registerCommand("remove", new RemoveObligationCommand(journal));
+        registerCommand("save",   save);
+        registerCommand("save-all", new SaveWorkspaceCommand());
         registerCommand("show",   new ShowDerivativesCommand());
-        registerCommand("sort",   new SortByRiskCommand());
+        registerCommand("sort",   new SortByRiskCommand(journal));
+        registerCommand("top",    new TopRiskCommand());
+        if (workspace != null) {
+            registerCommand("checkpoint", new CheckpointCommand(workspace));
+        }
     }
 
     public void registerCommand(String name, Command command) {
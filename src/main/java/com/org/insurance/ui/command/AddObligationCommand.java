@@ -3,13 +3,24 @@ package com.org.insurance.ui.command;
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
 import com.org.insurance.domain.ObligationType;
-import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.io.Journal;
+import com.org.insurance.ui.DerivativeSelector;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class AddObligationCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public AddObligationCommand() {
+        this(null);
+    }
+
+    public AddObligationCommand(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public String getDescription() {
@@ -36,6 +47,9 @@ public class AddObligationCommand implements Command {
             }
         }
 
+        if (journal != null) {
+            journal.logAdd(d, derivatives.indexOf(d), o);
+        }
         d.getObligations().add(o);
         System.out.println("Додано облігацію типу " + o.getClass().getSimpleName() +
                 " до деривативи: " + (d.getName() != null ? d.getName() : d.getId()));
@@ -47,11 +61,9 @@ public class AddObligationCommand implements Command {
             return null;
         }
         System.out.println("Оберіть деривативу:");
-        ConsolePrinter.printDerivatives(list);
+        DerivativeSelector.printChoices(list);
         System.out.print("> №: ");
-        int idx = readInt(in);
-        if (idx < 1 || idx > list.size()) return null;
-        return list.get(idx - 1);
+        return DerivativeSelector.resolve(in.nextLine(), list);
     }
 
     private Obligation pickAndCreateObligation(Scanner in) {
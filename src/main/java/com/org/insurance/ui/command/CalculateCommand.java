@@ -1,9 +1,13 @@
 package com.org.insurance.ui.command;
 
+import com.org.insurance.domain.BookValuation;
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.InsuranceCalculator;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ParallelValuator;
+import com.org.insurance.domain.Valuation;
 import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.ui.DerivativeSelector;
 
 import java.util.List;
 import java.util.Scanner;
@@ -11,6 +15,7 @@ import java.util.Scanner;
 public class CalculateCommand implements Command {
 
     private final InsuranceCalculator calculator = new InsuranceCalculator();
+    private final ParallelValuator valuator = new ParallelValuator();
 
     @Override
     public String getDescription() {
@@ -18,7 +23,8 @@ public class CalculateCommand implements Command {
                 "Доступні розрахунки InsuranceCalculator:",
                 "  1) Вартість портфеля",
                 "  2) Сумарний ризик портфеля",
-                "  3) Ціна сервісу для облігації"
+                "  3) Ціна сервісу для облігації",
+                "  4) Вартість і ризик усіх деривативів (паралельно)"
         );
     }
 
@@ -28,6 +34,7 @@ public class CalculateCommand implements Command {
         System.out.println("1) Вартість портфеля");
         System.out.println("2) Сумарний ризик портфеля");
         System.out.println("3) Ціна сервісу для облігації");
+        System.out.println("4) Вартість і ризик усіх деривативів (паралельно)");
         System.out.print("> ");
         int action = readInt(in);
 
@@ -36,7 +43,7 @@ public class CalculateCommand implements Command {
                 Derivative d = chooseDerivative(in, derivatives);
                 if (d == null) return;
 
-                double value = calculator.calculatePortfolioValue(d);
+                double value = d.getAggregates().getTotalPremium();
 
                 System.out.printf("Вартість портфеля для '%s': %.6f%n",
                         d.getName() != null ? d.getName() : d.getId(), value);
@@ -47,7 +54,7 @@ public class CalculateCommand implements Command {
                 Derivative d = chooseDerivative(in, derivatives);
                 if (d == null) return;
 
-                double risk = calculator.calculateTotalRisk(d);
+                double risk = d.getAggregates().getTotalRisk();
                 System.out.printf("Сумарний ризик портфеля '%s': %.6f%n",
                         d.getName() != null ? d.getName() : d.getId(), risk);
 
@@ -66,6 +73,22 @@ public class CalculateCommand implements Command {
 
                 ConsolePrinter.printPriceCalculation(o, price);
             }
+            case 4 -> {
+                if (derivatives == null || derivatives.isEmpty()) {
+                    System.out.println("Список деривативів порожній.");
+                    return;
+                }
+
+                BookValuation book = valuator.valueBook(derivatives);
+                for (int i = 0; i < book.getDerivatives().size(); i++) {
+                    Valuation v = book.getDerivatives().get(i);
+                    System.out.printf("%d) %s: вартість = %.6f, ризик = %.6f, зобов'язань = %d%n", i + 1,
+                            v.getDerivativeName() != null ? v.getDerivativeName() : v.getDerivativeId(),
+                            v.getValue(), v.getRisk(), v.getCount());
+                }
+                System.out.printf("РАЗОМ: вартість = %.6f, ризик = %.6f, зобов'язань = %d%n",
+                        book.getTotalValue(), book.getTotalRisk(), book.getTotalCount());
+            }
             default -> System.out.println("Невірний вибір.");
 
         }
@@ -77,14 +100,13 @@ public class CalculateCommand implements Command {
             return null;
         }
         System.out.println("Оберіть деривативу:");
-        ConsolePrinter.printDerivatives(list);
+        DerivativeSelector.printChoices(list);
         System.out.print("Оберіть № деривативу: ");
-        int idx = readInt(in);
-        if (idx < 1 || idx > list.size()) {
+        Derivative d = DerivativeSelector.resolve(in.nextLine(), list);
+        if (d == null) {
             System.out.println("Невірний номер.");
-            return null;
         }
-        return list.get(idx - 1);
+        return d;
     }
 
     private Obligation chooseObligation(Scanner in, Derivative derivative) {
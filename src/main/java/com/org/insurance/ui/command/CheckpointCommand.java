@@ -0,0 +1,35 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.Workspace;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Scanner;
+
+public class CheckpointCommand implements Command {
+    private final Workspace workspace;
+
+    public CheckpointCommand(Workspace workspace) {
+        if (workspace == null) {
+            throw new IllegalArgumentException("workspace is null");
+        }
+        this.workspace = workspace;
+    }
+
+    @Override
+    public void execute(Scanner in, List<Derivative> derivatives) {
+        try {
+            workspace.checkpoint(derivatives);
+        } catch (IOException e) {
+            throw new RuntimeException("Не вдалося записати контрольну точку: " + workspace.getDirectory(), e);
+        }
+        System.out.println("Контрольну точку записано (покоління " + workspace.getGeneration()
+                + ", деривативів: " + derivatives.size() + "). Журнал очищено.");
+    }
+
+    @Override
+    public String getDescription() {
+        return "Записати знімок усіх деривативів у робочий простір і очистити журнал змін";
+    }
+}
@@ -1,12 +1,23 @@
 package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.Journal;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class CreateDerivativeCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public CreateDerivativeCommand() {
+        this(null);
+    }
+
+    public CreateDerivativeCommand(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public void execute(Scanner in, List<Derivative> derivatives) {
@@ -19,6 +30,9 @@ public class CreateDerivativeCommand implements Command {
             d.setObligations(new ArrayList<>());
         }
 
+        if (journal != null) {
+            journal.logCreate(d);
+        }
         derivatives.add(d);
         System.out.println("Створено дериватив: " + (d.getName() == null ? "(без назви)" : d.getName())
                 + " | id=" + d.getId());
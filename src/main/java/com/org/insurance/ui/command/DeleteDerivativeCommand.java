@@ -1,11 +1,22 @@
 package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.Journal;
 import com.org.insurance.ui.ConsolePrinter;
 
 import java.util.*;
 
 public class DeleteDerivativeCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public DeleteDerivativeCommand() {
+        this(null);
+    }
+
+    public DeleteDerivativeCommand(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public void execute(Scanner in, List<Derivative> derivatives) {
@@ -29,6 +40,12 @@ public class DeleteDerivativeCommand implements Command {
 
         if (input.equals("all") || input.equals("*")) {
             int n = derivatives.size();
+            if (journal != null) {
+                // З кінця — позиції записів лишаються дійсними під час відновлення
+                for (int i = n - 1; i >= 0; i--) {
+                    journal.logDelete(derivatives.get(i), i);
+                }
+            }
             derivatives.clear();
             System.out.println("Видалено всі деривативи: " + n);
             return;
@@ -47,6 +64,9 @@ public class DeleteDerivativeCommand implements Command {
         for (int idx1 : sorted) {
             int idx0 = idx1 - 1;
             if (idx0 >= 0 && idx0 < derivatives.size()) {
+                if (journal != null) {
+                    journal.logDelete(derivatives.get(idx0), idx0);
+                }
                 Derivative d = derivatives.remove(idx0);
                 removedCount++;
                 System.out.println("Видалено: " + (d.getName() != null ? d.getName() : d.getId()));
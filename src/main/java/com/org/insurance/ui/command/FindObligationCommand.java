@@ -2,8 +2,11 @@ package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationField;
+import com.org.insurance.domain.ObligationQuery;
+import com.org.insurance.domain.ObligationSearch;
+import com.org.insurance.ui.DerivativeSelector;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -37,17 +40,15 @@ public class FindObligationCommand implements Command {
         Double minMaxCost = askDoubleOpt(in, "мін. гранична вартість: ");
         Double maxMaxCost = askDoubleOpt(in, "макс. гранична вартість: ");
 
-        List<Obligation> found = new ArrayList<>();
-        for (Obligation o : obs) {
-            if (!matches(namePart, o.getName())) continue;
-            if (!inRange(o.getInsuredAmount(), minAmount, maxAmount)) continue;
-            if (!inRange(o.getFactor(),        minFactor, maxFactor)) continue;
-            if (!inRange(o.getPeriod(),        minPeriod, maxPeriod)) continue;
-            if (!inRange(o.getInterestRate(),  minRate,   maxRate))   continue;
-            if (!inRange(o.getProbability(),   minProb,   maxProb))   continue;
-            if (!inRange(o.getMaxCost(),       minMaxCost,maxMaxCost))continue;
-            found.add(o);
-        }
+        ObligationQuery query = new ObligationQuery()
+                .nameContains(namePart)
+                .range(ObligationField.INSURED_AMOUNT, minAmount, maxAmount)
+                .range(ObligationField.FACTOR, minFactor, maxFactor)
+                .range(ObligationField.PERIOD, minPeriod, maxPeriod)
+                .range(ObligationField.INTEREST_RATE, minRate, maxRate)
+                .range(ObligationField.PROBABILITY, minProb, maxProb)
+                .range(ObligationField.MAX_COST, minMaxCost, maxMaxCost);
+        List<Obligation> found = ObligationSearch.find(d, query);
 
         if (found.isEmpty()) { System.out.println("Нічого не знайдено."); return; }
         System.out.println("Знайдені зобов’язання:");
@@ -60,33 +61,11 @@ public class FindObligationCommand implements Command {
 
     private Derivative pickDerivative(Scanner in, List<Derivative> list) {
         if (list.isEmpty()) { System.out.println("Немає деривативів."); return null; }
-        for (int i=0;i<list.size();i++) System.out.printf("%d) %s%n", i+1, nameOf(list.get(i)));
+        DerivativeSelector.printChoices(list);
         System.out.print("> №: ");
-        try {
-            int idx=Integer.parseInt(in.nextLine().trim());
-            return (idx>=1&&idx<=list.size())?list.get(idx-1):null;
-        }
-        catch (Exception e){
-            return null;
-        }
+        return DerivativeSelector.resolve(in.nextLine(), list);
     }
-    private static String nameOf(Derivative d){
-        return d.getName()!=null?d.getName():"без назви"; }
 
-    private static boolean matches(String part, String name) {
-        if (part == null || part.isEmpty()) return true;
-        return name != null && name.toLowerCase().contains(part);
-    }
-    private static boolean inRange(double v, Double min, Double max) {
-        if (min != null && v < min) return false;
-        if (max != null && v > max) return false;
-        return true;
-    }
-    private static boolean inRange(int v, Integer min, Integer max) {
-        if (min != null && v < min) return false;
-        if (max != null && v > max) return false;
-        return true;
-    }
     private static Double askDoubleOpt(Scanner in, String prompt) {
         System.out.print(prompt);
         String s = in.nextLine().trim();
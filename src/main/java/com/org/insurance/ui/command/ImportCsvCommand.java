@@ -0,0 +1,69 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.io.FileManager;
+import com.org.insurance.io.Journal;
+import com.org.insurance.ui.DerivativeSelector;
+
+import java.util.List;
+import java.util.Scanner;
+
+public class ImportCsvCommand implements Command {
+    private final FileManager fileManager = new FileManager();
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public ImportCsvCommand() {
+        this(null);
+    }
+
+    public ImportCsvCommand(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void execute(Scanner in, List<Derivative> derivatives) {
+        if (derivatives == null || derivatives.isEmpty()) {
+            System.out.println("Список деривативів порожній. Спершу створіть дериватив.");
+            return;
+        }
+
+        System.out.println("Список деривативів:");
+        DerivativeSelector.printChoices(derivatives);
+
+        System.out.print("Оберіть № деривативу для імпорту: ");
+        Derivative chosen = DerivativeSelector.resolve(in.nextLine(), derivatives);
+        if (chosen == null) {
+            System.out.println("Невірний вибір.");
+            return;
+        }
+
+        System.out.print("Шлях до CSV-файлу: ");
+        String path = in.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("Скасовано.");
+            return;
+        }
+
+        try {
+            List<Obligation> rows = fileManager.readCsv(path);
+            if (journal != null) {
+                journal.logAppend(chosen, derivatives.indexOf(chosen), rows);
+            }
+            if (chosen.getObligations() == null) {
+                chosen.setObligations(rows);
+            } else {
+                chosen.getObligations().addAll(rows);
+            }
+            System.out.println("Імпортовано зобов'язань: " + rows.size());
+        } catch (RuntimeException e) {
+            System.out.println("Помилка імпорту: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Імпортувати зобов'язання з CSV (type,id,name,insuredAmount,...)";
+    }
+}
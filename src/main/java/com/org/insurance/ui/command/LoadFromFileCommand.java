@@ -2,11 +2,22 @@ package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.io.FileManager;
+import com.org.insurance.io.Journal;
 
 import java.util.List;
 import java.util.Scanner;
 
 public class LoadFromFileCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public LoadFromFileCommand() {
+        this(null);
+    }
+
+    public LoadFromFileCommand(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public void execute(Scanner in, List<Derivative> derivatives) {
@@ -28,6 +39,9 @@ public class LoadFromFileCommand implements Command {
         try {
             Derivative derivative = fileManager.loadDerivative(filename);
             if (derivative != null) {
+                if (journal != null) {
+                    journal.logLoad(derivative);
+                }
                 derivatives.add(derivative);
                 System.out.println("Дериватив успішно завантажено.");
             } else {
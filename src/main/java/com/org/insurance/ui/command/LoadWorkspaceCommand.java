@@ -0,0 +1,77 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.FileManager;
+import com.org.insurance.io.Journal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Scanner;
+
+/**
+ * Завантажити всі деривативи з файлу-знімка (декодуються паралельно). Дериватива з тим самим
+ * id, що вже є в списку, замінює її на місці; решта додаються в кінець.
+ */
+public class LoadWorkspaceCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public LoadWorkspaceCommand() {
+        this(null);
+    }
+
+    public LoadWorkspaceCommand(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void execute(Scanner in, List<Derivative> derivatives) {
+        System.out.print("Шлях до файлу знімка: ");
+        if (!in.hasNextLine()) {
+            System.out.println("Ввід перервано. Завантаження скасовано.");
+            return;
+        }
+        String filename = in.nextLine().trim();
+        if (filename.isEmpty()) {
+            System.out.println("Шлях до файлу не може бути порожнім.");
+            return;
+        }
+
+        List<Derivative> loaded;
+        try {
+            loaded = new FileManager().loadWorkspace(filename);
+        } catch (RuntimeException e) {
+            System.out.println("Помилка при завантаженні знімка: " + e.getMessage());
+            return;
+        }
+
+        int replaced = 0;
+        for (Derivative d : loaded) {
+            if (journal != null) {
+                journal.logReplace(d);
+            }
+            int index = indexOf(derivatives, d);
+            if (index >= 0) {
+                derivatives.set(index, d);
+                replaced++;
+            } else {
+                derivatives.add(d);
+            }
+        }
+        System.out.println("Завантажено деривативів: " + loaded.size() + " (замінено: " + replaced + ").");
+    }
+
+    private static int indexOf(List<Derivative> derivatives, Derivative d) {
+        for (int i = 0; i < derivatives.size(); i++) {
+            if (Objects.equals(derivatives.get(i).getId(), d.getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Завантажити всі деривативи з файлу-знімка";
+    }
+}
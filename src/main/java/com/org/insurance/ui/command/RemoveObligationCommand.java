@@ -2,11 +2,24 @@ package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.io.Journal;
 import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.ui.DerivativeSelector;
 
 import java.util.*;
 
 public class RemoveObligationCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
+
+    public RemoveObligationCommand() {
+        this(null);
+    }
+
+    public RemoveObligationCommand(Journal journal) {
+        this.journal = journal;
+    }
+
     @Override public String getDescription() {
         return "Видалити одну/кілька облігацій (за індексом/діапазоном/UUID) з вибраного деривативу";
     }
@@ -53,39 +66,36 @@ public class RemoveObligationCommand implements Command {
             return;
         }
 
-        int removed = 0;
-
-        if (!sel.indexes.isEmpty()) {
-            List<Integer> idxs = new ArrayList<>(sel.indexes);
-            idxs.sort(Comparator.reverseOrder());
-            for (int idx1 : idxs) {
-                int idx0 = idx1 - 1;
-                if (idx0 >= 0 && idx0 < obs.size()) {
-                    Obligation o = obs.remove(idx0);
-                    removed++;
-                    System.out.println("Видалено (index): " + safeName(o) + " (" + o.getId() + ")");
-                }
-            }
+        // Спершу позначаємо позиції, потім видаляємо все одним проходом ущільнення
+        BitSet rows = new BitSet(obs.size());
+        for (int idx1 : sel.indexes) {
+            rows.set(idx1 - 1);
+        }
+        List<Integer> idxs = new ArrayList<>(sel.indexes);
+        idxs.sort(Comparator.reverseOrder());
+        for (int idx1 : idxs) {
+            Obligation o = obs.get(idx1 - 1);
+            System.out.println("Видалено (index): " + safeName(o) + " (" + idOf(o) + ")");
         }
 
-        if (!sel.uuids.isEmpty()) {
-            for (UUID id : sel.uuids) {
-                int pos = -1;
-                for (int i = 0; i < obs.size(); i++) {
-                    if (obs.get(i).getId().equals(id)) {
-                        pos = i;
-                        break;
-                    }
-                }
-                if (pos != -1) {
-                    Obligation o = obs.remove(pos);
-                    removed++;
-                    System.out.println("Видалено (uuid):  " + safeName(o) + " (" + id + ")");
-                } else {
-                    System.out.println("Не знайдено (uuid): " + id);
-                }
+        for (UUID id : sel.uuids) {
+            int pos = d.indexOf(id);
+            if (pos != -1 && rows.get(pos)) {
+                // Перше входження вже видаляється — шукаємо наступне (рідкісний випадок дублікатів)
+                pos = nextUnmarked(obs, rows, id, pos + 1);
             }
+            if (pos != -1) {
+                rows.set(pos);
+                System.out.println("Видалено (uuid):  " + safeName(obs.get(pos)) + " (" + id + ")");
+            } else {
+                System.out.println("Не знайдено (uuid): " + id);
+            }
+        }
+
+        if (journal != null && !rows.isEmpty()) {
+            journal.logRemove(d, derivatives.indexOf(d), rows);
         }
+        int removed = d.removeRows(rows).size();
 
         System.out.println("Разом видалено: " + removed);
         if (obs.isEmpty()) {
@@ -99,20 +109,28 @@ public class RemoveObligationCommand implements Command {
             return null;
         }
         System.out.println("Оберіть деривативу:");
-        ConsolePrinter.printDerivatives(list);
+        DerivativeSelector.printChoices(list);
         System.out.print("> №: ");
-        try {
-            int idx = Integer.parseInt(in.nextLine().trim());
-            return (idx >= 1 && idx <= list.size()) ? list.get(idx - 1) : null;
-        } catch (Exception e) {
-            return null;
-        }
+        return DerivativeSelector.resolve(in.nextLine(), list);
     }
 
     private static String safeName(Obligation o) {
+        if (o == null) return "—";
         return (o.getName() != null && !o.getName().isBlank()) ? o.getName() : o.getClass().getSimpleName();
     }
 
+    private static int nextUnmarked(List<Obligation> obs, BitSet rows, UUID id, int from) {
+        for (int i = from; i < obs.size(); i++) {
+            Obligation o = obs.get(i);
+            if (!rows.get(i) && o != null && id.equals(o.getId())) return i;
+        }
+        return -1;
+    }
+
+    private static Object idOf(Obligation o) {
+        return o == null ? "—" : o.getId();
+    }
+
     private static final class Selection {
         final Set<Integer> indexes = new HashSet<>();
         final List<UUID> uuids = new ArrayList<>();
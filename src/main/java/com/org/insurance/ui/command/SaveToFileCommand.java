@@ -1,15 +1,30 @@
 package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.AsyncSaveService;
 import com.org.insurance.io.FileManager;
-import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.ui.DerivativeSelector;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class SaveToFileCommand implements Command {
     private final FileManager fileManager = new FileManager();
+    /** Якщо задано, бінарні збереження виконуються у фоні; інакше — одразу. */
+    private final AsyncSaveService saver;
+    /** Результати фонових збережень: їх друкує потік меню ({@link #printNotices}), а не записувач посеред вводу. */
+    private final Queue<String> notices = new ConcurrentLinkedQueue<>();
+
+    public SaveToFileCommand() {
+        this(null);
+    }
+
+    public SaveToFileCommand(AsyncSaveService saver) {
+        this.saver = saver;
+    }
 
     @Override
     public void execute(Scanner in, List<Derivative> derivatives) {
@@ -19,21 +34,19 @@ public class SaveToFileCommand implements Command {
         }
 
         System.out.println("Список деривативів:");
-        ConsolePrinter.printDerivatives(derivatives);
+        DerivativeSelector.printChoices(derivatives);
 
         System.out.print("Оберіть № деривативу для збереження: ");
-        int idx;
-        try { idx = Integer.parseInt(in.nextLine().trim()); } catch (Exception e) { idx = -1; }
-        if (idx < 1 || idx > derivatives.size()) {
+        Derivative chosen = DerivativeSelector.resolve(in.nextLine(), derivatives);
+        if (chosen == null) {
             System.out.println("Невірний вибір.");
             return;
         }
-        Derivative chosen = derivatives.get(idx - 1);
 
-        System.out.print("Формат (bin/txt): ");
+        System.out.print("Формат (bin/txt/csv/jsonl): ");
         String fmt = in.nextLine().trim().toLowerCase(Locale.ROOT);
-        if (!fmt.equals("bin") && !fmt.equals("txt")) {
-            System.out.println("Невідомий формат. Використайте 'bin' або 'txt'.");
+        if (!fmt.equals("bin") && !fmt.equals("txt") && !fmt.equals("csv") && !fmt.equals("jsonl")) {
+            System.out.println("Невідомий формат. Використайте 'bin', 'txt', 'csv' або 'jsonl'.");
             return;
         }
 
@@ -44,16 +57,42 @@ public class SaveToFileCommand implements Command {
             return;
         }
 
-        if (fmt.equals("bin")) {
-            fileManager.saveDerivative(chosen, path);
-        } else {
-            fileManager.exportToText(chosen, path);
+        if (fmt.equals("bin") && saver != null) {
+            saver.save(chosen, path).whenComplete((ignored, error) -> notices.add(error == null
+                    ? "Фонове збереження завершено: " + path
+                    : "Не вдалося зберегти файл у фоні: " + path + " (" + reason(error) + ")"));
+            System.out.println("Збереження у фоні: " + path);
+            return;
+        }
+
+        switch (fmt) {
+            case "bin" -> fileManager.saveDerivative(chosen, path);
+            case "csv" -> fileManager.exportToCsv(chosen, path);
+            case "jsonl" -> fileManager.exportToJsonLines(chosen, path);
+            default -> fileManager.exportToText(chosen, path);
         }
         System.out.println("Збережено у файл: " + path);
     }
 
+    /** Надрукувати результати фонових збережень, що завершилися з попереднього виклику. */
+    public void printNotices() {
+        String notice;
+        while ((notice = notices.poll()) != null) {
+            System.out.println(notice);
+        }
+    }
+
+    /** Найглибша причина помилки — саме вона пояснює, чому файл не записано. */
+    private static String reason(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
     @Override
     public String getDescription() {
-        return "Зберегти вибраний дериватив (бінарно або текстом)";
+        return "Зберегти вибраний дериватив (бінарно, текстом, CSV або JSON Lines)";
     }
 }
@@ -0,0 +1,39 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.FileManager;
+
+import java.util.List;
+import java.util.Scanner;
+
+/** Зберегти всі деривативи меню в один файл-знімок. */
+public class SaveWorkspaceCommand implements Command {
+    private final FileManager fileManager = new FileManager();
+
+    @Override
+    public void execute(Scanner in, List<Derivative> derivatives) {
+        if (derivatives == null || derivatives.isEmpty()) {
+            System.out.println("Немає деривативів для збереження.");
+            return;
+        }
+
+        System.out.print("Шлях до файлу знімка (напр., data/book.snap): ");
+        String path = in.hasNextLine() ? in.nextLine().trim() : "";
+        if (path.isEmpty()) {
+            System.out.println("Скасовано.");
+            return;
+        }
+
+        try {
+            fileManager.saveWorkspace(derivatives, path);
+            System.out.println("Збережено деривативів: " + derivatives.size() + " у файл: " + path);
+        } catch (RuntimeException e) {
+            System.out.println("Помилка при збереженні знімка: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Зберегти всі деривативи в один файл-знімок";
+    }
+}
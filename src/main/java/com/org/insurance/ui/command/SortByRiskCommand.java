@@ -2,20 +2,29 @@ package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
-import com.org.insurance.domain.RiskComparator;
+import com.org.insurance.domain.RiskRanking;
+import com.org.insurance.io.Journal;
 import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.ui.DerivativeSelector;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
 
 public class SortByRiskCommand implements Command {
+    /** Якщо задано, зміна спершу записується в журнал. */
+    private final Journal journal;
 
-    private final RiskComparator comparator = new RiskComparator();
+    public SortByRiskCommand() {
+        this(null);
+    }
+
+    public SortByRiskCommand(Journal journal) {
+        this.journal = journal;
+    }
 
     @Override
     public String getDescription() {
-        return "Сортувати облігації у деривативі за зменшенням ризику (RiskComparator як поле)";
+        return "Сортувати облігації у деривативі за зменшенням ризику";
     }
 
     @Override
@@ -29,7 +38,11 @@ public class SortByRiskCommand implements Command {
             return;
         }
 
-        Collections.sort(obs, comparator.reversed());
+        int[] order = RiskRanking.riskOrder(d, true);
+        if (journal != null) {
+            journal.logReorder(d, derivatives.indexOf(d), order);
+        }
+        RiskRanking.permute(d, order);
 
         System.out.println("Відсортовано (risk ↓):");
         ConsolePrinter.printObligationsOf(d);
@@ -41,13 +54,8 @@ public class SortByRiskCommand implements Command {
             return null;
         }
         System.out.println("Оберіть деривативу:");
-        ConsolePrinter.printDerivatives(list);
+        DerivativeSelector.printChoices(list);
         System.out.print("> №: ");
-        try {
-            int idx = Integer.parseInt(in.nextLine().trim());
-            return (idx >= 1 && idx <= list.size()) ? list.get(idx - 1) : null;
-        } catch (Exception e) {
-            return null;
-        }
+        return DerivativeSelector.resolve(in.nextLine(), list);
     }
 }
@@ -0,0 +1,68 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.RiskRanking;
+import com.org.insurance.ui.ConsolePrinter;
+import com.org.insurance.ui.DerivativeSelector;
+
+import java.util.List;
+import java.util.Scanner;
+
+public class TopRiskCommand implements Command {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    @Override
+    public String getDescription() {
+        return "Показати N найризиковіших (або найменш ризикових) облігацій деривативу без сортування";
+    }
+
+    @Override
+    public void execute(Scanner in, List<Derivative> derivatives) {
+        Derivative d = pickDerivative(in, derivatives);
+        if (d == null) return;
+
+        List<Obligation> obs = d.getObligations();
+        if (obs == null || obs.isEmpty()) {
+            System.out.println("Порожньо.");
+            return;
+        }
+
+        System.out.println("1) Найризиковіші");
+        System.out.println("2) Найменш ризикові");
+        System.out.print("> ");
+        boolean top = !"2".equals(in.nextLine().trim());
+
+        System.out.print("Скільки показати (за замовчуванням " + DEFAULT_LIMIT + "): ");
+        int limit = parseLimit(in.nextLine().trim());
+        if (limit <= 0) {
+            System.out.println("Кількість має бути додатною.");
+            return;
+        }
+
+        List<Obligation> result = top ? RiskRanking.top(d, limit) : RiskRanking.bottom(d, limit);
+        System.out.println(top ? "Топ за ризиком (risk ↓):" : "Найменший ризик (risk ↑):");
+        ConsolePrinter.printObligations(result);
+    }
+
+    private static int parseLimit(String s) {
+        if (s.isEmpty()) return DEFAULT_LIMIT;
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Derivative pickDerivative(Scanner in, List<Derivative> list) {
+        if (list == null || list.isEmpty()) {
+            System.out.println("Немає деривативів.");
+            return null;
+        }
+        System.out.println("Оберіть деривативу:");
+        DerivativeSelector.printChoices(list);
+        System.out.print("> №: ");
+        return DerivativeSelector.resolve(in.nextLine(), list);
+    }
+}
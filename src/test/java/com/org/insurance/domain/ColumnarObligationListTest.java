@@ -0,0 +1,152 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarObligationListTest {
+
+    private static PropertyObligation property(String name, double insuredAmount, double probability) {
+        return new PropertyObligation(name, insuredAmount, 1.0, 12, 0.05, probability, 0.0,
+                "Kyiv", "flat");
+    }
+
+    @Test
+    @DisplayName("Зміни через List записуються в колонки")
+    void testListMutationsGoToColumns() {
+        ColumnarObligationList list = new ColumnarObligationList();
+        list.add(property("A", 100.0, 0.1));
+        list.add(property("B", 200.0, 0.2));
+        list.add(0, property("C", 300.0, 0.3));
+
+        assertEquals(3, list.size());
+        assertEquals("C", list.get(0).getName());
+        assertEquals(300.0, list.columns().insuredAmounts()[0]);
+
+        Obligation removed = list.remove(1);
+        assertEquals("A", removed.getName());
+        assertEquals(200.0, list.columns().insuredAmounts()[1]);
+
+        list.set(0, property("D", 400.0, 0.4));
+        assertEquals(400.0, list.columns().insuredAmounts()[0]);
+    }
+
+    @Test
+    @DisplayName("Дериватива в колонковому режимі рахується так само, як зі звичайним списком")
+    void testDerivativeInColumnarModeGivesSameValuation() {
+        List<Obligation> obligations = new ArrayList<>();
+        obligations.add(property("A", 1000.0, 0.1));
+        obligations.add(null);
+        obligations.add(new AutoObligation("B", 2000.0, 1.5, 18, 0.07, 0.05, 120.0, "SUV", "B", 1.1));
+
+        Derivative plain = new Derivative("Plain");
+        plain.setObligations(obligations);
+        Derivative columnar = new Derivative("Columnar");
+        columnar.setObligations(new ArrayList<>(obligations));
+        columnar.useColumnarStorage();
+
+        InsuranceCalculator calculator = new InsuranceCalculator();
+
+        assertNull(plain.getColumns());
+        assertNotNull(columnar.getColumns());
+        assertEquals(calculator.calculatePortfolioValue(plain), calculator.calculatePortfolioValue(columnar));
+        assertEquals(calculator.calculateTotalRisk(plain), calculator.calculateTotalRisk(columnar));
+        assertEquals(obligations.get(0).getId(), columnar.getObligations().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Сортування списку працює поверх колонок")
+    void testSortInPlace() {
+        ColumnarObligationList list = new ColumnarObligationList();
+        list.add(property("Low", 100.0, 0.1));
+        list.add(property("High", 1000.0, 0.5));
+
+        list.sort(new RiskComparator().reversed());
+
+        assertEquals("High", list.get(0).getName());
+        assertEquals(1000.0, list.columns().insuredAmounts()[0]);
+    }
+
+    @Test
+    @DisplayName("Сеттери рядка з get() записують його в колонки й оновлюють агрегати деривативи")
+    void testSettersWriteThrough() {
+        Derivative d = new Derivative("Columnar");
+        d.setObligations(new ArrayList<>(List.of(property("A", 100.0, 0.1), property("B", 200.0, 0.2))));
+        d.useColumnarStorage();
+        InsuranceCalculator calculator = new InsuranceCalculator();
+
+        PropertyObligation row = (PropertyObligation) d.getObligations().get(1);
+        row.setInsuredAmount(2000.0);
+        row.setPropertyType("house");
+        assertEquals(2000.0, d.getColumns().insuredAmounts()[1]);
+        assertEquals("house", ((PropertyObligation) d.getObligations().get(1)).getPropertyType());
+        assertEquals(calculator.calculatePortfolioValue(d), d.getAggregates().getTotalPremium(), 1e-9);
+        assertTrue(d.pendingChanges("file").isFull());
+
+        // Об'єкт, переданий в add, теж пов'язаний зі своїм рядком
+        PropertyObligation added = property("C", 300.0, 0.3);
+        d.getObligations().add(added);
+        added.setName("C2");
+        assertEquals("C2", d.getColumns().name(2));
+        assertEquals(3, d.getAggregates().getCount());
+    }
+
+    @Test
+    @DisplayName("Рядок має одне представлення, що рухається з рядком; видалений чи замінений рядок від'єднано")
+    void testSingleViewPerRow() {
+        ColumnarObligationList list = new ColumnarObligationList();
+        list.add(property("A", 100.0, 0.1));
+        list.add(property("B", 200.0, 0.2));
+
+        Obligation first = list.get(0);
+        Obligation second = list.get(0);
+        assertSame(first, second);
+        first.setName("A1");
+        second.setFactor(2.0);
+        assertEquals("A1", list.columns().name(0));
+        assertEquals(2.0, list.columns().factors()[0]);
+
+        list.add(0, property("C", 300.0, 0.3));
+        assertSame(first, list.get(1));
+        first.setInsuredAmount(150.0);
+        assertEquals(150.0, list.columns().insuredAmounts()[1]);
+        assertEquals(300.0, list.columns().insuredAmounts()[0]);
+
+        Obligation removed = list.get(2);
+        list.remove(2);
+        removed.setInsuredAmount(999.0);
+        assertEquals(2, list.size());
+        assertEquals(150.0, list.columns().insuredAmounts()[1]);
+
+        list.set(1, property("D", 400.0, 0.4));
+        first.setName("A2");
+        assertEquals("D", list.columns().name(1));
+        assertNotSame(first, list.get(1));
+    }
+
+    @Test
+    @DisplayName("indexOf, contains і remove(Object) знаходять рядок за id")
+    void testLookupById() {
+        Derivative d = new Derivative("Columnar");
+        PropertyObligation a = property("A", 100.0, 0.1);
+        PropertyObligation b = property("B", 200.0, 0.2);
+        d.setObligations(new ArrayList<>(List.of(a, b)));
+        d.useColumnarStorage();
+        d.getObligations().add(null);
+
+        assertEquals(1, d.getObligations().indexOf(b));
+        assertEquals(1, d.getObligations().indexOf(d.getObligations().get(1)));
+        assertEquals(2, d.getObligations().indexOf(null));
+        assertTrue(d.getObligations().contains(a));
+        assertFalse(d.getObligations().contains(property("X", 1.0, 0.1)));
+
+        assertTrue(d.getObligations().remove(a));
+        assertEquals(2, d.getObligations().size());
+        assertEquals(1, d.getAggregates().getCount());
+        assertEquals(200.0, d.getColumns().insuredAmounts()[0]);
+    }
+}
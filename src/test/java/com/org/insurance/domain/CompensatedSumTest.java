@@ -0,0 +1,35 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompensatedSumTest {
+
+    @Test
+    @DisplayName("add: не втрачає малі доданки поруч із великими")
+    void testAddKeepsSmallTerms() {
+        CompensatedSum sum = new CompensatedSum();
+        sum.add(1.0);
+        sum.add(1e100);
+        sum.add(1.0);
+        sum.add(-1e100);
+
+        assertEquals(2.0, sum.value());
+    }
+
+    @Test
+    @DisplayName("subtract та reset")
+    void testSubtractAndReset() {
+        CompensatedSum sum = new CompensatedSum();
+        for (int i = 0; i < 10; i++) {
+            sum.add(0.1);
+        }
+        sum.subtract(0.5);
+        assertEquals(0.5, sum.value(), 1e-15);
+
+        sum.reset();
+        assertEquals(0.0, sum.value());
+    }
+}
@@ -0,0 +1,162 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DerivativeRegistryTest {
+
+    @Test
+    @DisplayName("Реєстр працює як список і знаходить деривативи за UUID")
+    void testListAndFindById() {
+        DerivativeRegistry registry = new DerivativeRegistry();
+        Derivative a = new Derivative("Alpha");
+        Derivative b = new Derivative("Beta");
+        registry.add(a);
+        registry.add(b);
+
+        assertEquals(List.of(a, b), registry);
+        assertSame(b, registry.findById(b.getId()));
+        assertNull(registry.findById(UUID.randomUUID()));
+
+        registry.remove(0);
+        assertNull(registry.findById(a.getId()));
+        assertSame(b, registry.get(0));
+        assertThrows(IllegalArgumentException.class, () -> registry.add(null));
+    }
+
+    @Test
+    @DisplayName("Дескриптори стабільні: не змінюються при видаленні інших і не використовуються повторно")
+    void testStableHandles() {
+        DerivativeRegistry registry = new DerivativeRegistry();
+        Derivative a = new Derivative("A");
+        Derivative b = new Derivative("B");
+        Derivative c = new Derivative("C");
+        registry.addAll(List.of(a, b, c));
+
+        int hc = registry.handleOf(c);
+        registry.remove(a);
+        assertEquals(hc, registry.handleOf(c));
+        assertSame(c, registry.byHandle(hc));
+        assertEquals(-1, registry.handleOf(a));
+
+        Derivative d = new Derivative("D");
+        registry.add(d);
+        assertNotEquals(registry.handleOf(a), registry.handleOf(d));
+        assertEquals(3, registry.handleOf(d));
+
+        registry.clear();
+        assertTrue(registry.isEmpty());
+        assertNull(registry.byHandle(hc));
+    }
+
+    @Test
+    @DisplayName("Пошук за початком назви без урахування регістру, з урахуванням перейменувань")
+    void testFindByNamePrefix() {
+        DerivativeRegistry registry = new DerivativeRegistry();
+        Derivative kyiv = new Derivative("Kyiv Auto");
+        Derivative kharkiv = new Derivative("Kharkiv Life");
+        Derivative lviv = new Derivative("lviv");
+        registry.addAll(List.of(kyiv, kharkiv, lviv, new Derivative()));
+
+        assertEquals(List.of(kharkiv, kyiv), registry.findByNamePrefix("k"));
+        assertEquals(List.of(kyiv), registry.findByNamePrefix("KY"));
+        assertEquals(List.of(lviv), registry.findByNamePrefix("Lv"));
+        assertTrue(registry.findByNamePrefix("odesa").isEmpty());
+
+        lviv.setName("Odesa");
+        assertEquals(List.of(lviv), registry.findByNamePrefix("odesa"));
+    }
+
+    @Test
+    @DisplayName("Знімок застаріває лише від перейменування деривативів цього реєстру")
+    void testRenameOfOwnMembersOnly() {
+        DerivativeRegistry registry = new DerivativeRegistry();
+        Derivative kept = new Derivative("Kept");
+        Derivative removed = new Derivative("Removed");
+        registry.addAll(List.of(kept, removed));
+        registry.remove(removed);
+
+        DerivativeRegistry.Snapshot snapshot = registry.snapshot();
+        removed.setName("Renamed elsewhere");
+        new Derivative("Outsider").setName("Other");
+        assertSame(snapshot, registry.snapshot());
+
+        kept.setName("Renamed");
+        assertNotSame(snapshot, registry.snapshot());
+        assertEquals(List.of(kept), registry.findByNamePrefix("ren"));
+    }
+
+    @Test
+    @DisplayName("Дублікати UUID (повторне завантаження файлу) не ламають індекс")
+    void testDuplicateIds() throws Exception {
+        Derivative original = new Derivative("Same");
+        Derivative copy = roundTrip(original);
+        DerivativeRegistry registry = new DerivativeRegistry();
+        registry.add(original);
+        registry.add(copy);
+
+        assertSame(original, registry.findById(original.getId()));
+        registry.remove(original);
+        assertSame(copy, registry.findById(original.getId()));
+    }
+
+    @Test
+    @DisplayName("Знімок незмінний і безпечний для читання з інших потоків")
+    void testSnapshot() throws Exception {
+        DerivativeRegistry registry = new DerivativeRegistry();
+        for (int i = 0; i < 1000; i++) {
+            registry.add(new Derivative("D" + i));
+        }
+        DerivativeRegistry.Snapshot snapshot = registry.snapshot();
+        assertSame(snapshot, registry.snapshot());
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = readers.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        DerivativeRegistry.Snapshot s = registry.snapshot();
+                        Derivative first = s.derivatives().get(0);
+                        assertSame(first, s.findById(first.getId()));
+                    }
+                });
+            }
+            for (int i = 0; i < 200; i++) {
+                registry.add(new Derivative("W" + i));
+            }
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        assertEquals(1000, snapshot.derivatives().size());
+        assertEquals(1200, registry.snapshot().derivatives().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.derivatives().add(new Derivative()));
+    }
+
+    private static Derivative roundTrip(Derivative d) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(d);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            return (Derivative) ois.readObject();
+        }
+    }
+}
@@ -4,8 +4,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,4 +78,196 @@ class DerivativeTest {
         assertNotEquals(d1.getId(), d2.getId(), "ID різних об'єктів мають відрізнятися");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("indexOf знаходить позицію за UUID і враховує зміни списку")
+    void testIndexOf() {
+        Derivative derivative = new Derivative("D");
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new TestObligationStub("O" + i, i));
+        }
+        list.add(null);
+        derivative.setObligations(list);
+
+        Obligation o42 = list.get(42);
+        assertEquals(42, derivative.indexOf(o42.getId()));
+        assertEquals(-1, derivative.indexOf(UUID.randomUUID()));
+        assertEquals(-1, derivative.indexOf(null));
+
+        derivative.getObligations().remove(0);
+        assertEquals(41, derivative.indexOf(o42.getId()));
+
+        derivative.useColumnarStorage();
+        assertEquals(41, derivative.indexOf(o42.getId()));
+    }
+
+    @Test
+    @DisplayName("removeRows видаляє позначені позиції одним проходом і оновлює агрегати")
+    void testRemoveRows() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Derivative derivative = new Derivative("D");
+            List<Obligation> list = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                list.add(new TestObligationStub("O" + i, i));
+            }
+            derivative.setObligations(list);
+            if (columnar) derivative.useColumnarStorage();
+            UUID o7 = derivative.getObligations().get(7).getId();
+
+            BitSet rows = new BitSet();
+            rows.set(0);
+            rows.set(3, 6);
+            rows.set(50);
+            List<Obligation> removed = derivative.removeRows(rows);
+
+            assertEquals(List.of("O0", "O3", "O4", "O5"), removed.stream().map(Obligation::getName).toList());
+            assertEquals(List.of("O1", "O2", "O6", "O7", "O8", "O9"),
+                    derivative.getObligations().stream().map(Obligation::getName).toList());
+            assertEquals(6, derivative.getAggregates().getCount());
+            assertEquals(3, derivative.indexOf(o7));
+        }
+    }
+
+    @Test
+    @DisplayName("snapshot копіює зобов'язання: зміни оригіналу не впливають на знімок")
+    void testSnapshotIsIndependent() {
+        Derivative derivative = new Derivative("Оригінал");
+        AutoObligation auto = new AutoObligation("Авто", 1000, 1.1, 12, 0.05, 0.1, 0, "car", "B", 0.9);
+        TestObligationStub stub = new TestObligationStub("Заглушка", 500);
+        List<Obligation> list = new ArrayList<>();
+        list.add(auto);
+        list.add(null);
+        list.add(stub);
+        derivative.setObligations(list);
+
+        Derivative snapshot = derivative.snapshot();
+        auto.setInsuredAmount(1);
+        auto.setVehicleType("truck");
+        stub.setName("Змінено");
+        derivative.getObligations().remove(1);
+        derivative.setName("Змінено");
+
+        assertEquals(derivative.getId(), snapshot.getId());
+        assertEquals("Оригінал", snapshot.getName());
+        assertNotNull(snapshot.getColumns(), "знімок звичайного списку колонковий");
+        assertEquals(3, snapshot.getObligations().size());
+        AutoObligation autoCopy = (AutoObligation) snapshot.getObligations().get(0);
+        assertEquals(auto.getId(), autoCopy.getId());
+        assertEquals(1000, autoCopy.getInsuredAmount());
+        assertEquals("car", autoCopy.getVehicleType());
+        assertNull(snapshot.getObligations().get(1));
+        assertEquals("Заглушка", snapshot.getObligations().get(2).getName());
+        assertEquals(2, snapshot.getAggregates().getCount());
+    }
+
+    @Test
+    @DisplayName("pendingChanges: сеттери та додавання в кінець позначають зобов'язання, видалення — окремо")
+    void testPendingChangesTracksDirtyAndRemoved() {
+        Derivative derivative = new Derivative("Дельти");
+        AutoObligation auto = new AutoObligation("Авто", 1000, 1.1, 12, 0.05, 0.1, 0, "car", "B", 0.9);
+        TestObligationStub kept = new TestObligationStub("Без змін", 500);
+        TestObligationStub gone = new TestObligationStub("Видалене", 700);
+        derivative.setObligations(new ArrayList<>(List.of(auto, kept, gone)));
+        Object file = "base.bin";
+
+        assertTrue(derivative.pendingChanges(file).isFull(), "Ще не збережена дериватива — повний знімок");
+        derivative.markSaved(derivative.pendingChanges(file), file);
+        assertTrue(derivative.pendingChanges(file).isEmpty());
+
+        auto.setVehicleType("truck");
+        derivative.getObligations().remove(gone);
+        TestObligationStub added = new TestObligationStub("Нове", 100);
+        derivative.getObligations().add(added);
+
+        ChangeSet changes = derivative.pendingChanges(file);
+        assertFalse(changes.isFull());
+        assertEquals(Set.of(auto.getId(), added.getId()), changes.getDirty());
+        assertEquals(Set.of(gone.getId()), changes.getRemoved());
+        assertTrue(derivative.pendingChanges("other.bin").isFull(), "Інший файл — повний знімок");
+
+        kept.setName("Змінено після знімка");
+        auto.setVehicleType("bus");
+        derivative.markSaved(changes, file);
+        assertEquals(Set.of(kept.getId(), auto.getId()), derivative.pendingChanges(file).getDirty(),
+                "Повторна зміна після знімка лишається незбереженою");
+    }
+
+    @Test
+    @DisplayName("pendingChanges: вставка всередину, заміна списку й сортування вимагають повного знімка")
+    void testPendingChangesFullOnReorder() {
+        Derivative derivative = new Derivative("Дельти");
+        derivative.setObligations(new ArrayList<>(List.of(
+                new TestObligationStub("A", 1), new TestObligationStub("B", 2))));
+        Object file = "base.bin";
+        derivative.markSaved(derivative.pendingChanges(file), file);
+
+        derivative.getObligations().add(0, new TestObligationStub("C", 3));
+        assertTrue(derivative.pendingChanges(file).isFull());
+        derivative.markSaved(derivative.pendingChanges(file), file);
+
+        RiskRanking.sortByRisk(derivative, true);
+        assertTrue(derivative.pendingChanges(file).isFull());
+        derivative.markSaved(derivative.pendingChanges(file), file);
+
+        ChangeSet partial = derivative.pendingChanges(file);
+        assertThrows(IllegalArgumentException.class, () -> derivative.markSaved(partial, "third.bin"),
+                "Дельту не можна позначити записаною в інший файл");
+
+        derivative.getObligations().add(null);
+        assertTrue(derivative.pendingChanges(file).isFull());
+    }
+
+    @Test
+    @DisplayName("Лінива дериватива завантажує зобов'язання один раз, під час першого звернення")
+    void testLazyLoad() {
+        UUID id = UUID.randomUUID();
+        int[] loads = {0};
+        Derivative lazy = Derivative.lazy(id, "Лінива", null, () -> {
+            loads[0]++;
+            return new ArrayList<>(List.of(new TestObligationStub("A", 100), new TestObligationStub("B", 200)));
+        });
+        assertEquals(id, lazy.getId());
+        assertEquals("Лінива", lazy.getName());
+        assertFalse(lazy.isLoaded());
+        assertNotNull(lazy.getPendingSource());
+        assertEquals(0, loads[0]);
+
+        assertEquals(1, lazy.indexOf(lazy.getObligations().get(1).getId()));
+        assertEquals(2, lazy.getAggregates().getCount());
+        assertTrue(lazy.isLoaded());
+        assertNull(lazy.getPendingSource());
+        assertEquals(1, loads[0]);
+
+        // Зміни після завантаження відстежуються як у звичайної деривативи
+        lazy.getObligations().add(new TestObligationStub("C", 300));
+        assertEquals(3, lazy.getAggregates().getCount());
+
+        assertThrows(IllegalArgumentException.class, () -> Derivative.lazy(id, "x", null, null));
+    }
+
+    @Test
+    @DisplayName("Лінива дериватива: помилка джерела не завантажує її, setObligations замінює без читання")
+    void testLazyFailureAndReplace() {
+        boolean[] fail = {true};
+        Derivative lazy = Derivative.lazy(UUID.randomUUID(), "Лінива", null, () -> {
+            if (fail[0]) {
+                throw new IllegalStateException("диск недоступний");
+            }
+            return null;
+        });
+        assertThrows(IllegalStateException.class, lazy::getObligations);
+        assertFalse(lazy.isLoaded());
+        fail[0] = false;
+        assertNull(lazy.getObligations());
+        assertTrue(lazy.isLoaded());
+
+        Derivative replaced = Derivative.lazy(UUID.randomUUID(), "Інша", null, () -> {
+            throw new AssertionError("джерело не мало читатися");
+        });
+        replaced.setObligations(new ArrayList<>(List.of(new TestObligationStub("A", 100))));
+        assertTrue(replaced.isLoaded());
+        assertEquals(1, replaced.getObligations().size());
+        assertEquals(1, replaced.getAggregates().getCount());
+    }
+}
@@ -0,0 +1,67 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeterministicSumTest {
+
+    @Test
+    @DisplayName("blockCount: кількість блоків округлюється вгору")
+    void testBlockCount() {
+        assertEquals(0, DeterministicSum.blockCount(0));
+        assertEquals(1, DeterministicSum.blockCount(1));
+        assertEquals(1, DeterministicSum.blockCount(DeterministicSum.BLOCK));
+        assertEquals(2, DeterministicSum.blockCount(DeterministicSum.BLOCK + 1));
+    }
+
+    @Test
+    @DisplayName("sum: компенсована сума точніша за наївну на поганих даних")
+    void testSumIsAccurate() {
+        // У кожному блоці: 1e16, потім одиниці, в кінці -1e16 — наївна сума втрачає всі одиниці
+        int block = DeterministicSum.BLOCK;
+        double[] values = new double[3 * block];
+        for (int b = 0; b < 3; b++) {
+            Arrays.fill(values, b * block + 1, (b + 1) * block - 1, 1.0);
+            values[b * block] = 1e16;
+            values[(b + 1) * block - 1] = -1e16;
+        }
+
+        double naive = 0.0;
+        for (double v : values) {
+            naive += v;
+        }
+
+        assertEquals(3.0 * (block - 2), DeterministicSum.sum(values, 0, values.length));
+        assertNotEquals(3.0 * (block - 2), naive);
+    }
+
+    @Test
+    @DisplayName("pairwise: складання блоків у фіксованому дереві")
+    void testPairwise() {
+        double[] partials = {1.0, 2.0, 3.0, 4.0, 5.0};
+        assertEquals(15.0, DeterministicSum.pairwise(partials, 0, partials.length));
+        assertEquals(0.0, DeterministicSum.pairwise(partials, 2, 2));
+        assertEquals(3.0, DeterministicSum.pairwise(partials, 2, 3));
+    }
+
+    @Test
+    @DisplayName("sum: результат відтворюється і збігається для підмасиву")
+    void testSumIsReproducible() {
+        Random rnd = new Random(42);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rnd.nextDouble() * 1e6;
+        }
+        double[] shifted = new double[values.length + 5];
+        System.arraycopy(values, 0, shifted, 5, values.length);
+
+        double a = DeterministicSum.sum(values, 0, values.length);
+        assertEquals(Double.doubleToRawLongBits(a), Double.doubleToRawLongBits(DeterministicSum.sum(values, 0, values.length)));
+        assertEquals(Double.doubleToRawLongBits(a), Double.doubleToRawLongBits(DeterministicSum.sum(shifted, 5, shifted.length)));
+    }
+}
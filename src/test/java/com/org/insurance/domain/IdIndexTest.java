@@ -0,0 +1,122 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdIndexTest {
+
+    private static IdIndex build(UUID... ids) {
+        long[] highs = new long[ids.length];
+        long[] lows = new long[ids.length];
+        boolean[] present = new boolean[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == null) continue;
+            highs[i] = ids[i].getMostSignificantBits();
+            lows[i] = ids[i].getLeastSignificantBits();
+            present[i] = true;
+        }
+        return IdIndex.build(highs, lows, present, ids.length);
+    }
+
+    private static int find(IdIndex index, UUID id) {
+        return index.find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    private static UUID[] ids(int n) {
+        UUID[] ids = new UUID[n];
+        for (int i = 0; i < n; i++) ids[i] = UUID.randomUUID();
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Видалення і заміна рядка оновлюють індекс на місці, номери наступних рядків зсуваються")
+    void testRemoveAndReplace() {
+        UUID[] ids = ids(100);
+        ids[50] = null;
+        IdIndex index = build(ids);
+
+        assertTrue(index.removeRow(ids[10], 10));
+        assertEquals(-1, find(index, ids[10]));
+        assertEquals(9, find(index, ids[9]));
+        assertEquals(10, find(index, ids[11]));
+        assertTrue(index.removeRow(null, 49));
+        assertEquals(49, find(index, ids[51]));
+
+        UUID fresh = UUID.randomUUID();
+        assertTrue(index.replace(0, ids[0], fresh));
+        assertEquals(-1, find(index, ids[0]));
+        assertEquals(0, find(index, fresh));
+
+        // Видалені комірки не заважають дописувати рядки
+        for (int row = 98; row < 1000; row++) {
+            UUID id = UUID.randomUUID();
+            index.add(id.getMostSignificantBits(), id.getLeastSignificantBits(), row);
+            assertEquals(row, find(index, id));
+        }
+        assertEquals(97, find(index, ids[99]));
+    }
+
+    @Test
+    @DisplayName("Пакетне видалення перенумеровує рядки одним проходом")
+    void testRenumber() {
+        UUID[] ids = ids(6);
+        IdIndex index = build(ids);
+
+        // Прибрати рядки 1 і 4
+        assertTrue(index.renumber(new int[]{0, -1, 1, 2, -1, 3}));
+        assertEquals(0, find(index, ids[0]));
+        assertEquals(-1, find(index, ids[1]));
+        assertEquals(2, find(index, ids[3]));
+        assertEquals(-1, find(index, ids[4]));
+        assertEquals(3, find(index, ids[5]));
+    }
+
+    @Test
+    @DisplayName("Дублікати: зберігається перший рядок; видалення першого входження вимагає перебудови")
+    void testDuplicates() {
+        UUID same = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        IdIndex index = build(other, same, same);
+        assertTrue(index.hasDuplicates());
+        assertEquals(1, find(index, same));
+
+        assertTrue(index.removeRow(same, 2));
+        assertEquals(1, find(index, same));
+        assertTrue(index.replace(0, other, same));
+        assertEquals(0, find(index, same));
+        assertFalse(build(other, same, same).removeRow(same, 1));
+        assertFalse(build(other, same, same).renumber(new int[]{0, -1, 1}));
+        assertTrue(build(other, same, same).renumber(new int[]{-1, 0, 1}));
+    }
+
+    @Test
+    @DisplayName("Дериватива не перебудовує індекс UUID після видалень")
+    void testDerivativeKeepsIndex() {
+        Derivative d = new Derivative("D");
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add(new PropertyObligation("P" + i, 100.0 + i, 1.0, 12, 0.05, 0.1, 0.0, "Kyiv", "flat"));
+        }
+        d.setObligations(list);
+        Obligation last = list.get(9);
+        assertEquals(9, d.indexOf(last.getId()));
+        IdIndex index = d.indexes().ids(d);
+
+        d.getObligations().remove(0);
+        BitSet rows = new BitSet();
+        rows.set(2);
+        rows.set(4);
+        d.removeRows(rows);
+        d.getObligations().set(0, new PropertyObligation("Q", 1.0, 1.0, 12, 0.05, 0.1, 0.0, "Kyiv", "flat"));
+
+        assertSame(index, d.indexes().ids(d));
+        assertEquals(6, d.indexOf(last.getId()));
+    }
+}
@@ -165,4 +165,22 @@ class InsuranceCalculatorTest {
         d.setObligations(new ArrayList<>()); // Empty
         assertEquals(0.0, calculator.calculateTotalRisk(d));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("DETERMINISTIC: ті самі суми, що й послідовний режим, на простих даних")
+    void testDeterministicMode() {
+        InsuranceCalculator deterministic = new InsuranceCalculator(SummationMode.DETERMINISTIC);
+        assertEquals(SummationMode.DETERMINISTIC, deterministic.getSummationMode());
+
+        Derivative derivative = new Derivative();
+        List<Obligation> list = new ArrayList<>();
+        list.add(new TestObligation(1000.0, 1.0, 12, 0.05, 0.1, 2000.0));
+        list.add(null);
+        list.add(new TestObligation(2000.0, 1.0, 0, 0.0, 0.1, 5000.0));
+        derivative.setObligations(list);
+
+        assertEquals(305.0, deterministic.calculatePortfolioValue(derivative), 0.0001);
+        assertEquals(300.0, deterministic.calculateTotalRisk(derivative), 0.0001);
+        assertEquals(0.0, deterministic.calculatePortfolioValue(new Derivative()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private static final String[] NAMES = {
+            "Kyiv Flat", null, "Lviv House", "KYIV office", "ab", "Odesa flat", "Київ Квартира"
+    };
+
+    @Test
+    @DisplayName("Кандидати — рядки, що містять усі триграми підрядка, у порядку зростання")
+    void testCandidates() {
+        NameIndex index = NameIndex.build(NAMES);
+
+        assertArrayEquals(new int[]{0, 3}, index.candidates("kyiv"));
+        assertArrayEquals(new int[]{0, 5}, index.candidates("flat"));
+        assertArrayEquals(new int[]{6}, index.candidates("київ"));
+        assertArrayEquals(new int[0], index.candidates("zzz"));
+    }
+
+    @Test
+    @DisplayName("Короткий підрядок не звужується індексом; назви зберігаються в нижньому регістрі")
+    void testShortPartAndLowerNames() {
+        NameIndex index = NameIndex.build(NAMES);
+
+        assertNull(index.candidates("ab"));
+        assertEquals("kyiv office", index.lowerName(3));
+        assertNull(index.lowerName(1));
+    }
+
+    @Test
+    @DisplayName("Повторювані триграми в одній назві дають один запис у списку")
+    void testRepeatedTrigrams() {
+        NameIndex index = NameIndex.build(new String[]{"aaaaaa", "xaaay", "aab"});
+
+        assertArrayEquals(new int[]{0, 1}, index.candidates("aaa"));
+        assertArrayEquals(new int[]{2}, index.candidates("aab"));
+        // Надмножина: "xaaay" містить "aaa", хоча "aaaa" в ньому немає — це відсіює перевірка
+        assertArrayEquals(new int[]{0, 1}, index.candidates("aaaa"));
+    }
+
+    @Test
+    @DisplayName("Додавання, перейменування і видалення рядків оновлюють списки триграм на місці")
+    void testIncrementalUpdates() {
+        NameIndex index = NameIndex.build(NAMES);
+
+        index.append("Lviv Flat");
+        assertArrayEquals(new int[]{0, 5, 7}, index.candidates("flat"));
+        assertArrayEquals(new int[]{2, 7}, index.candidates("lviv"));
+
+        index.rename(0, "Kharkiv Loft");
+        assertArrayEquals(new int[]{5, 7}, index.candidates("flat"));
+        assertArrayEquals(new int[]{3}, index.candidates("kyiv"));
+        assertArrayEquals(new int[]{0}, index.candidates("loft"));
+        assertEquals("kharkiv loft", index.lowerName(0));
+
+        index.remove(2);
+        assertArrayEquals(new int[]{6}, index.candidates("lviv"));
+        assertArrayEquals(new int[]{4, 6}, index.candidates("flat"));
+        assertEquals("kyiv office", index.lowerName(2));
+
+        // Рядки 0..6: прибрати 2 ("kyiv office") і 6 ("lviv flat")
+        index.renumber(new int[]{0, 1, -1, 2, 3, 4, -1});
+        assertArrayEquals(new int[0], index.candidates("kyiv"));
+        assertArrayEquals(new int[]{3}, index.candidates("flat"));
+        assertEquals("київ квартира", index.lowerName(4));
+    }
+}
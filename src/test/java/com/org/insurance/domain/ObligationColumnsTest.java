@@ -0,0 +1,166 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObligationColumnsTest {
+
+    // --- Stub Class (Заглушка) ---
+    // Сторонній підклас, якого немає в ObligationType
+    static class TestObligation extends Obligation {
+        public TestObligation(String name, double insuredAmount) {
+            super(name, insuredAmount, 1.0, 12, 0.05, 0.1, 1000.0);
+        }
+
+        @Override public void setSpecificFields(Scanner in) {}
+    }
+    // -----------------------------
+
+    @Test
+    @DisplayName("Числові поля потрапляють у примітивні колонки")
+    void testColumnsHoldPrimitiveValues() {
+        AutoObligation auto = new AutoObligation("Auto", 1000.0, 1.2, 12, 0.05, 0.1, 5000.0,
+                "Sedan", "A", 0.9);
+
+        ObligationColumns columns = ObligationColumns.of(List.of(auto));
+
+        assertEquals(1, columns.size());
+        assertEquals(1000.0, columns.insuredAmounts()[0]);
+        assertEquals(1.2, columns.factors()[0]);
+        assertEquals(12, columns.periods()[0]);
+        assertEquals(0.05, columns.interestRates()[0]);
+        assertEquals(0.1, columns.probabilities()[0]);
+        assertEquals(5000.0, columns.maxCosts()[0]);
+        assertEquals(ObligationType.AUTO, columns.type(0));
+        assertEquals(auto.getId(), columns.id(0));
+    }
+
+    @Test
+    @DisplayName("get() відновлює зобов'язання відомого типу з тим самим id та специфічними полями")
+    void testGetRestoresKnownTypes() {
+        LifeObligation life = new LifeObligation("Life", 2000.0, 1.0, 24, 0.03, 0.02, 0.0,
+                "P-1", LocalDate.of(1990, 1, 1), "Ivan");
+        HealthObligation health = new HealthObligation("Health", 500.0, 1.1, 6, 0.0, 0.2, 100.0,
+                "full", true, 10000.0);
+
+        ObligationColumns columns = ObligationColumns.of(List.of(life, health));
+
+        LifeObligation restoredLife = (LifeObligation) columns.get(0);
+        assertEquals(life.getId(), restoredLife.getId());
+        assertEquals("Life", restoredLife.getName());
+        assertEquals("P-1", restoredLife.getInsuredPersonId());
+        assertEquals(LocalDate.of(1990, 1, 1), restoredLife.getDateOfBirth());
+        assertEquals("Ivan", restoredLife.getBeneficiaryName());
+
+        HealthObligation restoredHealth = (HealthObligation) columns.get(1);
+        assertEquals(health.getId(), restoredHealth.getId());
+        assertTrue(restoredHealth.isHasPreExistingConditions());
+        assertEquals(10000.0, restoredHealth.getAnnualLimit());
+    }
+
+    @Test
+    @DisplayName("Сторонні підкласи та null зберігаються як є")
+    void testForeignAndNullRows() {
+        TestObligation stub = new TestObligation("Stub", 100.0);
+        List<Obligation> source = new ArrayList<>();
+        source.add(stub);
+        source.add(null);
+
+        ObligationColumns columns = ObligationColumns.of(source);
+
+        assertSame(stub, columns.get(0));
+        assertNull(columns.type(0));
+        assertNull(columns.get(1));
+        assertTrue(columns.isNull(1));
+        assertEquals(0.0, columns.insuredAmounts()[1]);
+    }
+
+    @Test
+    @DisplayName("insert/remove зсувають усі колонки, місткість росте автоматично")
+    void testInsertRemoveAndGrowth() {
+        ObligationColumns columns = new ObligationColumns(1);
+        for (int i = 0; i < 10; i++) {
+            columns.add(new TestObligation("O" + i, i));
+        }
+        columns.insert(0, new TestObligation("First", 99.0));
+        columns.remove(5);
+
+        assertEquals(10, columns.size());
+        assertEquals("First", columns.name(0));
+        assertEquals(99.0, columns.insuredAmounts()[0]);
+        assertEquals("O3", columns.name(4));
+        assertEquals("O5", columns.name(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(10));
+    }
+
+    @Test
+    @DisplayName("permute переставляє всі колонки і не змінює масив порядку")
+    void testPermute() {
+        ObligationColumns columns = new ObligationColumns(1);
+        for (int i = 0; i < 6; i++) {
+            columns.add(new TestObligation("O" + i, i));
+        }
+        int[] order = {2, 0, 1, 3, 5, 4};
+
+        columns.permute(order);
+
+        assertArrayEquals(new int[]{2, 0, 1, 3, 5, 4}, order);
+        for (int p = 0; p < order.length; p++) {
+            assertEquals("O" + order[p], columns.name(p));
+            assertEquals(order[p], columns.insuredAmounts()[p]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> columns.permute(new int[3]));
+    }
+
+    @Test
+    @DisplayName("Специфічні поля всіх типів, зокрема null-дати, зберігаються в типізованих колонках")
+    void testTypedSpecificColumns() {
+        List<Obligation> source = List.of(
+                new AutoObligation("Auto", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "SUV", "B", 1.1),
+                new BusinessObligation("Business", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "REG-1", "IT"),
+                new HealthObligation("Health", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "full", true, 500.0),
+                new LiabilityObligation("Liability", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "general", "UA"),
+                new LifeObligation("Life", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "P-1", null, "Ivan"),
+                new PropertyObligation("Property", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "Kyiv", "flat"),
+                new TravelObligation("Travel", 1.0, 1.0, 1, 0.0, 0.1, 0.0, "PL",
+                        LocalDate.of(2025, 7, 1), null));
+
+        ObligationColumns columns = ObligationColumns.of(source);
+
+        for (int i = 0; i < source.size(); i++) {
+            Obligation expected = source.get(i);
+            assertEquals(expected.toString(), columns.get(i).toString());
+            assertTrue(columns.matches(i, expected));
+        }
+        assertFalse(columns.matches(0, source.get(1)));
+    }
+
+    @Test
+    @DisplayName("copy і append копіюють масиви: копія не залежить від оригіналу")
+    void testCopyAndAppend() {
+        ObligationColumns columns = new ObligationColumns(1);
+        for (int i = 0; i < 5; i++) {
+            columns.add(new TestObligation("O" + i, i));
+        }
+        columns.add(null);
+
+        ObligationColumns copy = columns.copy();
+        columns.set(0, new TestObligation("Changed", 42.0));
+        assertEquals(6, copy.size());
+        assertEquals("O0", copy.name(0));
+        assertTrue(copy.isNull(5));
+
+        copy.append(columns);
+        assertEquals(12, copy.size());
+        assertEquals("Changed", copy.name(6));
+        assertEquals(4.0, copy.insuredAmounts()[10]);
+        assertEquals(columns.id(0), copy.id(6));
+    }
+}
@@ -0,0 +1,201 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObligationSearchTest {
+
+    private static List<Obligation> randomObligations(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Obligation> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (rnd.nextInt(50) == 0) {
+                list.add(null);
+                continue;
+            }
+            double probability = rnd.nextInt(100) == 0 ? Double.NaN : rnd.nextInt(1000) / 1000.0;
+            list.add(new PropertyObligation((i % 3 == 0 ? "Home " : "Flat ") + i,
+                    rnd.nextInt(100_000), rnd.nextInt(300) / 100.0, rnd.nextInt(60),
+                    rnd.nextInt(20) / 100.0, probability, rnd.nextBoolean() ? 0.0 : rnd.nextInt(5000),
+                    "addr", "flat"));
+        }
+        return list;
+    }
+
+    private static List<Obligation> linearScan(List<Obligation> obligations, ObligationQuery query) {
+        List<Obligation> found = new ArrayList<>();
+        for (Obligation o : obligations) {
+            if (query.matches(o)) found.add(o);
+        }
+        return found;
+    }
+
+    private static List<UUID> ids(List<Obligation> obligations) {
+        return obligations.stream().map(Obligation::getId).toList();
+    }
+
+    private static ObligationQuery randomQuery(Random rnd) {
+        ObligationQuery query = new ObligationQuery();
+        switch (rnd.nextInt(6)) {
+            case 0 -> query.nameContains("HOME");
+            case 1 -> query.nameContains("me 1");
+            case 2 -> query.nameContains(String.valueOf(rnd.nextInt(20_000)));
+            case 3 -> query.nameContains("t");
+            default -> { }
+        }
+        for (ObligationField field : ObligationField.values()) {
+            if (rnd.nextInt(3) != 0) continue;
+            double scale = switch (field) {
+                case INSURED_AMOUNT -> 100_000;
+                case FACTOR -> 3;
+                case PERIOD -> 60;
+                case INTEREST_RATE -> 0.2;
+                case PROBABILITY -> 1;
+                case MAX_COST -> 5000;
+            };
+            double a = rnd.nextDouble() * scale;
+            double width = rnd.nextDouble() * scale * (rnd.nextBoolean() ? 0.01 : 0.5);
+            query.range(field, rnd.nextInt(5) == 0 ? null : a, rnd.nextInt(5) == 0 ? null : a + width);
+        }
+        return query;
+    }
+
+    @Test
+    @DisplayName("Результат з індексами збігається з лінійним проходом (звичайний і колонковий режими)")
+    void testMatchesLinearScan() {
+        List<Obligation> source = randomObligations(20_000, 1L);
+        Derivative plain = new Derivative("Plain");
+        plain.setObligations(new ArrayList<>(source));
+        Derivative columnar = new Derivative("Columnar");
+        columnar.setObligations(new ArrayList<>(source));
+        columnar.useColumnarStorage();
+
+        Random rnd = new Random(2L);
+        for (int q = 0; q < 200; q++) {
+            ObligationQuery query = randomQuery(rnd);
+            List<Obligation> expected = linearScan(source, query);
+
+            assertIterableEquals(expected, ObligationSearch.find(plain, query), query.toString());
+            assertEquals(ids(expected), ids(ObligationSearch.find(columnar, query)), query.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Вузький діапазон використовує індекс, широкий — повний прохід, мала дериватива — прохід")
+    void testPlanner() {
+        Derivative d = new Derivative("Big");
+        d.setObligations(randomObligations(20_000, 3L));
+
+        String narrow = ObligationSearch.explain(d, new ObligationQuery()
+                .range(ObligationField.INSURED_AMOUNT, 1000.0, 5000.0)
+                .range(ObligationField.PERIOD, 10, 10)
+                .range(ObligationField.INTEREST_RATE, 0.0, 0.19));
+        assertTrue(narrow.startsWith("index PERIOD"), narrow);
+        assertTrue(narrow.contains("∩ INSURED_AMOUNT"), narrow);
+        assertFalse(narrow.contains("INTEREST_RATE"), narrow);
+
+        assertEquals("scan", ObligationSearch.explain(d, new ObligationQuery()
+                .range(ObligationField.INSURED_AMOUNT, 0.0, null)));
+        assertEquals("scan", ObligationSearch.explain(d, new ObligationQuery().nameContains("home")));
+        assertEquals("name(1)", ObligationSearch.explain(d, new ObligationQuery().nameContains("Home 12345")));
+        String combined = ObligationSearch.explain(d, new ObligationQuery()
+                .nameContains("123")
+                .range(ObligationField.PERIOD, 10, 10));
+        assertTrue(combined.startsWith("name(") && combined.contains("∩ PERIOD"), combined);
+
+        Derivative small = new Derivative("Small");
+        small.setObligations(randomObligations(100, 4L));
+        assertEquals("scan", ObligationSearch.explain(small, new ObligationQuery()
+                .range(ObligationField.INSURED_AMOUNT, 1000.0, 1100.0)));
+    }
+
+    @Test
+    @DisplayName("Індекси враховують додавання, видалення, зміну полів і сортування")
+    void testIndexesFollowChanges() {
+        Derivative d = new Derivative("Live");
+        d.setObligations(randomObligations(10_000, 5L));
+        ObligationQuery query = new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 200_000.0, 300_000.0);
+        assertTrue(ObligationSearch.find(d, query).isEmpty());
+
+        PropertyObligation added = new PropertyObligation("New", 250_000.0, 1.0, 12, 0.1, 0.1, 0.0, "a", "b");
+        d.getObligations().add(added);
+        assertEquals(List.of(added), ObligationSearch.find(d, query));
+
+        Obligation existing = d.getObligations().get(10);
+        existing.setInsuredAmount(210_000.0);
+        assertEquals(List.of(existing, added), ObligationSearch.find(d, query));
+
+        RiskRanking.sortByRisk(d, true);
+        assertEquals(linearScan(d.getObligations(), query), ObligationSearch.find(d, query));
+
+        ObligationQuery byName = new ObligationQuery().nameContains("renamed");
+        assertTrue(ObligationSearch.find(d, byName).isEmpty());
+        existing.setName("Renamed one");
+        assertEquals(List.of(existing), ObligationSearch.find(d, byName));
+
+        d.getObligations().remove(added);
+        existing.setInsuredAmount(1.0);
+        assertTrue(ObligationSearch.find(d, query).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Побудовані індекси оновлюються на місці й збігаються з лінійним проходом після серії змін")
+    void testIncrementalUpdates() {
+        List<Obligation> source = randomObligations(6_000, 6L);
+        Derivative plain = new Derivative("Plain");
+        plain.setObligations(new ArrayList<>(source));
+        Derivative columnar = new Derivative("Columnar");
+        columnar.setObligations(new ArrayList<>(source));
+        columnar.useColumnarStorage();
+
+        Random rnd = new Random(7L);
+        for (Derivative d : List.of(plain, columnar)) {
+            for (int step = 0; step < 300; step++) {
+                ObligationQuery query = randomQuery(rnd);
+                // Індекси будуються першим запитом і далі лише оновлюються
+                assertEquals(ids(linearScan(d.getObligations(), query)), ids(ObligationSearch.find(d, query)),
+                        "step " + step + ": " + query);
+
+                List<Obligation> obligations = d.getObligations();
+                int row = rnd.nextInt(obligations.size());
+                switch (rnd.nextInt(6)) {
+                    case 0 -> obligations.addAll(randomObligations(1 + rnd.nextInt(3), rnd.nextLong()));
+                    case 1 -> obligations.remove(row);
+                    case 2 -> obligations.set(row, randomObligations(1, rnd.nextLong()).get(0));
+                    case 3 -> {
+                        BitSet rows = new BitSet();
+                        for (int k = 0; k < 5; k++) rows.set(rnd.nextInt(obligations.size()));
+                        d.removeRows(rows);
+                    }
+                    default -> {
+                        Obligation o = obligations.get(row);
+                        if (o == null) continue;
+                        o.setInsuredAmount(rnd.nextInt(100_000));
+                        o.setProbability(rnd.nextBoolean() ? Double.NaN : rnd.nextInt(1000) / 1000.0);
+                        o.setName("Home renamed " + rnd.nextInt(20_000));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ObligationQuery: межі включні, null — без межі, NaN не відсікається")
+    void testQueryMatches() {
+        PropertyObligation o = new PropertyObligation("Kyiv Flat", 100.0, 1.0, 12, 0.1, Double.NaN, 0.0, "a", "b");
+        assertTrue(new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 100.0, 100.0).matches(o));
+        assertFalse(new ObligationQuery().range(ObligationField.PERIOD, 13, null).matches(o));
+        assertTrue(new ObligationQuery().range(ObligationField.PROBABILITY, 0.5, 0.6).matches(o));
+        assertTrue(new ObligationQuery().nameContains("kyiv").matches(o));
+        assertFalse(new ObligationQuery().matches(null));
+        assertThrows(IllegalArgumentException.class, () -> new ObligationQuery().range(null, 1.0, 2.0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelValuatorTest {
+
+    private final InsuranceCalculator calculator = new InsuranceCalculator();
+
+    private static Derivative randomDerivative(String name, int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Obligation> obs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            obs.add(new AutoObligation("A" + i, rnd.nextDouble() * 10_000, 0.5 + rnd.nextDouble(),
+                    rnd.nextInt(60), rnd.nextDouble() * 0.1, rnd.nextDouble() * 0.3, rnd.nextDouble() * 5_000,
+                    "Sedan", "B", 1.0));
+        }
+        Derivative d = new Derivative(name);
+        d.setObligations(obs);
+        return d;
+    }
+
+    @Test
+    @DisplayName("valueDerivative: велика дериватива оцінюється паралельно з тим самим результатом")
+    void testValueLargeDerivative() {
+        Derivative d = randomDerivative("Large", 100_000, 1L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Valuation v = new ParallelValuator(pool, calculator).valueDerivative(d);
+
+            assertEquals(100_000, v.getCount());
+            assertEquals(d.getId(), v.getDerivativeId());
+            assertEquals(calculator.calculatePortfolioValue(d), v.getValue(), 1e-6);
+            assertEquals(calculator.calculateTotalRisk(d), v.getRisk(), 1e-6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("valueDerivative: колонкове сховище та не-RandomAccess список")
+    void testColumnarAndLinkedList() {
+        Derivative columnar = randomDerivative("Columnar", 50_000, 2L);
+        double expected = calculator.calculatePortfolioValue(columnar);
+        columnar.useColumnarStorage();
+
+        Derivative linked = randomDerivative("Linked", 1_000, 3L);
+        double expectedLinked = calculator.calculatePortfolioValue(linked);
+        linked.setObligations(new LinkedList<>(linked.getObligations()));
+
+        ParallelValuator valuator = new ParallelValuator();
+        assertEquals(expected, valuator.valueDerivative(columnar).getValue(), 1e-6);
+        assertEquals(expectedLinked, valuator.valueDerivative(linked).getValue(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("valueBook: результати по кожній деривативі у порядку книги та загальні суми")
+    void testValueBook() {
+        Derivative a = randomDerivative("A", 10, 4L);
+        Derivative b = randomDerivative("B", 20_000, 5L);
+        Derivative empty = new Derivative("Empty");
+
+        BookValuation book = new ParallelValuator().valueBook(Arrays.asList(a, null, b, empty));
+
+        assertEquals(3, book.getDerivatives().size());
+        assertEquals("A", book.getDerivatives().get(0).getDerivativeName());
+        assertEquals("B", book.getDerivatives().get(1).getDerivativeName());
+        assertEquals(0.0, book.getDerivatives().get(2).getValue());
+        assertEquals(20_010, book.getTotalCount());
+        assertEquals(calculator.calculatePortfolioValue(a) + calculator.calculatePortfolioValue(b),
+                book.getTotalValue(), 1e-6);
+        assertEquals(calculator.calculateTotalRisk(a) + calculator.calculateTotalRisk(b),
+                book.getTotalRisk(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("valueBook: порожня книга та null-дериватива")
+    void testEdgeCases() {
+        ParallelValuator valuator = new ParallelValuator();
+        assertEquals(0.0, valuator.valueBook(null).getTotalValue());
+        assertTrue(valuator.valueBook(List.of()).getDerivatives().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> valuator.valueDerivative(null));
+    }
+
+    @Test
+    @DisplayName("Результат побітово однаковий за будь-якої кількості потоків і збігається з DETERMINISTIC")
+    void testDeterministicRegardlessOfThreadCount() {
+        Derivative d = randomDerivative("Audit", 123_457, 6L);
+        InsuranceCalculator deterministic = new InsuranceCalculator(SummationMode.DETERMINISTIC);
+        long expectedValue = Double.doubleToRawLongBits(deterministic.calculatePortfolioValue(d));
+        long expectedRisk = Double.doubleToRawLongBits(deterministic.calculateTotalRisk(d));
+
+        for (int threads : new int[] {1, 2, 3, 8, 32}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                Valuation v = new ParallelValuator(pool, calculator).valueDerivative(d);
+                assertEquals(expectedValue, Double.doubleToRawLongBits(v.getValue()), "threads=" + threads);
+                assertEquals(expectedRisk, Double.doubleToRawLongBits(v.getRisk()), "threads=" + threads);
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        d.useColumnarStorage();
+        assertEquals(expectedValue, Double.doubleToRawLongBits(deterministic.calculatePortfolioValue(d)));
+        assertEquals(expectedValue, Double.doubleToRawLongBits(new ParallelValuator().valueDerivative(d).getValue()));
+    }
+}
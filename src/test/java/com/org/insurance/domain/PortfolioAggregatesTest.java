@@ -0,0 +1,177 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioAggregatesTest {
+
+    private final InsuranceCalculator calculator = new InsuranceCalculator();
+
+    // --- Stub Class (Заглушка) ---
+    static class TestObligation extends Obligation {
+        public TestObligation(double insuredAmount, double factor, double probability) {
+            super("Test", insuredAmount, factor, 12, 0.05, probability, 0.0);
+        }
+
+        @Override public void setSpecificFields(Scanner in) {}
+    }
+    // -----------------------------
+
+    private static AutoObligation auto(double insuredAmount) {
+        return new AutoObligation("Auto", insuredAmount, 1.0, 12, 0.1, 0.2, 0.0, "Sedan", "A", 1.0);
+    }
+
+    private Derivative derivativeWith(Obligation... obligations) {
+        Derivative d = new Derivative("Agg");
+        d.setObligations(new ArrayList<>(List.of(obligations)));
+        return d;
+    }
+
+    private void assertMatchesFullScan(Derivative d) {
+        PortfolioAggregates a = d.getAggregates();
+        assertEquals(d.getObligations().stream().filter(o -> o != null).count(), a.getCount());
+        assertEquals(calculator.calculatePortfolioValue(d), a.getTotalPremium(), 1e-9);
+        assertEquals(calculator.calculateTotalRisk(d), a.getTotalRisk(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Агрегати рахуються при setObligations і за типами")
+    void testInitialAggregates() {
+        Derivative d = derivativeWith(auto(1000.0), auto(2000.0), new TestObligation(500.0, 1.0, 0.1));
+
+        PortfolioAggregates a = d.getAggregates();
+        assertEquals(3, a.getCount());
+        assertEquals(2, a.getCount(ObligationType.AUTO));
+        assertEquals(1, a.getCount(null));
+        assertEquals(0, a.getCount(ObligationType.LIFE));
+        assertEquals(50.0, a.getRisk(null), 1e-9);
+        assertMatchesFullScan(d);
+    }
+
+    @Test
+    @DisplayName("add/remove/set/clear через getObligations() оновлюють агрегати")
+    void testListMutations() {
+        Derivative d = derivativeWith(auto(1000.0));
+
+        d.getObligations().add(auto(3000.0));
+        d.getObligations().add(null);
+        assertMatchesFullScan(d);
+
+        d.getObligations().remove(0);
+        assertMatchesFullScan(d);
+
+        d.getObligations().set(0, new TestObligation(10.0, 2.0, 0.5));
+        assertEquals(0, d.getAggregates().getCount(ObligationType.AUTO));
+        assertMatchesFullScan(d);
+
+        d.getObligations().clear();
+        assertEquals(0, d.getAggregates().getCount());
+        assertEquals(0.0, d.getAggregates().getTotalPremium(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Сеттери зобов'язання оновлюють агрегати; видалене зобов'язання більше не впливає")
+    void testSettersUpdateAggregates() {
+        AutoObligation a = auto(1000.0);
+        Derivative d = derivativeWith(a);
+
+        a.setInsuredAmount(5000.0);
+        a.setProbability(0.5);
+        assertEquals(2500.0, d.getAggregates().getTotalRisk(), 1e-9);
+        assertMatchesFullScan(d);
+
+        d.getObligations().remove(a);
+        a.setInsuredAmount(1.0);
+        assertEquals(0.0, d.getAggregates().getTotalRisk(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Нескінченний доданок не отруює суми: після видалення вони знову збігаються з повним проходом")
+    void testNonFiniteContributions() {
+        Derivative d = derivativeWith(auto(1000.0));
+        AutoObligation huge = new AutoObligation("Huge", 1e308, 10.0, 12, 0.1, 0.2, 0.0, "Sedan", "A", 1.0);
+
+        d.getObligations().add(huge);
+        assertFalse(Double.isFinite(d.getAggregates().getTotalRisk()));
+        assertMatchesFullScan(d);
+
+        d.getObligations().remove(huge);
+        assertTrue(Double.isFinite(d.getAggregates().getTotalPremium()));
+        assertTrue(Double.isFinite(d.getAggregates().getTotalRisk()));
+        assertMatchesFullScan(d);
+
+        // Переповнення скінченних доданків: після видалення одного агрегати перераховуються
+        TestObligation big = new TestObligation(1e308, 1.0, 1.0);
+        d.getObligations().add(big);
+        d.getObligations().add(new TestObligation(1e308, 1.0, 1.0));
+        d.getObligations().remove(big);
+        PortfolioAggregates a = d.getAggregates();
+        assertFalse(a.isStale());
+        assertEquals(1e308 + 200.0, a.getTotalRisk(), 1e295);
+        assertMatchesFullScan(d);
+    }
+
+    @Test
+    @DisplayName("Колонкове сховище та Java-серіалізація зберігають агрегати")
+    void testColumnarAndSerialization() throws Exception {
+        Derivative d = derivativeWith(auto(1000.0), auto(2000.0));
+        d.useColumnarStorage();
+        d.getObligations().add(auto(4000.0));
+        assertMatchesFullScan(d);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(d);
+        }
+        Derivative copy;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            copy = (Derivative) ois.readObject();
+        }
+        assertEquals(3, copy.getAggregates().getCount());
+        assertMatchesFullScan(copy);
+    }
+
+    @Test
+    @DisplayName("restore відновлює збережені кошики; лінива дериватива показує їх без завантаження")
+    void testRestore() {
+        Derivative d = derivativeWith(auto(1000.0), auto(2000.0), new TestObligation(500.0, 1.0, 0.1));
+        PortfolioAggregates a = d.getAggregates();
+        int slots = PortfolioAggregates.slots();
+        long[] counts = new long[slots];
+        double[] premiums = new double[slots];
+        double[] risks = new double[slots];
+        for (int i = 0; i < slots; i++) {
+            counts[i] = a.getCountAt(i);
+            premiums[i] = a.getPremiumAt(i);
+            risks[i] = a.getRiskAt(i);
+        }
+        PortfolioAggregates restored = PortfolioAggregates.restore(counts, premiums, risks,
+                a.getTotalPremium(), a.getTotalRisk());
+
+        Derivative lazy = Derivative.lazy(d.getId(), d.getName(), restored, d::getObligations);
+        assertEquals(3, lazy.getAggregates().getCount());
+        assertEquals(2, lazy.getAggregates().getCount(ObligationType.AUTO));
+        assertEquals(a.getTotalPremium(), lazy.getAggregates().getTotalPremium(), 1e-9);
+        assertEquals(a.getRisk(null), lazy.getAggregates().getRisk(null), 1e-9);
+        assertFalse(lazy.isLoaded());
+
+        // Після завантаження агрегати перераховуються з рядків, а не додаються до збережених
+        lazy.getObligations();
+        assertMatchesFullScan(lazy);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioAggregates.restore(new long[1], new double[1], new double[1], 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioAggregates.restore(null, premiums, risks, 0, 0));
+    }
+}
@@ -0,0 +1,78 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PremiumKernelTest {
+
+    /**
+     * Випадкові колонки з граничними значеннями: нулі, від'ємні числа, від'ємний період,
+     * спрацювання та неспрацювання ліміту maxCost.
+     */
+    private static ObligationColumns randomColumns(int n, long seed) {
+        Random rnd = new Random(seed);
+        ObligationColumns columns = new ObligationColumns(n);
+        for (int i = 0; i < n; i++) {
+            double insuredAmount = rnd.nextInt(10) == 0 ? 0.0 : rnd.nextDouble() * 1_000_000 - 10_000;
+            double factor = rnd.nextInt(10) == 0 ? -1.0 : rnd.nextDouble() * 3;
+            int period = rnd.nextInt(120) - 12;
+            double interestRate = rnd.nextDouble() * 0.4 - 0.2;
+            double probability = rnd.nextInt(10) == 0 ? 0.0 : rnd.nextDouble();
+            double maxCost = rnd.nextBoolean() ? 0.0 : rnd.nextDouble() * 50_000;
+            columns.add(new PropertyObligation("P" + i, insuredAmount, factor, period,
+                    interestRate, probability, maxCost, "addr", "flat"));
+        }
+        return columns;
+    }
+
+    @Test
+    @DisplayName("Скалярне ядро збігається з calculatePriceOfService побітово")
+    void testScalarKernelMatchesCalculator() {
+        ObligationColumns columns = randomColumns(1000, 1L);
+        double[] out = new double[columns.size()];
+
+        new ScalarPremiumKernel().premiums(columns, 0, columns.size(), out);
+
+        InsuranceCalculator calculator = new InsuranceCalculator();
+        for (int i = 0; i < columns.size(); i++) {
+            double expected = calculator.calculatePriceOfService(columns.get(i));
+            assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(out[i]), "row " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Векторне ядро збігається зі скалярним побітово, включно з хвостом діапазону")
+    void testVectorKernelMatchesScalar() {
+        ObligationColumns columns = randomColumns(5003, 2L);
+        int from = 7;
+        int to = columns.size() - 3;
+
+        double[] scalar = new double[to - from];
+        double[] vector = new double[to - from];
+        new ScalarPremiumKernel().premiums(columns, from, to, scalar);
+        new VectorPremiumKernel().premiums(columns, from, to, vector);
+
+        for (int k = 0; k < scalar.length; k++) {
+            assertEquals(Double.doubleToRawLongBits(scalar[k]), Double.doubleToRawLongBits(vector[k]), "row " + (from + k));
+        }
+    }
+
+    @Test
+    @DisplayName("best() повертає робоче ядро")
+    void testBestKernel() {
+        PremiumKernel kernel = PremiumKernel.best();
+        assertNotNull(kernel);
+
+        ObligationColumns columns = randomColumns(10, 3L);
+        double[] out = new double[10];
+        kernel.premiums(columns, 0, 10, out);
+
+        double[] expected = new double[10];
+        new ScalarPremiumKernel().premiums(columns, 0, 10, expected);
+        assertArrayEquals(expected, out);
+    }
+}
@@ -0,0 +1,58 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeIndexTest {
+
+    private static BitSet marked(RangeIndex index, Double min, Double max) {
+        BitSet rows = new BitSet();
+        index.mark(min, max, rows);
+        return rows;
+    }
+
+    private static BitSet bits(int... rows) {
+        BitSet bits = new BitSet();
+        for (int row : rows) bits.set(row);
+        return bits;
+    }
+
+    @Test
+    @DisplayName("Вставка і видалення пари зберігають порядок; NaN потрапляє в будь-який діапазон")
+    void testInsertAndDelete() {
+        RangeIndex index = RangeIndex.build(new double[]{5.0, 1.0, Double.NaN, 3.0});
+        assertEquals(bits(2, 3), marked(index, 2.0, 4.0));
+
+        index.insert(3.0, 4);
+        index.insert(Double.NaN, 5);
+        assertEquals(6, index.size());
+        assertEquals(4, index.count(2.0, 4.0));
+        assertEquals(bits(2, 3, 4, 5), marked(index, 2.0, 4.0));
+
+        assertTrue(index.delete(3.0, 3));
+        assertFalse(index.delete(3.0, 3));
+        assertTrue(index.delete(Double.NaN, 2));
+        assertEquals(bits(4, 5), marked(index, 2.0, 4.0));
+        assertEquals(bits(0, 1, 4, 5), marked(index, null, null));
+    }
+
+    @Test
+    @DisplayName("Видалення рядків зсуває номери наступних рядків")
+    void testRemoveRows() {
+        RangeIndex index = RangeIndex.build(new double[]{4.0, 1.0, 2.0, 3.0, Double.NaN, 0.0});
+
+        assertTrue(index.removeRow(1.0, 1));
+        assertEquals(bits(1, 2, 3), marked(index, 2.0, 3.0));
+        assertEquals(bits(0, 1, 2, 3, 4), marked(index, null, null));
+
+        // Рядки 0..4: 4.0, 2.0, 3.0, NaN, 0.0 — прибрати 0 і 3
+        index.renumber(new int[]{-1, 0, 1, -1, 2});
+        assertEquals(3, index.size());
+        assertEquals(bits(0, 1), marked(index, 2.0, 3.0));
+        assertEquals(bits(2), marked(index, null, 1.0));
+    }
+}
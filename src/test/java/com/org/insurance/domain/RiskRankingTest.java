@@ -0,0 +1,148 @@
+package com.org.insurance.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskRankingTest {
+
+    // --- Stub Class (Заглушка) ---
+    static class TestObligation extends Obligation {
+        public TestObligation(String name, double insuredAmount, double factor, double probability) {
+            super(name, insuredAmount, factor, 12, 0.0, probability, 0.0);
+        }
+
+        @Override public void setSpecificFields(Scanner in) {}
+    }
+    // -----------------------------
+
+    /** Випадкові зобов'язання з повторами ризику, нулями, від'ємними значеннями та null. */
+    private static List<Obligation> randomObligations(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Obligation> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            switch (rnd.nextInt(8)) {
+                case 0 -> list.add(null);
+                case 1 -> list.add(new TestObligation("Same" + i, 100.0, 1.0, 0.5));
+                case 2 -> list.add(new TestObligation("Neg" + i, -rnd.nextInt(100), 1.0, 0.5));
+                case 3 -> list.add(new TestObligation("Zero" + i, -0.0, 1.0, 0.5));
+                default -> list.add(new PropertyObligation("P" + i, rnd.nextInt(1000), rnd.nextDouble() * 2,
+                        12, 0.05, rnd.nextDouble(), 0.0, "addr", "flat"));
+            }
+        }
+        return list;
+    }
+
+    @Test
+    @DisplayName("Порядок збігається зі стабільним сортуванням через RiskComparator, включно з рівними")
+    void testMatchesComparatorSort() {
+        for (int n : new int[]{0, 1, 2, 31, 33, 1000, 20_000}) {
+            List<Obligation> expected = randomObligations(n, n);
+            List<Obligation> actual = new ArrayList<>(expected);
+
+            expected.sort(new RiskComparator().reversed());
+            RiskRanking.sortByRisk(actual, true);
+            assertIterableEquals(expected, actual, "n=" + n);
+
+            expected.sort(new RiskComparator());
+            RiskRanking.sortByRisk(actual, false);
+            assertIterableEquals(expected, actual, "n=" + n);
+        }
+    }
+
+    @Test
+    @DisplayName("Список без довільного доступу теж сортується")
+    void testLinkedList() {
+        List<Obligation> expected = randomObligations(500, 7L);
+        List<Obligation> actual = new LinkedList<>(expected);
+
+        expected.sort(new RiskComparator().reversed());
+        RiskRanking.sortByRisk(actual, true);
+
+        assertIterableEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("order(): ключі з NaN та −0.0 впорядковуються як Double.compare")
+    void testOrderSpecialValues() {
+        double[] values = {1.0, Double.NaN, 0.0, -0.0, -1.0, 1.0};
+
+        assertArrayEquals(new int[]{4, 3, 2, 0, 5, 1}, RiskRanking.order(values, false));
+        assertArrayEquals(new int[]{1, 0, 5, 2, 3, 4}, RiskRanking.order(values, true));
+    }
+
+    @Test
+    @DisplayName("Дериватива: звичайний і колонковий режими сортуються однаково, агрегати не змінюються")
+    void testDerivativeSort() {
+        List<Obligation> source = randomObligations(30_000, 11L);
+        List<Obligation> expected = new ArrayList<>(source);
+        expected.sort(new RiskComparator().reversed());
+
+        Derivative plain = new Derivative("Plain");
+        plain.setObligations(new ArrayList<>(source));
+        double riskBefore = plain.getAggregates().getTotalRisk();
+        RiskRanking.sortByRisk(plain, true);
+
+        Derivative columnar = new Derivative("Columnar");
+        columnar.setObligations(new ArrayList<>(source));
+        columnar.useColumnarStorage();
+        RiskRanking.sortByRisk(columnar, true);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Obligation o = expected.get(i);
+            assertSame(o, plain.getObligations().get(i));
+            assertEquals(o == null ? null : o.getId(), columnar.getColumns().id(i));
+        }
+        assertEquals(riskBefore, plain.getAggregates().getTotalRisk());
+    }
+
+    @Test
+    @DisplayName("top/bottom збігаються з початком повного сортування і не змінюють порядок у деривативі")
+    void testTopAndBottom() {
+        List<Obligation> source = randomObligations(5_000, 13L);
+        List<Obligation> nonNull = new ArrayList<>(source);
+        nonNull.removeIf(o -> o == null);
+        List<Obligation> descending = new ArrayList<>(nonNull);
+        descending.sort(new RiskComparator().reversed());
+        List<Obligation> ascending = new ArrayList<>(nonNull);
+        ascending.sort(new RiskComparator());
+
+        Derivative d = new Derivative("Live");
+        d.setObligations(new ArrayList<>(source));
+
+        assertIterableEquals(descending.subList(0, 25), RiskRanking.top(d, 25));
+        assertIterableEquals(ascending.subList(0, 25), RiskRanking.bottom(d, 25));
+        assertIterableEquals(descending, RiskRanking.top(d, 1_000_000));
+        assertTrue(RiskRanking.top(d, 0).isEmpty());
+        assertIterableEquals(source, d.getObligations());
+
+        d.useColumnarStorage();
+        List<Obligation> columnarTop = RiskRanking.top(d, 25);
+        for (int i = 0; i < 25; i++) {
+            assertEquals(descending.get(i).getId(), columnarTop.get(i).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("select() повертає перші k індексів order()")
+    void testSelectMatchesOrder() {
+        Random rnd = new Random(5L);
+        double[] values = new double[2_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rnd.nextInt(50) - 10;
+        }
+
+        int[] full = RiskRanking.order(values, true);
+        assertArrayEquals(Arrays.copyOf(full, 100), RiskRanking.select(values, 100, true));
+        full = RiskRanking.order(values, false);
+        assertArrayEquals(Arrays.copyOf(full, 7), RiskRanking.select(values, 7, false));
+    }
+}
@@ -0,0 +1,187 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSaveServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Derivative derivative(String name, int count) {
+        Derivative d = new Derivative(name);
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new PropertyObligation("Майно " + i, 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat"));
+        }
+        d.setObligations(list);
+        return d;
+    }
+
+    /** FileManager, перше збереження якого чекає на сигнал тесту. */
+    private static final class BlockingFileManager extends FileManager {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger saves = new AtomicInteger();
+
+        @Override
+        public void saveDerivative(Derivative derivative, String fileName) {
+            if (saves.getAndIncrement() == 0) {
+                firstStarted.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.saveDerivative(derivative, fileName);
+        }
+    }
+
+    @Test
+    @DisplayName("Збереження у фоні записує знімок на момент виклику")
+    void testSavesSnapshot() throws Exception {
+        Derivative d = derivative("Фон", 100);
+        Path file = tempDir.resolve("d.bin");
+        BlockingFileManager fm = new BlockingFileManager();
+
+        try (AsyncSaveService service = new AsyncSaveService(fm)) {
+            CompletableFuture<Void> done = service.save(d, file.toString());
+            assertTrue(fm.firstStarted.await(10, TimeUnit.SECONDS));
+            d.getObligations().clear();
+            d.setName("Змінено");
+            assertFalse(done.isDone(), "Запис ще чекає — меню не заблоковане");
+
+            fm.release.countDown();
+            done.get(10, TimeUnit.SECONDS);
+        }
+
+        Derivative loaded = new FileManager().loadDerivative(file.toString());
+        assertEquals("Фон", loaded.getName());
+        assertEquals(d.getId(), loaded.getId());
+        assertEquals(100, loaded.getObligations().size());
+        // Очищення після знімка у файл не потрапило — воно лишається незбереженим
+        assertFalse(d.pendingChanges(file.toAbsolutePath().normalize()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Після фонового збереження дериватива знає, що збережена, — наступна дельта не повна")
+    void testMarksOriginalSaved() throws Exception {
+        Derivative d = derivative("Дельта", 10);
+        Path file = tempDir.resolve("delta.bin");
+        FileManager fm = new FileManager();
+
+        try (AsyncSaveService service = new AsyncSaveService(fm)) {
+            service.save(d, file.toString()).get(10, TimeUnit.SECONDS);
+        }
+        assertTrue(d.pendingChanges(file.toAbsolutePath().normalize()).isEmpty());
+
+        d.getObligations().get(3).setInsuredAmount(5000);
+        assertTrue(fm.saveDelta(d, file.toString()), "Записано дельту, а не повний файл");
+        assertEquals(5000, fm.loadDerivative(file.toString()).getObligations().get(3).getInsuredAmount());
+    }
+
+    @Test
+    @DisplayName("Error під час запису завершує future винятком, потік-записувач працює далі")
+    void testErrorCompletesFuture() throws Exception {
+        FileManager fm = new FileManager() {
+            private final AtomicInteger saves = new AtomicInteger();
+
+            @Override
+            public void saveDerivative(Derivative derivative, String fileName) {
+                if (saves.getAndIncrement() == 0) {
+                    throw new OutOfMemoryError("тест");
+                }
+                super.saveDerivative(derivative, fileName);
+            }
+        };
+        try (AsyncSaveService service = new AsyncSaveService(fm)) {
+            CompletableFuture<Void> failed = service.save(derivative("D", 1), tempDir.resolve("oom.bin").toString());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, e.getCause());
+
+            service.save(derivative("D", 1), tempDir.resolve("ok.bin").toString()).get(10, TimeUnit.SECONDS);
+        }
+        assertTrue(Files.exists(tempDir.resolve("ok.bin")));
+    }
+
+    @Test
+    @DisplayName("Новіше збереження тієї самої деривативи замінює старіше в черзі")
+    void testNewerSaveReplacesQueued() throws Exception {
+        BlockingFileManager fm = new BlockingFileManager();
+        Derivative busy = derivative("Зайнятий", 1);
+        Derivative d = derivative("Версія 1", 3);
+        Path file = tempDir.resolve("sub/d.bin");
+
+        try (AsyncSaveService service = new AsyncSaveService(fm)) {
+            service.save(busy, tempDir.resolve("busy.bin").toString());
+            assertTrue(fm.firstStarted.await(10, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> first = service.save(d, file.toString());
+            d.setName("Версія 2");
+            d.getObligations().remove(0);
+            CompletableFuture<Void> second = service.save(d, tempDir.resolve("sub/../sub/d.bin").toString());
+            service.save(d, tempDir.resolve("other.bin").toString());
+
+            assertSame(first, second);
+            assertEquals(2, service.pending());
+
+            fm.release.countDown();
+            second.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, fm.saves.get(), "Замінене збереження не виконується");
+        Derivative loaded = new FileManager().loadDerivative(file.toString());
+        assertEquals("Версія 2", loaded.getName());
+        assertEquals(2, loaded.getObligations().size());
+        assertTrue(Files.exists(tempDir.resolve("other.bin")));
+    }
+
+    @Test
+    @DisplayName("Помилка запису завершує future винятком, наступні збереження працюють")
+    void testFailureReported() throws Exception {
+        Path directory = Files.createDirectory(tempDir.resolve("dir"));
+        try (AsyncSaveService service = new AsyncSaveService()) {
+            CompletableFuture<Void> failed = service.save(derivative("D", 1), directory.toString());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(RuntimeException.class, e.getCause());
+
+            service.save(derivative("D", 1), tempDir.resolve("ok.bin").toString()).get(10, TimeUnit.SECONDS);
+        }
+        assertTrue(Files.exists(tempDir.resolve("ok.bin")));
+    }
+
+    @Test
+    @DisplayName("close дописує чергу, після нього збереження відхиляються")
+    void testCloseDrainsQueue() {
+        AsyncSaveService service = new AsyncSaveService();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(service.save(derivative("D" + i, 50), tempDir.resolve(i + ".bin").toString()));
+        }
+        service.close();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(futures.get(i).isDone() && !futures.get(i).isCompletedExceptionally());
+            assertTrue(Files.exists(tempDir.resolve(i + ".bin")));
+        }
+        assertThrows(IllegalStateException.class,
+                () -> service.save(derivative("D", 1), tempDir.resolve("late.bin").toString()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.org.insurance.io;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteSinkTest {
+
+    private static String fixed(double v, int scale) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteSink sink = new ByteSink(out, 64);
+        sink.fixed(v, scale).flush();
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("fixed збігається з %.Nf на межових значеннях")
+    void testFixedEdgeCases() throws IOException {
+        double[] values = {0, -0.0, 0.125, 0.15, 1.005, 2.675, -0.001, -0.005, 0.5, 1.5, -2.5,
+                999.995, 1e-7, 123456789.125, 1e15, 1e20, -1e22, Double.MAX_VALUE, Double.MIN_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double v : values) {
+            for (int scale : new int[]{0, 2, 6}) {
+                assertEquals(String.format(Locale.ROOT, "%." + scale + "f", v), fixed(v, scale),
+                        "value " + v + ", scale " + scale);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("fixed збігається з %.2f і %.6f на випадкових значеннях")
+    void testFixedRandom() throws IOException {
+        Random random = new Random(19);
+        for (int i = 0; i < 20_000; i++) {
+            double v = switch (i % 3) {
+                case 0 -> random.nextDouble();
+                case 1 -> (random.nextDouble() - 0.5) * 1e7;
+                default -> Math.round(random.nextDouble() * 1e5) / 1e3;
+            };
+            assertEquals(String.format(Locale.ROOT, "%.2f", v), fixed(v, 2), "value " + v);
+            assertEquals(String.format(Locale.ROOT, "%.6f", v), fixed(v, 6), "value " + v);
+        }
+    }
+
+    @Test
+    @DisplayName("Дрібний буфер: довгі рядки, байти і UUID переносяться через скидання")
+    void testSmallBuffer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteSink sink = new ByteSink(out, 64);
+        String text = "Зобов'язання 🏠 ".repeat(20);
+        byte[] big = "x".repeat(100).getBytes(StandardCharsets.US_ASCII);
+        UUID id = UUID.randomUUID();
+
+        sink.utf8(text).bytes(big).uuid(id).ascii(',').integer(Long.MIN_VALUE).flush();
+
+        assertEquals(text + "x".repeat(100) + id + "," + Long.MIN_VALUE, out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,177 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.BusinessObligation;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.TravelObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve(UUID.randomUUID() + ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Усі типи, заголовок, лапки, null-поля, CRLF і порожні рядки")
+    void testAllTypes() throws IOException {
+        UUID id = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        String csv = "﻿type,id,name,insuredAmount,factor,period,interestRate,probability,maxCost,field1,field2,field3\r\n"
+                + "auto," + id + ",\"Авто, \"\"преміум\"\"\",10000,1.1,12,0.05,0.1,500,car,B,0.9\r\n"
+                + "\r\n"
+                + "BUSINESS,,Бізнес,20000,1.2,24,0.04,0.2,0,REG-1,IT\n"
+                + "health,,Здоров'я,30000,1.3,6,0.03,0.3,700,full,true,5000\n"
+                + "liability,,,4e4,1.4,36,0.02,0.4,0,general,UA\n"
+                + "life,,Життя,50000,1.5,120,0.01,0.05,0,ID-7,1980-02-29,\"\"\n"
+                + "property,,Майно,60000,1.6,12,0.06,0.06,900,Київ,flat\n"
+                + "travel,,Подорож,70000,1.7,-1,0.07,0.07,0,PL,2025-07-01,\n";
+
+        Derivative d = new Derivative("CSV");
+        int imported = new CsvImporter().importInto(write(csv), d);
+
+        assertEquals(7, imported);
+        assertEquals(7, d.getObligations().size());
+
+        AutoObligation auto = (AutoObligation) d.getObligations().get(0);
+        assertEquals(id, auto.getId());
+        assertEquals("Авто, \"преміум\"", auto.getName());
+        assertEquals(0.9, auto.getBonusMalus());
+        assertEquals(10000.0, auto.getInsuredAmount());
+
+        assertEquals("IT", ((BusinessObligation) d.getObligations().get(1)).getIndustry());
+        assertTrue(((HealthObligation) d.getObligations().get(2)).isHasPreExistingConditions());
+        assertNull(d.getObligations().get(3).getName());
+        assertEquals(40000.0, d.getObligations().get(3).getInsuredAmount());
+
+        LifeObligation life = (LifeObligation) d.getObligations().get(4);
+        assertEquals(LocalDate.of(1980, 2, 29), life.getDateOfBirth());
+        assertEquals("", life.getBeneficiaryName());
+
+        assertEquals("Київ", ((PropertyObligation) d.getObligations().get(5)).getPropertyAddress());
+
+        TravelObligation travel = (TravelObligation) d.getObligations().get(6);
+        assertEquals(-1, travel.getPeriod());
+        assertNull(travel.getTripEndDate());
+
+        assertEquals(7, d.getAggregates().getCount());
+    }
+
+    @Test
+    @DisplayName("Дрібні шматки: порядок рядків зберігається, зобов'язання додаються в кінець")
+    void testChunksKeepOrder() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            csv.append("property,,P").append(i).append(',').append(i).append(",1,12,0.01,0.1,0,addr,flat\n");
+        }
+        Derivative d = new Derivative("chunks");
+        d.setObligations(new ArrayList<>());
+        d.getObligations().add(new PropertyObligation("existing", 1, 1, 1, 0, 0, 0, "a", "b"));
+
+        assertEquals(500, new CsvImporter(97).importInto(write(csv.toString()), d));
+
+        assertEquals(501, d.getObligations().size());
+        assertEquals("existing", d.getObligations().get(0).getName());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("P" + i, d.getObligations().get(i + 1).getName());
+        }
+        assertEquals(501, d.getAggregates().getCount());
+    }
+
+    @Test
+    @DisplayName("Помилка: номер рядка у повідомленні, дериватива не змінюється")
+    void testErrorLineAndAtomicity() throws IOException {
+        StringBuilder csv = new StringBuilder("type,id,name,insuredAmount,factor,period,interestRate,probability,maxCost,field1,field2,field3\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append("property,,P,1,1,12,0.01,0.1,0,addr,flat\n");
+        }
+        csv.append("property,,P,abc,1,12,0.01,0.1,0,addr,flat\n");
+
+        Derivative d = new Derivative("err");
+        IOException e = assertThrows(IOException.class, () -> new CsvImporter(64).importInto(write(csv.toString()), d));
+
+        assertTrue(e.getMessage().startsWith("Рядок 102:"), e.getMessage());
+        assertTrue(e.getMessage().contains("insuredAmount"), e.getMessage());
+        assertNull(d.getObligations());
+
+        assertThrows(IOException.class, () -> new CsvImporter().importInto(write("rocket,,x,1,1,1,0,0,0,a,b\n"), d));
+        assertThrows(IOException.class, () -> new CsvImporter().importInto(write("property,,x,1,1,1,0,0,0,a\n"), d));
+        assertThrows(IOException.class, () -> new CsvImporter().importInto(write("life,,x,1,1,1,0,0,0,a,1980-13-01,b\n"), d));
+        assertThrows(IOException.class, () -> new CsvImporter().importInto(write("property,not-a-uuid,x,1,1,1,0,0,0,a,b\n"), d));
+        assertThrows(IOException.class, () -> new CsvImporter().importInto(write("property,,\"x,1,1,1,0,0,0,a,b\n"), d));
+    }
+
+    @Test
+    @DisplayName("parseDouble збігається з Double.parseDouble побітово")
+    void testParseDouble() {
+        Random rnd = new Random(42);
+        String[] fixed = {"0", "-0", "0.0", "1", "-1", "+2.5", "123456789012345", "1234567890123456789",
+                "0.1", "0.000001", "1e22", "1e23", "1.5E-7", "9007199254740993", "3.141592653589793",
+                "NaN", "-Infinity", ".5", "5.", "007", "1e-400", "1e400"};
+        for (String s : fixed) {
+            assertParsesLikeJdk(s);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            assertParsesLikeJdk(Double.toString(rnd.nextDouble() * Math.pow(10, rnd.nextInt(20) - 10)));
+            assertParsesLikeJdk(String.format(Locale.ROOT, "%.6f", rnd.nextDouble() * 1_000_000));
+            assertParsesLikeJdk(Long.toString(rnd.nextLong() % 1_000_000_000_000L));
+        }
+        assertThrows(NumberFormatException.class, () -> parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> parse("-"));
+        assertThrows(NumberFormatException.class, () -> parse("12d"));
+    }
+
+    private static void assertParsesLikeJdk(String s) {
+        assertEquals(Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(parse(s)), s);
+    }
+
+    private static double parse(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        return CsvImporter.parseDouble(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    @Test
+    @DisplayName("FileManager.importCsv: помилка перетворюється на RuntimeException з причиною")
+    void testFileManagerImport() throws IOException {
+        FileManager fm = new FileManager();
+        Derivative d = new Derivative("fm");
+        assertEquals(1, fm.importCsv(d, write("auto,,A,1,1,1,0,0,0,car,B,1\n").toString()));
+        assertEquals(1, d.getObligations().size());
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> fm.importCsv(d, write("auto,,A,x,1,1,0,0,0,car,B,1\n").toString()));
+        assertTrue(e.getMessage().contains("Рядок 1"), e.getMessage());
+        assertThrows(RuntimeException.class, () -> fm.importCsv(d, tempDir.resolve("none.csv").toString()));
+        assertEquals(1, d.getObligations().size());
+    }
+
+    @Test
+    @DisplayName("Порожній файл нічого не додає")
+    void testEmptyFile() throws IOException {
+        Derivative d = new Derivative("empty");
+        assertEquals(0, new CsvImporter().importInto(write(""), d));
+        assertTrue(d.getObligations().isEmpty());
+    }
+}
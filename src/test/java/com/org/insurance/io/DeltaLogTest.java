@@ -0,0 +1,180 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Obligation obligation(String name) {
+        return new PropertyObligation(name, 1000, 1, 12, 0.01, 0.1, 0, "Київ", "flat");
+    }
+
+    /** Записати базу і позначити деривативу збереженою в неї. */
+    private static void writeBase(Path base, Derivative d) throws IOException {
+        try (OutputStream out = Files.newOutputStream(base)) {
+            DerivativeCodec.write(d, out);
+        }
+        d.markSaved(d.pendingChanges(base), base);
+    }
+
+    private static Derivative readBase(Path base) throws IOException {
+        try (var in = Files.newInputStream(base)) {
+            return DerivativeCodec.read(in);
+        }
+    }
+
+    private static void appendDelta(Path base, Derivative d) throws IOException {
+        var changes = d.pendingChanges(base);
+        DeltaLog.append(base, d, changes);
+        d.markSaved(changes, base);
+    }
+
+    private static void assertSameRows(Derivative expected, Derivative actual) {
+        assertEquals(expected.getName(), actual.getName());
+        List<Obligation> e = expected.getObligations();
+        List<Obligation> a = actual.getObligations();
+        assertEquals(e.size(), a.size());
+        for (int i = 0; i < e.size(); i++) {
+            assertEquals(e.get(i).getId(), a.get(i).getId(), "Рядок " + i);
+            assertEquals(e.get(i).getName(), a.get(i).getName(), "Рядок " + i);
+            assertEquals(e.get(i).getInsuredAmount(), a.get(i).getInsuredAmount(), "Рядок " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Дельти накладаються на базу: заміна на місці, видалення, додавання в кінець")
+    void testApplyKeepsOrder() throws IOException {
+        Path base = tempDir.resolve("d.bin");
+        Obligation a = obligation("A");
+        Obligation b = obligation("B");
+        Obligation c = obligation("C");
+        Obligation d = obligation("D");
+        Derivative live = new Derivative("Книга");
+        live.setObligations(new ArrayList<>(List.of(a, b, c, d)));
+        writeBase(base, live);
+
+        b.setInsuredAmount(2000);
+        live.getObligations().remove(c);
+        Obligation e = obligation("E");
+        live.getObligations().add(e);
+        appendDelta(base, live);
+
+        live.getObligations().remove(a);
+        live.getObligations().add(a);
+        e.setName("E2");
+        live.getObligations().add(obligation("F"));
+        live.setName("Книга 2");
+        appendDelta(base, live);
+
+        Derivative loaded = readBase(base);
+        assertEquals(2, DeltaLog.apply(base, loaded));
+        assertSameRows(live, loaded);
+        assertEquals(List.of("B", "D", "E2", "A", "F"),
+                loaded.getObligations().stream().map(Obligation::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Обірваний запис відкидається і відрізається перед наступним")
+    void testTornRecord() throws IOException {
+        Path base = tempDir.resolve("d.bin");
+        Derivative live = new Derivative("Книга");
+        live.setObligations(new ArrayList<>(List.of(obligation("A"))));
+        writeBase(base, live);
+
+        live.getObligations().add(obligation("B"));
+        appendDelta(base, live);
+        long good = Files.size(DeltaLog.logOf(base));
+        live.getObligations().add(obligation("C"));
+        appendDelta(base, live);
+        try (FileChannel channel = FileChannel.open(DeltaLog.logOf(base), StandardOpenOption.WRITE)) {
+            channel.truncate(good + 5);
+        }
+
+        Derivative loaded = readBase(base);
+        assertEquals(1, DeltaLog.apply(base, loaded));
+        assertEquals(2, loaded.getObligations().size());
+
+        live.getObligations().get(0).setName("A2");
+        appendDelta(base, live);
+        loaded = readBase(base);
+        assertEquals(2, DeltaLog.apply(base, loaded));
+        assertEquals(List.of("A2", "B"), loaded.getObligations().stream().map(Obligation::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Запис з правдоподібною довжиною, але невірним CRC відрізається перед наступним")
+    void testCorruptRecord() throws IOException {
+        Path base = tempDir.resolve("d.bin");
+        Derivative live = new Derivative("Книга");
+        live.setObligations(new ArrayList<>(List.of(obligation("A"))));
+        writeBase(base, live);
+
+        live.getObligations().add(obligation("B"));
+        appendDelta(base, live);
+        live.getObligations().add(obligation("C"));
+        appendDelta(base, live);
+        // Довжина запису ціла, пошкоджено лише вміст
+        byte[] bytes = Files.readAllBytes(DeltaLog.logOf(base));
+        bytes[bytes.length - 2] ^= 0x20;
+        Files.write(DeltaLog.logOf(base), bytes);
+
+        live.getObligations().get(0).setName("A2");
+        appendDelta(base, live);
+        Derivative loaded = readBase(base);
+        assertEquals(2, DeltaLog.apply(base, loaded), "Нова дельта не схована за пошкодженим записом");
+        assertEquals(List.of("A2", "B"), loaded.getObligations().stream().map(Obligation::getName).toList());
+    }
+
+    @Test
+    @DisplayName("recover: ущільнення без видаленого журналу відкочується, з видаленим — завершується")
+    void testRecover() throws IOException {
+        Path base = tempDir.resolve("d.bin");
+        Files.writeString(base, "old");
+        Files.writeString(DeltaLog.stagingOf(base), "new");
+        Files.writeString(DeltaLog.logOf(base), "delta");
+
+        DeltaLog.recover(base);
+        assertFalse(Files.exists(DeltaLog.stagingOf(base)));
+        assertEquals("old", Files.readString(base));
+
+        Files.delete(DeltaLog.logOf(base));
+        Files.writeString(DeltaLog.stagingOf(base), "new");
+        DeltaLog.recover(base);
+        assertFalse(Files.exists(DeltaLog.stagingOf(base)));
+        assertEquals("new", Files.readString(base));
+    }
+
+    @Test
+    @DisplayName("Журнал дельт іншої деривативи відхиляється")
+    void testForeignLog() throws IOException {
+        Path base = tempDir.resolve("d.bin");
+        Derivative live = new Derivative("Книга");
+        live.setObligations(new ArrayList<>(List.of(obligation("A"))));
+        writeBase(base, live);
+        live.getObligations().add(obligation("B"));
+        appendDelta(base, live);
+
+        Derivative other = new Derivative("Інша");
+        other.setObligations(new ArrayList<>());
+        assertThrows(StreamCorruptedException.class, () -> DeltaLog.apply(base, other));
+    }
+}
@@ -0,0 +1,342 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.BusinessObligation;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.LiabilityObligation;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.TravelObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DerivativeCodecTest {
+
+    private static byte[] encode(Derivative d) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DerivativeCodec.write(d, out);
+        return out.toByteArray();
+    }
+
+    private static Derivative decode(byte[] bytes) throws IOException {
+        return DerivativeCodec.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static List<Obligation> allTypes() {
+        List<Obligation> list = new ArrayList<>();
+        list.add(new AutoObligation("Авто", 10_000, 1.1, 12, 0.05, 0.1, 500, "car", "B", 0.9));
+        list.add(new BusinessObligation("Бізнес", 20_000, 1.2, 24, 0.04, 0.2, 0, "REG-1", "IT"));
+        list.add(new HealthObligation("Здоров'я", 30_000, 1.3, 6, 0.03, 0.3, 700, "full", true, 5_000));
+        list.add(new LiabilityObligation("Відповідальність", 40_000, 1.4, 36, 0.02, 0.4, 0, "general", "UA"));
+        list.add(new LifeObligation("Життя", 50_000, 1.5, 120, 0.01, 0.05, 0, "ID-7",
+                LocalDate.of(1980, 2, 29), "Олена"));
+        list.add(new PropertyObligation("Майно", 60_000, 1.6, 12, 0.06, 0.06, 900, "Київ", "flat"));
+        list.add(new TravelObligation("Подорож", 70_000, 1.7, 1, 0.07, 0.07, 0, "PL",
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 14)));
+        return list;
+    }
+
+    @Test
+    @DisplayName("Усі типи зобов'язань і null-елементи відновлюються без втрат")
+    void testRoundTripAllTypes() throws IOException {
+        Derivative original = new Derivative("Портфель");
+        List<Obligation> obligations = allTypes();
+        obligations.add(2, null);
+        original.setObligations(obligations);
+
+        Derivative loaded = decode(encode(original));
+
+        assertEquals(original.getId(), loaded.getId());
+        assertEquals("Портфель", loaded.getName());
+        assertEquals(obligations.size(), loaded.getObligations().size());
+        for (int i = 0; i < obligations.size(); i++) {
+            Obligation expected = obligations.get(i);
+            Obligation actual = loaded.getObligations().get(i);
+            if (expected == null) {
+                assertNull(actual);
+                continue;
+            }
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getInsuredAmount(), actual.getInsuredAmount());
+            assertEquals(expected.getFactor(), actual.getFactor());
+            assertEquals(expected.getPeriod(), actual.getPeriod());
+            assertEquals(expected.getInterestRate(), actual.getInterestRate());
+            assertEquals(expected.getProbability(), actual.getProbability());
+            assertEquals(expected.getMaxCost(), actual.getMaxCost());
+        }
+
+        AutoObligation auto = (AutoObligation) loaded.getObligations().get(0);
+        assertEquals("car", auto.getVehicleType());
+        assertEquals("B", auto.getDriverClass());
+        assertEquals(0.9, auto.getBonusMalus());
+
+        HealthObligation health = (HealthObligation) loaded.getObligations().get(3);
+        assertTrue(health.isHasPreExistingConditions());
+        assertEquals(5_000, health.getAnnualLimit());
+
+        LifeObligation life = (LifeObligation) loaded.getObligations().get(5);
+        assertEquals(LocalDate.of(1980, 2, 29), life.getDateOfBirth());
+        assertEquals("Олена", life.getBeneficiaryName());
+
+        TravelObligation travel = (TravelObligation) loaded.getObligations().get(7);
+        assertEquals(LocalDate.of(2025, 7, 14), travel.getTripEndDate());
+
+        assertEquals(original.getAggregates().getTotalRisk(), loaded.getAggregates().getTotalRisk(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("null-рядки, null-дати та порожній/відсутній список зберігаються")
+    void testNulls() throws IOException {
+        Derivative d = new Derivative();
+        d.setObligations(List.of(new TravelObligation(null, 1, 1, 1, 0, 0, 0, null, null, null)));
+
+        TravelObligation t = (TravelObligation) decode(encode(d)).getObligations().get(0);
+        assertNull(t.getName());
+        assertNull(t.getDestinationCountry());
+        assertNull(t.getTripStartDate());
+        assertNull(t.getTripEndDate());
+        assertNull(decode(encode(d)).getName());
+
+        Derivative noList = new Derivative("x");
+        noList.setObligations(null);
+        assertNull(decode(encode(noList)).getObligations());
+
+        Derivative empty = new Derivative("x");
+        empty.setObligations(new ArrayList<>());
+        assertTrue(decode(encode(empty)).getObligations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Зобов'язання стороннього класу записуються через Java-серіалізацію")
+    void testForeignObligation() throws IOException {
+        Derivative d = new Derivative("Сторонні");
+        d.setObligations(new ArrayList<>(List.of(new FileManagerTest.TestObligationStub("Stub", 42.0))));
+
+        Derivative loaded = decode(encode(d));
+
+        Obligation o = loaded.getObligations().get(0);
+        assertInstanceOf(FileManagerTest.TestObligationStub.class, o);
+        assertEquals("Stub", o.getName());
+        assertEquals(42.0, o.getInsuredAmount());
+    }
+
+    @Test
+    @DisplayName("Повторювані рядки кодуються словником, файл менший за Java-серіалізацію")
+    void testCompactness() throws IOException {
+        Derivative d = new Derivative("Великий");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            obligations.add(new PropertyObligation("Майно", 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat"));
+        }
+        d.setObligations(obligations);
+
+        byte[] codec = encode(d);
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(java)) {
+            oos.writeObject(d);
+        }
+
+        assertTrue(codec.length < java.size(), codec.length + " vs " + java.size());
+        Derivative loaded = decode(codec);
+        assertEquals(1000, loaded.getObligations().size());
+        assertEquals("Київ", ((PropertyObligation) loaded.getObligations().get(999)).getPropertyAddress());
+    }
+
+    @Test
+    @DisplayName("Стиснені блоки: файл менший, паралельне читання з відображеного файлу дає ті самі дані")
+    void testCompressedBlocks(@TempDir Path dir) throws IOException {
+        Derivative d = new Derivative("Стиснення");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            obligations.add(i % 97 == 0 ? null : allTypes().get(i % 7));
+        }
+        d.setObligations(obligations);
+
+        byte[] plain = encode(d);
+        Path file = dir.resolve("z.bin");
+        for (int level : new int[]{1, 6, 9}) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                DerivativeCodec.write(d, out, 300, level);
+            }
+            assertTrue(Files.size(file) < plain.length / 2, "level " + level);
+
+            Derivative loaded = new FileManager().loadDerivative(file.toString());
+            assertEquals(5000, loaded.getObligations().size());
+            for (int i = 0; i < 5000; i += 13) {
+                Obligation expected = obligations.get(i);
+                Obligation actual = loaded.getObligations().get(i);
+                assertEquals(expected == null ? null : expected.getId(), actual == null ? null : actual.getId(), "row " + i);
+            }
+            assertEquals(d.getAggregates().getTotalPremium(), loaded.getAggregates().getTotalPremium(), 1e-6);
+
+            // Послідовне читання потоком теж розпаковує блоки
+            assertEquals(5000, DerivativeCodec.read(Files.newInputStream(file)).getObligations().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Від COLUMNAR_ROWS зобов'язань файл читається в колонкове сховище з тими самими даними")
+    void testLargeDerivativeLoadsColumnar(@TempDir Path dir) throws IOException {
+        Derivative d = new Derivative("Велика");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < DerivativeCodec.COLUMNAR_ROWS; i++) {
+            obligations.add(i % 1000 == 0 ? null : allTypes().get(i % 7));
+        }
+        d.setObligations(obligations);
+        Path file = dir.resolve("big.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(d, out, 1);
+        }
+
+        Derivative loaded = new FileManager().loadDerivative(file.toString());
+        assertNotNull(loaded.getColumns());
+        assertEquals(obligations.size(), loaded.getObligations().size());
+        for (int i = 0; i < obligations.size(); i += 997) {
+            Obligation expected = obligations.get(i);
+            Obligation actual = loaded.getObligations().get(i);
+            assertEquals(expected == null ? null : expected.toString(), actual == null ? null : actual.toString(), "row " + i);
+        }
+        assertEquals(d.getAggregates().getTotalPremium(), loaded.getAggregates().getTotalPremium(), 1e-6);
+
+        Derivative small = new Derivative("Мала");
+        small.setObligations(allTypes());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(small, out);
+        }
+        assertNull(new FileManager().loadDerivative(file.toString()).getColumns());
+    }
+
+    @Test
+    @DisplayName("Колонкова дериватива кодується прямо з колонок у ті самі байти, що й звичайний список")
+    void testColumnarWriteMatchesList() throws IOException {
+        List<Obligation> obligations = new ArrayList<>(allTypes());
+        obligations.add(null);
+        obligations.addAll(allTypes());
+        Derivative plain = new Derivative(UUID.randomUUID(), "Список");
+        plain.setObligations(obligations);
+        Derivative columnar = new Derivative(plain.getId(), "Список");
+        columnar.setObligations(new ArrayList<>(obligations));
+        columnar.useColumnarStorage();
+
+        for (int level : new int[]{DerivativeCodec.NO_COMPRESSION, 1}) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            DerivativeCodec.write(plain, expected, 4, level);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            DerivativeCodec.write(columnar, actual, 4, level);
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray(), "level " + level);
+        }
+    }
+
+    @Test
+    @DisplayName("FileManager: рівень стиснення 0..9, інакше IllegalArgumentException")
+    void testCompressionLevel() {
+        assertEquals(DerivativeCodec.NO_COMPRESSION, new FileManager().getCompressionLevel());
+        assertEquals(9, new FileManager(9).getCompressionLevel());
+        assertThrows(IllegalArgumentException.class, () -> new FileManager(10));
+        assertThrows(IllegalArgumentException.class, () -> new FileManager(-1));
+    }
+
+    @Test
+    @DisplayName("Пошкоджений блок або футер виявляють verify і паралельне читання")
+    void testChecksums(@TempDir Path dir) throws IOException {
+        Derivative d = new Derivative("Суми");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            obligations.add(allTypes().get(i % 7));
+        }
+        d.setObligations(obligations);
+        Path file = dir.resolve("c.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(d, out, 100, DerivativeCodec.NO_COMPRESSION);
+        }
+        byte[] good = Files.readAllBytes(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DerivativeCodec.verify(new MappedFileInput(channel));
+            // Ділянки перевірки більші за вікно відображення
+            DerivativeCodec.verify(new MappedFileInput(channel, 4096));
+        }
+
+        // Третина файлу припадає на блоки: футер з індексом UUID — у кінці
+        byte[] bad = good.clone();
+        bad[bad.length / 3] ^= 0x01;
+        Files.write(file, bad);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            StreamCorruptedException e = assertThrows(StreamCorruptedException.class,
+                    () -> DerivativeCodec.verify(new MappedFileInput(channel)));
+            assertTrue(e.getMessage().contains("блоку"), e.getMessage());
+            assertThrows(StreamCorruptedException.class, () -> DerivativeCodec.readMapped(new MappedFileInput(channel)));
+        }
+
+        // Останній запис індексу UUID — частина футера
+        bad = good.clone();
+        bad[bad.length - DerivativeCodec.TRAILER_BYTES - 1] ^= 0x01;
+        Files.write(file, bad);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(StreamCorruptedException.class, () -> DerivativeCodec.verify(new MappedFileInput(channel)));
+        }
+    }
+
+    @Test
+    @DisplayName("Індекс UUID сортується стабільно: дублікати лишаються в порядку рядків")
+    void testIdTableSort() {
+        Random rnd = new Random(11L);
+        DerivativeCodec.IdTable ids = new DerivativeCodec.IdTable(0);
+        for (int row = 0; row < 5000; row++) {
+            ids.add(rnd.nextInt(50) - 25, rnd.nextBoolean() ? Long.MIN_VALUE : rnd.nextLong(), row);
+        }
+        ids.sort();
+
+        assertEquals(5000, ids.size);
+        for (int i = 1; i < ids.size; i++) {
+            int c = Long.compare(ids.highs[i - 1], ids.highs[i]);
+            if (c == 0) c = Long.compare(ids.lows[i - 1], ids.lows[i]);
+            if (c == 0) c = Integer.compare(ids.rows[i - 1], ids.rows[i]);
+            assertTrue(c < 0, "позиція " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Чужі або пошкоджені дані -> IOException")
+    void testCorrupted() throws IOException {
+        assertThrows(StreamCorruptedException.class, () -> decode(new byte[]{1, 2, 3, 4, 0, 1}));
+        assertThrows(StreamCorruptedException.class, () -> decode(new byte[]{0x49, 0x43, 0x53, 0x44, 0, 2}));
+
+        Derivative d = new Derivative("x");
+        d.setObligations(allTypes());
+        byte[] bytes = encode(d);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(IOException.class, () -> decode(truncated));
+    }
+
+    @Test
+    @DisplayName("null-аргументи -> IllegalArgumentException")
+    void testNullArguments() {
+        assertThrows(IllegalArgumentException.class, () -> DerivativeCodec.write(null, new ByteArrayOutputStream()));
+        assertThrows(IllegalArgumentException.class, () -> DerivativeCodec.write(new Derivative(), null));
+        assertThrows(IllegalArgumentException.class, () -> DerivativeCodec.read(null));
+    }
+}
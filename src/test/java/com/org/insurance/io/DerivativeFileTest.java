@@ -0,0 +1,180 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationField;
+import com.org.insurance.domain.ObligationQuery;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DerivativeFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Сума страхування зростає з номером рядка — зони блоків не перекриваються. */
+    private static Derivative sorted(int n) {
+        Derivative d = new Derivative("Блоки");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            obligations.add(i == 5 ? null
+                    : new PropertyObligation("P" + i, i, 1.0, 12 + i % 3, 0.01, 0.1, 0, "addr", "flat"));
+        }
+        d.setObligations(obligations);
+        return d;
+    }
+
+    private Path save(Derivative d, int blockRows) throws IOException {
+        Path file = tempDir.resolve(UUID.randomUUID() + ".bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(d, out, blockRows, DerivativeCodec.NO_COMPRESSION);
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("get за UUID знаходить кожне зобов'язання і читає один блок")
+    void testGetById() throws IOException {
+        Derivative d = sorted(1000);
+        Path file = save(d, 100);
+
+        try (DerivativeFile f = DerivativeFile.open(file)) {
+            assertTrue(f.isIndexed());
+            assertEquals(d.getId(), f.getId());
+            assertEquals("Блоки", f.getName());
+            assertEquals(1000, f.getCount());
+
+            for (int i : new int[]{0, 99, 100, 555, 999}) {
+                Obligation expected = d.getObligations().get(i);
+                Obligation found = f.get(expected.getId());
+                assertEquals(expected.getId(), found.getId());
+                assertEquals("P" + i, found.getName());
+            }
+            assertEquals(5, f.blocksRead());
+            assertNull(f.get(UUID.randomUUID()));
+        }
+    }
+
+    @Test
+    @DisplayName("Стиснений файл: пошук за UUID і фільтр розпаковують лише потрібні блоки")
+    void testCompressedFile() throws IOException {
+        Derivative d = sorted(1000);
+        Path file = tempDir.resolve("z.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(d, out, 100, 6);
+        }
+
+        try (DerivativeFile f = DerivativeFile.open(file)) {
+            assertEquals("P777", f.get(d.getObligations().get(777).getId()).getName());
+            assertEquals(50, f.find(new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 450.0, 499.0)).size());
+            assertEquals(2, f.blocksRead());
+        }
+    }
+
+    @Test
+    @DisplayName("Дублікати UUID: повертається перше зобов'язання у файлі")
+    void testDuplicateIds() throws IOException {
+        UUID id = UUID.randomUUID();
+        Derivative d = new Derivative("dup");
+        d.setObligations(new ArrayList<>(List.of(
+                new PropertyObligation(id, "first", 1, 1, 1, 0, 0, 0, "a", "b"),
+                new PropertyObligation(UUID.randomUUID(), "other", 1, 1, 1, 0, 0, 0, "a", "b"),
+                new PropertyObligation(id, "second", 1, 1, 1, 0, 0, 0, "a", "b"))));
+
+        try (DerivativeFile f = DerivativeFile.open(save(d, 1))) {
+            assertEquals("first", f.get(id).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Фільтр діапазону читає лише блоки, зони яких перетинаються з запитом")
+    void testRangeFilterPrunesBlocks() throws IOException {
+        Derivative d = sorted(1000);
+        Path file = save(d, 100);
+
+        ObligationQuery query = new ObligationQuery()
+                .range(ObligationField.INSURED_AMOUNT, 250.0, 349.0)
+                .range(ObligationField.PERIOD, 12, 12);
+
+        try (DerivativeFile f = DerivativeFile.open(file)) {
+            List<Obligation> found = f.find(query);
+
+            List<Obligation> expected = new ArrayList<>();
+            for (Obligation o : d.getObligations()) {
+                if (query.matches(o)) expected.add(o);
+            }
+            assertEquals(expected.size(), found.size());
+            for (int i = 0; i < found.size(); i++) {
+                assertEquals(expected.get(i).getId(), found.get(i).getId());
+            }
+            assertEquals(2, f.blocksRead());
+
+            assertTrue(f.find(new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 5000.0, null)).isEmpty());
+            assertEquals(2, f.blocksRead());
+
+            assertEquals(999, f.find(new ObligationQuery()).size());
+        }
+    }
+
+    @Test
+    @DisplayName("NaN у блоці не дозволяє його відсікти")
+    void testNaNZone() throws IOException {
+        Derivative d = new Derivative("nan");
+        d.setObligations(new ArrayList<>(List.of(
+                new PropertyObligation("a", 1, 1, 1, 0, 0, 0, "x", "y"),
+                new PropertyObligation("b", Double.NaN, 1, 1, 0, 0, 0, "x", "y"))));
+
+        try (DerivativeFile f = DerivativeFile.open(save(d, 10))) {
+            List<Obligation> found = f.find(new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 100.0, 200.0));
+            assertEquals(1, found.size());
+            assertEquals("b", found.get(0).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Старий файл без блоків обробляється повним проходом")
+    void testLegacyFile() throws IOException {
+        Derivative d = sorted(20);
+        Path file = tempDir.resolve("legacy.bin");
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(file))) {
+            oos.writeObject(d);
+        }
+
+        try (DerivativeFile f = DerivativeFile.open(file)) {
+            assertFalse(f.isIndexed());
+            assertEquals(20, f.getCount());
+            assertEquals("P7", f.get(d.getObligations().get(7).getId()).getName());
+            assertEquals(3, f.find(new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 10.0, 12.0)).size());
+        }
+    }
+
+    @Test
+    @DisplayName("FileManager: findObligation і findObligations поверх збереженого файлу")
+    void testFileManager() {
+        FileManager fm = new FileManager();
+        Derivative d = sorted(50);
+        String file = tempDir.resolve("fm.bin").toString();
+        fm.saveDerivative(d, file);
+
+        Obligation o = d.getObligations().get(42);
+        assertEquals("P42", fm.findObligation(file, o.getId()).getName());
+        assertNull(fm.findObligation(file, UUID.randomUUID()));
+        assertEquals(List.of("P40", "P41"), fm.findObligations(file,
+                new ObligationQuery().nameContains("p4").range(ObligationField.INSURED_AMOUNT, 40.0, 41.0))
+                .stream().map(Obligation::getName).toList());
+        assertThrows(RuntimeException.class, () -> fm.findObligation(tempDir.resolve("none").toString(), o.getId()));
+    }
+}
@@ -2,6 +2,9 @@ package com.org.insurance.io;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationField;
+import com.org.insurance.domain.ObligationQuery;
+import com.org.insurance.domain.PropertyObligation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -72,6 +75,25 @@ class FileManagerTest {
         assertEquals("Stub", loaded.getObligations().get(0).getName());
     }
 
+    @Test
+    @DisplayName("loadDerivative: старий файл Java-серіалізації завантажується")
+    void testLoadLegacySerializedFile() throws IOException {
+        Derivative original = new Derivative("Legacy");
+        original.setObligations(new ArrayList<>(List.of(new TestObligationStub("Old", 10.0))));
+
+        Path file = tempDir.resolve("legacy.bin");
+        try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(Files.newOutputStream(file))) {
+            oos.writeObject(original);
+        }
+
+        Derivative loaded = fileManager.loadDerivative(file.toString());
+
+        assertEquals(original.getId(), loaded.getId());
+        assertEquals("Legacy", loaded.getName());
+        assertEquals("Old", loaded.getObligations().get(0).getName());
+        assertEquals(original.getAggregates().getTotalRisk(), loaded.getAggregates().getTotalRisk());
+    }
+
     @Test
     @DisplayName("loadDerivative: неіснуючий файл -> RuntimeException з повідомленням про відсутність файлу")
     void testLoadNonExistentFile() {
@@ -112,4 +134,117 @@ class FileManagerTest {
         assertTrue(text.contains("Зобов'язань немає"),
                 "Звіт має містити повідомлення про відсутність зобов'язань");
     }
+
+    private static Derivative book(int rows) {
+        Derivative d = new Derivative("Книга");
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            list.add(new PropertyObligation("Майно " + i, 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat"));
+        }
+        d.setObligations(list);
+        return d;
+    }
+
+    @Test
+    @DisplayName("saveDerivative пише атомарно через тимчасовий файл; verify виявляє пошкодження")
+    void testAtomicSaveAndVerify() throws IOException {
+        Path file = tempDir.resolve("book.bin");
+        fileManager.saveDerivative(book(10), file.toString());
+        Derivative second = book(3000);
+        fileManager.saveDerivative(second, file.toString());
+
+        assertFalse(Files.exists(AtomicFiles.tempOf(file)));
+        assertEquals(3000, fileManager.loadDerivative(file.toString()).getObligations().size());
+        assertTrue(fileManager.verify(file.toString()));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 3] ^= 0x10;
+        Files.write(file, bytes);
+        assertFalse(fileManager.verify(file.toString()));
+
+        // Недописаний тимчасовий файл після збою не заважає наступному збереженню
+        Files.write(AtomicFiles.tempOf(file), new byte[]{1, 2, 3});
+        fileManager.saveDerivative(second, file.toString());
+        assertFalse(Files.exists(AtomicFiles.tempOf(file)));
+        assertTrue(fileManager.verify(file.toString()));
+        assertThrows(RuntimeException.class, () -> fileManager.verify(tempDir.resolve("none.bin").toString()));
+    }
+
+    @Test
+    @DisplayName("saveDelta: перше збереження повне, далі у файл дельт пишуться лише зміни")
+    void testSaveDelta() throws IOException {
+        Derivative d = book(5_000);
+        Path file = tempDir.resolve("book.bin");
+        Path deltas = DeltaLog.logOf(file);
+
+        assertFalse(fileManager.saveDelta(d, file.toString()), "Бази ще немає — повне збереження");
+        assertFalse(Files.exists(deltas));
+        assertTrue(fileManager.saveDelta(d, file.toString()), "Без змін дельта не пишеться");
+        assertFalse(Files.exists(deltas));
+
+        Obligation changed = d.getObligations().get(10);
+        changed.setInsuredAmount(1.5);
+        d.getObligations().remove(20);
+        d.getObligations().add(new PropertyObligation("Нове", 7, 1, 12, 0.01, 0.1, 0, "Львів", "house"));
+        assertTrue(fileManager.saveDelta(d, file.toString()));
+        assertTrue(Files.size(deltas) * 50 < Files.size(file), "Дельта значно менша за базу");
+
+        Derivative loaded = fileManager.loadDerivative(file.toString());
+        assertEquals(5_000, loaded.getObligations().size());
+        assertEquals(1.5, loaded.getObligations().get(10).getInsuredAmount());
+        assertEquals("Майно 21", loaded.getObligations().get(20).getName());
+        assertEquals("Нове", loaded.getObligations().get(4_999).getName());
+
+        // Читання файлу без завантаження теж бачать дельти
+        assertEquals(5_000, fileManager.summarize(file.toString()).getCount());
+        assertEquals(1.5, fileManager.findObligation(file.toString(), changed.getId()).getInsuredAmount());
+        assertEquals(1, fileManager.findObligations(file.toString(),
+                new ObligationQuery().range(ObligationField.INSURED_AMOUNT, 0.0, 2.0)).size());
+
+        // Завантажена дериватива продовжує ланцюжок дельт
+        loaded.getObligations().get(0).setName("Перший");
+        assertTrue(fileManager.saveDelta(loaded, file.toString()));
+        assertEquals("Перший", fileManager.loadDerivative(file.toString()).getObligations().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("compact зливає дельти в базу; повне збереження замінює базу разом із дельтами")
+    void testCompact() {
+        Derivative d = book(100);
+        String file = tempDir.resolve("book.bin").toString();
+        fileManager.saveDerivative(d, file);
+        assertFalse(fileManager.compact(file), "Дельт немає");
+
+        d.getObligations().get(3).setName("Змінено");
+        fileManager.saveDelta(d, file);
+        assertTrue(fileManager.compact(file));
+        assertFalse(Files.exists(DeltaLog.logOf(Path.of(file))));
+        assertEquals("Змінено", fileManager.loadDerivative(file).getObligations().get(3).getName());
+
+        d.getObligations().get(4).setName("Ще раз");
+        fileManager.saveDelta(d, file);
+        d.getObligations().clear();
+        fileManager.saveDerivative(d, file);
+        assertFalse(Files.exists(DeltaLog.logOf(Path.of(file))));
+        assertTrue(fileManager.loadDerivative(file).getObligations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Великий журнал дельт ущільнюється у фоні")
+    void testBackgroundCompaction() throws Exception {
+        Derivative d = book(200);
+        String file = tempDir.resolve("book.bin").toString();
+        fileManager.saveDerivative(d, file);
+
+        for (Obligation o : d.getObligations()) {
+            o.setProbability(0.2);
+        }
+        assertTrue(fileManager.saveDelta(d, file));
+        fileManager.compactInBackground(file).get(10, java.util.concurrent.TimeUnit.SECONDS);
+
+        assertFalse(Files.exists(DeltaLog.logOf(Path.of(file))));
+        Derivative loaded = fileManager.loadDerivative(file);
+        assertEquals(200, loaded.getObligations().size());
+        assertEquals(0.2, loaded.getObligations().get(199).getProbability());
+    }
 }
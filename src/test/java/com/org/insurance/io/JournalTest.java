@@ -0,0 +1,317 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.RiskRanking;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Obligation obligation(int i) {
+        return new PropertyObligation("Майно " + i, 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat");
+    }
+
+    private static Derivative created(String name) {
+        Derivative d = new Derivative(name);
+        d.setObligations(new ArrayList<>());
+        return d;
+    }
+
+    /** Записати сценарій у журнал і водночас виконати його над {@code live}. */
+    private static void scenario(Journal journal, List<Derivative> live) {
+        Derivative a = created("A");
+        Derivative b = created(null);
+        journal.logCreate(a);
+        live.add(a);
+        journal.logCreate(b);
+        live.add(b);
+        for (int i = 0; i < 10; i++) {
+            Obligation o = obligation(i);
+            Derivative target = i % 3 == 0 ? b : a;
+            journal.logAdd(target, live.indexOf(target), o);
+            target.getObligations().add(o);
+        }
+        BitSet rows = new BitSet();
+        rows.set(0);
+        rows.set(2);
+        rows.set(5);
+        journal.logRemove(a, 0, rows);
+        a.removeRows(rows);
+        journal.logDelete(b, 1);
+        live.remove(b);
+    }
+
+    private static void assertSameState(List<Derivative> expected, List<Derivative> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Derivative e = expected.get(i);
+            Derivative a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getObligations().size(), a.getObligations().size());
+            for (int j = 0; j < e.getObligations().size(); j++) {
+                Obligation eo = e.getObligations().get(j);
+                Obligation ao = a.getObligations().get(j);
+                assertEquals(eo.getId(), ao.getId());
+                assertEquals(eo.getName(), ao.getName());
+                assertEquals(eo.getInsuredAmount(), ao.getInsuredAmount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Записи журналу накладаються на знімок у тому ж порядку")
+    void testReplay() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        List<Derivative> live = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.ALWAYS)) {
+            scenario(journal, live);
+            assertEquals(14, journal.getRecordCount());
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(14, journal.getRecordCount());
+        }
+        assertSameState(live, recovered);
+        assertEquals(3, recovered.get(0).getObligations().size());
+    }
+
+    @Test
+    @DisplayName("Сортування, імпорт і завантаження журналюються: наступні видалення й додавання відновлюються")
+    void testReorderAppendAndLoad() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        List<Derivative> live = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.ALWAYS)) {
+            Derivative a = created("A");
+            Derivative c = created("C");
+            journal.logCreate(a);
+            live.add(a);
+            journal.logCreate(c);
+            live.add(c);
+            for (int i = 0; i < 6; i++) {
+                Obligation o = obligation(i);
+                journal.logAdd(a, 0, o);
+                a.getObligations().add(o);
+            }
+
+            // Видалення за позиціями вже відсортованого списку
+            int[] order = RiskRanking.riskOrder(a, true);
+            journal.logReorder(a, 0, order);
+            RiskRanking.permute(a, order);
+            BitSet rows = new BitSet();
+            rows.set(0);
+            rows.set(4);
+            journal.logRemove(a, 0, rows);
+            a.removeRows(rows);
+
+            List<Obligation> imported = List.of(obligation(10), obligation(11));
+            journal.logAppend(a, 0, imported);
+            a.getObligations().addAll(imported);
+
+            // Завантажена дериватива додається в кінець, далі в неї додають
+            Derivative loaded = new Derivative("Завантажена");
+            loaded.setObligations(new ArrayList<>(List.of(obligation(20))));
+            journal.logLoad(loaded);
+            live.add(loaded);
+            Obligation extra = obligation(21);
+            journal.logAdd(loaded, 2, extra);
+            loaded.getObligations().add(extra);
+
+            // Знімок замінює деривативу з тим самим id на місці
+            Derivative replacement = new Derivative(c.getId(), "C з файлу");
+            replacement.setObligations(new ArrayList<>(List.of(obligation(30))));
+            journal.logReplace(replacement);
+            live.set(1, replacement);
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(14, journal.getRecordCount());
+        }
+        assertSameState(live, recovered);
+        assertEquals("Майно 4", recovered.get(0).getObligations().get(0).getName());
+        assertEquals("C з файлу", recovered.get(1).getName());
+    }
+
+    @Test
+    @DisplayName("Повторно завантажений файл: записи потрапляють у ту копію з тим самим id, що й у меню")
+    void testDuplicateIds() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        Derivative source = created("Файл");
+        source.getObligations().add(obligation(0));
+        List<Derivative> live = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.ALWAYS)) {
+            for (int copy = 0; copy < 2; copy++) {
+                Derivative loaded = new Derivative(source.getId(), source.getName());
+                loaded.setObligations(new ArrayList<>(source.getObligations()));
+                journal.logLoad(loaded);
+                live.add(loaded);
+            }
+            Derivative second = live.get(1);
+            Obligation o = obligation(1);
+            journal.logAdd(second, 1, o);
+            second.getObligations().add(o);
+            int[] order = {1, 0};
+            journal.logReorder(second, 1, order);
+            RiskRanking.permute(second, order);
+            BitSet rows = new BitSet();
+            rows.set(1);
+            journal.logRemove(second, 1, rows);
+            second.removeRows(rows);
+
+            journal.logDelete(live.get(0), 0);
+            live.remove(0);
+            Obligation last = obligation(2);
+            journal.logAdd(second, 0, last);
+            second.getObligations().add(last);
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(7, journal.getRecordCount());
+        }
+        assertSameState(live, recovered);
+        assertEquals("Майно 1", recovered.get(0).getObligations().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Обірваний або пошкоджений хвіст відкидається, журнал дописується далі")
+    void testTornTail() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        Derivative d = created("D");
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.NONE)) {
+            journal.logCreate(d);
+            journal.logAdd(d, 0, obligation(1));
+        }
+        long good = Files.size(file);
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.NONE)) {
+            journal.logAdd(d, 0, obligation(2));
+        }
+        // Збій посеред запису: лишилася половина останнього запису
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(good + (Files.size(file) - good) / 2);
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.NONE)) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(good, Files.size(file));
+            journal.logAdd(d, 0, obligation(3));
+        }
+        assertEquals(1, recovered.get(0).getObligations().size());
+
+        // Пошкоджений вміст: CRC не збігається
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x40;
+        Files.write(file, bytes);
+        recovered.clear();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.NONE)) {
+            assertEquals(2, journal.getRecordCount());
+        }
+        assertEquals(1, recovered.get(0).getObligations().size());
+    }
+
+    @Test
+    @DisplayName("Груповий коміт пише записи за інтервалом і в commit")
+    void testGroupCommit() throws Exception {
+        Path file = tempDir.resolve("j.wal");
+        Derivative d = created("D");
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.GROUP, 60_000)) {
+            journal.logCreate(d);
+            journal.logAdd(d, 0, obligation(1));
+            assertEquals(Journal.HEADER_BYTES, Files.size(file), "Записи чекають у групі");
+            journal.commit();
+            assertTrue(Files.size(file) > Journal.HEADER_BYTES);
+        }
+
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.GROUP, 10)) {
+            long before = Files.size(file);
+            journal.logAdd(d, 0, obligation(2));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (Files.size(file) == before && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.size(file) > before, "Фоновий коміт записав групу");
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 0, recovered, Journal.SyncPolicy.GROUP)) {
+            assertEquals(3, journal.getRecordCount());
+            assertEquals(2, recovered.get(0).getObligations().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Журнал старшого покоління починається заново, новішого — відхиляється")
+    void testGenerations() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        try (Journal journal = Journal.open(file, 3, new ArrayList<>(), Journal.SyncPolicy.ALWAYS)) {
+            journal.logCreate(created("D"));
+        }
+
+        assertThrows(StreamCorruptedException.class,
+                () -> Journal.open(file, 2, new ArrayList<>(), Journal.SyncPolicy.ALWAYS));
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 4, recovered, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(4, journal.getGeneration());
+            assertEquals(0, journal.getRecordCount());
+        }
+        assertTrue(recovered.isEmpty());
+        assertEquals(Journal.HEADER_BYTES, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("reset починає нове покоління з порожнім журналом")
+    void testReset() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        try (Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.GROUP)) {
+            journal.logCreate(created("D"));
+            journal.reset(1);
+            assertThrows(IllegalArgumentException.class, () -> journal.reset(1));
+            journal.logCreate(created("E"));
+        }
+
+        List<Derivative> recovered = new ArrayList<>();
+        try (Journal journal = Journal.open(file, 1, recovered, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(1, journal.getRecordCount());
+            assertEquals(1, recovered.size());
+            assertEquals("E", recovered.get(0).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Запис після close і невідомий дериватив під час відновлення")
+    void testErrors() throws IOException {
+        Path file = tempDir.resolve("j.wal");
+        Journal journal = Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.ALWAYS);
+        journal.logDelete(created("Відсутній"), 0);
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.logCreate(created("D")));
+        assertThrows(IllegalArgumentException.class, () -> journal.logDelete(created("D"), -1));
+        assertThrows(StreamCorruptedException.class,
+                () -> Journal.open(file, 0, new ArrayList<>(), Journal.SyncPolicy.ALWAYS));
+        assertThrows(IllegalArgumentException.class,
+                () -> Journal.open(file, 0, null, Journal.SyncPolicy.ALWAYS));
+    }
+}
@@ -0,0 +1,205 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Примітиви, що перетинають межу вікна, читаються цілком")
+    void testPrimitivesAcrossWindows() throws IOException {
+        Path file = tempDir.resolve("data.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeByte(7);
+            out.writeLong(Long.MIN_VALUE + 3);
+            out.writeInt(-42);
+            out.writeDouble(Math.PI);
+            out.writeBoolean(true);
+            out.writeShort(0xBEEF);
+            out.writeUTF("Привіт");
+            out.write(new byte[100]);
+            out.writeChar('ї');
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = new MappedFileInput(channel, 10);
+            assertEquals(7, in.readByte());
+            assertEquals(Long.MIN_VALUE + 3, in.readLong());
+            assertEquals(-42, in.readInt());
+            assertEquals(Math.PI, in.readDouble());
+            assertTrue(in.readBoolean());
+            assertEquals(0xBEEF, in.readUnsignedShort());
+            assertEquals("Привіт", in.readUTF());
+            byte[] zeros = new byte[100];
+            in.readFully(zeros);
+            assertArrayEquals(new byte[100], zeros);
+            assertEquals('ї', in.readChar());
+            assertEquals(in.size(), in.position());
+            assertThrows(EOFException.class, in::readByte);
+        }
+    }
+
+    @Test
+    @DisplayName("peekUnsignedShort не зсуває позицію; seek і skipBytes у межах файлу")
+    void testPeekAndSeek() throws IOException {
+        Path file = tempDir.resolve("seek.bin");
+        Files.write(file, new byte[]{(byte) 0xAC, (byte) 0xED, 1, 2, 3});
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = new MappedFileInput(channel, 8);
+            in.seek(3);
+            assertEquals(0xACED, in.peekUnsignedShort());
+            assertEquals(3, in.position());
+            assertEquals(2, in.readByte());
+            assertEquals(1, in.skipBytes(10));
+            assertThrows(EOFException.class, () -> in.seek(6));
+            assertThrows(EOFException.class, () -> in.readFully(new byte[1]));
+        }
+
+        Path empty = tempDir.resolve("empty.bin");
+        Files.createFile(empty);
+        try (FileChannel channel = FileChannel.open(empty, StandardOpenOption.READ)) {
+            assertEquals(-1, new MappedFileInput(channel).peekUnsignedShort());
+        }
+    }
+
+    @Test
+    @DisplayName("slice і update охоплюють діапазон поперек меж вікон")
+    void testSliceAndChecksum() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        Path file = tempDir.resolve("slice.bin");
+        Files.write(file, bytes);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = new MappedFileInput(channel, 64);
+            for (int[] range : new int[][]{{0, 10}, {60, 10}, {100, 300}, {990, 10}}) {
+                ByteBuffer slice = in.slice(range[0], range[1]);
+                byte[] actual = new byte[slice.remaining()];
+                slice.get(actual);
+                assertArrayEquals(Arrays.copyOfRange(bytes, range[0], range[0] + range[1]), actual);
+            }
+            assertThrows(EOFException.class, () -> in.slice(995, 10));
+
+            CRC32C expected = new CRC32C();
+            expected.update(bytes, 5, 990);
+            CRC32C actual = new CRC32C();
+            in.update(actual, 5, 990);
+            assertEquals(expected.getValue(), actual.getValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Режим копіювання читає ті самі байти в купу, не відображаючи файл")
+    void testCopyingMode() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 17);
+        }
+        Path file = tempDir.resolve("copy.bin");
+        Files.write(file, bytes);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFileInput in = new MappedFileInput(channel, 0, channel.size(), 64, true);
+            for (int[] range : new int[][]{{0, 10}, {60, 10}, {100, 300}, {990, 10}}) {
+                ByteBuffer slice = in.slice(range[0], range[1]);
+                assertFalse(slice.isDirect());
+                byte[] actual = new byte[slice.remaining()];
+                slice.get(actual);
+                assertArrayEquals(Arrays.copyOfRange(bytes, range[0], range[0] + range[1]), actual);
+            }
+
+            in.seek(60);
+            byte[] across = new byte[20];
+            in.readFully(across);
+            assertArrayEquals(Arrays.copyOfRange(bytes, 60, 80), across);
+            in.seek(996);
+            assertEquals(((bytes[996] & 0xFF) << 24) | ((bytes[997] & 0xFF) << 16)
+                    | ((bytes[998] & 0xFF) << 8) | (bytes[999] & 0xFF), in.readInt());
+            assertThrows(EOFException.class, in::readByte);
+
+            CRC32C expected = new CRC32C();
+            expected.update(bytes, 5, 990);
+            CRC32C actual = new CRC32C();
+            in.update(actual, 5, 990);
+            assertEquals(expected.getValue(), actual.getValue());
+        }
+
+        // Після закриття каналу файл можна одразу замінити на тому ж місці
+        Path replacement = tempDir.resolve("copy.tmp");
+        Files.write(replacement, new byte[]{1, 2, 3});
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        assertEquals(3, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Вхід над буфером читає його від позиції до межі, не змінюючи сам буфер")
+    void testBufferInput() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        buffer.putInt(99).putLong(-5L).putDouble(2.5).putShort((short) 7);
+        buffer.flip().position(Integer.BYTES);
+
+        MappedFileInput in = MappedFileInput.of(buffer);
+        assertEquals(18, in.size());
+        assertEquals(-5L, in.readLong());
+        assertEquals(2.5, in.readDouble());
+        ByteBuffer slice = in.slice(0, Long.BYTES);
+        assertEquals(-5L, slice.getLong());
+        assertEquals(7, in.readUnsignedShort());
+        assertThrows(EOFException.class, in::readByte);
+        in.seek(0);
+        assertEquals(-5L, in.readLong());
+        assertEquals(Integer.BYTES, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Кодек читає деривативу з відображеного файлу з малими вікнами")
+    void testCodecOverMappedFile() throws IOException {
+        Derivative original = new Derivative("Mapped");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            obligations.add(new PropertyObligation("P" + i, 1000 + i, 1.5, 12, 0.02, 0.1, 0, "addr " + (i % 7), "flat"));
+        }
+        original.setObligations(obligations);
+
+        Path file = tempDir.resolve("mapped.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DerivativeCodec.write(original, out);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Derivative loaded = DerivativeCodec.readFrom(new MappedFileInput(channel, 61));
+            assertEquals(original.getId(), loaded.getId());
+            assertEquals(500, loaded.getObligations().size());
+            assertEquals("P499", loaded.getObligations().get(499).getName());
+            assertEquals("addr 2", ((PropertyObligation) loaded.getObligations().get(499)).getPropertyAddress());
+            assertEquals(original.getAggregates().getTotalPremium(), loaded.getAggregates().getTotalPremium(), 1e-6);
+        }
+    }
+}
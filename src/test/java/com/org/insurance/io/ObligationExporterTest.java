@@ -0,0 +1,178 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.BusinessObligation;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.InsuranceCalculator;
+import com.org.insurance.domain.LiabilityObligation;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.ObligationType;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.RiskComparator;
+import com.org.insurance.domain.TravelObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObligationExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Obligation> sample() {
+        List<Obligation> list = new ArrayList<>();
+        list.add(new AutoObligation("Авто, \"преміум\"", 10_000, 1.1, 12, 0.05, 0.1, 500, "car", "B", 0.9));
+        list.add(new BusinessObligation("Бізнес", 20_000, 1.2, 24, 0.04, 0.2, 0, "REG-1", "IT"));
+        list.add(new HealthObligation("Здоров'я", 30_000, 1.3, 6, 0.03, 0.3, 700, "full", true, 5_000));
+        list.add(new LiabilityObligation(null, 4e4, 1.4, 36, 0.02, 0.4, 0, "general", "UA"));
+        list.add(new LifeObligation("Життя", 50_000, 1.5, 120, 0.01, 0.05, 0, "ID-7",
+                LocalDate.of(1980, 2, 29), ""));
+        list.add(new PropertyObligation("Майно 🏠", 60_000, 1e-7, 12, 0.06, 0.06, 900, "Київ", "flat"));
+        list.add(new TravelObligation("Подорож", -70_000.25, 1.7, -1, 0.07, 0.07, 0, "PL",
+                LocalDate.of(2025, 7, 1), null));
+        return list;
+    }
+
+    @Test
+    @DisplayName("CSV імпортується назад без втрат, премія і ризик у двох останніх колонках")
+    void testCsvRoundTrip() throws IOException {
+        List<Obligation> source = sample();
+        Path file = tempDir.resolve("export.csv");
+        try (var out = Files.newOutputStream(file)) {
+            assertEquals(source.size(), ObligationExporter.writeCsv(source.iterator(), out));
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(String.join(",", ObligationCsv.COLUMNS) + ",premium,risk", lines.get(0));
+        String autoLine = lines.get(1);
+        Obligation auto = source.get(0);
+        assertTrue(autoLine.startsWith("auto," + auto.getId() + ",\"Авто, \"\"преміум\"\"\",10000,"));
+        String[] fields = autoLine.split(",");
+        assertEquals(InsuranceCalculator.priceOf(10_000, 1.1, 12, 0.05, 0.1, 500),
+                Double.parseDouble(fields[fields.length - 2]));
+        assertEquals(RiskComparator.riskScore(auto), Double.parseDouble(fields[fields.length - 1]));
+
+        Derivative imported = new Derivative("CSV");
+        assertEquals(source.size(), new CsvImporter().importInto(file, imported));
+        for (int i = 0; i < source.size(); i++) {
+            assertSameObligation(source.get(i), imported.getObligations().get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("JSON Lines: один об'єкт на рядок, екранування, назви полів класу, NaN як null")
+    void testJsonLines() throws IOException {
+        UUID id = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        List<Obligation> source = new ArrayList<>();
+        source.add(new LifeObligation(id, "\"Тест\"\\\t\u0001", 1000, 2, 12, 0, 0.5, 0, "ID",
+                LocalDate.of(1990, 1, 5), null));
+        source.add(null);
+        source.add(new HealthObligation("Рядок\nз переносом", Double.NaN, 1, 1, 0, 0.1, 0, null, false, 0.5));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, ObligationExporter.writeJsonLines(source.iterator(), out));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"type\":\"life\",\"id\":\"123e4567-e89b-12d3-a456-426614174000\","
+                + "\"name\":\"\\\"Тест\\\"\\\\\\t\\u0001\",\"insuredAmount\":1000,\"factor\":2,\"period\":12,"
+                + "\"interestRate\":0,\"probability\":0.5,\"maxCost\":0,"
+                + "\"insuredPersonId\":\"ID\",\"dateOfBirth\":\"1990-01-05\",\"beneficiaryName\":null,"
+                + "\"premium\":1000,\"risk\":1000}", lines[0]);
+        assertEquals(1000.0, InsuranceCalculator.priceOf(1000, 2, 12, 0, 0.5, 0));
+        assertTrue(lines[1].contains("\"name\":\"Рядок\\nз переносом\",\"insuredAmount\":null"), lines[1]);
+        assertTrue(lines[1].contains("\"coverageType\":null,\"hasPreExistingConditions\":false,\"annualLimit\":0.5"),
+                lines[1]);
+        assertTrue(lines[1].endsWith("\"risk\":null}"), lines[1]);
+    }
+
+    static class ForeignObligation extends Obligation {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        ForeignObligation() {
+            super("Чуже", 100, 1, 1, 0, 0.5, 0);
+        }
+
+        @Override
+        public void setSpecificFields(Scanner in) {
+        }
+    }
+
+    @Test
+    @DisplayName("Сторонній клас — назва класу як тип і порожні специфічні поля")
+    void testForeignObligation() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObligationExporter.writeCsv(List.of(new ForeignObligation()).iterator(), out);
+
+        String row = out.toString(StandardCharsets.UTF_8).split("\n")[1];
+        assertTrue(row.startsWith("ForeignObligation,"), row);
+        assertTrue(row.contains(",0,,,,"), row);
+    }
+
+    @Test
+    @DisplayName("Експорт зі збереженого файлу через ObligationReader")
+    void testExportFromReader() throws IOException {
+        Derivative d = new Derivative("Файл");
+        d.setObligations(sample());
+        Path bin = tempDir.resolve("d.bin");
+        new FileManager().saveDerivative(d, bin.toString());
+
+        ByteArrayOutputStream fromFile = new ByteArrayOutputStream();
+        try (ObligationReader reader = ObligationReader.open(bin)) {
+            ObligationExporter.writeJsonLines(reader, fromFile);
+        }
+        ByteArrayOutputStream fromMemory = new ByteArrayOutputStream();
+        ObligationExporter.writeJsonLines(d.getObligations().iterator(), fromMemory);
+
+        assertArrayEquals(fromMemory.toByteArray(), fromFile.toByteArray());
+    }
+
+    @Test
+    @DisplayName("FileManager створює каталоги для CSV і JSON Lines")
+    void testFileManagerExports() throws IOException {
+        Derivative d = new Derivative("Експорт");
+        d.setObligations(sample());
+        Path csv = tempDir.resolve("a/b/d.csv");
+        Path jsonl = tempDir.resolve("c/d.jsonl");
+
+        FileManager fm = new FileManager();
+        fm.exportToCsv(d, csv.toString());
+        fm.exportToJsonLines(d, jsonl.toString());
+
+        Derivative imported = new Derivative("CSV");
+        assertEquals(d.getObligations().size(), new CsvImporter().importInto(csv, imported));
+        assertEquals(d.getObligations().size(), Files.readAllLines(jsonl).size());
+    }
+
+    private static void assertSameObligation(Obligation expected, Obligation actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getInsuredAmount(), actual.getInsuredAmount());
+        assertEquals(expected.getFactor(), actual.getFactor());
+        assertEquals(expected.getPeriod(), actual.getPeriod());
+        assertEquals(expected.getInterestRate(), actual.getInterestRate());
+        assertEquals(expected.getProbability(), actual.getProbability());
+        assertEquals(expected.getMaxCost(), actual.getMaxCost());
+        ObligationType type = ObligationType.of(expected);
+        assertEquals(Arrays.asList(type.specificValues(expected)), Arrays.asList(type.specificValues(actual)));
+    }
+}
@@ -0,0 +1,125 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.HealthObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PortfolioAggregates;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObligationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileManager fileManager = new FileManager();
+
+    private Derivative sample(int n) {
+        Derivative d = new Derivative("Потік");
+        List<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            obligations.add(i % 2 == 0
+                    ? new PropertyObligation("P" + i, 1000 + i, 1.2, 12, 0.03, 0.1, 0, "addr", "flat")
+                    : new HealthObligation("H" + i, 2000 + i, 1.1, 6, 0.02, 0.2, 100, "basic", false, 500));
+        }
+        d.setObligations(obligations);
+        return d;
+    }
+
+    @Test
+    @DisplayName("Зобов'язання читаються по одному в порядку збереження, заголовок доступний одразу")
+    void testIterate() throws IOException {
+        Derivative d = sample(25);
+        Path file = tempDir.resolve("d.bin");
+        fileManager.saveDerivative(d, file.toString());
+
+        try (ObligationReader reader = ObligationReader.open(file)) {
+            assertEquals(d.getId(), reader.getDerivativeId());
+            assertEquals("Потік", reader.getDerivativeName());
+            assertEquals(25, reader.getCount());
+
+            for (int i = 0; i < 25; i++) {
+                assertTrue(reader.hasNext());
+                Obligation o = reader.next();
+                assertEquals(d.getObligations().get(i).getId(), o.getId());
+                assertEquals(d.getObligations().get(i).getClass(), o.getClass());
+            }
+            assertFalse(reader.hasNext());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    @DisplayName("nextBatch повертає пакети фіксованого розміру і порожній список наприкінці")
+    void testBatches() throws IOException {
+        Path file = tempDir.resolve("batch.bin");
+        fileManager.saveDerivative(sample(10), file.toString());
+
+        try (ObligationReader reader = ObligationReader.open(file)) {
+            assertEquals(4, reader.nextBatch(4).size());
+            assertEquals(4, reader.nextBatch(4).size());
+            List<Obligation> tail = reader.nextBatch(4);
+            assertEquals(2, tail.size());
+            assertEquals("H9", tail.get(1).getName());
+            assertTrue(reader.nextBatch(4).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> reader.nextBatch(0));
+        }
+    }
+
+    @Test
+    @DisplayName("summarize збігається з агрегатами завантаженої деривативи")
+    void testSummarize() {
+        Derivative d = sample(101);
+        Path file = tempDir.resolve("sum.bin");
+        fileManager.saveDerivative(d, file.toString());
+
+        PortfolioAggregates streamed = fileManager.summarize(file.toString());
+
+        assertEquals(101, streamed.getCount());
+        assertEquals(d.getAggregates().getTotalPremium(), streamed.getTotalPremium(), 1e-6);
+        assertEquals(d.getAggregates().getTotalRisk(), streamed.getTotalRisk(), 1e-6);
+        assertThrows(RuntimeException.class, () -> fileManager.summarize(tempDir.resolve("none.bin").toString()));
+    }
+
+    @Test
+    @DisplayName("Старий файл Java-серіалізації теж читається через ObligationReader")
+    void testLegacyFile() throws IOException {
+        Derivative d = sample(3);
+        Path file = tempDir.resolve("legacy.bin");
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(file))) {
+            oos.writeObject(d);
+        }
+
+        try (ObligationReader reader = ObligationReader.open(file)) {
+            assertEquals(d.getId(), reader.getDerivativeId());
+            assertEquals(3, reader.getCount());
+            assertEquals("P2", reader.nextBatch(10).get(2).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Дериватива без списку: count = -1, зобов'язань немає")
+    void testNullList() throws IOException {
+        Derivative d = new Derivative("x");
+        d.setObligations(null);
+        Path file = tempDir.resolve("null.bin");
+        fileManager.saveDerivative(d, file.toString());
+
+        try (ObligationReader reader = ObligationReader.open(file)) {
+            assertEquals(-1, reader.getCount());
+            assertFalse(reader.hasNext());
+        }
+    }
+}
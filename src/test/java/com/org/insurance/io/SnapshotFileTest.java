@@ -0,0 +1,180 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Derivative book(String name, int rows) {
+        Derivative d = new Derivative(name);
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            list.add(new PropertyObligation(name + " " + i, 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat"));
+        }
+        d.setObligations(list);
+        return d;
+    }
+
+    private static List<Derivative> books() {
+        List<Derivative> books = new ArrayList<>();
+        for (int k = 0; k < 12; k++) {
+            books.add(book("Книга " + k, k * 700));
+        }
+        Derivative noList = new Derivative(null);
+        noList.setObligations(null);
+        books.add(noList);
+        return books;
+    }
+
+    private static void assertSameBooks(List<Derivative> expected, List<Derivative> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int k = 0; k < expected.size(); k++) {
+            Derivative e = expected.get(k);
+            Derivative a = actual.get(k);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getName(), a.getName());
+            if (e.getObligations() == null) {
+                assertNull(a.getObligations());
+                continue;
+            }
+            assertEquals(e.getObligations().size(), a.getObligations().size());
+            for (int i = 0; i < e.getObligations().size(); i += 97) {
+                assertEquals(e.getObligations().get(i).getId(), a.getObligations().get(i).getId());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Усі деривативи відновлюються паралельно в порядку запису")
+    void testRoundTrip() throws IOException {
+        Path file = tempDir.resolve("book.snap");
+        List<Derivative> books = books();
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 7, books, 1));
+
+        SnapshotFile snapshot = SnapshotFile.read(file);
+        assertEquals(7, snapshot.getGeneration());
+        assertSameBooks(books, snapshot.getDerivatives());
+
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 0, new ArrayList<>(), 0));
+        assertTrue(SnapshotFile.read(file).getDerivatives().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пошкоджений зміст, обрізаний файл або чужі дані -> StreamCorruptedException")
+    void testCorrupted() throws IOException {
+        Path file = tempDir.resolve("book.snap");
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 1, books(), 0));
+        byte[] good = Files.readAllBytes(file);
+
+        byte[] bad = good.clone();
+        bad[bad.length - SnapshotFile.TRAILER_BYTES - 3] ^= 0x01;
+        Files.write(file, bad);
+        assertThrows(StreamCorruptedException.class, () -> SnapshotFile.read(file));
+
+        Files.write(file, Arrays.copyOf(good, good.length - 5));
+        assertThrows(StreamCorruptedException.class, () -> SnapshotFile.read(file));
+
+        bad = good.clone();
+        bad[Integer.BYTES + 1] = 2;
+        Files.write(file, bad);
+        assertThrows(StreamCorruptedException.class, () -> SnapshotFile.read(file), "Непідтримувана версія");
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+        assertThrows(StreamCorruptedException.class, () -> SnapshotFile.read(file));
+        assertThrows(IllegalArgumentException.class, () -> SnapshotFile.read(null));
+    }
+
+    @Test
+    @DisplayName("open читає лише зміст: назви й агрегати без завантаження, зобов'язання — при зверненні")
+    void testOpenLazy() throws IOException {
+        Path file = tempDir.resolve("book.snap");
+        List<Derivative> books = books();
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 5, books, 1));
+
+        SnapshotFile snapshot = SnapshotFile.open(file);
+        assertEquals(5, snapshot.getGeneration());
+        List<Derivative> lazy = snapshot.getDerivatives();
+        for (int k = 0; k < books.size(); k++) {
+            Derivative d = lazy.get(k);
+            assertFalse(d.isLoaded());
+            assertEquals(books.get(k).getId(), d.getId());
+            assertEquals(books.get(k).getName(), d.getName());
+            assertEquals(books.get(k).getAggregates().getCount(), d.getAggregates().getCount());
+            assertEquals(books.get(k).getAggregates().getTotalPremium(), d.getAggregates().getTotalPremium(), 1e-6);
+            assertFalse(d.isLoaded());
+        }
+
+        assertEquals(books.get(3).getObligations().size(), lazy.get(3).getObligations().size());
+        assertTrue(lazy.get(3).isLoaded());
+        assertFalse(lazy.get(4).isLoaded());
+        assertSameBooks(books, lazy);
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+        assertThrows(StreamCorruptedException.class, () -> SnapshotFile.open(file));
+        assertThrows(IllegalArgumentException.class, () -> SnapshotFile.open(null));
+    }
+
+    @Test
+    @DisplayName("Незавантажені деривативи переписуються байтами й лишаються читабельними після заміни файлу")
+    void testRewriteUnloaded() throws IOException {
+        Path file = tempDir.resolve("book.snap");
+        List<Derivative> books = books();
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 1, books, 0));
+
+        List<Derivative> lazy = SnapshotFile.open(file).getDerivatives();
+        lazy.get(1).setName("Перейменована");
+        books.get(1).setName("Перейменована");
+        lazy.get(2).getObligations().remove(0);
+        books.get(2).getObligations().remove(0);
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 2, lazy, 0));
+        assertFalse(lazy.get(5).isLoaded());
+
+        SnapshotFile reread = SnapshotFile.read(file);
+        assertEquals(2, reread.getGeneration());
+        assertSameBooks(books, reread.getDerivatives());
+        assertEquals(books.get(2).getAggregates().getCount(),
+                SnapshotFile.open(file).getDerivatives().get(2).getAggregates().getCount());
+        // Старий файл замінено перейменуванням: ліниві деривативи знаходять свої ділянки в новому
+        assertSameBooks(books, lazy);
+    }
+
+    @Test
+    @DisplayName("Ліниві деривативи не тримають файл: заміна чужим контейнером дає зрозумілу помилку")
+    void testLazyAfterForeignReplace() throws IOException {
+        Path file = tempDir.resolve("book.snap");
+        List<Derivative> books = books();
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 1, books, 0));
+        List<Derivative> lazy = SnapshotFile.open(file).getDerivatives();
+
+        // Два покоління поспіль: ділянки переносяться в кожне нове
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 2, lazy, 0));
+        AtomicFiles.write(file, channel -> SnapshotFile.write(channel, file, 3, lazy, 0));
+        assertEquals(books.get(4).getObligations().size(), lazy.get(4).getObligations().size());
+
+        // Знімок з іншого місця: копія деривативи не запам'ятовує зсув для цього файлу
+        Path other = tempDir.resolve("other.snap");
+        AtomicFiles.write(other, channel -> SnapshotFile.write(channel, other, 4, lazy, 0));
+        Files.move(other, file, StandardCopyOption.REPLACE_EXISTING);
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> lazy.get(5).getObligations());
+        assertInstanceOf(StreamCorruptedException.class, e.getCause());
+    }
+}
@@ -0,0 +1,132 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.AutoObligation;
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.LifeObligation;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.domain.RiskComparator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextReportRendererTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static String render(Derivative d, int chunkRows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TextReportRenderer(chunkRows).render(d, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Блок зобов'язання у форматі попереднього exportToText на String.format. */
+    private static String legacyBlock(int number, Obligation o) {
+        double a = o.getInsuredAmount();
+        double p = o.getProbability();
+        double f = o.getFactor();
+        int months = o.getPeriod();
+        double rate = o.getInterestRate();
+        double years = Math.max(months / 12.0, 0.0);
+        String type = o.getClass().getSimpleName();
+        return String.format(Locale.ROOT, "--- Облігація #%d ---", number) + NL
+                + "Тип:   " + type + NL
+                + "Назва: " + (o.getName() == null || o.getName().isBlank() ? type : o.getName()) + NL
+                + "ID:    " + o.getId() + NL + NL
+                + String.format(Locale.ROOT, "Сума страхування (insuredAmount) = %.2f", a) + NL
+                + String.format(Locale.ROOT, "Ймовірність (probability)       = %.6f", p) + NL
+                + String.format(Locale.ROOT, "Фактор (factor)                  = %.6f", f) + NL
+                + String.format(Locale.ROOT, "Період (periodMonths)            = %d", months) + NL
+                + String.format(Locale.ROOT, "Ставка (interestRate)            = %.6f", rate) + NL
+                + String.format(Locale.ROOT, "Макс. вартість (maxCost)         = %.2f", o.getMaxCost()) + NL + NL
+                + "expectedLoss = insuredAmount * probability * factor" + NL
+                + String.format(Locale.ROOT, "             = %.2f * %.6f * %.6f = %.2f", a, p, f, a * p * f) + NL + NL
+                + "years = periodMonths / 12.0" + NL
+                + String.format(Locale.ROOT, "      = %d / 12.0 = %.6f", months, years) + NL + NL
+                + "timeCoeff = 1.0 + interestRate * years" + NL
+                + String.format(Locale.ROOT, "          = 1.0 + %.6f * %.6f = %.6f", rate, years, 1.0 + rate * years)
+                + NL + NL
+                + "risk = insuredAmount * factor * probability" + NL
+                + String.format(Locale.ROOT, "     = %.2f * %.6f * %.6f = %.2f", a, f, p, RiskComparator.riskScore(o))
+                + NL + NL
+                + "----------------------------------------" + NL + NL;
+    }
+
+    private static List<Obligation> randomObligations(int n) {
+        Random random = new Random(7);
+        List<Obligation> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (i % 97 == 5) {
+                list.add(null);
+                continue;
+            }
+            double amount = Math.round(random.nextDouble() * 1e7) / 100.0;
+            double factor = 0.5 + random.nextDouble();
+            double probability = random.nextDouble() * 0.3;
+            int period = random.nextInt(140) - 20;
+            double rate = random.nextDouble() * 0.1;
+            list.add(i % 2 == 0
+                    ? new AutoObligation(i % 7 == 0 ? " " : "Авто " + i, amount, factor, period, rate,
+                    probability, 500, "car", "B", 0.9)
+                    : new PropertyObligation("Майно " + i, amount, factor, period, rate, probability, 0,
+                    "Київ", "flat"));
+        }
+        return list;
+    }
+
+    @Test
+    @DisplayName("Блоки зобов'язань збігаються з попереднім форматом на String.format")
+    void testMatchesLegacyFormat() throws IOException {
+        Derivative d = new Derivative("Звіт");
+        List<Obligation> obligations = randomObligations(300);
+        obligations.add(new LifeObligation("Життя", -0.005, 0.125, 0, 2.675, 1.005, 999.995, "ID",
+                LocalDate.of(1990, 1, 1), null));
+        d.setObligations(obligations);
+
+        StringBuilder expected = new StringBuilder()
+                .append("=== ЗВІТ ПО ДЕРИВАТИВУ ===").append(NL)
+                .append("Назва: Звіт").append(NL)
+                .append("ID:    ").append(d.getId()).append(NL)
+                .append("Кількість зобов'язань: ").append(obligations.size()).append(NL).append(NL);
+        for (int i = 0; i < obligations.size(); i++) {
+            if (obligations.get(i) != null) {
+                expected.append(legacyBlock(i + 1, obligations.get(i)));
+            }
+        }
+
+        assertEquals(expected.toString(), render(d, TextReportRenderer.CHUNK_ROWS));
+    }
+
+    @Test
+    @DisplayName("Паралельний рендеринг шматками дає той самий текст, що й послідовний")
+    void testParallelChunksKeepOrder() throws IOException {
+        Derivative d = new Derivative("Паралельно");
+        d.setObligations(randomObligations(5_000));
+
+        String sequential = render(d, Integer.MAX_VALUE);
+        assertEquals(sequential, render(d, 7));
+        assertEquals(sequential, render(d, 1_000));
+    }
+
+    @Test
+    @DisplayName("Порожня дериватива без назви")
+    void testEmpty() throws IOException {
+        Derivative d = new Derivative(null);
+        d.setObligations(null);
+
+        String text = render(d, TextReportRenderer.CHUNK_ROWS);
+
+        assertTrue(text.startsWith("=== ЗВІТ ПО ДЕРИВАТИВУ ===" + NL + "Назва: без назви" + NL), text);
+        assertTrue(text.endsWith("Кількість зобов'язань: 0" + NL + NL + "Зобов'язань немає." + NL), text);
+    }
+}
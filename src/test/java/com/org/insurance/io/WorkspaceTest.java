@@ -0,0 +1,123 @@
+package com.org.insurance.io;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import com.org.insurance.domain.PropertyObligation;
+import com.org.insurance.ui.command.CreateDerivativeCommand;
+import com.org.insurance.ui.command.DeleteDerivativeCommand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkspaceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Scanner input(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Obligation obligation(int i) {
+        return new PropertyObligation("Майно " + i, 1000 + i, 1, 12, 0.01, 0.1, 0, "Київ", "flat");
+    }
+
+    @Test
+    @DisplayName("Відновлення: знімок плюс журнал змін після нього")
+    void testRecoverSnapshotPlusJournal() throws IOException {
+        Path dir = tempDir.resolve("ws");
+        List<Derivative> live = new ArrayList<>();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(0, ws.getGeneration());
+            live.addAll(ws.getDerivatives());
+            new CreateDerivativeCommand(ws.getJournal()).execute(input("Перший\n"), live);
+            new CreateDerivativeCommand(ws.getJournal()).execute(input("Другий\n"), live);
+            for (int i = 0; i < 3; i++) {
+                Obligation o = obligation(i);
+                ws.getJournal().logAdd(live.get(0), 0, o);
+                live.get(0).getObligations().add(o);
+            }
+            ws.checkpoint(live);
+            assertEquals(1, ws.getGeneration());
+            assertEquals(0, ws.getJournal().getRecordCount());
+
+            new DeleteDerivativeCommand(ws.getJournal()).execute(input("2\n"), live);
+            new CreateDerivativeCommand(ws.getJournal()).execute(input("Третій\n"), live);
+            assertEquals(2, ws.getJournal().getRecordCount());
+        } finally {
+            System.setOut(out);
+        }
+
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.ALWAYS)) {
+            List<Derivative> recovered = ws.getDerivatives();
+            assertEquals(1, ws.getGeneration());
+            assertEquals(2, recovered.size());
+            assertEquals(live.get(0).getId(), recovered.get(0).getId());
+            assertEquals("Перший", recovered.get(0).getName());
+            // Журнал не торкався першої деривативи: вона лінива, агрегати — зі змісту знімка
+            assertFalse(recovered.get(0).isLoaded());
+            assertEquals(3, recovered.get(0).getAggregates().getCount());
+            assertEquals(3, recovered.get(0).getObligations().size());
+            assertEquals(live.get(1).getId(), recovered.get(1).getId());
+            assertEquals("Третій", recovered.get(1).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Збій між записом знімка і скиданням журналу: журнал не накладається вдруге")
+    void testCrashAfterSnapshotRename() throws IOException {
+        Path dir = tempDir.resolve("ws");
+        Derivative d = new Derivative("D");
+        d.setObligations(new ArrayList<>());
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.ALWAYS)) {
+            ws.getJournal().logCreate(d);
+            ws.getJournal().logAdd(d, 0, obligation(1));
+            d.getObligations().add(obligation(1));
+        }
+        byte[] journal = Files.readAllBytes(dir.resolve(Workspace.JOURNAL));
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.ALWAYS)) {
+            ws.checkpoint(ws.getDerivatives());
+        }
+        // Журнал покоління 0 лишився поруч зі знімком покоління 1
+        Files.write(dir.resolve(Workspace.JOURNAL), journal);
+
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(1, ws.getGeneration());
+            assertEquals(1, ws.getDerivatives().size());
+            assertEquals(1, ws.getDerivatives().get(0).getObligations().size());
+        }
+        assertFalse(Files.exists(dir.resolve(Workspace.SNAPSHOT + ".tmp")));
+    }
+
+    @Test
+    @DisplayName("Порожній робочий простір і пошкоджений знімок")
+    void testEmptyAndCorrupt() throws IOException {
+        Path dir = tempDir.resolve("ws");
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.NONE)) {
+            assertTrue(ws.getDerivatives().isEmpty());
+            ws.checkpoint(List.of());
+        }
+        try (Workspace ws = Workspace.open(dir, Journal.SyncPolicy.NONE)) {
+            assertTrue(ws.getDerivatives().isEmpty());
+            assertEquals(1, ws.getGeneration());
+        }
+
+        Files.write(dir.resolve(Workspace.SNAPSHOT), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+        assertThrows(IOException.class, () -> Workspace.open(dir, Journal.SyncPolicy.NONE));
+        assertThrows(IllegalArgumentException.class, () -> Workspace.open(null, Journal.SyncPolicy.NONE));
+    }
+}
@@ -0,0 +1,67 @@
+package com.org.insurance.ui;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.DerivativeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DerivativeSelectorTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("resolve: номер, UUID, початок назви — і для реєстру, і для звичайного списку")
+    void testResolve() {
+        Derivative kyiv = new Derivative("Kyiv");
+        Derivative kharkiv = new Derivative("Kharkiv");
+        DerivativeRegistry registry = new DerivativeRegistry();
+        registry.addAll(List.of(kyiv, kharkiv));
+
+        for (List<Derivative> list : List.of(registry, new ArrayList<>(registry))) {
+            assertSame(kharkiv, DerivativeSelector.resolve(" 2 ", list));
+            assertNull(DerivativeSelector.resolve("3", list));
+            assertSame(kyiv, DerivativeSelector.resolve(kyiv.getId().toString(), list));
+            assertSame(kyiv, DerivativeSelector.resolve("ky", list));
+            assertNull(DerivativeSelector.resolve("k", list));
+            assertNull(DerivativeSelector.resolve("abc", list));
+            assertNull(DerivativeSelector.resolve("", list));
+        }
+        assertTrue(outContent.toString().contains("Неоднозначно"));
+    }
+
+    @Test
+    @DisplayName("printChoices: довгий список виводиться лише частково з підказкою")
+    void testPrintChoices() {
+        List<Derivative> list = new ArrayList<>();
+        for (int i = 0; i < DerivativeSelector.MAX_LISTED + 5; i++) {
+            list.add(new Derivative("D" + i));
+        }
+
+        DerivativeSelector.printChoices(list);
+
+        String out = outContent.toString();
+        assertTrue(out.contains(DerivativeSelector.MAX_LISTED + ") D" + (DerivativeSelector.MAX_LISTED - 1)));
+        assertFalse(out.contains("D" + DerivativeSelector.MAX_LISTED + " "));
+        assertTrue(out.contains("... ще 5"));
+    }
+}
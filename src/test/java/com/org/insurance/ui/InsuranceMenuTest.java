@@ -5,11 +5,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -147,4 +149,18 @@ class InsuranceMenuTest {
         assertThrows(NullPointerException.class,
                 () -> menu.registerCommand("test", null));
     }
+
+    @Test
+    @DisplayName("Меню з робочим простором відновлює деривативи після перезапуску")
+    void testWorkspaceRecovery(@TempDir Path dir) {
+        System.setIn(new ByteArrayInputStream("create\nПортфель\nexit\n".getBytes()));
+        new InsuranceMenu(dir).run();
+
+        System.setIn(new ByteArrayInputStream("show\nexit\n".getBytes()));
+        outContent.reset();
+        new InsuranceMenu(dir).run();
+
+        assertTrue(outContent.toString().contains("Портфель"),
+                "Створений дериватив має відновитися з робочого простору");
+    }
 }
@@ -207,4 +207,21 @@ class CalculateCommandTest {
         // Оскільки readInt поверне -1, це потрапить у default switch case
         assertTrue(output.contains("Невірний вибір"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Дія 4: оцінка всіх деривативів з підсумком")
+    void testBookValuation() {
+        Derivative second = createTestDerivative();
+        second.setName("Portfolio B");
+        List<Derivative> list = List.of(createTestDerivative(), second);
+
+        CalculateCommand cmd = new CalculateCommand();
+        cmd.execute(prepareInput("4\n"), list);
+
+        String output = outContent.toString();
+        assertTrue(output.contains("Portfolio A"));
+        assertTrue(output.contains("Portfolio B"));
+        assertTrue(output.contains("РАЗОМ"));
+        assertTrue(output.contains("200,000000") || output.contains("200.000000"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.Journal;
+import com.org.insurance.io.Workspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointCommandTest {
+
+    private final PrintStream originalOut = System.out;
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private Scanner prepareInput(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes()));
+    }
+
+    @Test
+    @DisplayName("Конструктор відхиляє null замість робочого простору")
+    void testNullWorkspace() {
+        assertThrows(IllegalArgumentException.class, () -> new CheckpointCommand(null));
+    }
+
+    @Test
+    @DisplayName("execute: записує знімок і очищує журнал")
+    void testExecute() throws Exception {
+        List<Derivative> derivatives = new ArrayList<>();
+        try (Workspace ws = Workspace.open(tempDir, Journal.SyncPolicy.ALWAYS)) {
+            assertTrue(new CheckpointCommand(ws).getDescription().contains("знімок"));
+            new CreateDerivativeCommand(ws.getJournal()).execute(prepareInput("Портфель\n"), derivatives);
+            assertEquals(1, ws.getJournal().getRecordCount());
+
+            new CheckpointCommand(ws).execute(prepareInput(""), derivatives);
+
+            assertEquals(0, ws.getJournal().getRecordCount());
+            assertTrue(outContent.toString().contains("покоління 1"));
+        }
+
+        try (Workspace ws = Workspace.open(tempDir, Journal.SyncPolicy.ALWAYS)) {
+            assertEquals(1, ws.getDerivatives().size());
+            assertEquals("Портфель", ws.getDerivatives().get(0).getName());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportCsvCommandTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private Scanner prepareInput(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes()));
+    }
+
+    @Test
+    @DisplayName("Успішний імпорт додає зобов'язання до обраного деривативу")
+    void testImportSuccess() throws IOException {
+        Path csv = tempDir.resolve("in.csv");
+        Files.writeString(csv, "property,,P1,100,1,12,0.01,0.1,0,addr,flat\nauto,,A1,200,1,6,0,0.2,0,car,B,1\n");
+        Derivative d = new Derivative("Target");
+        List<Derivative> list = new ArrayList<>(List.of(d));
+
+        new ImportCsvCommand().execute(prepareInput("1\n" + csv + "\n"), list);
+
+        assertEquals(2, d.getObligations().size());
+        assertTrue(outContent.toString().contains("Імпортовано зобов'язань: 2"));
+    }
+
+    @Test
+    @DisplayName("Некоректний файл: повідомлення про помилку, дериватив не змінюється")
+    void testImportError() throws IOException {
+        Path csv = tempDir.resolve("bad.csv");
+        Files.writeString(csv, "property,,P1,oops,1,12,0.01,0.1,0,addr,flat\n");
+        Derivative d = new Derivative("Target");
+
+        new ImportCsvCommand().execute(prepareInput("1\n" + csv + "\n"), new ArrayList<>(List.of(d)));
+
+        assertNull(d.getObligations());
+        assertTrue(outContent.toString().contains("Помилка імпорту"));
+    }
+
+    @Test
+    @DisplayName("Порожній список деривативів")
+    void testEmptyList() {
+        new ImportCsvCommand().execute(prepareInput(""), new ArrayList<>());
+        assertTrue(outContent.toString().contains("порожній"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.FileManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadWorkspaceCommandTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private Scanner prepareInput(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes()));
+    }
+
+    @Test
+    @DisplayName("Деривативи зі знімка замінюють однойменні за id і додаються в кінець")
+    void testLoadAll() {
+        Derivative a = new Derivative("A");
+        Derivative b = new Derivative("B");
+        Path file = tempDir.resolve("book.snap");
+        new FileManager().saveWorkspace(List.of(a, b), file.toString());
+
+        List<Derivative> derivatives = new ArrayList<>();
+        derivatives.add(new Derivative("Інша"));
+        derivatives.add(a);
+        new LoadWorkspaceCommand().execute(prepareInput(file + "\n"), derivatives);
+
+        assertEquals(List.of("Інша", "A", "B"), derivatives.stream().map(Derivative::getName).toList());
+        assertNotSame(a, derivatives.get(1));
+        assertEquals(a.getId(), derivatives.get(1).getId());
+        assertTrue(outContent.toString().contains("замінено: 1"));
+    }
+
+    @Test
+    @DisplayName("Неіснуючий файл не змінює список і не крешить програму")
+    void testFileNotFound() {
+        List<Derivative> derivatives = new ArrayList<>(List.of(new Derivative("A")));
+        assertDoesNotThrow(() -> new LoadWorkspaceCommand()
+                .execute(prepareInput(tempDir.resolve("none.snap") + "\n"), derivatives));
+        assertEquals(1, derivatives.size());
+        assertTrue(outContent.toString().contains("Помилка"));
+
+        new LoadWorkspaceCommand().execute(prepareInput("\n"), derivatives);
+        assertTrue(outContent.toString().contains("не може бути порожнім"));
+    }
+}
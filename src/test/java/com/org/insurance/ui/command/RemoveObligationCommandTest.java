@@ -116,6 +116,27 @@ class RemoveObligationCommandTest {
         assertTrue(outContent.toString().contains("Видалено (uuid)"));
     }
 
+    @Test
+    @DisplayName("UUID уже вибраного за індексом елемента та невідомий UUID — не знайдено")
+    void testRemoveByIndexAndUuid() {
+        Derivative d = createDerivative(5);
+        UUID second = d.getObligations().get(1).getId();
+        UUID fourth = d.getObligations().get(3).getId();
+        UUID unknown = UUID.randomUUID();
+
+        String input = "1\n2, " + second + " " + fourth + " " + unknown + "\ny\n";
+        new RemoveObligationCommand().execute(prepareInput(input), List.of(d));
+
+        assertEquals(3, d.getObligations().size());
+        assertEquals("Item 1", d.getObligations().get(0).getName());
+        assertEquals("Item 3", d.getObligations().get(1).getName());
+        assertEquals("Item 5", d.getObligations().get(2).getName());
+        String out = outContent.toString();
+        assertTrue(out.contains("Не знайдено (uuid): " + second));
+        assertTrue(out.contains("Не знайдено (uuid): " + unknown));
+        assertTrue(out.contains("Разом видалено: 2"));
+    }
+
     @Test
     @DisplayName("Скасування видалення (відповідь 'n')")
     void testCancelDeletion() {
@@ -2,6 +2,7 @@ package com.org.insurance.ui.command;
 
 import com.org.insurance.domain.Derivative;
 import com.org.insurance.domain.Obligation;
+import com.org.insurance.io.AsyncSaveService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -108,6 +109,57 @@ class SaveToFileCommandTest {
         assertTrue(outContent.toString().contains("Збережено у файл"));
     }
 
+    @Test
+    @DisplayName("Успішний експорт у CSV і JSON Lines")
+    void testSaveToCsvAndJsonLines() throws Exception {
+        List<Derivative> list = List.of(createDerivative());
+        Path csv = tempDir.resolve("portfolio.csv");
+        Path jsonl = tempDir.resolve("portfolio.jsonl");
+
+        new SaveToFileCommand().execute(prepareInput("1\ncsv\n" + csv + "\n"), list);
+        new SaveToFileCommand().execute(prepareInput("1\njsonl\n" + jsonl + "\n"), list);
+
+        assertEquals(2, Files.readAllLines(csv).size());
+        assertTrue(Files.readString(jsonl).contains("\"name\":\"Test Item\""));
+    }
+
+    @Test
+    @DisplayName("З сервісом фонових збережень бінарний файл пишеться у фоні")
+    void testSaveToBinInBackground() {
+        List<Derivative> list = List.of(createDerivative());
+        Path filePath = tempDir.resolve("background.bin");
+
+        AsyncSaveService saver = new AsyncSaveService();
+        new SaveToFileCommand(saver).execute(prepareInput("1\nbin\n" + filePath + "\n"), list);
+        saver.close();
+
+        assertTrue(outContent.toString().contains("Збереження у фоні"));
+        assertTrue(Files.exists(filePath), "Файл .bin мав бути створений після close");
+    }
+
+    @Test
+    @DisplayName("Результат фонового збереження друкує потік меню через printNotices; помилка — з причиною")
+    void testBackgroundResultPrintedByNotices() throws Exception {
+        List<Derivative> list = List.of(createDerivative());
+        Path blocker = Files.createFile(tempDir.resolve("blocker"));
+        Path filePath = blocker.resolve("fail.bin");
+
+        AsyncSaveService saver = new AsyncSaveService();
+        SaveToFileCommand cmd = new SaveToFileCommand(saver);
+        cmd.execute(prepareInput("1\nbin\n" + filePath + "\n"), list);
+        saver.close();
+        assertFalse(outContent.toString().contains("Не вдалося зберегти файл у фоні"));
+
+        cmd.printNotices();
+        String out = outContent.toString();
+        assertTrue(out.contains("Не вдалося зберегти файл у фоні: " + filePath + " ("));
+        assertFalse(out.contains("(null)"));
+
+        outContent.reset();
+        cmd.printNotices();
+        assertEquals("", outContent.toString());
+    }
+
     @Test
     @DisplayName("Якщо список деривативів порожній, команда виходить")
     void testEmptyList() {
@@ -0,0 +1,72 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.io.FileManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveWorkspaceCommandTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private Scanner prepareInput(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes()));
+    }
+
+    @Test
+    @DisplayName("Усі деривативи списку зберігаються в один файл")
+    void testSaveAll() {
+        List<Derivative> derivatives = new ArrayList<>();
+        derivatives.add(new Derivative("A"));
+        derivatives.add(new Derivative("B"));
+        Path file = tempDir.resolve("book.snap");
+
+        new SaveWorkspaceCommand().execute(prepareInput(file + "\n"), derivatives);
+
+        assertTrue(Files.exists(file));
+        assertTrue(outContent.toString().contains("Збережено деривативів: 2"));
+        List<Derivative> loaded = new FileManager().loadWorkspace(file.toString());
+        assertEquals(List.of("A", "B"), loaded.stream().map(Derivative::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Порожній список або порожній шлях — нічого не записується")
+    void testNothingToSave() {
+        new SaveWorkspaceCommand().execute(prepareInput(tempDir.resolve("x.snap") + "\n"), new ArrayList<>());
+        assertTrue(outContent.toString().contains("Немає деривативів"));
+
+        List<Derivative> derivatives = new ArrayList<>(List.of(new Derivative("A")));
+        new SaveWorkspaceCommand().execute(prepareInput("\n"), derivatives);
+        assertTrue(outContent.toString().contains("Скасовано"));
+        assertFalse(Files.exists(tempDir.resolve("x.snap")));
+        assertFalse(new SaveWorkspaceCommand().getDescription().isBlank());
+    }
+}
@@ -0,0 +1,108 @@
+package com.org.insurance.ui.command;
+
+import com.org.insurance.domain.Derivative;
+import com.org.insurance.domain.Obligation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopRiskCommandTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    // --- Stub Class ---
+    static class TestRiskObligation extends Obligation {
+        public TestRiskObligation(String name, double insuredAmount, double factor, double probability) {
+            super(name, insuredAmount, factor, 1, 0.0, probability, 0.0);
+        }
+        @Override public void setSpecificFields(Scanner in) {}
+    }
+    // ------------------
+
+    private Scanner prepareInput(String data) {
+        return new Scanner(new ByteArrayInputStream(data.getBytes()));
+    }
+
+    private Derivative riskPortfolio() {
+        Derivative d = new Derivative("Risk Portfolio");
+        List<Obligation> obs = new ArrayList<>();
+        obs.add(new TestRiskObligation("Low", 100.0, 1.0, 0.1));     // 10.0
+        obs.add(new TestRiskObligation("High", 1000.0, 2.0, 0.5));   // 1000.0
+        obs.add(new TestRiskObligation("Medium", 500.0, 1.0, 0.2));  // 100.0
+        d.setObligations(obs);
+        return d;
+    }
+
+    @Test
+    @DisplayName("getDescription повертає опис")
+    void testGetDescription() {
+        assertTrue(new TopRiskCommand().getDescription().contains("найризиковіших"));
+    }
+
+    @Test
+    @DisplayName("execute: Топ-2 за ризиком, порядок у деривативі не змінюється")
+    void testTopTwo() {
+        Derivative d = riskPortfolio();
+
+        new TopRiskCommand().execute(prepareInput("1\n1\n2\n"), List.of(d));
+
+        String out = outContent.toString();
+        assertTrue(out.contains("Топ за ризиком"));
+        assertTrue(out.indexOf("High") < out.indexOf("Medium"));
+        assertFalse(out.contains("Low ("));
+        assertEquals("Low", d.getObligations().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("execute: Найменш ризикові з кількістю за замовчуванням")
+    void testBottomDefaultLimit() {
+        new TopRiskCommand().execute(prepareInput("1\n2\n\n"), List.of(riskPortfolio()));
+
+        String out = outContent.toString();
+        assertTrue(out.contains("Найменший ризик"));
+        assertTrue(out.indexOf("Low (") < out.indexOf("Medium (") && out.indexOf("Medium (") < out.indexOf("High ("));
+    }
+
+    @Test
+    @DisplayName("execute: Некоректна кількість")
+    void testInvalidLimit() {
+        new TopRiskCommand().execute(prepareInput("1\n1\nabc\n"), List.of(riskPortfolio()));
+
+        assertTrue(outContent.toString().contains("Кількість має бути додатною"));
+    }
+
+    @Test
+    @DisplayName("execute: Порожня дериватива та відсутність деривативів")
+    void testEmpty() {
+        Derivative d = new Derivative("Empty");
+        d.setObligations(new ArrayList<>());
+        new TopRiskCommand().execute(prepareInput("1\n"), List.of(d));
+        new TopRiskCommand().execute(prepareInput("1\n"), Collections.emptyList());
+
+        String out = outContent.toString();
+        assertTrue(out.contains("Порожньо"));
+        assertTrue(out.contains("Немає деривативів"));
+    }
+}